@@ -44,7 +44,8 @@ const ActiveOrderBar = () => {
 
         const fetchActiveOrders = async () => {
             try {
-                const orders = await orderApi.getMyOrders();
+                // Active orders are the newest ones, so the first page is enough
+                const orders = (await orderApi.getMyOrders())?.items;
                 // Include all active states from pending to delivery
                 const activeStates = ['PENDING', 'CONFIRMED', 'PREPARING', 'READY', 'OUT_FOR_DELIVERY', 'PICKED_UP'];
                 const ongoing = (orders || []).find(o => 
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { useToast } from '../context/ToastContext';
 import { useCart } from '../context/CartContext';
@@ -26,6 +26,11 @@ const CheckoutPage = () => {
     const [isSuccess, setIsSuccess] = useState(false);
     const [isAddressModalOpen, setIsAddressModalOpen] = useState(false);
     const [isVerifyingQR, setIsVerifyingQR] = useState(false);
+    // One key per cart: retrying a failed or timed-out attempt cannot place the order twice
+    const idempotencyKeyRef = useRef(null);
+    // Server price of the cart; what is shown, charged and sent with the order
+    const [quote, setQuote] = useState(null);
+    const [quoteError, setQuoteError] = useState(null);
 
     const [cardDetails, setCardDetails] = useState({
         number: '', expiry: '', cvc: '', name: ''
@@ -39,6 +44,48 @@ const CheckoutPage = () => {
         document.body.appendChild(script);
     }, []);
 
+    useEffect(() => {
+        // A different cart is a different order
+        idempotencyKeyRef.current = null;
+    }, [cartItems, serviceType, selectedAddress, paymentMethod]);
+
+    useEffect(() => {
+        if (!cartItems || cartItems.length === 0) {
+            setQuote(null);
+            return;
+        }
+        let cancelled = false;
+        setQuote(null);
+        setQuoteError(null);
+        orderApi.quote(buildCartRequest())
+            .then((res) => { if (!cancelled) setQuote(res); })
+            .catch((err) => {
+                if (!cancelled) setQuoteError(err.response?.data?.message || "Could not price your cart.");
+            });
+        return () => { cancelled = true; };
+    }, [cartItems, serviceType]);
+
+    const buildCartRequest = () => ({
+        restaurantId: cartItems[0]?.restaurantId,
+        isSelfPickup: serviceType === 'pickup',
+        items: cartItems.map(item => ({
+            menuItemId: item.id || item._id,
+            quantity: item.quantity
+        }))
+    });
+
+    // Prices the cart again right before charging; a price that moved since it was shown is shown, not charged
+    const refreshQuote = async () => {
+        const fresh = await orderApi.quote(buildCartRequest());
+        if (quote && Number(fresh.total) !== Number(quote.total)) {
+            setQuote(fresh);
+            showToast(`Prices changed: your total is now ₹${fresh.total}. Please review and pay again.`, "info");
+            return null;
+        }
+        setQuote(fresh);
+        return fresh;
+    };
+
     const fetchAddresses = async () => {
         try {
             const res = await addressApi.getAll();
@@ -85,14 +132,27 @@ const CheckoutPage = () => {
             return;
         }
 
+        setIsProcessing(true);
+        let charged;
+        try {
+            charged = await refreshQuote();
+        } catch (err) {
+            showToast(err.response?.data?.message || "Could not price your cart.", "error");
+            setIsProcessing(false);
+            return;
+        }
+        if (!charged) {
+            setIsProcessing(false);
+            return;
+        }
+
         if (paymentMethod === 'cash') {
-            await finalizeOrder();
+            await finalizeOrder(charged.total);
             return;
         }
 
-        setIsProcessing(true);
         try {
-            const response = await paymentApi.createOrder(finalTotal);
+            const response = await paymentApi.createOrder(charged.total);
             const orderData = response.data || response;
 
             // Handle MOCK MODE (if key is placeholder or status is MOCK_MODE)
@@ -109,7 +169,7 @@ const CheckoutPage = () => {
                         };
                         
                         await paymentApi.verifyPayment(verifyPayload);
-                        await finalizeOrder();
+                        await finalizeOrder(charged.total);
                     } catch (err) {
                         showToast("Mock payment verification failed.", "error");
                         setIsProcessing(false);
@@ -141,7 +201,7 @@ const CheckoutPage = () => {
                         };
                         
                         await paymentApi.verifyPayment(verifyPayload);
-                        await finalizeOrder();
+                        await finalizeOrder(charged.total);
                     } catch (err) {
                         showToast("Payment verification failed.", "error");
                         setIsProcessing(false);
@@ -171,33 +231,35 @@ const CheckoutPage = () => {
 
 
     const handleVerifyQR = () => {
+        if (!quote) return;
+        // The QR code asked for the quoted total
+        const paid = quote.total;
         setIsVerifyingQR(true);
         // Simulate a 3-second secure verification step to match real-world trust
         setTimeout(() => {
             setIsVerifyingQR(false);
-            finalizeOrder();
+            finalizeOrder(paid);
         }, 3200);
     };
 
-    const finalizeOrder = async () => {
+    // The server rejects the order if its price is no longer the amount paid
+    const finalizeOrder = async (paidTotal) => {
         setIsProcessing(true);
-        const restaurantId = cartItems[0]?.restaurantId;
-        
+
         const orderRequest = {
-            restaurantId: restaurantId,
-            totalAmount: finalTotal,
+            ...buildCartRequest(),
+            totalAmount: paidTotal,
             deliveryAddress: serviceType === 'pickup' ? "SELF_PICKUP" : `${selectedAddress.addressLine1}, ${selectedAddress.city}, ${selectedAddress.state} ${selectedAddress.pincode}`,
-            isSelfPickup: serviceType === 'pickup',
-            paymentMethod: paymentMethod,
-            items: cartItems.map(item => ({
-                menuItemId: item.id || item._id,
-                quantity: item.quantity,
-                price: item.price
-            }))
+            paymentMethod: paymentMethod
         };
 
+        if (!idempotencyKeyRef.current) {
+            idempotencyKeyRef.current = crypto.randomUUID();
+        }
+
         try {
-            await orderApi.placeOrder(orderRequest);
+            await orderApi.placeOrder(orderRequest, idempotencyKeyRef.current);
+            idempotencyKeyRef.current = null;
             clearCart();
             showToast('Order placed successfully!', 'success');
             setIsSuccess(true);
@@ -205,7 +267,7 @@ const CheckoutPage = () => {
                 navigate('/orders');
             }, 3000);
         } catch (err) {
-            showToast("Order could not be saved. Please contact support.", "error");
+            showToast(err.response?.data?.message || "Order could not be saved. Please contact support.", "error");
         } finally {
             setIsProcessing(false);
         }
@@ -213,6 +275,8 @@ const CheckoutPage = () => {
 
     const handleUpdateQuantity = (item, amount) => {
         const newQty = item.quantity + amount;
+        // The server prices at most 99 of an item per line
+        if (newQty > 99) return;
         if (newQty <= 0) {
             removeFromCart(item.id || item._id);
         } else {
@@ -220,9 +284,7 @@ const CheckoutPage = () => {
         }
     };
 
-    const total = cartItems.reduce((acc, item) => acc + (item.price * item.quantity), 0);
-    const flatFee = serviceType === 'pickup' ? 0 : 45;
-    const finalTotal = total + flatFee;
+    const priced = (amount) => (quote ? `₹${amount}` : '…');
 
     if (!isSuccess && (!cartItems || cartItems.length === 0)) {
         return (
@@ -454,7 +516,7 @@ const CheckoutPage = () => {
                                         <div className="qr-code-wrapper">
                                             <div className="qr-scanner-line"></div>
                                             <QRCodeSVG 
-                                                value={`upi://pay?pa=7019248015@fam&pn=PikNGo&am=${finalTotal}&cu=INR&tn=PikNGo%20Order`}
+                                                value={`upi://pay?pa=7019248015@fam&pn=PikNGo&am=${quote?.total ?? ''}&cu=INR&tn=PikNGo%20Order`}
                                                 size={180}
                                                 level="H"
                                                 includeMargin={true}
@@ -470,7 +532,7 @@ const CheckoutPage = () => {
                                     <button 
                                         className={`verify-scan-btn glass-pill ${isVerifyingQR ? 'verifying' : ''}`}
                                         onClick={handleVerifyQR}
-                                        disabled={isVerifyingQR || isProcessing}
+                                        disabled={isVerifyingQR || isProcessing || !quote}
                                     >
                                         {isVerifyingQR ? (
                                             <>
@@ -525,23 +587,38 @@ const CheckoutPage = () => {
                             <div className="invoice-calculus">
                                 <div className="calc-row">
                                     <span>Subtotal</span>
-                                    <span>₹{total}</span>
+                                    <span>{priced(quote?.subtotal)}</span>
+                                </div>
+                                {quote && Number(quote.discount) > 0 && (
+                                    <div className="calc-row">
+                                        <span>Promo {quote.promoCode}</span>
+                                        <span>-₹{quote.discount}</span>
+                                    </div>
+                                )}
+                                <div className="calc-row">
+                                    <span>Tax</span>
+                                    <span>{priced(quote?.tax)}</span>
                                 </div>
                                 <div className="calc-row">
                                     <span>Handover/Logistics</span>
-                                    <span className="accent-text">₹{flatFee}</span>
+                                    <span className="accent-text">{priced(quote?.deliveryFee)}</span>
                                 </div>
                                 <div className="calc-divider"></div>
                                 <div className="calc-row grand-total">
                                     <span>Total Transmission</span>
-                                    <span className="total-val">₹{finalTotal}</span>
+                                    <span className="total-val">{priced(quote?.total)}</span>
                                 </div>
+                                {quoteError && (
+                                    <div className="calc-row">
+                                        <span className="accent-text">{quoteError}</span>
+                                    </div>
+                                )}
                             </div>
                             
                             <button 
                                 className={`terminal-pay-btn btn-solid-orange ${isProcessing ? 'loading' : ''}`} 
                                 onClick={handlePlaceOrder}
-                                disabled={isProcessing}
+                                disabled={isProcessing || !quote}
                             >
                                 {isProcessing ? (
                                     <>
@@ -551,7 +628,7 @@ const CheckoutPage = () => {
                                 ) : (
                                     <>
                                         <ShieldCheck size={20} />
-                                        <span>AUTHORIZE PAYMENT • ₹{finalTotal}</span>
+                                        <span>AUTHORIZE PAYMENT • {priced(quote?.total)}</span>
                                     </>
                                 )}
                             </button>
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { 
     ShoppingBag, Search, Filter, 
     Calendar, CheckCircle, Clock, 
@@ -19,6 +19,7 @@ import GlobalOrderDetailsModal from '../components/Admin/GlobalOrderDetailsModal
 const GlobalOrders = () => {
     const { showToast } = useToast();
     const [orders, setOrders] = useState([]);
+    const ordersRef = useRef([]);
     const [loading, setLoading] = useState(true);
     const [searchTerm, setSearchTerm] = useState('');
     const [statusFilter, setStatusFilter] = useState('All');
@@ -38,6 +39,10 @@ const GlobalOrders = () => {
     const [selectedOrderDetails, setSelectedOrderDetails] = useState(null);
     const [isDetailsModalOpen, setIsDetailsModalOpen] = useState(false);
 
+    useEffect(() => {
+        ordersRef.current = orders;
+    }, [orders]);
+
     useEffect(() => {
         fetchOrders(pagination.page);
     }, [pagination.page]);
@@ -56,8 +61,24 @@ const GlobalOrders = () => {
 
         stompClient.onConnect = () => {
             setIsLive(true);
-            stompClient.subscribe('/topic/orders', (message) => {
-                const newOrder = JSON.parse(message.body);
+            stompClient.subscribe('/topic/orders', async (message) => {
+                let newOrder = JSON.parse(message.body);
+
+                // Status changes arrive as a delta; the full order is fetched only if we don't have it.
+                if (newOrder.type === 'ORDER_STATUS') {
+                    const delta = newOrder;
+                    if (ordersRef.current.some(o => o.id === delta.id)) {
+                        setOrders(prev => prev.map(o => o.id === delta.id && (o.version ?? -1) < delta.version
+                            ? { ...o, status: delta.status, version: delta.version } : o));
+                        return;
+                    }
+                    try {
+                        newOrder = await orderApi.getById(delta.id);
+                    } catch (err) {
+                        console.error("Failed to fetch order:", err);
+                        return;
+                    }
+                }
                 
                 showToast(`New ${newOrder.isSelfPickup ? 'Pickup' : 'Delivery'} Order from ${newOrder.userName} at ${newOrder.restaurantName} (₹${newOrder.totalAmount})`, 'success');
                 
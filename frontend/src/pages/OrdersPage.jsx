@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { orderApi } from '../services/api';
 import { ShoppingBag, Clock, CheckCircle, Package, Timer, MapPin, Activity, Utensils, Search } from 'lucide-react';
 import OrderDetailsModal from '../components/OrderDetailsModal/OrderDetailsModal';
@@ -21,6 +21,14 @@ const OrdersPage = () => {
     const [isReviewModalOpen, setIsReviewModalOpen] = useState(false);
     const [orderToReview, setOrderToReview] = useState(null);
     const [isLive, setIsLive] = useState(false);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
+    // Latest orders for the WebSocket handler, which is set up once.
+    const ordersRef = useRef(orders);
+
+    useEffect(() => {
+        ordersRef.current = orders;
+    }, [orders]);
 
     useEffect(() => {
         const fetchInitialData = async () => {
@@ -40,8 +48,8 @@ const OrdersPage = () => {
 
                 // 2. Fetch Orders
                 const res = await orderApi.getMyOrders();
-                const normalizedOrders = Array.isArray(res) ? res : (res?.content || []);
-                setOrders(normalizedOrders);
+                setOrders(res?.items || []);
+                setNextCursor(res?.nextCursor || null);
             } catch (err) {
                 console.error("Failed to fetch orders:", err);
                 showToast('Failed to load your orders', 'error');
@@ -62,15 +70,30 @@ const OrdersPage = () => {
 
         stompClient.onConnect = () => {
             setIsLive(true);
-            stompClient.subscribe('/topic/orders', (message) => {
-                const updatedOrder = JSON.parse(message.body);
-                const currentUserId = localStorage.getItem('userId');
+            const currentUserId = localStorage.getItem('userId');
+            if (!currentUserId) {
+                return;
+            }
+            // Only this user's orders are published on their topic.
+            stompClient.subscribe(`/topic/users/${currentUserId}/orders`, async (message) => {
+                let updatedOrder = JSON.parse(message.body);
 
-                // Ensure My Orders only tracks this logged-in user's orders.
-                if (currentUserId && updatedOrder?.userId && String(updatedOrder.userId) !== String(currentUserId)) {
-                    return;
+                // Status changes arrive as a delta; the full order is fetched only if we don't have it.
+                if (updatedOrder.type === 'ORDER_STATUS') {
+                    const delta = updatedOrder;
+                    if (ordersRef.current.some(o => o.id === delta.id)) {
+                        setOrders(prevOrders => prevOrders.map(o => o.id === delta.id && (o.version ?? -1) < delta.version
+                            ? { ...o, status: delta.status, version: delta.version } : o));
+                        return;
+                    }
+                    try {
+                        updatedOrder = await orderApi.getById(delta.id);
+                    } catch (err) {
+                        console.error("Failed to fetch order:", err);
+                        return;
+                    }
                 }
-                
+
                 setOrders(prevOrders => {
                     const orderExists = prevOrders.some(o => o.id === updatedOrder.id);
                     if (orderExists) {
@@ -116,6 +139,21 @@ const OrdersPage = () => {
         setIsModalOpen(true);
     };
 
+    const handleLoadMore = async () => {
+        setLoadingMore(true);
+        try {
+            const res = await orderApi.getMyOrders(nextCursor);
+            // Orders pushed over the WebSocket meanwhile may already be in the list.
+            setOrders(prev => [...prev, ...(res?.items || []).filter(o => !prev.some(p => p.id === o.id))]);
+            setNextCursor(res?.nextCursor || null);
+        } catch (err) {
+            console.error("Failed to fetch orders:", err);
+            showToast('Failed to load older orders', 'error');
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     if (loading) return (
         <div className="orders-page animate-fade-in">
             <div className="container">
@@ -247,6 +285,11 @@ const OrdersPage = () => {
                             </div>
                         ))}
 
+                        {nextCursor && (
+                            <button className="action-node-btn glass-pill" onClick={handleLoadMore} disabled={loadingMore}>
+                                {loadingMore ? 'LOADING...' : 'LOAD OLDER ORDERS'}
+                            </button>
+                        )}
                     </div>
                 )}
             </div>
@@ -17,7 +17,7 @@ const VaultPage = () => {
                     orderApi.getMyOrders()
                 ]);
                 setUser(profileRes);
-                setOrders(ordersRes || []);
+                setOrders(ordersRes?.items || []);
             } catch (err) {
                 console.error("Failed to fetch vault data:", err);
             } finally {
@@ -55,8 +55,11 @@ export const restaurantApi = {
     getAllAdmin: () => api.get('/restaurants/admin/all'),
     getById: (id) => api.get(`/restaurants/${id}`),
     getNearby: (lat, lon, radius = 100) => api.get(`/restaurants/nearby?lat=${lat}&lon=${lon}&radius=${radius}`),
+    getNearest: (lat, lon, k = 20, cursor) => api.get('/restaurants/nearest', { params: { lat, lon, k, cursor } }),
     searchByRoute: (srcLat, srcLon, destLat, destLon, radius = 100) =>
         api.get(`/restaurants/search?srcLat=${srcLat}&srcLon=${srcLon}&destLat=${destLat}&destLon=${destLon}&radius=${radius}`),
+    searchByPolyline: (polyline, radius = 15) =>
+        api.get('/restaurants/search/route', { params: { polyline, radius } }),
 
     create: (data) => api.post('/restaurants', data),
     update: (id, data) => api.put(`/restaurants/${id}`, data),
@@ -77,9 +80,15 @@ export const addressApi = {
 };
 
 export const orderApi = {
-    placeOrder: (data) => api.post('/orders', data),
-    getMyOrders: () => api.get('/orders/my-orders'),
-    getRestaurantOrders: (restaurantId) => api.get(`/orders/restaurant/${restaurantId}`),
+    // Retries with the same key return the order placed by the first attempt instead of a duplicate
+    placeOrder: (data, idempotencyKey) => api.post('/orders', data, { headers: { 'Idempotency-Key': idempotencyKey } }),
+    // Server price of a cart (subtotal, discount, tax, delivery fee, total); the only amount to show and charge
+    quote: (data) => api.post('/orders/quote', data),
+    // Order histories come a page at a time: { items, nextCursor }
+    getMyOrders: (cursor, limit = 20) => api.get('/orders/my-orders', { params: { limit, cursor } }),
+    getById: (orderId) => api.get(`/orders/${orderId}`),
+    getRestaurantOrders: (restaurantId, cursor, limit = 20) =>
+        api.get(`/orders/restaurant/${restaurantId}`, { params: { limit, cursor } }),
     getAllOrders: (page = 0, size = 10) => api.get(`/orders/all?page=${page}&size=${size}`),
     updateStatus: (orderId, status) => api.patch(`/orders/${orderId}/status?status=${status}`),
     updateAddress: (orderId, address) => api.patch(`/orders/${orderId}/address?address=${address}`),
@@ -0,0 +1,184 @@
+package com.pikngo.user_service.benchmarks;
+
+import com.pikngo.user_service.dto.RestaurantSnapshot;
+import com.pikngo.user_service.entity.MenuItem;
+import com.pikngo.user_service.entity.Order;
+import com.pikngo.user_service.entity.OrderItem;
+import com.pikngo.user_service.entity.Restaurant;
+import com.pikngo.user_service.entity.Review;
+import com.pikngo.user_service.entity.User;
+import com.pikngo.user_service.repository.RestaurantRepository;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Synthetic, seeded datasets shaped like production data, so that runs are comparable across
+ * machines and commits.
+ */
+final class BenchmarkData {
+
+    /** Metro centres {lat, lon}; most restaurants cluster around these. */
+    static final double[][] CITIES = {
+            {28.6139, 77.2090}, // Delhi
+            {19.0760, 72.8777}, // Mumbai
+            {12.9716, 77.5946}, // Bengaluru
+            {17.3850, 78.4867}, // Hyderabad
+            {13.0827, 80.2707}, // Chennai
+            {22.5726, 88.3639}, // Kolkata
+            {18.5204, 73.8567}, // Pune
+            {23.0225, 72.5714}, // Ahmedabad
+            {26.9124, 75.7873}, // Jaipur
+            {26.8467, 80.9462}, // Lucknow
+    };
+
+    /** Share of restaurants placed around a city; the rest are spread over the whole country. */
+    private static final double URBAN_SHARE = 0.8;
+    /** Standard deviation of the distance from the city centre, in degrees (~9 km). */
+    private static final double CITY_SPREAD_DEGREES = 0.08;
+
+    private static final String[] CATEGORIES = {"North Indian", "South Indian", "Chinese", "Biryani", "Cafe"};
+    private static final String[] DISHES = {"Paneer Tikka", "Masala Dosa", "Veg Biryani", "Butter Naan", "Dal Makhani"};
+
+    private BenchmarkData() {}
+
+    static List<RestaurantSnapshot> restaurants(int count, long seed) {
+        Random random = new Random(seed);
+        List<RestaurantSnapshot> restaurants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double lat;
+            double lon;
+            if (random.nextDouble() < URBAN_SHARE) {
+                double[] city = CITIES[random.nextInt(CITIES.length)];
+                lat = city[0] + random.nextGaussian() * CITY_SPREAD_DEGREES;
+                lon = city[1] + random.nextGaussian() * CITY_SPREAD_DEGREES;
+            } else {
+                lat = 8 + random.nextDouble() * 24;
+                lon = 70 + random.nextDouble() * 18;
+            }
+            restaurants.add(new RestaurantSnapshot(new UUID(seed, i), "Restaurant " + i, "Street " + i,
+                    lat, lon, null, CATEGORIES[i % CATEGORIES.length], 3.5 + random.nextInt(15) / 10.0,
+                    "30 mins", true, false));
+        }
+        return restaurants;
+    }
+
+    /**
+     * A repository that only answers {@code findSearchableSnapshots}, which is all the geo index
+     * needs to build itself.
+     */
+    static RestaurantRepository repositoryOf(List<RestaurantSnapshot> restaurants) {
+        return (RestaurantRepository) Proxy.newProxyInstance(RestaurantRepository.class.getClassLoader(),
+                new Class<?>[] {RestaurantRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findSearchableSnapshots":
+                            return restaurants;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "BenchmarkRestaurantRepository";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /** Orders as loaded for a listing: user, restaurant and every item's menu item populated. */
+    static List<Order> orders(int count, int itemsPerOrder, long seed) {
+        Random random = new Random(seed);
+        List<Restaurant> restaurants = restaurantEntities(50, seed);
+        List<User> users = users(200, seed);
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Restaurant restaurant = restaurants.get(random.nextInt(restaurants.size()));
+            Order order = Order.builder()
+                    .user(users.get(random.nextInt(users.size())))
+                    .restaurant(restaurant)
+                    .totalAmount(BigDecimal.valueOf(100 + random.nextInt(2_000)))
+                    .status(Order.OrderStatus.values()[random.nextInt(Order.OrderStatus.values().length)])
+                    .deliveryAddress("Flat " + i + ", MG Road")
+                    .paymentMethod("UPI")
+                    .pointsEarned((long) random.nextInt(50))
+                    .build();
+            order.setId(new UUID(seed, i));
+            order.setCreatedTs(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(i));
+
+            List<OrderItem> items = new ArrayList<>(itemsPerOrder);
+            for (int j = 0; j < itemsPerOrder; j++) {
+                items.add(OrderItem.builder()
+                        .id(new UUID(i, j))
+                        .order(order)
+                        .menuItem(restaurant.getMenuItems().get(random.nextInt(restaurant.getMenuItems().size())))
+                        .quantity(1 + random.nextInt(3))
+                        .price(BigDecimal.valueOf(50 + random.nextInt(400)))
+                        .build());
+            }
+            order.setItems(items);
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    static List<Review> reviews(int count, long seed) {
+        Random random = new Random(seed);
+        List<Restaurant> restaurants = restaurantEntities(50, seed);
+        List<User> users = users(200, seed);
+        List<Review> reviews = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Review review = new Review();
+            review.setId(new UUID(seed, i));
+            review.setUser(users.get(random.nextInt(users.size())));
+            review.setRestaurant(restaurants.get(random.nextInt(restaurants.size())));
+            review.setRating(1 + random.nextInt(5));
+            review.setComment("Great food, delivered hot. Would order again " + i);
+            review.setEliteReview(random.nextInt(10) == 0);
+            review.setCreatedTs(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(i));
+            reviews.add(review);
+        }
+        return reviews;
+    }
+
+    private static List<Restaurant> restaurantEntities(int count, long seed) {
+        List<Restaurant> restaurants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Restaurant restaurant = Restaurant.builder()
+                    .restaurantName("Restaurant " + i)
+                    .category(CATEGORIES[i % CATEGORIES.length])
+                    .build();
+            restaurant.setId(new UUID(seed + 1, i));
+            List<MenuItem> menu = new ArrayList<>();
+            for (int j = 0; j < 40; j++) {
+                MenuItem item = MenuItem.builder()
+                        .itemName(DISHES[j % DISHES.length] + " " + j)
+                        .itemPrice(BigDecimal.valueOf(50 + j * 10))
+                        .restaurant(restaurant)
+                        .build();
+                item.setId(new UUID(seed + 2, i * 100L + j));
+                menu.add(item);
+            }
+            restaurant.setMenuItems(menu);
+            restaurants.add(restaurant);
+        }
+        return restaurants;
+    }
+
+    private static List<User> users(int count, long seed) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder()
+                    .id(new UUID(seed + 3, i))
+                    .firstName("User")
+                    .lastName(String.valueOf(i))
+                    .profileImageUrl("https://cdn.pikngo.com/u/" + i + ".jpg")
+                    .build());
+        }
+        return users;
+    }
+}
@@ -0,0 +1,150 @@
+package com.pikngo.user_service.benchmarks;
+
+import com.pikngo.user_service.utils.GeoColumns;
+import com.pikngo.user_service.utils.GeoKernel;
+import com.pikngo.user_service.utils.GeoUtils;
+import com.pikngo.user_service.utils.VectorGeoKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Corridor and radius filtering of one batch of candidates, as done per index cell by the route
+ * and nearby searches.
+ *
+ * {@code perPoint*} is the previous approach: boxed coordinates and the bearing-based formulas of
+ * {@link GeoUtils} for every candidate. {@code scalar*} is {@link GeoKernel} on primitive columns,
+ * {@code vector*} the same loops written with the Vector API. All variants return the number of
+ * matches so the work cannot be eliminated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class GeoKernelBenchmark {
+
+    private static final double SRC_LAT = 28.6139;
+    private static final double SRC_LON = 77.2090;
+    private static final double DEST_LAT = 19.0760;
+    private static final double DEST_LON = 72.8777;
+    private static final double RADIUS_KM = 15;
+
+    @Param({"1000", "10000"})
+    private int candidates;
+
+    private Double[] boxedLat;
+    private Double[] boxedLon;
+    private GeoColumns columns;
+    private double[] scratch;
+    private double[] normal;
+    private double[] center;
+    private double maxAbsDot;
+    private double maxChordSquared;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        double[] lat = new double[candidates];
+        double[] lon = new double[candidates];
+        boxedLat = new Double[candidates];
+        boxedLon = new Double[candidates];
+        for (int i = 0; i < candidates; i++) {
+            // Scattered around the Delhi -> Mumbai corridor, roughly what a cell cover yields.
+            double f = random.nextDouble();
+            lat[i] = SRC_LAT + (DEST_LAT - SRC_LAT) * f + (random.nextDouble() - 0.5) * 0.6;
+            lon[i] = SRC_LON + (DEST_LON - SRC_LON) * f + (random.nextDouble() - 0.5) * 0.6;
+            boxedLat[i] = lat[i];
+            boxedLon[i] = lon[i];
+        }
+        columns = GeoColumns.of(lat, lon);
+        scratch = new double[candidates];
+        normal = GeoKernel.greatCircleNormal(SRC_LAT, SRC_LON, DEST_LAT, DEST_LON);
+        center = GeoKernel.unitVector(lat[0], lon[0]);
+        maxAbsDot = GeoKernel.maxAbsDot(RADIUS_KM);
+        maxChordSquared = GeoKernel.maxChordSquared(RADIUS_KM);
+    }
+
+    @Benchmark
+    public int perPointCrossTrack() {
+        int matches = 0;
+        for (int i = 0; i < candidates; i++) {
+            double dxt = Math.abs(GeoUtils.crossTrackDistance(SRC_LAT, SRC_LON, DEST_LAT, DEST_LON,
+                    boxedLat[i], boxedLon[i]));
+            if (dxt <= RADIUS_KM) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int scalarCrossTrack() {
+        GeoKernel.dot(normal, columns, scratch);
+        return countCrossTrack();
+    }
+
+    @Benchmark
+    public int vectorCrossTrack() {
+        VectorGeoKernel.dot(normal, columns, scratch);
+        return countCrossTrack();
+    }
+
+    @Benchmark
+    public int perPointDistance() {
+        double lat = columns.latitude(0);
+        double lon = columns.longitude(0);
+        int matches = 0;
+        for (int i = 0; i < candidates; i++) {
+            if (GeoUtils.haversine(lat, lon, boxedLat[i], boxedLon[i]) < RADIUS_KM) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int scalarDistance() {
+        GeoKernel.chordSquared(center, columns, scratch);
+        return countWithinRadius();
+    }
+
+    @Benchmark
+    public int vectorDistance() {
+        VectorGeoKernel.chordSquared(center, columns, scratch);
+        return countWithinRadius();
+    }
+
+    private int countCrossTrack() {
+        int matches = 0;
+        for (int i = 0; i < candidates; i++) {
+            if (Math.abs(scratch[i]) <= maxAbsDot && Math.abs(GeoKernel.crossTrackKm(scratch[i])) <= RADIUS_KM) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private int countWithinRadius() {
+        int matches = 0;
+        for (int i = 0; i < candidates; i++) {
+            if (scratch[i] <= maxChordSquared && GeoKernel.distanceKm(scratch[i]) < RADIUS_KM) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,55 @@
+package com.pikngo.user_service.benchmarks;
+
+import com.pikngo.user_service.dto.OrderResponseDTO;
+import com.pikngo.user_service.entity.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response mapping of order listings ({@link OrderResponseDTO#from}), as done for a
+ * user's or a restaurant's order history and the admin order pages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class OrderMappingBenchmark {
+
+    @Param({"1", "10", "30"})
+    private int itemsPerOrder;
+
+    @Param({"20", "1000"})
+    private int orders;
+
+    private List<Order> entities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entities = BenchmarkData.orders(orders, itemsPerOrder, 42);
+    }
+
+    @Benchmark
+    public List<OrderResponseDTO> mapOrders() {
+        List<OrderResponseDTO> responses = new ArrayList<>(entities.size());
+        for (Order order : entities) {
+            responses.add(OrderResponseDTO.from(order));
+        }
+        return responses;
+    }
+}
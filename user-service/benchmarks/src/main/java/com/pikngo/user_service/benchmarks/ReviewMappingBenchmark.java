@@ -0,0 +1,52 @@
+package com.pikngo.user_service.benchmarks;
+
+import com.pikngo.user_service.dto.ReviewResponseDTO;
+import com.pikngo.user_service.entity.Review;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response mapping of review listings ({@link ReviewResponseDTO#from}), as done for a
+ * restaurant's or a user's reviews.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ReviewMappingBenchmark {
+
+    @Param({"20", "1000"})
+    private int reviews;
+
+    private List<Review> entities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entities = BenchmarkData.reviews(reviews, 42);
+    }
+
+    @Benchmark
+    public List<ReviewResponseDTO> mapReviews() {
+        List<ReviewResponseDTO> responses = new ArrayList<>(entities.size());
+        for (Review review : entities) {
+            responses.add(ReviewResponseDTO.from(review));
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,111 @@
+package com.pikngo.user_service.benchmarks;
+
+import com.pikngo.user_service.dto.RestaurantSnapshot;
+import com.pikngo.user_service.repository.RestaurantRepository;
+import com.pikngo.user_service.service.impl.RestaurantGeoIndex;
+import com.pikngo.user_service.service.impl.RouteCorridorEngine;
+import com.pikngo.user_service.utils.GeoUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Along-the-route search over the whole restaurant table.
+ *
+ * {@code fullScan} is the original {@code isAlongRoute} filter: cross-track distance and a
+ * bounding box for every restaurant. The other benchmarks go through {@link RouteCorridorEngine}
+ * on a built {@link RestaurantGeoIndex}, for a short in-city segment (box scan), an intercity
+ * segment (cell cover) and a multi-waypoint route.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class RouteSearchBenchmark {
+
+    private static final double RADIUS_KM = 5;
+
+    // Koramangala -> Indiranagar, Bengaluru (~7 km).
+    private static final double[] CITY_SRC = {12.9352, 77.6245};
+    private static final double[] CITY_DEST = {12.9784, 77.6408};
+    // Delhi -> Jaipur (~240 km).
+    private static final double[] INTERCITY_SRC = {28.6139, 77.2090};
+    private static final double[] INTERCITY_DEST = {26.9124, 75.7873};
+    // Mumbai -> Pune -> Bengaluru, as a routing polyline would hand it over.
+    private static final List<double[]> ROUTE = List.of(
+            new double[] {19.0760, 72.8777}, new double[] {18.7500, 73.4000}, new double[] {18.5204, 73.8567},
+            new double[] {17.6805, 74.0183}, new double[] {16.7050, 74.2433}, new double[] {15.8497, 74.4977},
+            new double[] {15.3647, 75.1240}, new double[] {14.4664, 75.9238}, new double[] {13.3409, 77.1010},
+            new double[] {12.9716, 77.5946});
+
+    @Param({"10000", "100000", "1000000"})
+    private int restaurants;
+
+    private List<RestaurantSnapshot> snapshots;
+    private RouteCorridorEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        snapshots = BenchmarkData.restaurants(restaurants, 42);
+        RestaurantRepository repository = BenchmarkData.repositoryOf(snapshots);
+        RestaurantGeoIndex geoIndex = new RestaurantGeoIndex(repository);
+        geoIndex.rebuild();
+        engine = new RouteCorridorEngine(geoIndex, repository);
+    }
+
+    @Benchmark
+    public int fullScanIntercity() {
+        int matches = 0;
+        for (RestaurantSnapshot restaurant : snapshots) {
+            if (isAlongRoute(INTERCITY_SRC[0], INTERCITY_SRC[1], INTERCITY_DEST[0], INTERCITY_DEST[1],
+                    restaurant.getLatitude(), restaurant.getLongitude(), RADIUS_KM)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public List<RestaurantGeoIndex.Match> indexedCity() {
+        return engine.findAlongSegment(CITY_SRC[0], CITY_SRC[1], CITY_DEST[0], CITY_DEST[1], RADIUS_KM);
+    }
+
+    @Benchmark
+    public List<RestaurantGeoIndex.Match> indexedIntercity() {
+        return engine.findAlongSegment(INTERCITY_SRC[0], INTERCITY_SRC[1], INTERCITY_DEST[0], INTERCITY_DEST[1],
+                RADIUS_KM);
+    }
+
+    @Benchmark
+    public List<RestaurantGeoIndex.Match> indexedRoute() {
+        return engine.findAlongRoute(ROUTE, RADIUS_KM);
+    }
+
+    /** The filter the route search applied to every restaurant before the geo index existed. */
+    private static boolean isAlongRoute(double lat1, double lon1, double lat2, double lon2, double lat3, double lon3,
+                                        double radius) {
+        double dxt = GeoUtils.crossTrackDistance(lat1, lon1, lat2, lon2, lat3, lon3);
+        if (Math.abs(dxt) > radius) return false;
+
+        double minLat = Math.min(lat1, lat2) - (radius / 111.0);
+        double maxLat = Math.max(lat1, lat2) + (radius / 111.0);
+        double minLon = Math.min(lon1, lon2) - (radius / (111.0 * Math.cos(Math.toRadians(lat1))));
+        double maxLon = Math.max(lon1, lon2) + (radius / (111.0 * Math.cos(Math.toRadians(lat1))));
+
+        return lat3 >= minLat && lat3 <= maxLat && lon3 >= minLon && lon3 <= maxLon;
+    }
+}
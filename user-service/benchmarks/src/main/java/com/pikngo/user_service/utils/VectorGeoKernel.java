@@ -0,0 +1,63 @@
+package com.pikngo.user_service.utils;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link GeoKernel} batch loops written against the incubating JDK Vector API, to check how much
+ * the JIT's own vectorization of the plain loops leaves on the table. Uses separate multiply and
+ * add (no fma) so results are bit-identical to the scalar kernel; the tail that does not fill a
+ * vector falls back to scalar code.
+ *
+ * Lives in the service's package so it can read {@link GeoColumns} directly, but only ships with
+ * the benchmarks: the service itself does not run with {@code --add-modules jdk.incubator.vector}.
+ */
+public final class VectorGeoKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorGeoKernel() {}
+
+    public static void dot(double[] n, GeoColumns points, double[] out) {
+        double[] x = points.x;
+        double[] y = points.y;
+        double[] z = points.z;
+        DoubleVector nx = DoubleVector.broadcast(SPECIES, n[0]);
+        DoubleVector ny = DoubleVector.broadcast(SPECIES, n[1]);
+        DoubleVector nz = DoubleVector.broadcast(SPECIES, n[2]);
+        int i = 0;
+        int bound = SPECIES.loopBound(x.length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector dot = nx.mul(DoubleVector.fromArray(SPECIES, x, i))
+                    .add(ny.mul(DoubleVector.fromArray(SPECIES, y, i)))
+                    .add(nz.mul(DoubleVector.fromArray(SPECIES, z, i)));
+            dot.intoArray(out, i);
+        }
+        for (; i < x.length; i++) {
+            out[i] = n[0] * x[i] + n[1] * y[i] + n[2] * z[i];
+        }
+    }
+
+    public static void chordSquared(double[] q, GeoColumns points, double[] out) {
+        double[] x = points.x;
+        double[] y = points.y;
+        double[] z = points.z;
+        DoubleVector qx = DoubleVector.broadcast(SPECIES, q[0]);
+        DoubleVector qy = DoubleVector.broadcast(SPECIES, q[1]);
+        DoubleVector qz = DoubleVector.broadcast(SPECIES, q[2]);
+        int i = 0;
+        int bound = SPECIES.loopBound(x.length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector dx = DoubleVector.fromArray(SPECIES, x, i).sub(qx);
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, y, i).sub(qy);
+            DoubleVector dz = DoubleVector.fromArray(SPECIES, z, i).sub(qz);
+            dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz)).intoArray(out, i);
+        }
+        for (; i < x.length; i++) {
+            double dx = x[i] - q[0];
+            double dy = y[i] - q[1];
+            double dz = z[i] - q[2];
+            out[i] = dx * dx + dy * dy + dz * dz;
+        }
+    }
+}
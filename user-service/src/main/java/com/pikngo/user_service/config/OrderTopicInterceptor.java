@@ -0,0 +1,112 @@
+package com.pikngo.user_service.config;
+
+import com.pikngo.user_service.entity.User;
+import com.pikngo.user_service.repository.OrderRepository;
+import com.pikngo.user_service.repository.UserRepository;
+import com.pikngo.user_service.utils.OrderTopics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Authorizes STOMP subscriptions to the order topics ({@link OrderTopics}). The session's user is
+ * the one authenticated on the WebSocket handshake by {@link JwtRequestFilter}.
+ *
+ * Users may follow their own orders, as a whole or one at a time; admins may follow any topic,
+ * including the platform-wide one and the restaurant topics. Clients may never send to a topic
+ * themselves, which the simple broker would otherwise relay to every subscriber.
+ */
+@Component
+public class OrderTopicInterceptor implements ChannelInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderTopicInterceptor.class);
+    private static final String TOPIC_PREFIX = "/topic/";
+    private static final String USER_ID_ATTRIBUTE = "pikngo.userId";
+
+    private final UserRepository userRepository;
+    private final OrderRepository orderRepository;
+
+    public OrderTopicInterceptor(UserRepository userRepository, OrderRepository orderRepository) {
+        this.userRepository = userRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        String destination = accessor.getDestination();
+        if (StompCommand.SEND.equals(accessor.getCommand()) && isTopic(destination)) {
+            throw new AccessDeniedException("Clients cannot send to " + destination);
+        }
+        if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                && !canSubscribe(accessor.getUser(), destination, accessor.getSessionAttributes())) {
+            log.warn("Subscription to {} denied for {}", destination,
+                    accessor.getUser() != null ? accessor.getUser().getName() : "anonymous");
+            throw new AccessDeniedException("Not allowed to subscribe to " + destination);
+        }
+        return message;
+    }
+
+    private boolean canSubscribe(Principal principal, String destination, Map<String, Object> sessionAttributes) {
+        if (destination == null) {
+            return false;
+        }
+        if (!isTopic(destination)) {
+            // Not a broker destination; nothing is broadcast there.
+            return true;
+        }
+        if (isAdmin(principal)) {
+            return true;
+        }
+        if (principal == null) {
+            return false;
+        }
+        UUID topicUserId = OrderTopics.userIdOf(destination);
+        if (topicUserId != null) {
+            return topicUserId.equals(userId(principal, sessionAttributes));
+        }
+        UUID orderId = OrderTopics.orderIdOf(destination);
+        if (orderId != null) {
+            UUID userId = userId(principal, sessionAttributes);
+            return userId != null && orderRepository.findUserIdById(orderId).map(userId::equals).orElse(false);
+        }
+        // The platform-wide and restaurant topics, and anything unknown.
+        return false;
+    }
+
+    private static boolean isTopic(String destination) {
+        return destination != null && (destination.startsWith(TOPIC_PREFIX) || destination.equals("/topic"));
+    }
+
+    private static boolean isAdmin(Principal principal) {
+        return principal instanceof Authentication authentication
+                && authentication.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+    }
+
+    /** The id of the session's user, looked up from its phone number once per session. */
+    private UUID userId(Principal principal, Map<String, Object> sessionAttributes) {
+        if (sessionAttributes != null && sessionAttributes.get(USER_ID_ATTRIBUTE) instanceof UUID cached) {
+            return cached;
+        }
+        UUID userId = userRepository.findByPhoneNumber(principal.getName()).map(User::getId).orElse(null);
+        if (userId != null && sessionAttributes != null) {
+            sessionAttributes.put(USER_ID_ATTRIBUTE, userId);
+        }
+        return userId;
+    }
+}
@@ -0,0 +1,195 @@
+package com.pikngo.user_service.config;
+
+import com.pikngo.user_service.utils.OrderPayloads;
+import com.pikngo.user_service.utils.OrderTopics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps slow clients from piling up messages on the client outbound channel.
+ *
+ * Counts the messages queued for each session, from its CONNECT_ACK until it disconnects; messages
+ * for sessions it does not know are passed through uncounted. Once a session has
+ * {@code pikngo.ws.slow-consumer.max-pending} waiting, it is switched to latest-state delivery:
+ * order messages for it are held back, only the newest per topic and order kept, and sent when
+ * its queue has drained. An order message carries either the whole order or a status delta; a
+ * delta held after its order's whole state is applied to it ({@link OrderPayloads}) rather than
+ * replacing it, so the client loses nothing but intermediate steps. Sessions whose writes still
+ * exceed the transport's send time or buffer limits are closed by Spring ({@link WebSocketConfig}).
+ */
+@Component
+public class SlowConsumerInterceptor implements ExecutorChannelInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowConsumerInterceptor.class);
+
+    private final int maxPending;
+    private final int maxHeld;
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder held = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder slowSessionEvents = new LongAdder();
+
+    public SlowConsumerInterceptor(@Value("${pikngo.ws.slow-consumer.max-pending:100}") int maxPending,
+                                   @Value("${pikngo.ws.slow-consumer.max-held:1000}") int maxHeld) {
+        this.maxPending = maxPending;
+        this.maxHeld = maxHeld;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId == null) {
+            return message;
+        }
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (type == SimpMessageType.CONNECT_ACK) {
+            sessions.putIfAbsent(sessionId, new SessionState());
+            return message;
+        }
+        if (type == SimpMessageType.DISCONNECT_ACK) {
+            sessions.remove(sessionId);
+            return message;
+        }
+        // A message racing the disconnect must not bring the session's state back.
+        SessionState state = type == SimpMessageType.MESSAGE ? sessions.get(sessionId) : null;
+        if (state == null) {
+            return message;
+        }
+        synchronized (state) {
+            if (!state.slow && state.pending >= maxPending) {
+                state.slow = true;
+                slowSessionEvents.increment();
+                log.warn("WebSocket session {} has {} messages queued; sending it the latest order states only",
+                        sessionId, maxPending);
+            }
+            String orderId = NativeMessageHeaderAccessor.getFirstNativeHeader(OrderTopics.ORDER_ID_HEADER,
+                    message.getHeaders());
+            if (state.slow && orderId != null) {
+                String key = SimpMessageHeaderAccessor.getDestination(message.getHeaders()) + '|' + orderId;
+                Message<?> previous = state.held.get(key);
+                if (previous != null) {
+                    state.held.put(key, latest(previous, message));
+                    superseded.increment();
+                } else if (state.held.put(key, message) == null && state.held.size() > maxHeld) {
+                    Iterator<Message<?>> eldest = state.held.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    dropped.increment();
+                }
+                held.increment();
+                return null;
+            }
+            state.pending++;
+        }
+        messages.increment();
+        return message;
+    }
+
+    /** What to hold instead of {@code previous}: {@code message}, or {@code previous} with its status delta applied. */
+    private static Message<?> latest(Message<?> previous, Message<?> message) {
+        if (previous.getPayload() instanceof byte[] order && message.getPayload() instanceof byte[] delta) {
+            byte[] merged = OrderPayloads.applyStatus(order, delta);
+            if (merged != null) {
+                return merged == order ? previous : MessageBuilder.createMessage(merged, previous.getHeaders());
+            }
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (ex != null) {
+            // Not queued (the outbound executor is full), so it will never be handled.
+            rejected.increment();
+            release(message, channel);
+        }
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        release(message, channel);
+    }
+
+    private void release(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId == null || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return;
+        }
+        SessionState state = sessions.get(sessionId);
+        if (state == null) {
+            return;
+        }
+        List<Message<?>> flush;
+        synchronized (state) {
+            if (--state.pending > 0 || !state.slow) {
+                return;
+            }
+            state.slow = false;
+            flush = new ArrayList<>(state.held.values());
+            state.held.clear();
+        }
+        // Queued like any other message; if the session falls behind again it is held back again.
+        for (Message<?> latest : flush) {
+            channel.send(latest);
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        sessions.remove(event.getSessionId());
+    }
+
+    public Map<String, Object> stats() {
+        int slowSessions = 0;
+        int queued = 0;
+        for (SessionState state : sessions.values()) {
+            synchronized (state) {
+                queued += state.pending;
+                if (state.slow) {
+                    slowSessions++;
+                }
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("messages", messages.sum());
+        stats.put("queued", queued);
+        stats.put("slowSessions", slowSessions);
+        stats.put("slowSessionEvents", slowSessionEvents.sum());
+        stats.put("held", held.sum());
+        stats.put("superseded", superseded.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    private static final class SessionState {
+        // Guarded by this. Messages sent to the channel and not handled yet.
+        int pending;
+        boolean slow;
+        final Map<String, Message<?>> held = new LinkedHashMap<>();
+    }
+}
@@ -1,15 +1,53 @@
 package com.pikngo.user_service.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final OrderTopicInterceptor orderTopicInterceptor;
+    private final SlowConsumerInterceptor slowConsumerInterceptor;
+
+    @Value("${pikngo.ws.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${pikngo.ws.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${pikngo.ws.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${pikngo.ws.sockjs.message-cache-size:100}")
+    private int sockJsMessageCacheSize;
+
+    @Value("${pikngo.ws.sockjs.stream-bytes-limit:131072}")
+    private int sockJsStreamBytesLimit;
+
+    @Value("${pikngo.ws.inbound.pool-size:8}")
+    private int inboundPoolSize;
+
+    @Value("${pikngo.ws.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${pikngo.ws.outbound.pool-size:8}")
+    private int outboundPoolSize;
+
+    @Value("${pikngo.ws.outbound.queue-capacity:50000}")
+    private int outboundQueueCapacity;
+
+    public WebSocketConfig(OrderTopicInterceptor orderTopicInterceptor, SlowConsumerInterceptor slowConsumerInterceptor) {
+        this.orderTopicInterceptor = orderTopicInterceptor;
+        this.slowConsumerInterceptor = slowConsumerInterceptor;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Use /topic for broadcasting to clients
@@ -19,7 +57,38 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
-        // Endpoint for clients to connect to via SockJS
-        registry.addEndpoint("/ws-orders").setAllowedOriginPatterns("*").withSockJS();
+        // Endpoint for clients to connect to via SockJS; the fallback transports buffer a bounded
+        // number of messages per session and restart streaming responses after a bounded size
+        registry.addEndpoint("/ws-orders").setAllowedOriginPatterns("*").withSockJS()
+                .setHttpMessageCacheSize(sockJsMessageCacheSize)
+                .setStreamBytesLimit(sockJsStreamBytesLimit);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A session whose writes take longer, or which has more bytes waiting, is closed
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Order topics are per restaurant, user and order; only their audience may subscribe
+        registration.interceptors(orderTopicInterceptor);
+        registration.taskExecutor()
+                .corePoolSize(inboundPoolSize)
+                .maxPoolSize(inboundPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Slow sessions get the latest order states only instead of an ever longer queue
+        registration.interceptors(slowConsumerInterceptor);
+        registration.taskExecutor()
+                .corePoolSize(outboundPoolSize)
+                .maxPoolSize(outboundPoolSize)
+                .queueCapacity(outboundQueueCapacity);
     }
 }
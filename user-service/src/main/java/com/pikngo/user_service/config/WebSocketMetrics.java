@@ -0,0 +1,127 @@
+package com.pikngo.user_service.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the real-time tier for capacity planning: connected STOMP sessions and their
+ * subscriptions, the client channel executors, and the outbound traffic seen by
+ * {@link SlowConsumerInterceptor}. Message rates are the differences of the counters between two
+ * reads.
+ */
+@Component
+public class WebSocketMetrics {
+
+    private final SlowConsumerInterceptor slowConsumerInterceptor;
+    private final ObjectProvider<TaskExecutor> inboundExecutor;
+    private final ObjectProvider<TaskExecutor> outboundExecutor;
+    private final ObjectProvider<WebSocketMessageBrokerStats> brokerStats;
+
+    // Subscriptions per connected session.
+    private final Map<String, AtomicInteger> sessions = new ConcurrentHashMap<>();
+    private final LongAdder connects = new LongAdder();
+    private final LongAdder subscribes = new LongAdder();
+
+    public WebSocketMetrics(SlowConsumerInterceptor slowConsumerInterceptor,
+                            @Qualifier("clientInboundChannelExecutor") ObjectProvider<TaskExecutor> inboundExecutor,
+                            @Qualifier("clientOutboundChannelExecutor") ObjectProvider<TaskExecutor> outboundExecutor,
+                            ObjectProvider<WebSocketMessageBrokerStats> brokerStats) {
+        this.slowConsumerInterceptor = slowConsumerInterceptor;
+        this.inboundExecutor = inboundExecutor;
+        this.outboundExecutor = outboundExecutor;
+        this.brokerStats = brokerStats;
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        String sessionId = sessionId(event.getMessage().getHeaders());
+        if (sessionId != null) {
+            sessions.putIfAbsent(sessionId, new AtomicInteger());
+            connects.increment();
+        }
+    }
+
+    @EventListener
+    public void onSessionSubscribe(SessionSubscribeEvent event) {
+        AtomicInteger subscriptions = subscriptionsOf(event.getMessage().getHeaders());
+        if (subscriptions != null) {
+            subscriptions.incrementAndGet();
+            subscribes.increment();
+        }
+    }
+
+    @EventListener
+    public void onSessionUnsubscribe(SessionUnsubscribeEvent event) {
+        AtomicInteger subscriptions = subscriptionsOf(event.getMessage().getHeaders());
+        if (subscriptions != null) {
+            subscriptions.updateAndGet(count -> Math.max(0, count - 1));
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        sessions.remove(event.getSessionId());
+    }
+
+    public Map<String, Object> stats() {
+        int subscriptions = 0;
+        for (AtomicInteger count : sessions.values()) {
+            subscriptions += count.get();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessions", sessions.size());
+        stats.put("subscriptions", subscriptions);
+        stats.put("connects", connects.sum());
+        stats.put("subscribes", subscribes.sum());
+        stats.put("outbound", slowConsumerInterceptor.stats());
+        stats.put("inboundExecutor", executorStats(inboundExecutor.getIfAvailable()));
+        stats.put("outboundExecutor", executorStats(outboundExecutor.getIfAvailable()));
+        WebSocketMessageBrokerStats broker = brokerStats.getIfAvailable();
+        if (broker != null) {
+            // Includes the sessions closed for exceeding the send time or buffer limits.
+            stats.put("transport", broker.getWebSocketSessionStatsInfo());
+        }
+        return stats;
+    }
+
+    private static String sessionId(Map<String, Object> headers) {
+        return SimpMessageHeaderAccessor.getSessionId(headers);
+    }
+
+    private AtomicInteger subscriptionsOf(Map<String, Object> headers) {
+        String sessionId = sessionId(headers);
+        return sessionId != null ? sessions.get(sessionId) : null;
+    }
+
+    private static Map<String, Object> executorStats(TaskExecutor taskExecutor) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        if (!(taskExecutor instanceof ThreadPoolTaskExecutor executor)) {
+            return stats;
+        }
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        stats.put("poolSize", pool.getPoolSize());
+        stats.put("maxPoolSize", pool.getMaximumPoolSize());
+        stats.put("active", pool.getActiveCount());
+        stats.put("queued", pool.getQueue().size());
+        stats.put("queueRemainingCapacity", pool.getQueue().remainingCapacity());
+        stats.put("completedTasks", pool.getCompletedTaskCount());
+        return stats;
+    }
+}
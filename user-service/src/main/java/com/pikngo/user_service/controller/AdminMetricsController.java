@@ -0,0 +1,62 @@
+package com.pikngo.user_service.controller;
+
+import com.pikngo.user_service.config.WebSocketMetrics;
+import com.pikngo.user_service.dto.ApiResponse;
+import com.pikngo.user_service.service.impl.GeoQueryCache;
+import com.pikngo.user_service.service.impl.IdempotencyKeyStore;
+import com.pikngo.user_service.service.impl.MenuCache;
+import com.pikngo.user_service.service.impl.OrderEventPublisher;
+import com.pikngo.user_service.service.impl.OrderExporter;
+import com.pikngo.user_service.service.impl.TrendingEngine;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runtime counters of the in-memory caches, the order event publisher, the order idempotency keys,
+ * the order export, the trending items and the WebSocket tier, used to tune their sizing.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/metrics")
+public class AdminMetricsController {
+
+    private final GeoQueryCache geoQueryCache;
+    private final MenuCache menuCache;
+    private final OrderEventPublisher orderEventPublisher;
+    private final WebSocketMetrics webSocketMetrics;
+    private final IdempotencyKeyStore idempotencyKeyStore;
+    private final OrderExporter orderExporter;
+    private final TrendingEngine trendingEngine;
+
+    public AdminMetricsController(GeoQueryCache geoQueryCache, MenuCache menuCache,
+                                  OrderEventPublisher orderEventPublisher, WebSocketMetrics webSocketMetrics,
+                                  IdempotencyKeyStore idempotencyKeyStore, OrderExporter orderExporter,
+                                  TrendingEngine trendingEngine) {
+        this.geoQueryCache = geoQueryCache;
+        this.menuCache = menuCache;
+        this.orderEventPublisher = orderEventPublisher;
+        this.webSocketMetrics = webSocketMetrics;
+        this.idempotencyKeyStore = idempotencyKeyStore;
+        this.orderExporter = orderExporter;
+        this.trendingEngine = trendingEngine;
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("geoQueryCache", geoQueryCache.stats());
+        metrics.put("menuCache", menuCache.stats());
+        metrics.put("orderEvents", orderEventPublisher.stats());
+        metrics.put("webSocket", webSocketMetrics.stats());
+        metrics.put("orderIdempotency", idempotencyKeyStore.stats());
+        metrics.put("orderExport", orderExporter.stats());
+        metrics.put("trending", trendingEngine.stats());
+        return ResponseEntity.ok(ApiResponse.success("Metrics fetched successfully", metrics));
+    }
+}
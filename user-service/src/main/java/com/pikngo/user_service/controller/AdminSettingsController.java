@@ -5,6 +5,8 @@ import com.pikngo.user_service.entity.Promotion;
 import com.pikngo.user_service.repository.GlobalSettingRepository;
 import com.pikngo.user_service.repository.PromotionRepository;
 import com.pikngo.user_service.dto.ApiResponse;
+import com.pikngo.user_service.event.PricingChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,10 +20,13 @@ public class AdminSettingsController {
 
     private final GlobalSettingRepository settingRepository;
     private final PromotionRepository promotionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AdminSettingsController(GlobalSettingRepository settingRepository, PromotionRepository promotionRepository) {
+    public AdminSettingsController(GlobalSettingRepository settingRepository, PromotionRepository promotionRepository,
+                                   ApplicationEventPublisher eventPublisher) {
         this.settingRepository = settingRepository;
         this.promotionRepository = promotionRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     // --- Global Settings ---
@@ -29,13 +34,7 @@ public class AdminSettingsController {
     @GetMapping("/global")
     public ResponseEntity<ApiResponse<GlobalSetting>> getGlobalSettings() {
         GlobalSetting settings = settingRepository.findById(1L)
-                .orElse(GlobalSetting.builder()
-                        .id(1L)
-                        .platformName("PikNGo Premium")
-                        .maintenanceMode(false)
-                        .deliveryFee(45.0)
-                        .taxPercentage(5.0)
-                        .build());
+                .orElseGet(GlobalSetting::defaults);
         return ResponseEntity.ok(ApiResponse.success("Global settings fetched", settings));
     }
 
@@ -43,6 +42,7 @@ public class AdminSettingsController {
     public ResponseEntity<ApiResponse<GlobalSetting>> updateGlobalSettings(@RequestBody GlobalSetting newSettings) {
         newSettings.setId(1L); // Always override the singleton config row
         GlobalSetting saved = settingRepository.save(newSettings);
+        eventPublisher.publishEvent(new PricingChangedEvent());
         return ResponseEntity.ok(ApiResponse.success("Global settings updated", saved));
     }
 
@@ -55,7 +55,9 @@ public class AdminSettingsController {
 
     @PostMapping("/promotions")
     public ResponseEntity<ApiResponse<Promotion>> createPromotion(@RequestBody Promotion promotion) {
-        return ResponseEntity.ok(ApiResponse.success("Promotion created", promotionRepository.save(promotion)));
+        Promotion saved = promotionRepository.save(promotion);
+        eventPublisher.publishEvent(new PricingChangedEvent());
+        return ResponseEntity.ok(ApiResponse.success("Promotion created", saved));
     }
 
     @PutMapping("/promotions/{id}")
@@ -67,7 +69,9 @@ public class AdminSettingsController {
             existing.setDiscountPercentage(newPromo.getDiscountPercentage());
             existing.setExpiryDate(newPromo.getExpiryDate());
             existing.setActive(newPromo.isActive());
-            return ResponseEntity.ok(ApiResponse.success("Promotion updated", promotionRepository.save(existing)));
+            Promotion saved = promotionRepository.save(existing);
+            eventPublisher.publishEvent(new PricingChangedEvent());
+            return ResponseEntity.ok(ApiResponse.success("Promotion updated", saved));
         }).orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("Promotion not found")));
     }
 
@@ -77,6 +81,7 @@ public class AdminSettingsController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("Promotion not found"));
         }
         promotionRepository.deleteById(id);
+        eventPublisher.publishEvent(new PricingChangedEvent());
         return ResponseEntity.ok(ApiResponse.success("Promotion deleted", null));
     }
 }
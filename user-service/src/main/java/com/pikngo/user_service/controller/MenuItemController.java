@@ -1,15 +1,18 @@
 package com.pikngo.user_service.controller;
 
+import com.pikngo.user_service.dto.MenuImportResultDTO;
 import com.pikngo.user_service.entity.MenuItem;
 import com.pikngo.user_service.service.MenuItemService;
 import com.pikngo.user_service.dto.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
 import java.util.UUID;
 
 @RestController
@@ -23,11 +26,23 @@ public class MenuItemController {
         this.menuItemService = menuItemService;
     }
 
+    /**
+     * Served from pre-rendered JSON (gzip when accepted); a matching If-None-Match gets a 304.
+     *
+     * With {@code since}, returns only what changed after that menu revision: added and changed
+     * items, and the ids of deleted ones, plus the revision to pass next time. Clients keeping a
+     * menu start with {@code since=0}, which returns the whole menu with its revision.
+     */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<MenuItem>>> getMenu(@PathVariable UUID restaurantId) {
+    public ResponseEntity<byte[]> getMenu(@PathVariable UUID restaurantId,
+                                          @RequestParam(required = false) Long since,
+                                          HttpServletRequest request) {
+        if (since != null) {
+            log.info("Fetching menu changes for restaurant: {} since revision {}", restaurantId, since);
+            return menuItemService.getMenuDeltaResponse(restaurantId, since).toResponse(request);
+        }
         log.info("Fetching menu for restaurant: {}", restaurantId);
-        List<MenuItem> items = menuItemService.getMenuItemsByRestaurant(restaurantId);
-        return ResponseEntity.ok(ApiResponse.success("Menu fetched successfully", items));
+        return menuItemService.getMenuResponse(restaurantId).toResponse(request);
     }
 
     @PostMapping
@@ -36,12 +51,34 @@ public class MenuItemController {
         return ResponseEntity.ok(ApiResponse.success("Menu item added successfully", menuItemService.addMenuItem(restaurantId, menuItem)));
     }
 
+    /**
+     * Bulk import for onboarding: a JSON array of menu items, or CSV with a header line
+     * (itemName, itemPrice, itemDescription, itemCategory, itemImageUrl, available, veg). The body
+     * is read as a stream; if any row is invalid nothing is imported and every row error is returned.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<MenuImportResultDTO>> importMenu(@PathVariable UUID restaurantId,
+                                                                       HttpServletRequest request) throws IOException {
+        log.info("Importing menu for restaurant: {}", restaurantId);
+        MenuImportResultDTO result = menuItemService.importMenu(restaurantId, request.getInputStream(),
+                MediaType.parseMediaType(request.getContentType()));
+        return ResponseEntity.ok(ApiResponse.success("Menu imported successfully", result));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<MenuItem>> updateMenuItem(@PathVariable UUID id, @RequestBody MenuItem menuItem) {
         return ResponseEntity.ok(ApiResponse.success("Menu item updated successfully", menuItemService.updateMenuItem(id, menuItem)));
     }
 
+    @PatchMapping("/{id}/availability")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<MenuItem>> setAvailability(@PathVariable UUID id, @RequestParam boolean available) {
+        return ResponseEntity.ok(ApiResponse.success("Menu item availability updated successfully",
+                menuItemService.setAvailability(id, available)));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Void>> deleteMenuItem(@PathVariable UUID id) {
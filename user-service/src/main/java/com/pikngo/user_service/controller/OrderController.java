@@ -1,24 +1,38 @@
 package com.pikngo.user_service.controller;
 
 import com.pikngo.user_service.dto.ApiResponse;
+import com.pikngo.user_service.dto.CursorPageDTO;
 import com.pikngo.user_service.dto.OrderRequestDTO;
 import com.pikngo.user_service.dto.OrderResponseDTO;
+import com.pikngo.user_service.dto.OrderStatusDeltaDTO;
+import com.pikngo.user_service.dto.PriceQuoteDTO;
 import com.pikngo.user_service.dto.TrendingItemDTO;
 import com.pikngo.user_service.service.OrderService;
+import com.pikngo.user_service.service.impl.IdempotencyKeyStore;
+import com.pikngo.user_service.service.impl.OrderExporter;
+import com.pikngo.user_service.service.impl.TrendingEngine;
+import com.pikngo.user_service.exception.InvalidExportRequestException;
 import com.pikngo.user_service.entity.Order;
-import com.pikngo.user_service.repository.OrderRepository;
 import com.pikngo.user_service.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
 import java.security.Principal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
 
 @RestController
@@ -29,26 +43,39 @@ public class OrderController {
 
     private final OrderService orderService;
     private final UserRepository userRepository;
-    private final OrderRepository orderRepository;
+    private final IdempotencyKeyStore idempotencyKeyStore;
+    private final OrderExporter orderExporter;
+    private final TrendingEngine trendingEngine;
 
-    public OrderController(OrderService orderService, UserRepository userRepository, OrderRepository orderRepository) {
+    public OrderController(OrderService orderService, UserRepository userRepository,
+                           IdempotencyKeyStore idempotencyKeyStore, OrderExporter orderExporter,
+                           TrendingEngine trendingEngine) {
         this.orderService = orderService;
         this.userRepository = userRepository;
-        this.orderRepository = orderRepository;
+        this.idempotencyKeyStore = idempotencyKeyStore;
+        this.orderExporter = orderExporter;
+        this.trendingEngine = trendingEngine;
     }
 
-    /** Trending endpoint: returns the top 30 most-ordered menu items across all restaurants */
+    /** Trending endpoint: returns the top 30 most-ordered menu items across all restaurants, from memory */
     @GetMapping("/trending")
     public ResponseEntity<ApiResponse<List<TrendingItemDTO>>> getTrending(
             @RequestParam(defaultValue = "30") int limit) {
         log.info("REST request to get top {} trending items", limit);
-        List<TrendingItemDTO> trending = orderRepository.findTopTrendingItems(PageRequest.of(0, limit));
+        List<TrendingItemDTO> trending = trendingEngine.top(limit);
         return ResponseEntity.ok(ApiResponse.success("Trending items fetched successfully", trending));
     }
 
-    /** New endpoint: Frontend calls POST /orders — userId extracted from JWT cookie automatically */
+    /**
+     * New endpoint: Frontend calls POST /orders — userId extracted from JWT cookie automatically.
+     * Retries that send the same Idempotency-Key and body get the order placed by the first request;
+     * the same key with a different body is rejected with 409.
+     */
     @PostMapping
-    public ResponseEntity<ApiResponse<OrderResponseDTO>> placeOrderFromJwt(Principal principal, @RequestBody OrderRequestDTO request) {
+    public ResponseEntity<ApiResponse<OrderResponseDTO>> placeOrderFromJwt(
+            Principal principal,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody OrderRequestDTO request) {
         log.info("REST request to place order from JWT user: {}", principal != null ? principal.getName() : "unknown");
         if (principal == null) {
             return ResponseEntity.status(401).build();
@@ -56,7 +83,18 @@ public class OrderController {
         // principal.getName() is the phone number (username in JWT)
         var user = userRepository.findByPhoneNumber(principal.getName())
                 .orElseThrow(() -> new RuntimeException("User not found for phone: " + principal.getName()));
-        return ResponseEntity.ok(ApiResponse.success("Order placed successfully", orderService.placeOrder(user.getId(), request)));
+        UUID userId = user.getId();
+        OrderResponseDTO order = idempotencyKey == null
+                ? orderService.placeOrder(userId, request)
+                : idempotencyKeyStore.execute(userId, idempotencyKey, request,
+                        () -> orderService.placeOrder(userId, request, idempotencyKey));
+        return ResponseEntity.ok(ApiResponse.success("Order placed successfully", order));
+    }
+
+    /** Cart preview: prices the request exactly as placing it would, without placing it */
+    @PostMapping("/quote")
+    public ResponseEntity<ApiResponse<PriceQuoteDTO>> quoteOrder(@RequestBody OrderRequestDTO request) {
+        return ResponseEntity.ok(ApiResponse.success("Order quoted successfully", orderService.quoteOrder(request)));
     }
 
     /** Legacy endpoint: kept for backward compatibility */
@@ -72,16 +110,26 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success("Order fetched successfully", orderService.getOrderById(orderId)));
     }
 
+    /** Newest first, {@code limit} at a time, paged with the {@code nextCursor} of the previous page */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<ApiResponse<List<OrderResponseDTO>>> getUserOrders(@PathVariable UUID userId) {
+    public ResponseEntity<ApiResponse<CursorPageDTO<OrderResponseDTO>>> getUserOrders(
+            @PathVariable UUID userId,
+            @RequestParam(defaultValue = "20") Integer limit,
+            @RequestParam(required = false) String cursor) {
         log.info("REST request to get orders for user: {}", userId);
-        return ResponseEntity.ok(ApiResponse.success("User orders fetched successfully", orderService.getUserOrders(userId)));
+        return ResponseEntity.ok(ApiResponse.success("User orders fetched successfully",
+                orderService.getUserOrders(userId, limit, cursor)));
     }
 
+    /** Newest first, {@code limit} at a time, paged with the {@code nextCursor} of the previous page */
     @GetMapping("/restaurant/{restaurantId}")
-    public ResponseEntity<ApiResponse<List<OrderResponseDTO>>> getRestaurantOrders(@PathVariable UUID restaurantId) {
+    public ResponseEntity<ApiResponse<CursorPageDTO<OrderResponseDTO>>> getRestaurantOrders(
+            @PathVariable UUID restaurantId,
+            @RequestParam(defaultValue = "20") Integer limit,
+            @RequestParam(required = false) String cursor) {
         log.info("REST request to get orders for restaurant: {}", restaurantId);
-        return ResponseEntity.ok(ApiResponse.success("Restaurant orders fetched successfully", orderService.getRestaurantOrders(restaurantId)));
+        return ResponseEntity.ok(ApiResponse.success("Restaurant orders fetched successfully",
+                orderService.getRestaurantOrders(restaurantId, limit, cursor)));
     }
 
     @GetMapping("/all")
@@ -91,9 +139,42 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success("All orders fetched successfully", orderService.getAllOrders(pageable)));
     }
 
+    /**
+     * Report export: orders created from {@code from} through {@code to}, optionally of the given
+     * statuses only, oldest first, streamed as CSV or NDJSON while they are read.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Set<Order.OrderStatus> status,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        log.info("REST request to export orders from {} to {} (admin)", from, to);
+        if (to.isBefore(from)) {
+            throw new InvalidExportRequestException("'to' must not be before 'from'");
+        }
+        OrderExporter.Format exportFormat;
+        try {
+            exportFormat = OrderExporter.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidExportRequestException("Unsupported export format: " + format);
+        }
+        String filename = "orders-" + from + "-to-" + to + "." + exportFormat.getExtension();
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+        long rows = orderExporter.export(from.atStartOfDay(), to.plusDays(1).atStartOfDay(),
+                status != null ? status : Set.of(), exportFormat, response.getOutputStream());
+        log.info("Exported {} orders from {} to {}", rows, from, to);
+    }
+
+    /** Returns the status delta only; the full order is at GET /orders/{orderId} */
     @PatchMapping("/{orderId}/status")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<OrderResponseDTO>> updateOrderStatus(
+    public ResponseEntity<ApiResponse<OrderStatusDeltaDTO>> updateOrderStatus(
             @PathVariable UUID orderId,
             @RequestParam Order.OrderStatus status) {
         log.info("REST request to update status for order: {} to {}", orderId, status);
@@ -109,13 +190,16 @@ public class OrderController {
     }
 
     @GetMapping("/my-orders")
-    public ResponseEntity<ApiResponse<List<OrderResponseDTO>>> getMyOrders(Principal principal) {
+    public ResponseEntity<ApiResponse<CursorPageDTO<OrderResponseDTO>>> getMyOrders(
+            Principal principal,
+            @RequestParam(defaultValue = "20") Integer limit,
+            @RequestParam(required = false) String cursor) {
         log.info("REST request to get orders for current JWT user: {}", principal != null ? principal.getName() : "unknown");
         if (principal == null) {
             return ResponseEntity.status(401).build();
         }
         var user = userRepository.findByPhoneNumber(principal.getName())
                 .orElseThrow(() -> new RuntimeException("User not found for phone: " + principal.getName()));
-        return ResponseEntity.ok(ApiResponse.success("My orders fetched successfully", orderService.getUserOrders(user.getId())));
+        return ResponseEntity.ok(ApiResponse.success("My orders fetched successfully", orderService.getUserOrders(user.getId(), limit, cursor)));
     }
 }
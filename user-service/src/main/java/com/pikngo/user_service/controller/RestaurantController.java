@@ -3,11 +3,14 @@ package com.pikngo.user_service.controller;
 import com.pikngo.user_service.dto.RestaurantRequestDTO;
 import com.pikngo.user_service.dto.RestaurantResponseDTO;
 import com.pikngo.user_service.dto.ApiResponse;
+import com.pikngo.user_service.dto.CursorPageDTO;
 import com.pikngo.user_service.entity.Restaurant;
 import com.pikngo.user_service.service.RestaurantService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -72,6 +75,20 @@ public class RestaurantController {
         return ResponseEntity.ok(ApiResponse.success("Nearby restaurants fetched successfully", restaurantService.getNearbyRestaurants(lat, lon, radius)));
     }
 
+    /**
+     * The k nearest restaurants regardless of distance, paged with the {@code nextCursor} of the previous page.
+     */
+    @GetMapping("/nearest")
+    public ResponseEntity<ApiResponse<CursorPageDTO<RestaurantResponseDTO>>> getNearest(
+            @RequestParam Double lat,
+            @RequestParam Double lon,
+            @RequestParam(defaultValue = "20") Integer k,
+            @RequestParam(required = false) String cursor) {
+        log.info("REST request to get {} nearest restaurants: {}, {}", k, lat, lon);
+        return ResponseEntity.ok(ApiResponse.success("Nearest restaurants fetched successfully",
+                restaurantService.getNearestRestaurants(lat, lon, k, cursor)));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<List<RestaurantResponseDTO>>> searchByRoute(
             @RequestParam Double srcLat,
@@ -84,10 +101,26 @@ public class RestaurantController {
                 restaurantService.getRestaurantsBetweenLocations(srcLat, srcLon, destLat, destLon, radius)));
     }
 
+    /**
+     * Route search over an encoded polyline (Google/OSRM format, precision 5). Results are
+     * deduplicated and ordered by position along the route.
+     */
+    @GetMapping("/search/route")
+    public ResponseEntity<ApiResponse<List<RestaurantResponseDTO>>> searchByPolyline(
+            @RequestParam String polyline,
+            @RequestParam(defaultValue = "15.0") Double radius) {
+        log.info("REST request to search restaurants along polyline route");
+        return ResponseEntity.ok(ApiResponse.success("Restaurants on route fetched successfully",
+                restaurantService.getRestaurantsAlongRoute(polyline, radius)));
+    }
+
+    /**
+     * Served from pre-rendered JSON (gzip when accepted); a matching If-None-Match gets a 304.
+     */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<RestaurantResponseDTO>>> getAll() {
+    public ResponseEntity<byte[]> getAll(HttpServletRequest request) {
         log.info("REST request to get all active restaurants");
-        return ResponseEntity.ok(ApiResponse.success("Active restaurants fetched successfully", restaurantService.getAllActiveRestaurants()));
+        return restaurantService.getActiveRestaurantsResponse().toResponse(request);
     }
 
     @GetMapping("/admin/all")
@@ -100,6 +133,16 @@ public class RestaurantController {
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<RestaurantResponseDTO>> getById(@PathVariable UUID id) {
         log.info("REST request to get restaurant by ID: {}", id);
-        return ResponseEntity.ok(ApiResponse.success("Restaurant details fetched successfully", restaurantService.getRestaurantById(id)));
+        // Read the ETag before the data: the data is then at least as new as the tag.
+        String eTag = restaurantService.getCatalogETag();
+        return catalogResponse(eTag).body(ApiResponse.success("Restaurant details fetched successfully", restaurantService.getRestaurantById(id)));
+    }
+
+    /**
+     * Catalog reads carry the catalog version as ETag; Spring answers a matching If-None-Match with 304.
+     */
+    private ResponseEntity.BodyBuilder catalogResponse(String eTag) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        return eTag == null ? builder : builder.eTag(eTag);
     }
 }
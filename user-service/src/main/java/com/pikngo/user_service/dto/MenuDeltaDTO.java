@@ -0,0 +1,60 @@
+package com.pikngo.user_service.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Changes to a restaurant's menu since a revision the client already has: the items added or
+ * changed after it, and the ids of the items deleted after it. {@code revision} is the revision
+ * to ask from next time.
+ *
+ * When {@code fullSync} is set the client's revision could not be used, and {@code items} is the
+ * whole menu that replaces the cached one.
+ */
+public class MenuDeltaDTO {
+    private long revision;
+    private boolean fullSync;
+    private List<MenuItemSnapshot> items;
+    private List<UUID> deletedIds;
+
+    public MenuDeltaDTO() {}
+
+    public MenuDeltaDTO(long revision, boolean fullSync, List<MenuItemSnapshot> items, List<UUID> deletedIds) {
+        this.revision = revision;
+        this.fullSync = fullSync;
+        this.items = items;
+        this.deletedIds = deletedIds;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public boolean isFullSync() {
+        return fullSync;
+    }
+
+    public void setFullSync(boolean fullSync) {
+        this.fullSync = fullSync;
+    }
+
+    public List<MenuItemSnapshot> getItems() {
+        return items;
+    }
+
+    public void setItems(List<MenuItemSnapshot> items) {
+        this.items = items;
+    }
+
+    public List<UUID> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public void setDeletedIds(List<UUID> deletedIds) {
+        this.deletedIds = deletedIds;
+    }
+}
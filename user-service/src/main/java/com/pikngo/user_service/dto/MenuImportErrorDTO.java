@@ -0,0 +1,33 @@
+package com.pikngo.user_service.dto;
+
+/**
+ * A problem with one row of a bulk menu import. {@code row} is the 1-based element index for
+ * JSON and the line number for CSV (the header being line 1).
+ */
+public class MenuImportErrorDTO {
+    private int row;
+    private String message;
+
+    public MenuImportErrorDTO() {}
+
+    public MenuImportErrorDTO(int row, String message) {
+        this.row = row;
+        this.message = message;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
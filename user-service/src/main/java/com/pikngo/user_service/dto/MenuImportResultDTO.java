@@ -0,0 +1,32 @@
+package com.pikngo.user_service.dto;
+
+/**
+ * Outcome of a successful bulk menu import.
+ */
+public class MenuImportResultDTO {
+    private int imported;
+    private long elapsedMs;
+
+    public MenuImportResultDTO() {}
+
+    public MenuImportResultDTO(int imported, long elapsedMs) {
+        this.imported = imported;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+}
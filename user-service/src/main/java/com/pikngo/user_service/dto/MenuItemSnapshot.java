@@ -0,0 +1,60 @@
+package com.pikngo.user_service.dto;
+
+import com.pikngo.user_service.entity.MenuItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Immutable copy of a {@link MenuItem} for the menu cache. Serializes to the same JSON as the
+ * entity, so cached menus look exactly like menus read from the database.
+ */
+public final class MenuItemSnapshot {
+
+    private final UUID id;
+    private final String itemName;
+    private final String itemDescription;
+    private final BigDecimal itemPrice;
+    private final String itemImageUrl;
+    private final String itemCategory;
+    private final boolean isAvailable;
+    private final boolean isVeg;
+    private final long revision;
+    private final LocalDateTime createdTs;
+    private final LocalDateTime modifiedTs;
+
+    public MenuItemSnapshot(UUID id, String itemName, String itemDescription, BigDecimal itemPrice,
+                            String itemImageUrl, String itemCategory, boolean isAvailable, boolean isVeg,
+                            long revision, LocalDateTime createdTs, LocalDateTime modifiedTs) {
+        this.id = id;
+        this.itemName = itemName;
+        this.itemDescription = itemDescription;
+        this.itemPrice = itemPrice;
+        this.itemImageUrl = itemImageUrl;
+        this.itemCategory = itemCategory;
+        this.isAvailable = isAvailable;
+        this.isVeg = isVeg;
+        this.revision = revision;
+        this.createdTs = createdTs;
+        this.modifiedTs = modifiedTs;
+    }
+
+    public static MenuItemSnapshot from(MenuItem item) {
+        return new MenuItemSnapshot(item.getId(), item.getItemName(), item.getItemDescription(), item.getItemPrice(),
+                item.getItemImageUrl(), item.getItemCategory(), item.isAvailable(), item.isVeg(),
+                item.getRevision(), item.getCreatedTs(), item.getModifiedTs());
+    }
+
+    public UUID getId() { return id; }
+    public String getItemName() { return itemName; }
+    public String getItemDescription() { return itemDescription; }
+    public BigDecimal getItemPrice() { return itemPrice; }
+    public String getItemImageUrl() { return itemImageUrl; }
+    public String getItemCategory() { return itemCategory; }
+    public boolean isAvailable() { return isAvailable; }
+    public boolean isVeg() { return isVeg; }
+    public long getRevision() { return revision; }
+    public LocalDateTime getCreatedTs() { return createdTs; }
+    public LocalDateTime getModifiedTs() { return modifiedTs; }
+}
@@ -10,6 +10,7 @@ public class OrderRequestDTO {
     private String deliveryAddress;
     private boolean isSelfPickup;
     private String paymentMethod;
+    private String promoCode;
     private List<OrderItemRequestDTO> items;
 
     public OrderRequestDTO() {}
@@ -38,6 +39,8 @@ public class OrderRequestDTO {
     public void setSelfPickup(boolean selfPickup) { isSelfPickup = selfPickup; }
     public String getPaymentMethod() { return paymentMethod; }
     public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
+    public String getPromoCode() { return promoCode; }
+    public void setPromoCode(String promoCode) { this.promoCode = promoCode; }
     public List<OrderItemRequestDTO> getItems() { return items; }
     public void setItems(List<OrderItemRequestDTO> items) { this.items = items; }
 }
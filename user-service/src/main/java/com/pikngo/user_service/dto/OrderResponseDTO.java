@@ -1,8 +1,11 @@
 package com.pikngo.user_service.dto;
 
+import com.pikngo.user_service.entity.Order;
+
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import java.math.BigDecimal;
 
 public class OrderResponseDTO {
@@ -19,6 +22,7 @@ public class OrderResponseDTO {
     private LocalDateTime createdTs;
     private List<OrderItemResponseDTO> items;
     private Long pointsEarned;
+    private long version;
 
     public OrderResponseDTO() {}
 
@@ -54,6 +58,7 @@ public class OrderResponseDTO {
         private LocalDateTime createdTs;
         private List<OrderItemResponseDTO> items;
         private Long pointsEarned;
+        private long version;
 
         public OrderResponseDTOBuilder id(UUID id) { this.id = id; return this; }
         public OrderResponseDTOBuilder userId(UUID userId) { this.userId = userId; return this; }
@@ -68,9 +73,12 @@ public class OrderResponseDTO {
         public OrderResponseDTOBuilder createdTs(LocalDateTime createdTs) { this.createdTs = createdTs; return this; }
         public OrderResponseDTOBuilder items(List<OrderItemResponseDTO> items) { this.items = items; return this; }
         public OrderResponseDTOBuilder pointsEarned(Long pointsEarned) { this.pointsEarned = pointsEarned; return this; }
+        public OrderResponseDTOBuilder version(long version) { this.version = version; return this; }
 
         public OrderResponseDTO build() {
-            return new OrderResponseDTO(id, userId, userName, restaurantId, restaurantName, totalAmount, status, deliveryAddress, paymentMethod, isSelfPickup, createdTs, items, pointsEarned);
+            OrderResponseDTO dto = new OrderResponseDTO(id, userId, userName, restaurantId, restaurantName, totalAmount, status, deliveryAddress, paymentMethod, isSelfPickup, createdTs, items, pointsEarned);
+            dto.setVersion(version);
+            return dto;
         }
     }
 
@@ -78,6 +86,57 @@ public class OrderResponseDTO {
         return new OrderResponseDTOBuilder();
     }
 
+    public static OrderResponseDTO from(Order order) {
+        if (order == null) return null;
+
+        OrderResponseDTOBuilder builder = builder()
+                .id(order.getId())
+                .totalAmount(order.getTotalAmount())
+                .status(order.getStatus().name())
+                .deliveryAddress(order.getDeliveryAddress())
+                .isSelfPickup(order.isSelfPickup())
+                .paymentMethod(order.getPaymentMethod())
+                .pointsEarned(order.getPointsEarned())
+                .version(order.getVersion())
+                .createdTs(order.getCreatedTs());
+
+        if (order.getUser() != null) {
+            builder.userId(order.getUser().getId())
+                   .userName(order.getUser().getFirstName() + " " + order.getUser().getLastName());
+        }
+
+        if (order.getRestaurant() != null) {
+            builder.restaurantId(order.getRestaurant().getId())
+                   .restaurantName(order.getRestaurant().getRestaurantName());
+        }
+
+        if (order.getItems() != null) {
+            builder.items(order.getItems().stream().map(item -> {
+                OrderItemResponseDTO.OrderItemResponseDTOBuilder itemField = OrderItemResponseDTO.builder()
+                        .id(item.getId())
+                        .quantity(item.getQuantity())
+                        .price(item.getPrice());
+
+                if (item.getMenuItem() != null) {
+                    itemField.menuItemId(item.getMenuItem().getId())
+                             .itemName(item.getMenuItem().getItemName());
+                }
+
+                return itemField.build();
+            }).collect(Collectors.toList()));
+        }
+
+        return builder.build();
+    }
+
+    /** A copy of this order with another status and version, as after a status delta. */
+    public OrderResponseDTO withStatus(String status, long version) {
+        OrderResponseDTO copy = new OrderResponseDTO(id, userId, userName, restaurantId, restaurantName, totalAmount,
+                status, deliveryAddress, paymentMethod, isSelfPickup, createdTs, items, pointsEarned);
+        copy.setVersion(version);
+        return copy;
+    }
+
     public static class OrderItemResponseDTO {
         private UUID id;
         private UUID menuItemId;
@@ -153,4 +212,6 @@ public class OrderResponseDTO {
     public void setItems(List<OrderItemResponseDTO> items) { this.items = items; }
     public Long getPointsEarned() { return pointsEarned; }
     public void setPointsEarned(Long pointsEarned) { this.pointsEarned = pointsEarned; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
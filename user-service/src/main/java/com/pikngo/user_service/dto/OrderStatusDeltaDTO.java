@@ -0,0 +1,71 @@
+package com.pikngo.user_service.dto;
+
+import com.pikngo.user_service.entity.Order;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A change of an order's status, as broadcast to its subscribers instead of the whole order.
+ * {@code type} tells it apart from a full {@link OrderResponseDTO}; {@code version} orders it
+ * against other states of the same order, so clients ignore deltas older than what they have.
+ * Clients that do not have the order fetch it from {@code GET /api/v1/orders/{id}}.
+ */
+public class OrderStatusDeltaDTO {
+    public static final String TYPE = "ORDER_STATUS";
+
+    private UUID id;
+    private String status;
+    private long version;
+    private LocalDateTime modifiedTs;
+
+    public OrderStatusDeltaDTO() {}
+
+    public OrderStatusDeltaDTO(UUID id, String status, long version, LocalDateTime modifiedTs) {
+        this.id = id;
+        this.status = status;
+        this.version = version;
+        this.modifiedTs = modifiedTs;
+    }
+
+    public static OrderStatusDeltaDTO from(Order order) {
+        return new OrderStatusDeltaDTO(order.getId(), order.getStatus().name(), order.getVersion(),
+                order.getModifiedTs());
+    }
+
+    public String getType() {
+        return TYPE;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getModifiedTs() {
+        return modifiedTs;
+    }
+
+    public void setModifiedTs(LocalDateTime modifiedTs) {
+        this.modifiedTs = modifiedTs;
+    }
+}
@@ -0,0 +1,81 @@
+package com.pikngo.user_service.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Server-side price of a cart: the current menu price of every line and the order totals.
+ * {@code total} is {@code subtotal - discount + tax + deliveryFee}, tax being charged on the
+ * discounted subtotal.
+ */
+public class PriceQuoteDTO {
+    private UUID restaurantId;
+    private List<LineDTO> items;
+    private BigDecimal subtotal;
+    private String promoCode;
+    private BigDecimal discount;
+    private BigDecimal tax;
+    private BigDecimal deliveryFee;
+    private BigDecimal total;
+
+    public PriceQuoteDTO() {}
+
+    public PriceQuoteDTO(UUID restaurantId, List<LineDTO> items, BigDecimal subtotal, String promoCode,
+                         BigDecimal discount, BigDecimal tax, BigDecimal deliveryFee, BigDecimal total) {
+        this.restaurantId = restaurantId;
+        this.items = items;
+        this.subtotal = subtotal;
+        this.promoCode = promoCode;
+        this.discount = discount;
+        this.tax = tax;
+        this.deliveryFee = deliveryFee;
+        this.total = total;
+    }
+
+    public static class LineDTO {
+        private UUID menuItemId;
+        private String itemName;
+        private Integer quantity;
+        private BigDecimal unitPrice;
+        private BigDecimal lineTotal;
+
+        public LineDTO() {}
+
+        public LineDTO(UUID menuItemId, String itemName, Integer quantity, BigDecimal unitPrice, BigDecimal lineTotal) {
+            this.menuItemId = menuItemId;
+            this.itemName = itemName;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+            this.lineTotal = lineTotal;
+        }
+
+        public UUID getMenuItemId() { return menuItemId; }
+        public void setMenuItemId(UUID menuItemId) { this.menuItemId = menuItemId; }
+        public String getItemName() { return itemName; }
+        public void setItemName(String itemName) { this.itemName = itemName; }
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+        public BigDecimal getUnitPrice() { return unitPrice; }
+        public void setUnitPrice(BigDecimal unitPrice) { this.unitPrice = unitPrice; }
+        public BigDecimal getLineTotal() { return lineTotal; }
+        public void setLineTotal(BigDecimal lineTotal) { this.lineTotal = lineTotal; }
+    }
+
+    public UUID getRestaurantId() { return restaurantId; }
+    public void setRestaurantId(UUID restaurantId) { this.restaurantId = restaurantId; }
+    public List<LineDTO> getItems() { return items; }
+    public void setItems(List<LineDTO> items) { this.items = items; }
+    public BigDecimal getSubtotal() { return subtotal; }
+    public void setSubtotal(BigDecimal subtotal) { this.subtotal = subtotal; }
+    public String getPromoCode() { return promoCode; }
+    public void setPromoCode(String promoCode) { this.promoCode = promoCode; }
+    public BigDecimal getDiscount() { return discount; }
+    public void setDiscount(BigDecimal discount) { this.discount = discount; }
+    public BigDecimal getTax() { return tax; }
+    public void setTax(BigDecimal tax) { this.tax = tax; }
+    public BigDecimal getDeliveryFee() { return deliveryFee; }
+    public void setDeliveryFee(BigDecimal deliveryFee) { this.deliveryFee = deliveryFee; }
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+}
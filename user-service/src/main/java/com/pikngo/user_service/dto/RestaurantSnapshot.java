@@ -0,0 +1,83 @@
+package com.pikngo.user_service.dto;
+
+import com.pikngo.user_service.entity.Restaurant;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Immutable, detached copy of a restaurant's public fields.
+ * Used by the in-memory indexes so that reads never hold on to managed entities
+ * (and their lazy menu collections).
+ */
+public final class RestaurantSnapshot {
+    private final UUID id;
+    private final String restaurantName;
+    private final String address;
+    private final Double latitude;
+    private final Double longitude;
+    private final String imageUrl;
+    private final String category;
+    private final Double rating;
+    private final String deliveryTime;
+    private final boolean isActive;
+    private final boolean isDeleted;
+
+    public RestaurantSnapshot(UUID id, String restaurantName, String address, Double latitude, Double longitude,
+                              String imageUrl, String category, Double rating, String deliveryTime,
+                              boolean isActive, boolean isDeleted) {
+        this.id = id;
+        this.restaurantName = restaurantName;
+        this.address = address;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.imageUrl = imageUrl;
+        this.category = category;
+        this.rating = rating;
+        this.deliveryTime = deliveryTime;
+        this.isActive = isActive;
+        this.isDeleted = isDeleted;
+    }
+
+    public static RestaurantSnapshot from(Restaurant restaurant) {
+        return new RestaurantSnapshot(restaurant.getId(), restaurant.getRestaurantName(), restaurant.getAddress(),
+                restaurant.getLatitude(), restaurant.getLongitude(), restaurant.getImageUrl(), restaurant.getCategory(),
+                restaurant.getRating(), restaurant.getDeliveryTime(), restaurant.isActive(), restaurant.isDeleted());
+    }
+
+    /** Active, not deleted and with coordinates, i.e. eligible for geo searches. */
+    public boolean isSearchable() {
+        return isActive && !isDeleted && latitude != null && longitude != null;
+    }
+
+    public UUID getId() { return id; }
+    public String getRestaurantName() { return restaurantName; }
+    public String getAddress() { return address; }
+    public Double getLatitude() { return latitude; }
+    public Double getLongitude() { return longitude; }
+    public String getImageUrl() { return imageUrl; }
+    public String getCategory() { return category; }
+    public Double getRating() { return rating; }
+    public String getDeliveryTime() { return deliveryTime; }
+    public boolean isActive() { return isActive; }
+    public boolean isDeleted() { return isDeleted; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RestaurantSnapshot)) return false;
+        RestaurantSnapshot that = (RestaurantSnapshot) o;
+        return isActive == that.isActive && isDeleted == that.isDeleted
+                && Objects.equals(id, that.id) && Objects.equals(restaurantName, that.restaurantName)
+                && Objects.equals(address, that.address) && Objects.equals(latitude, that.latitude)
+                && Objects.equals(longitude, that.longitude) && Objects.equals(imageUrl, that.imageUrl)
+                && Objects.equals(category, that.category) && Objects.equals(rating, that.rating)
+                && Objects.equals(deliveryTime, that.deliveryTime);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, restaurantName, address, latitude, longitude, imageUrl, category, rating,
+                deliveryTime, isActive, isDeleted);
+    }
+}
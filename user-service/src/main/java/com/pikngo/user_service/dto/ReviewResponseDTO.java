@@ -1,5 +1,7 @@
 package com.pikngo.user_service.dto;
 
+import com.pikngo.user_service.entity.Review;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -37,6 +39,31 @@ public class ReviewResponseDTO {
 
     public static Builder builder() { return new Builder(); }
 
+    public static ReviewResponseDTO from(Review review) {
+        if (review == null) return null;
+
+        Builder builder = builder()
+                .id(review.getId())
+                .rating(review.getRating())
+                .comment(review.getComment())
+                .photoUrl(review.getPhotoUrl())
+                .isEliteReview(review.isEliteReview())
+                .createdTs(review.getCreatedTs());
+
+        if (review.getUser() != null) {
+            builder.userId(review.getUser().getId())
+                   .userName(review.getUser().getFirstName() + " " + review.getUser().getLastName())
+                   .userPhotoUrl(review.getUser().getProfileImageUrl());
+        }
+
+        if (review.getRestaurant() != null) {
+            builder.restaurantId(review.getRestaurant().getId())
+                   .restaurantName(review.getRestaurant().getRestaurantName());
+        }
+
+        return builder.build();
+    }
+
     // Standard Getters and Setters
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
@@ -1,5 +1,8 @@
 package com.pikngo.user_service.dto;
 
+import com.pikngo.user_service.entity.MenuItem;
+import com.pikngo.user_service.entity.Restaurant;
+
 import java.math.BigDecimal;
 import java.util.UUID;
 
@@ -38,6 +41,19 @@ public class TrendingItemDTO {
         this.orderCount = orderCount;
     }
 
+    public static TrendingItemDTO of(MenuItem item, long orderCount) {
+        Restaurant restaurant = item.getRestaurant();
+        return new TrendingItemDTO(item.getId(), item.getItemName(), item.getItemCategory(), item.getItemPrice(),
+                item.getItemImageUrl(), item.isVeg(), restaurant.getId(), restaurant.getRestaurantName(),
+                restaurant.getRating(), restaurant.getDeliveryTime(), orderCount);
+    }
+
+    /** A copy with another order count. */
+    public TrendingItemDTO withOrderCount(long orderCount) {
+        return new TrendingItemDTO(menuItemId, name, category, price, imageUrl, isVeg, restaurantId,
+                restaurantName, rating, deliveryTime, orderCount);
+    }
+
     public UUID getMenuItemId() { return menuItemId; }
     public void setMenuItemId(UUID menuItemId) { this.menuItemId = menuItemId; }
 
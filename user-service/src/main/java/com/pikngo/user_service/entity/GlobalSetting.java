@@ -27,4 +27,15 @@ public class GlobalSetting {
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
+
+    /** Settings in effect until an admin saves the configuration row. */
+    public static GlobalSetting defaults() {
+        return GlobalSetting.builder()
+                .id(1L)
+                .platformName("PikNGo Premium")
+                .maintenanceMode(false)
+                .deliveryFee(45.0)
+                .taxPercentage(5.0)
+                .build();
+    }
 }
@@ -2,6 +2,7 @@ package com.pikngo.user_service.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -10,7 +11,7 @@ import java.util.UUID;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "menu_items")
+@Table(name = "menu_items", indexes = @Index(name = "idx_menu_items_restaurant_revision", columnList = "restaurant_id, revision"))
 public class MenuItem {
 
     @Id
@@ -39,6 +40,19 @@ public class MenuItem {
     @Column(name = "is_veg")
     private boolean isVeg = true;
 
+    /**
+     * The restaurant's menu revision at which this item last changed; see
+     * {@link Restaurant#getMenuRevision()}.
+     */
+    @ColumnDefault("0")
+    @Column(name = "revision", nullable = false)
+    private long revision;
+
+    /** Deleted items are kept as tombstones so that menu deltas can report the deletion. */
+    @ColumnDefault("false")
+    @Column(name = "is_deleted", nullable = false)
+    private boolean isDeleted = false;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "restaurant_id")
     @JsonBackReference
@@ -109,6 +123,10 @@ public class MenuItem {
     public void setAvailable(boolean available) { isAvailable = available; }
     public boolean isVeg() { return isVeg; }
     public void setVeg(boolean veg) { isVeg = veg; }
+    public long getRevision() { return revision; }
+    public void setRevision(long revision) { this.revision = revision; }
+    public boolean isDeleted() { return isDeleted; }
+    public void setDeleted(boolean deleted) { isDeleted = deleted; }
     public Restaurant getRestaurant() { return restaurant; }
     public void setRestaurant(Restaurant restaurant) { this.restaurant = restaurant; }
     public LocalDateTime getCreatedTs() { return createdTs; }
@@ -2,6 +2,7 @@ package com.pikngo.user_service.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -11,7 +12,12 @@ import java.util.UUID;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_created", columnList = "user_id, created_ts, _id"),
+        @Index(name = "idx_orders_restaurant_created", columnList = "restaurant_id, created_ts, _id"),
+        @Index(name = "idx_orders_created", columnList = "created_ts, _id")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_orders_user_idempotency_key",
+        columnNames = {"user_id", "idempotency_key"}))
 public class Order {
 
     public enum OrderStatus {
@@ -51,9 +57,26 @@ public class Order {
     @Column(name = "points_earned")
     private Long pointsEarned = 0L;
 
+    /** The client's Idempotency-Key of the request that placed this order, if it sent one. */
+    @Column(name = "idempotency_key", length = 100, updatable = false)
+    private String idempotencyKey;
+
+    /** Digest of the request that placed this order with its Idempotency-Key; see {@code IdempotencyKeyStore}. */
+    @Column(name = "idempotency_fingerprint", length = 64, updatable = false)
+    private String idempotencyFingerprint;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> items;
 
+    /**
+     * Incremented on every change, so clients can tell which of two states of an order is newer
+     * and concurrent updates cannot overwrite each other.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @CreationTimestamp
     @Column(name = "created_ts", updatable = false)
     private LocalDateTime createdTs;
@@ -122,8 +145,14 @@ public class Order {
     public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
     public Long getPointsEarned() { return pointsEarned; }
     public void setPointsEarned(Long pointsEarned) { this.pointsEarned = pointsEarned; }
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+    public String getIdempotencyFingerprint() { return idempotencyFingerprint; }
+    public void setIdempotencyFingerprint(String idempotencyFingerprint) { this.idempotencyFingerprint = idempotencyFingerprint; }
     public List<OrderItem> getItems() { return items; }
     public void setItems(List<OrderItem> items) { this.items = items; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
     public LocalDateTime getCreatedTs() { return createdTs; }
     public void setCreatedTs(LocalDateTime createdTs) { this.createdTs = createdTs; }
     public LocalDateTime getModifiedTs() { return modifiedTs; }
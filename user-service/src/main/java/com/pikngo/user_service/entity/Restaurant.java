@@ -2,6 +2,7 @@ package com.pikngo.user_service.entity;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -10,7 +11,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "restaurants")
+@Table(name = "restaurants", indexes = @Index(name = "idx_restaurants_lat_lon", columnList = "latitude, longitude"))
 public class Restaurant {
 
     @Id
@@ -48,6 +49,16 @@ public class Restaurant {
     @Column(name = "is_deleted")
     private boolean isDeleted = false;
 
+    /**
+     * Bumped by every change to the restaurant's menu; the changed items are stamped with the new
+     * value. Menu clients sync by asking for the items changed since the revision they last saw.
+     * Only {@code RestaurantRepository.incrementMenuRevision} writes it: saving a loaded restaurant
+     * must not write back a stale value and let the revision go backwards.
+     */
+    @ColumnDefault("0")
+    @Column(name = "menu_revision", nullable = false, insertable = false, updatable = false)
+    private long menuRevision;
+
     @OneToMany(mappedBy = "restaurant", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
     private List<MenuItem> menuItems;
@@ -129,6 +140,7 @@ public class Restaurant {
     public void setActive(boolean active) { isActive = active; }
     public boolean isDeleted() { return isDeleted; }
     public void setDeleted(boolean deleted) { isDeleted = deleted; }
+    public long getMenuRevision() { return menuRevision; }
     public List<MenuItem> getMenuItems() { return menuItems; }
     public void setMenuItems(List<MenuItem> menuItems) { this.menuItems = menuItems; }
     public LocalDateTime getCreatedTs() { return createdTs; }
@@ -0,0 +1,23 @@
+package com.pikngo.user_service.event;
+
+import com.pikngo.user_service.dto.TrendingItemDTO;
+
+import java.util.List;
+
+/**
+ * Published when an order of a listed restaurant is placed, with one entry per order line whose
+ * {@code orderCount} is the quantity ordered. Counted towards trending items only after the
+ * surrounding transaction commits.
+ */
+public class ItemsOrderedEvent {
+
+    private final List<TrendingItemDTO> items;
+
+    public ItemsOrderedEvent(List<TrendingItemDTO> items) {
+        this.items = items;
+    }
+
+    public List<TrendingItemDTO> getItems() {
+        return items;
+    }
+}
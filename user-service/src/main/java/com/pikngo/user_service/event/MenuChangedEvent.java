@@ -0,0 +1,20 @@
+package com.pikngo.user_service.event;
+
+import java.util.UUID;
+
+/**
+ * Published whenever a menu item of a restaurant is added, changed or removed. Listeners that
+ * keep in-memory copies of menus should react after the surrounding transaction commits.
+ */
+public class MenuChangedEvent {
+
+    private final UUID restaurantId;
+
+    public MenuChangedEvent(UUID restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    public UUID getRestaurantId() {
+        return restaurantId;
+    }
+}
@@ -0,0 +1,27 @@
+package com.pikngo.user_service.event;
+
+import com.pikngo.user_service.dto.OrderResponseDTO;
+
+import java.util.UUID;
+
+/**
+ * Published when an order is placed, carrying the order as clients see it. It is broadcast to
+ * WebSocket subscribers only after the surrounding transaction commits, so orders that roll back
+ * are never announced. Status changes are published as the smaller {@link OrderStatusChangedEvent}.
+ */
+public class OrderChangedEvent {
+
+    private final OrderResponseDTO order;
+
+    public OrderChangedEvent(OrderResponseDTO order) {
+        this.order = order;
+    }
+
+    public UUID getOrderId() {
+        return order.getId();
+    }
+
+    public OrderResponseDTO getOrder() {
+        return order;
+    }
+}
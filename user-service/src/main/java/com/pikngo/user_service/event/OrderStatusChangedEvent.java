@@ -0,0 +1,38 @@
+package com.pikngo.user_service.event;
+
+import com.pikngo.user_service.dto.OrderStatusDeltaDTO;
+
+import java.util.UUID;
+
+/**
+ * Published when an order's status changes, carrying only the delta and the ids that pick the
+ * order's topics. Like {@link OrderChangedEvent} it is broadcast after the transaction commits.
+ */
+public class OrderStatusChangedEvent {
+
+    private final OrderStatusDeltaDTO delta;
+    private final UUID restaurantId;
+    private final UUID userId;
+
+    public OrderStatusChangedEvent(OrderStatusDeltaDTO delta, UUID restaurantId, UUID userId) {
+        this.delta = delta;
+        this.restaurantId = restaurantId;
+        this.userId = userId;
+    }
+
+    public UUID getOrderId() {
+        return delta.getId();
+    }
+
+    public OrderStatusDeltaDTO getDelta() {
+        return delta;
+    }
+
+    public UUID getRestaurantId() {
+        return restaurantId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,8 @@
+package com.pikngo.user_service.event;
+
+/**
+ * Published whenever the global settings or a promotion are written, so that cached pricing
+ * rules are reloaded after the surrounding transaction commits.
+ */
+public class PricingChangedEvent {
+}
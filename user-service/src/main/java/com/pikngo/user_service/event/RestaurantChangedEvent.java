@@ -0,0 +1,20 @@
+package com.pikngo.user_service.event;
+
+import com.pikngo.user_service.dto.RestaurantSnapshot;
+
+/**
+ * Published whenever a restaurant row is written. Listeners that keep in-memory
+ * copies of the catalog should react after the surrounding transaction commits.
+ */
+public class RestaurantChangedEvent {
+
+    private final RestaurantSnapshot restaurant;
+
+    public RestaurantChangedEvent(RestaurantSnapshot restaurant) {
+        this.restaurant = restaurant;
+    }
+
+    public RestaurantSnapshot getRestaurant() {
+        return restaurant;
+    }
+}
@@ -58,6 +58,23 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Handle RestaurantNotFoundException - when a restaurant is not found by ID
+     */
+    @ExceptionHandler(RestaurantNotFoundException.class)
+    public ResponseEntity<Object> handleRestaurantNotFound(RestaurantNotFoundException ex, WebRequest request) {
+        log.warn("RestaurantNotFoundException: {}", ex.getMessage());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.NOT_FOUND.value());
+        body.put("error", "Restaurant Not Found");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false).replace("uri=", ""));
+
+        return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
+    }
+
     /**
      * Handle InvalidOtpException - when OTP verification fails
      */
@@ -92,6 +109,111 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handle InvalidRouteException - when a route search polyline cannot be used
+     */
+    @ExceptionHandler(InvalidRouteException.class)
+    public ResponseEntity<Object> handleInvalidRoute(InvalidRouteException ex, WebRequest request) {
+        log.warn("InvalidRouteException: {}", ex.getMessage());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Invalid Route");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false).replace("uri=", ""));
+
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handle InvalidPageRequestException - when a page size or cursor is rejected
+     */
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public ResponseEntity<Object> handleInvalidPageRequest(InvalidPageRequestException ex, WebRequest request) {
+        log.warn("InvalidPageRequestException: {}", ex.getMessage());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Invalid Page Request");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false).replace("uri=", ""));
+
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handle InvalidExportRequestException - when an order export's range or format is rejected
+     */
+    @ExceptionHandler(InvalidExportRequestException.class)
+    public ResponseEntity<Object> handleInvalidExportRequest(InvalidExportRequestException ex, WebRequest request) {
+        log.warn("InvalidExportRequestException: {}", ex.getMessage());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Invalid Export Request");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false).replace("uri=", ""));
+
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handle MenuImportException - when rows of a bulk menu import fail validation
+     */
+    @ExceptionHandler(MenuImportException.class)
+    public ResponseEntity<Object> handleMenuImport(MenuImportException ex, WebRequest request) {
+        log.warn("MenuImportException: {}", ex.getMessage());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Invalid Menu Import");
+        body.put("message", ex.getMessage());
+        body.put("errorCount", ex.getErrorCount());
+        body.put("rowErrors", ex.getRowErrors());
+        body.put("path", request.getDescription(false).replace("uri=", ""));
+
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handle InvalidOrderException - when line items of an order cannot be ordered
+     */
+    @ExceptionHandler(InvalidOrderException.class)
+    public ResponseEntity<Object> handleInvalidOrder(InvalidOrderException ex, WebRequest request) {
+        log.warn("InvalidOrderException: {}", ex.getItemErrors());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Invalid Order");
+        body.put("message", ex.getMessage());
+        body.put("itemErrors", ex.getItemErrors());
+        body.put("path", request.getDescription(false).replace("uri=", ""));
+
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handle IdempotencyConflictException - when a retried order is still being placed by the first request
+     */
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<Object> handleIdempotencyConflict(IdempotencyConflictException ex, WebRequest request) {
+        log.warn("IdempotencyConflictException: {}", ex.getMessage());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.CONFLICT.value());
+        body.put("error", "Request In Progress");
+        body.put("message", ex.getMessage());
+        body.put("path", request.getDescription(false).replace("uri=", ""));
+
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
     /**
      * Handle HttpMessageNotReadableException - when JSON parsing fails
      */
@@ -0,0 +1,15 @@
+package com.pikngo.user_service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A request reused the Idempotency-Key of one that is still being processed, in which case the
+ * client should retry it later with the same key, or of a different request.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.pikngo.user_service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * An order export was asked for with a date range or format it cannot be produced with.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidExportRequestException extends RuntimeException {
+    public InvalidExportRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,26 @@
+package com.pikngo.user_service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+/**
+ * An order was rejected because some of its line items cannot be ordered; carries the reason
+ * for every such item.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidOrderException extends RuntimeException {
+
+    private final List<String> itemErrors;
+
+    public InvalidOrderException(List<String> itemErrors) {
+        super(itemErrors.size() == 1 ? itemErrors.get(0)
+                : itemErrors.size() + " items in the order cannot be ordered");
+        this.itemErrors = List.copyOf(itemErrors);
+    }
+
+    public List<String> getItemErrors() {
+        return itemErrors;
+    }
+}
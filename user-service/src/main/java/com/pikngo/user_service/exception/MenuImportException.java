@@ -0,0 +1,32 @@
+package com.pikngo.user_service.exception;
+
+import com.pikngo.user_service.dto.MenuImportErrorDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+/**
+ * A bulk menu import was rejected; nothing from it was saved. Carries the per-row errors, of
+ * which at most a fixed number are listed.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class MenuImportException extends RuntimeException {
+
+    private final List<MenuImportErrorDTO> rowErrors;
+    private final int errorCount;
+
+    public MenuImportException(List<MenuImportErrorDTO> rowErrors, int errorCount) {
+        super(errorCount + " invalid row(s) in menu import; nothing was imported");
+        this.rowErrors = List.copyOf(rowErrors);
+        this.errorCount = errorCount;
+    }
+
+    public List<MenuImportErrorDTO> getRowErrors() {
+        return rowErrors;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+}
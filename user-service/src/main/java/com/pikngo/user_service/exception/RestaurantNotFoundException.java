@@ -0,0 +1,11 @@
+package com.pikngo.user_service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class RestaurantNotFoundException extends RuntimeException {
+    public RestaurantNotFoundException(String message) {
+        super(message);
+    }
+}
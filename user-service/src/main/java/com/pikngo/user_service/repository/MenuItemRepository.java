@@ -15,6 +15,7 @@ import java.util.UUID;
 public interface MenuItemRepository extends JpaRepository<MenuItem, UUID> {
     List<MenuItem> findByRestaurantId(UUID restaurantId);
     List<MenuItem> findByRestaurant(Restaurant restaurant);
+    long countByRestaurantAndIsDeletedFalse(Restaurant restaurant);
 
     @Modifying
     @Transactional
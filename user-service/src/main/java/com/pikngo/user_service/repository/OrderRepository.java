@@ -2,20 +2,76 @@ package com.pikngo.user_service.repository;
 
 import com.pikngo.user_service.dto.TrendingItemDTO;
 import com.pikngo.user_service.entity.Order;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, UUID> {
-    List<Order> findByUserIdOrderByCreatedTsDesc(UUID userId);
-    List<Order> findByRestaurantIdOrderByCreatedTsDesc(UUID restaurantId);
+    // Order lists are read in two queries: the orders with their user and restaurant joined, then
+    // the items and menu items of all of them with findWithItemsByIdIn.
+    //
+    // Order histories are paged on (created_ts, id), newest first: a page starts right after the
+    // last order of the previous one, so it is an index range scan however deep it is. The
+    // Pageable only limits the rows; list results run no count query.
+    @EntityGraph(attributePaths = {"user", "restaurant"})
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdTs DESC, o.id DESC")
+    List<Order> findUserOrderPage(UUID userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user", "restaurant"})
+    @Query("""
+            SELECT o FROM Order o
+            WHERE o.user.id = :userId
+              AND (o.createdTs < :afterTs OR (o.createdTs = :afterTs AND o.id < :afterId))
+            ORDER BY o.createdTs DESC, o.id DESC
+            """)
+    List<Order> findUserOrderPageAfter(UUID userId, LocalDateTime afterTs, UUID afterId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user", "restaurant"})
+    @Query("SELECT o FROM Order o WHERE o.restaurant.id = :restaurantId ORDER BY o.createdTs DESC, o.id DESC")
+    List<Order> findRestaurantOrderPage(UUID restaurantId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user", "restaurant"})
+    @Query("""
+            SELECT o FROM Order o
+            WHERE o.restaurant.id = :restaurantId
+              AND (o.createdTs < :afterTs OR (o.createdTs = :afterTs AND o.id < :afterId))
+            ORDER BY o.createdTs DESC, o.id DESC
+            """)
+    List<Order> findRestaurantOrderPageAfter(UUID restaurantId, LocalDateTime afterTs, UUID afterId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user", "restaurant"})
+    Page<Order> findAllBy(Pageable pageable);
+
     List<Order> findAllByOrderByCreatedTsDesc();
 
+    /**
+     * Loads the items of the given orders, with their menu items, into the orders already in the
+     * persistence context. Collections are fetched apart from the order page so that its limit
+     * stays in SQL.
+     */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.menuItem WHERE o.id IN :ids")
+    List<Order> findWithItemsByIdIn(Collection<UUID> ids);
+
+    /** One order with everything {@code OrderResponseDTO.from} reads, in one query. */
+    @EntityGraph(attributePaths = {"user", "restaurant", "items", "items.menuItem"})
+    Optional<Order> findWithDetailsById(UUID id);
+
+    @EntityGraph(attributePaths = {"user", "restaurant", "items", "items.menuItem"})
+    Optional<Order> findWithDetailsByUserIdAndIdempotencyKey(UUID userId, String idempotencyKey);
+
+    @Query("SELECT o.user.id FROM Order o WHERE o.id = :orderId")
+    Optional<UUID> findUserIdById(UUID orderId);
+
     @org.springframework.data.jpa.repository.Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status = 'DELIVERED'")
     java.math.BigDecimal calculateTotalRevenue();
 
@@ -39,7 +95,7 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
             FROM OrderItem oi
             JOIN oi.menuItem mi
             JOIN mi.restaurant r
-            WHERE mi.isAvailable = true AND r.isActive = true AND r.isDeleted = false
+            WHERE mi.isAvailable = true AND mi.isDeleted = false AND r.isActive = true AND r.isDeleted = false
             GROUP BY mi.id, mi.itemName, mi.itemCategory, mi.itemPrice,
                      mi.itemImageUrl, mi.isVeg, r.id, r.restaurantName, r.rating, r.deliveryTime
             ORDER BY SUM(oi.quantity) DESC
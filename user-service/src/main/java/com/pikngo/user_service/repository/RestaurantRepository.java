@@ -1,7 +1,9 @@
 package com.pikngo.user_service.repository;
 
+import com.pikngo.user_service.dto.RestaurantSnapshot;
 import com.pikngo.user_service.entity.Restaurant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -14,11 +16,42 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, UUID> {
     @Query("SELECT r FROM Restaurant r WHERE (r.isActive = true OR r.isActive IS NULL) AND r.isDeleted = false")
     List<Restaurant> findByIsActiveTrueAndIsDeletedFalse();
 
-    @Query(value = "SELECT r._id as id, r.restaurant_name as restaurantName, r.address as address, r.latitude as latitude, r.longitude as longitude, " +
+    @Query("SELECT new com.pikngo.user_service.dto.RestaurantSnapshot(r.id, r.restaurantName, r.address, r.latitude, r.longitude, " +
+            "r.imageUrl, r.category, r.rating, r.deliveryTime, r.isActive, r.isDeleted) " +
+            "FROM Restaurant r WHERE (r.isActive = true OR r.isActive IS NULL) AND r.isDeleted = false " +
+            "AND r.latitude IS NOT NULL AND r.longitude IS NOT NULL")
+    List<RestaurantSnapshot> findSearchableSnapshots();
+
+    @Query("SELECT new com.pikngo.user_service.dto.RestaurantSnapshot(r.id, r.restaurantName, r.address, r.latitude, r.longitude, " +
+            "r.imageUrl, r.category, r.rating, r.deliveryTime, r.isActive, r.isDeleted) " +
+            "FROM Restaurant r ORDER BY r.createdTs, r.id")
+    List<RestaurantSnapshot> findAllSnapshots();
+
+    /**
+     * Bumps the restaurant's menu revision. The row stays locked until the calling transaction
+     * ends, so concurrent menu edits of one restaurant take revisions in commit order.
+     */
+    @Modifying
+    @Query("UPDATE Restaurant r SET r.menuRevision = r.menuRevision + 1 WHERE r.id = :restaurantId")
+    int incrementMenuRevision(UUID restaurantId);
+
+    @Query("SELECT r.menuRevision FROM Restaurant r WHERE r.id = :restaurantId")
+    long findMenuRevision(UUID restaurantId);
+
+    /**
+     * Nearby search that filters on the bounding box first (served by idx_restaurants_lat_lon) and
+     * computes the exact distance only for rows inside the box. Parameters: lat, lon, radius in km,
+     * then minLat, maxLat, minLon, maxLon of the box.
+     */
+    String NEARBY_IN_BOX_QUERY = "SELECT * FROM (" +
+            "SELECT r._id as id, r.restaurant_name as restaurantName, r.address as address, r.latitude as latitude, r.longitude as longitude, " +
             "r.image_url as imageUrl, r.category as category, r.rating as rating, r.delivery_time as deliveryTime, r.is_active as isActive, " +
-            "(6371 * acos(cos(radians(?1)) * cos(radians(r.latitude)) * cos(radians(r.longitude) - radians(?2)) + sin(radians(?1)) * sin(radians(r.latitude)))) as distance " +
-            "FROM restaurants r WHERE (r.is_active = true OR r.is_active IS NULL) AND r.is_deleted = false AND " +
-            "(6371 * acos(cos(radians(?1)) * cos(radians(r.latitude)) * cos(radians(r.longitude) - radians(?2)) + sin(radians(?1)) * sin(radians(r.latitude)))) < ?3 " +
-            "ORDER BY distance ASC", nativeQuery = true)
-    List<RestaurantWithDistance> findNearbyRestaurants(Double lat, Double lon, Double radiusInKm);
+            "(6371 * acos(LEAST(1.0, cos(radians(?1)) * cos(radians(r.latitude)) * cos(radians(r.longitude) - radians(?2)) + sin(radians(?1)) * sin(radians(r.latitude))))) as distance " +
+            "FROM restaurants r WHERE r.latitude BETWEEN ?4 AND ?5 AND r.longitude BETWEEN ?6 AND ?7 " +
+            "AND (r.is_active = true OR r.is_active IS NULL) AND r.is_deleted = false" +
+            ") candidates WHERE candidates.distance < ?3 ORDER BY candidates.distance ASC";
+
+    @Query(value = NEARBY_IN_BOX_QUERY, nativeQuery = true)
+    List<RestaurantWithDistance> findNearbyRestaurantsInBox(Double lat, Double lon, Double radiusInKm,
+                                                            Double minLat, Double maxLat, Double minLon, Double maxLon);
 }
@@ -1,12 +1,22 @@
 package com.pikngo.user_service.service;
 
+import com.pikngo.user_service.dto.MenuImportResultDTO;
+import com.pikngo.user_service.dto.MenuItemSnapshot;
 import com.pikngo.user_service.entity.MenuItem;
+import com.pikngo.user_service.utils.RenderedJson;
+import org.springframework.http.MediaType;
+
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
 
 public interface MenuItemService {
-    List<MenuItem> getMenuItemsByRestaurant(UUID restaurantId);
+    List<MenuItemSnapshot> getMenuItemsByRestaurant(UUID restaurantId);
+    RenderedJson getMenuResponse(UUID restaurantId);
+    RenderedJson getMenuDeltaResponse(UUID restaurantId, long since);
     MenuItem addMenuItem(UUID restaurantId, MenuItem menuItem);
     MenuItem updateMenuItem(UUID id, MenuItem menuItem);
     void deleteMenuItem(UUID id);
+    MenuItem setAvailability(UUID id, boolean available);
+    MenuImportResultDTO importMenu(UUID restaurantId, InputStream body, MediaType contentType);
 }
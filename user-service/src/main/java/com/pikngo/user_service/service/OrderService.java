@@ -1,20 +1,26 @@
 package com.pikngo.user_service.service;
 
+import com.pikngo.user_service.dto.CursorPageDTO;
 import com.pikngo.user_service.dto.OrderRequestDTO;
 import com.pikngo.user_service.dto.OrderResponseDTO;
+import com.pikngo.user_service.dto.OrderStatusDeltaDTO;
+import com.pikngo.user_service.dto.PriceQuoteDTO;
 import com.pikngo.user_service.entity.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
-import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface OrderService {
     OrderResponseDTO placeOrder(UUID userId, OrderRequestDTO request);
+    OrderResponseDTO placeOrder(UUID userId, OrderRequestDTO request, String idempotencyKey);
+    PriceQuoteDTO quoteOrder(OrderRequestDTO request);
     OrderResponseDTO getOrderById(UUID orderId);
-    List<OrderResponseDTO> getUserOrders(UUID userId);
-    List<OrderResponseDTO> getRestaurantOrders(UUID restaurantId);
+    Optional<OrderResponseDTO> getOrderByIdempotencyKey(UUID userId, String idempotencyKey, String fingerprint);
+    CursorPageDTO<OrderResponseDTO> getUserOrders(UUID userId, Integer limit, String cursor);
+    CursorPageDTO<OrderResponseDTO> getRestaurantOrders(UUID restaurantId, Integer limit, String cursor);
     Page<OrderResponseDTO> getAllOrders(Pageable pageable);
-    OrderResponseDTO updateOrderStatus(UUID orderId, Order.OrderStatus status);
+    OrderStatusDeltaDTO updateOrderStatus(UUID orderId, Order.OrderStatus status);
     OrderResponseDTO updateOrderAddress(UUID orderId, String address);
 }
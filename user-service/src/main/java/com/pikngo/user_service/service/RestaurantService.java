@@ -1,7 +1,9 @@
 package com.pikngo.user_service.service;
 
+import com.pikngo.user_service.dto.CursorPageDTO;
 import com.pikngo.user_service.entity.Restaurant;
 import com.pikngo.user_service.dto.RestaurantResponseDTO;
+import com.pikngo.user_service.utils.RenderedJson;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,10 +14,21 @@ public interface RestaurantService {
 
     List<RestaurantResponseDTO> getNearbyRestaurants(Double lat, Double lon, Double radius);
 
+    CursorPageDTO<RestaurantResponseDTO> getNearestRestaurants(Double lat, Double lon, Integer k, String cursor);
+
     List<RestaurantResponseDTO> getRestaurantsBetweenLocations(Double srcLat, Double srcLon, Double destLat, Double destLon,
             Double radius);
 
+    List<RestaurantResponseDTO> getRestaurantsAlongRoute(String polyline, Double radius);
+
     List<RestaurantResponseDTO> getAllActiveRestaurants();
+
+    /** The full active-restaurant response, serialized once per catalog version. */
+    RenderedJson getActiveRestaurantsResponse();
+
     List<RestaurantResponseDTO> getAllRestaurantsForAdmin();
     RestaurantResponseDTO getRestaurantById(UUID id);
+
+    /** ETag of the current catalog snapshot, or {@code null} while it is still loading. */
+    String getCatalogETag();
 }
@@ -0,0 +1,266 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.RestaurantSnapshot;
+import com.pikngo.user_service.event.RestaurantChangedEvent;
+import com.pikngo.user_service.utils.BoundedLruCache;
+import com.pikngo.user_service.utils.GeoColumns;
+import com.pikngo.user_service.utils.GeoKernel;
+import com.pikngo.user_service.utils.GeoUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shares nearby and route search work between requests whose coordinates fall in the same small
+ * geo cell. An entry holds the restaurants that could match <em>any</em> request from its cell and
+ * radius bucket, with their coordinate columns; every request then applies its own exact distance
+ * test to that short list in one kernel batch, so cached answers are identical to uncached ones.
+ *
+ * Entries are dropped when a restaurant inside their area (or already in their candidate list)
+ * changes, and wholesale when the geo index is rebuilt.
+ */
+@Component
+public class GeoQueryCache {
+
+    /** Radius buckets in km; larger radii bypass the cache. */
+    private static final double[] RADIUS_BUCKETS = {1, 2, 3, 5, 7, 10, 15, 20, 30, 50, 75, 100};
+    /** Route corridors are only shared for segments at least this many bucket radii long. */
+    private static final double MIN_ROUTE_LENGTH_IN_RADII = 4;
+    /** Above this latitude the longitude padding of the route box grows too fast for the margin below. */
+    private static final double MAX_ROUTE_LATITUDE = 60;
+
+    private final RestaurantGeoIndex geoIndex;
+    private final RouteCorridorEngine routeCorridorEngine;
+    private final double cellDegrees;
+    private final BoundedLruCache<Key, Entry> cache;
+    // Bumped on every invalidation; results computed across a bump are not stored.
+    private final AtomicLong epoch = new AtomicLong();
+
+    public GeoQueryCache(RestaurantGeoIndex geoIndex, RouteCorridorEngine routeCorridorEngine,
+                         @Value("${pikngo.geo.cache.cell-degrees:0.01}") double cellDegrees,
+                         @Value("${pikngo.geo.cache.max-entries:20000}") int maxEntries) {
+        this.geoIndex = geoIndex;
+        this.routeCorridorEngine = routeCorridorEngine;
+        this.cellDegrees = cellDegrees;
+        this.cache = new BoundedLruCache<>(maxEntries, 16);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        RestaurantSnapshot changed = event.getRestaurant();
+        epoch.incrementAndGet();
+        cache.removeIf((key, entry) -> entry.affectedBy(changed));
+    }
+
+    /**
+     * Same result as {@link RestaurantGeoIndex#findWithinRadius}, served from the cell's candidate list.
+     */
+    public List<RestaurantGeoIndex.Match> findWithinRadius(double lat, double lon, double radiusKm) {
+        double bucket = bucketFor(radiusKm);
+        if (bucket < 0) {
+            return geoIndex.findWithinRadius(lat, lon, radiusKm);
+        }
+        long latCell = quantize(lat);
+        long lonCell = quantize(lon);
+        Entry entry = lookup(new Key(bucket, latCell, lonCell));
+        if (entry == null) {
+            double centerLat = center(latCell);
+            double centerLon = center(lonCell);
+            // Any point within the bucket radius of a request in this cell is within this of the centre.
+            double reach = bucket + halfDiagonalKm(centerLat);
+            long startEpoch = epoch.get();
+            long generation = geoIndex.getGeneration();
+            RestaurantSnapshot[] candidates = snapshots(geoIndex.findWithinRadius(centerLat, centerLon, reach));
+            double latDelta = reach / GeoUtils.KM_PER_DEGREE;
+            double lonDelta = GeoUtils.longitudeDelta(centerLat, reach);
+            entry = new Entry(candidates, generation, centerLat - latDelta, centerLat + latDelta,
+                    centerLon - lonDelta, centerLon + lonDelta);
+            store(new Key(bucket, latCell, lonCell), entry, startEpoch);
+        }
+
+        List<RestaurantGeoIndex.Match> matches = new ArrayList<>();
+        RestaurantGeoIndex.collectWithinRadius(entry.candidates, entry.columns, GeoKernel.unitVector(lat, lon),
+                radiusKm, GeoKernel.maxChordSquared(radiusKm), new double[1][], matches);
+        matches.sort(Comparator.comparingDouble(RestaurantGeoIndex.Match::getDistanceKm));
+        return matches;
+    }
+
+    /**
+     * Same result as {@link RouteCorridorEngine#findAlongSegment}. The cached candidates come from a
+     * corridor between the two cell centres, widened by enough to contain the corridor of any
+     * endpoints inside those cells.
+     */
+    public List<RestaurantGeoIndex.Match> findAlongSegment(double srcLat, double srcLon, double destLat, double destLon,
+                                                           double radiusKm) {
+        double bucket = bucketFor(radiusKm);
+        double lengthKm = GeoUtils.haversine(srcLat, srcLon, destLat, destLon);
+        if (!geoIndex.isReady() || bucket < 0 || lengthKm < MIN_ROUTE_LENGTH_IN_RADII * bucket
+                || Math.max(Math.abs(srcLat), Math.abs(destLat)) > MAX_ROUTE_LATITUDE) {
+            return routeCorridorEngine.findAlongSegment(srcLat, srcLon, destLat, destLon, radiusKm);
+        }
+        Key key = new Key(bucket, quantize(srcLat), quantize(srcLon), quantize(destLat), quantize(destLon));
+        Entry entry = lookup(key);
+        if (entry == null) {
+            double aLat = center(key.cells[0]);
+            double aLon = center(key.cells[1]);
+            double bLat = center(key.cells[2]);
+            double bLon = center(key.cells[3]);
+            // Moving each endpoint by up to d shifts the great circle by at most d over the segment, and
+            // by d * (1 + 2e) where the corridor box extends e segment lengths past an endpoint (e <= 3r/L
+            // below 60 degrees). One more d covers the box padding.
+            double shift = halfDiagonalKm(Math.min(Math.abs(aLat), Math.abs(bLat)));
+            double wideRadius = bucket + shift * (3 + 6 * bucket / lengthKm);
+            long startEpoch = epoch.get();
+            long generation = geoIndex.getGeneration();
+            RestaurantSnapshot[] candidates = snapshots(
+                    routeCorridorEngine.findAlongSegment(aLat, aLon, bLat, bLon, wideRadius));
+            double latPad = wideRadius / 111.0;
+            double lonPad = wideRadius / (111.0 * Math.cos(Math.toRadians(aLat)));
+            entry = new Entry(candidates, generation,
+                    Math.min(aLat, bLat) - latPad, Math.max(aLat, bLat) + latPad,
+                    Math.min(aLon, bLon) - lonPad, Math.max(aLon, bLon) + lonPad);
+            store(key, entry, startEpoch);
+        }
+        return routeCorridorEngine.refine(srcLat, srcLon, destLat, destLon, radiusKm, entry.candidates, entry.columns);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = cache.stats();
+        stats.put("cellDegrees", cellDegrees);
+        return stats;
+    }
+
+    private Entry lookup(Key key) {
+        Entry entry = cache.get(key);
+        if (entry != null && entry.generation != geoIndex.getGeneration()) {
+            cache.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private void store(Key key, Entry entry, long startEpoch) {
+        // A change committed while we were computing may or may not be reflected; do not keep it.
+        // Put first, then check: an invalidation that bumps the epoch after the check runs its sweep
+        // after the put, and one that bumped it before is caught here. Only our own entry is taken back.
+        cache.put(key, entry);
+        if (epoch.get() != startEpoch) {
+            cache.remove(key, entry);
+        }
+    }
+
+    private static double bucketFor(double radiusKm) {
+        for (double bucket : RADIUS_BUCKETS) {
+            if (radiusKm <= bucket) {
+                return bucket;
+            }
+        }
+        return -1;
+    }
+
+    private long quantize(double degrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private double center(long cell) {
+        return (cell + 0.5) * cellDegrees;
+    }
+
+    private double halfDiagonalKm(double lat) {
+        double halfCell = cellDegrees / 2;
+        // Measured on the cell's equator-side edge, where a degree of longitude is longest.
+        double latKm = halfCell * GeoUtils.KM_PER_DEGREE;
+        double lonKm = halfCell * GeoUtils.KM_PER_DEGREE * Math.cos(Math.toRadians(Math.max(0, Math.abs(lat) - halfCell)));
+        return Math.sqrt(latKm * latKm + lonKm * lonKm);
+    }
+
+    private static RestaurantSnapshot[] snapshots(List<RestaurantGeoIndex.Match> matches) {
+        RestaurantSnapshot[] snapshots = new RestaurantSnapshot[matches.size()];
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = matches.get(i).getRestaurant();
+        }
+        return snapshots;
+    }
+
+    private static final class Key {
+        private final double radiusBucket;
+        private final long[] cells;
+        private final int hash;
+
+        Key(double radiusBucket, long... cells) {
+            this.radiusBucket = radiusBucket;
+            this.cells = cells;
+            this.hash = 31 * Double.hashCode(radiusBucket) + Arrays.hashCode(cells);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return radiusBucket == other.radiusBucket && Arrays.equals(cells, other.cells);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        final RestaurantSnapshot[] candidates;
+        final GeoColumns columns;
+        final long generation;
+        final double minLat;
+        final double maxLat;
+        final double minLon;
+        final double maxLon;
+
+        Entry(RestaurantSnapshot[] candidates, long generation,
+              double minLat, double maxLat, double minLon, double maxLon) {
+            this.candidates = candidates;
+            double[] lat = new double[candidates.length];
+            double[] lon = new double[candidates.length];
+            for (int i = 0; i < candidates.length; i++) {
+                lat[i] = candidates[i].getLatitude();
+                lon[i] = candidates[i].getLongitude();
+            }
+            this.columns = GeoColumns.of(lat, lon);
+            this.generation = generation;
+            this.minLat = minLat;
+            this.maxLat = maxLat;
+            this.minLon = minLon;
+            this.maxLon = maxLon;
+        }
+
+        boolean affectedBy(RestaurantSnapshot changed) {
+            if (changed.getLatitude() != null && changed.getLongitude() != null) {
+                double lat = changed.getLatitude();
+                double lon = changed.getLongitude();
+                // Longitudes are compared on the copy shifted into the box's range, for boxes past +-180.
+                boolean inLonRange = lon >= minLon && lon <= maxLon
+                        || lon + 360 >= minLon && lon + 360 <= maxLon
+                        || lon - 360 >= minLon && lon - 360 <= maxLon;
+                if (lat >= minLat && lat <= maxLat && inLonRange) {
+                    return true;
+                }
+            }
+            // Moved away, deactivated or deleted: it may still be in the candidate list.
+            for (RestaurantSnapshot candidate : candidates) {
+                if (Objects.equals(candidate.getId(), changed.getId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.OrderRequestDTO;
+import com.pikngo.user_service.dto.OrderResponseDTO;
+import com.pikngo.user_service.exception.IdempotencyConflictException;
+import com.pikngo.user_service.exception.InvalidOrderException;
+import com.pikngo.user_service.service.OrderService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Makes order placement safe to retry: requests carrying the same {@code Idempotency-Key} from
+ * the same user place at most one order, and every one of them gets that order back.
+ *
+ * The first request with a key runs; duplicates arriving meanwhile wait for it (up to
+ * {@code pikngo.orders.idempotency.wait-ms}) and then return its order. Completed keys are kept
+ * for {@code pikngo.orders.idempotency.ttl-ms}, at most {@code max-entries} of them. A failed
+ * attempt is forgotten, so the next duplicate runs again.
+ *
+ * A duplicate must be the same request: each key is kept with a {@link #fingerprint} of the
+ * request that used it, and a request reusing the key with another cart, address or total is
+ * rejected rather than handed the first order as if it had been placed.
+ *
+ * The key and fingerprint are also stored on the order, the key unique per user. Once a key has
+ * left memory (expired, evicted, a restart, or another instance placing it) the insert fails on
+ * that constraint and the order already placed with it is returned. New keys cost one map insert
+ * and no query.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    public static final int MAX_KEY_LENGTH = 100;
+    static final String KEY_REUSED = "This Idempotency-Key was already used for a different order request";
+
+    private final OrderService orderService;
+    private final long ttlMs;
+    private final long waitMs;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder mismatched = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public IdempotencyKeyStore(OrderService orderService,
+                               @Value("${pikngo.orders.idempotency.ttl-ms:86400000}") long ttlMs,
+                               @Value("${pikngo.orders.idempotency.wait-ms:30000}") long waitMs,
+                               @Value("${pikngo.orders.idempotency.max-entries:100000}") int maxEntries) {
+        this.orderService = orderService;
+        this.ttlMs = ttlMs;
+        this.waitMs = waitMs;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Runs {@code placement}, which must store {@code key} and the {@link #fingerprint} of
+     * {@code request} on the order it places, unless this user's key has been used already; then
+     * returns the order placed with it.
+     *
+     * @throws InvalidOrderException if the key is blank or too long
+     * @throws IdempotencyConflictException if the key was used for a different request, or the
+     *         first request with it is still running after the wait
+     */
+    public OrderResponseDTO execute(UUID userId, String key, OrderRequestDTO request,
+                                    Supplier<OrderResponseDTO> placement) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidOrderException(List.of("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters"));
+        }
+        String id = userId + ":" + key;
+        String fingerprint = fingerprint(request);
+        while (true) {
+            long now = System.currentTimeMillis();
+            Entry entry = new Entry(fingerprint);
+            Entry existing = entries.putIfAbsent(id, entry);
+            if (existing == null) {
+                if (entries.size() > maxEntries) {
+                    evict();
+                }
+                return run(id, entry, userId, key, placement);
+            }
+            if (existing.isExpired(now, ttlMs)) {
+                entries.remove(id, existing);
+                continue;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                mismatched.increment();
+                throw new IdempotencyConflictException(KEY_REUSED);
+            }
+            OrderResponseDTO response = await(existing);
+            if (response != null) {
+                return response;
+            }
+            // The first attempt failed and was forgotten; this one runs instead.
+        }
+    }
+
+    private OrderResponseDTO run(String id, Entry entry, UUID userId, String key, Supplier<OrderResponseDTO> placement) {
+        OrderResponseDTO response;
+        try {
+            response = placement.get();
+            executed.increment();
+        } catch (DataIntegrityViolationException e) {
+            // Placed before, by a request this store no longer remembers.
+            try {
+                response = orderService.getOrderByIdempotencyKey(userId, key, entry.fingerprint).orElse(null);
+            } catch (IdempotencyConflictException conflict) {
+                mismatched.increment();
+                fail(id, entry, conflict);
+                throw conflict;
+            }
+            if (response == null) {
+                fail(id, entry, e);
+                throw e;
+            }
+            recovered.increment();
+        } catch (RuntimeException | Error e) {
+            fail(id, entry, e);
+            throw e;
+        }
+        entry.completedAt = System.currentTimeMillis();
+        entry.result.complete(response);
+        return response;
+    }
+
+    /**
+     * SHA-256 of what the order is made of: restaurant, lines, address, pickup, payment method,
+     * promo code and total. Client line prices are left out, as the server does not use them.
+     */
+    public static String fingerprint(OrderRequestDTO request) {
+        StringBuilder canonical = new StringBuilder();
+        field(canonical, request.getRestaurantId());
+        field(canonical, request.isSelfPickup());
+        field(canonical, request.getDeliveryAddress());
+        field(canonical, request.getPaymentMethod());
+        field(canonical, request.getPromoCode());
+        field(canonical, request.getTotalAmount() == null ? null
+                : request.getTotalAmount().stripTrailingZeros().toPlainString());
+        if (request.getItems() != null) {
+            for (OrderRequestDTO.OrderItemRequestDTO line : request.getItems()) {
+                field(canonical, line.getMenuItemId());
+                field(canonical, line.getQuantity());
+            }
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Length-prefixed, so different requests cannot run together into the same text.
+    private static void field(StringBuilder canonical, Object value) {
+        if (value == null) {
+            canonical.append('~');
+            return;
+        }
+        String text = value.toString();
+        canonical.append(text.length()).append(':').append(text);
+    }
+
+    private void fail(String id, Entry entry, Throwable cause) {
+        entries.remove(id, entry);
+        entry.result.completeExceptionally(cause);
+    }
+
+    /** The order of a completed entry, or null if its attempt failed. */
+    private OrderResponseDTO await(Entry entry) {
+        if (entry.result.isDone()) {
+            replayed.increment();
+        } else {
+            waited.increment();
+        }
+        try {
+            return entry.result.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for a request with this Idempotency-Key");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pikngo.orders.idempotency.sweep-ms:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(e -> e.getValue().isExpired(now, ttlMs));
+    }
+
+    /**
+     * Frees room when over the bound: expired keys first, then any completed ones, down to 90% of
+     * the bound so that the next inserts do not each scan the map again.
+     */
+    private void evict() {
+        sweep();
+        int excess = entries.size() - (maxEntries - maxEntries / 10);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (excess > 0 && iterator.hasNext()) {
+            if (iterator.next().completedAt != 0) {
+                iterator.remove();
+                evicted.increment();
+                excess--;
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("executed", executed.sum());
+        stats.put("replayed", replayed.sum());
+        stats.put("waited", waited.sum());
+        stats.put("recoveredFromDatabase", recovered.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("mismatched", mismatched.sum());
+        stats.put("evicted", evicted.sum());
+        return stats;
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        final CompletableFuture<OrderResponseDTO> result = new CompletableFuture<>();
+        // 0 while the attempt runs; running attempts never expire.
+        volatile long completedAt;
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        boolean isExpired(long now, long ttlMs) {
+            long completed = completedAt;
+            return completed != 0 && now - completed > ttlMs;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.pikngo.user_service.service.impl;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The relay of a single instance: every subscriber is connected here, so there is nothing to pass on.
+ */
+@Component
+@ConditionalOnProperty(name = "pikngo.orders.events.relay", havingValue = "local", matchIfMissing = true)
+public class LocalOrderEventRelay implements OrderEventRelay {
+
+    @Override
+    public void start(Consumer<OrderBroadcast> receiver) {
+        // No other instances to hear from.
+    }
+
+    @Override
+    public void relay(List<OrderBroadcast> broadcasts) {
+        // No other instances to tell.
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        return Map.of("type", "local");
+    }
+}
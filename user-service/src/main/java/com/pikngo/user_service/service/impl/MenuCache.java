@@ -0,0 +1,171 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.MenuDeltaDTO;
+import com.pikngo.user_service.dto.MenuItemSnapshot;
+import com.pikngo.user_service.entity.MenuItem;
+import com.pikngo.user_service.event.MenuChangedEvent;
+import com.pikngo.user_service.utils.BoundedLruCache;
+import com.pikngo.user_service.utils.LazyRenderedJson;
+import com.pikngo.user_service.utils.RenderedJson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Immutable menu snapshots per restaurant, bounded by restaurant count with LRU eviction so cold
+ * menus do not pin memory.
+ *
+ * Each restaurant has a version that is bumped when a change to its menu commits. A snapshot
+ * remembers the version read before it was loaded and is only served while that is still the
+ * current version, so a load that overlapped an edit can never outlive it. Versions live in a
+ * fixed array of stripes keyed by restaurant id, which keeps them bounded as well; restaurants
+ * sharing a stripe only cost each other an occasional extra load. Entries also expire after
+ * {@code pikngo.menu.cache.max-age-ms}, which bounds how long edits made on other instances
+ * take to show up here.
+ */
+@Component
+public class MenuCache {
+
+    private static final int VERSION_STRIPES = 4096;
+
+    private final BoundedLruCache<UUID, Snapshot> cache;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final long maxAgeMs;
+
+    public MenuCache(@Value("${pikngo.menu.cache.max-entries:5000}") int maxEntries,
+                     @Value("${pikngo.menu.cache.max-age-ms:300000}") long maxAgeMs) {
+        this.cache = new BoundedLruCache<>(maxEntries, 16);
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        versions.incrementAndGet(stripe(event.getRestaurantId()));
+        // The bump alone already hides the entry; removing it just frees the memory early.
+        cache.remove(event.getRestaurantId());
+    }
+
+    /**
+     * The restaurant's current snapshot, built from {@code loader} on a miss. The loader returns
+     * every item of the restaurant, deleted ones included.
+     */
+    public Snapshot get(UUID restaurantId, Supplier<List<MenuItem>> loader) {
+        return get(restaurantId, 0, loader);
+    }
+
+    /**
+     * As {@link #get(UUID, Supplier)}, but reloads a cached snapshot older than menu revision
+     * {@code minRevision}, e.g. one that has not seen an edit made on another instance.
+     */
+    public Snapshot get(UUID restaurantId, long minRevision, Supplier<List<MenuItem>> loader) {
+        int stripe = stripe(restaurantId);
+        long version = versions.get(stripe);
+        Snapshot snapshot = cache.get(restaurantId);
+        if (snapshot != null && snapshot.version == version && snapshot.revision >= minRevision
+                && System.currentTimeMillis() - snapshot.loadedAt < maxAgeMs) {
+            return snapshot;
+        }
+        // Read before loading: if an edit commits meanwhile, the version moves past this one.
+        snapshot = new Snapshot(version, loader.get());
+        cache.put(restaurantId, snapshot);
+        return snapshot;
+    }
+
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    private static int stripe(UUID restaurantId) {
+        int h = restaurantId.hashCode();
+        h ^= (h >>> 16);
+        return Math.floorMod(h, VERSION_STRIPES);
+    }
+
+    public static final class Snapshot {
+        private final long version;
+        private final long loadedAt = System.currentTimeMillis();
+        private final long revision;
+        private final List<MenuItemSnapshot> items;
+        private final List<MenuItemSnapshot> deleted;
+        private final LazyRenderedJson<List<MenuItemSnapshot>> rendered;
+        private volatile MenuPrices prices;
+
+        Snapshot(long version, List<MenuItem> items) {
+            this.version = version;
+            List<MenuItemSnapshot> live = new ArrayList<>(items.size());
+            List<MenuItemSnapshot> tombstones = new ArrayList<>();
+            long maxRevision = 0;
+            for (MenuItem item : items) {
+                (item.isDeleted() ? tombstones : live).add(MenuItemSnapshot.from(item));
+                maxRevision = Math.max(maxRevision, item.getRevision());
+            }
+            // Read in one query, so every change up to the highest revision seen is reflected here.
+            this.revision = maxRevision;
+            this.items = Collections.unmodifiableList(live);
+            this.deleted = tombstones;
+            this.rendered = new LazyRenderedJson<>(this.items);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public long getRevision() {
+            return revision;
+        }
+
+        /** The menu: items that are not deleted. */
+        public List<MenuItemSnapshot> getItems() {
+            return items;
+        }
+
+        /**
+         * What changed after revision {@code since}. For zero, or a revision ahead of this snapshot
+         * (the client synced with an instance that has seen newer edits, or the data was reset),
+         * the whole menu is returned instead.
+         */
+        public MenuDeltaDTO delta(long since) {
+            if (since <= 0 || since > revision) {
+                return new MenuDeltaDTO(revision, true, items, List.of());
+            }
+            List<MenuItemSnapshot> changed = new ArrayList<>();
+            for (MenuItemSnapshot item : items) {
+                if (item.getRevision() > since) {
+                    changed.add(item);
+                }
+            }
+            List<UUID> deletedIds = new ArrayList<>();
+            for (MenuItemSnapshot item : deleted) {
+                if (item.getRevision() > since) {
+                    deletedIds.add(item.getId());
+                }
+            }
+            return new MenuDeltaDTO(revision, false, changed, deletedIds);
+        }
+
+        /** Prices of the items, indexed on first use and kept for the life of this snapshot. */
+        MenuPrices prices() {
+            MenuPrices result = prices;
+            if (result == null) {
+                result = new MenuPrices(items);
+                prices = result;
+            }
+            return result;
+        }
+
+        /** The items rendered by {@code renderer}, once per snapshot. */
+        public RenderedJson render(Function<List<MenuItemSnapshot>, RenderedJson> renderer) {
+            return rendered.render(renderer);
+        }
+    }
+}
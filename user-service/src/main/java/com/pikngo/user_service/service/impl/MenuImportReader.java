@@ -0,0 +1,282 @@
+package com.pikngo.user_service.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pikngo.user_service.entity.MenuItem;
+import com.pikngo.user_service.utils.CsvReader;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams the rows of a bulk menu import, a JSON array of menu items or CSV with a header line,
+ * and validates each one into a new {@link MenuItem}. Only one row is held in memory at a time.
+ *
+ * Fields are matched by name, ignoring case, spaces and underscores, and accept the names used in
+ * menu responses ({@code itemName}, {@code available}, ...) as well as a few short forms. Ids and
+ * timestamps are never taken from the input: every row becomes a new item.
+ */
+class MenuImportReader {
+
+    static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+
+    private static final String NAME = "itemName";
+    private static final String DESCRIPTION = "itemDescription";
+    private static final String PRICE = "itemPrice";
+    private static final String IMAGE_URL = "itemImageUrl";
+    private static final String CATEGORY = "itemCategory";
+    private static final String AVAILABLE = "available";
+    private static final String VEG = "veg";
+
+    private static final Map<String, String> FIELDS = new HashMap<>();
+
+    static {
+        alias(NAME, "itemname", "name");
+        alias(DESCRIPTION, "itemdescription", "description");
+        alias(PRICE, "itemprice", "price");
+        alias(IMAGE_URL, "itemimageurl", "imageurl");
+        alias(CATEGORY, "itemcategory", "category");
+        alias(AVAILABLE, "available", "isavailable");
+        alias(VEG, "veg", "isveg");
+    }
+
+    // Column sizes of menu_items.
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_IMAGE_URL_LENGTH = 255;
+    private static final int MAX_CATEGORY_LENGTH = 50;
+    private static final int MAX_PRICE_PRECISION = 12;
+    private static final int MAX_PRICE_SCALE = 2;
+
+    private final JsonParser json;
+    private final CsvReader csv;
+    private List<String> columns;
+    private int rowNumber;
+    private boolean done;
+
+    MenuImportReader(InputStream body, MediaType contentType, ObjectMapper objectMapper) throws IOException {
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+            this.csv = new CsvReader(new BufferedReader(new InputStreamReader(body, charset)));
+            this.json = null;
+        } else {
+            this.json = objectMapper.getFactory().createParser(body);
+            this.csv = null;
+        }
+    }
+
+    /**
+     * The next row, or {@code null} at the end of the input. Input that cannot be parsed any
+     * further is returned as one last row carrying the error.
+     */
+    Row next() throws IOException {
+        if (done) {
+            return null;
+        }
+        try {
+            List<String> errors = new ArrayList<>();
+            Map<String, String> fields = json != null ? nextJson(errors) : nextCsv(errors);
+            if (fields == null) {
+                done = true;
+                return null;
+            }
+            MenuItem item = errors.isEmpty() ? toMenuItem(fields, errors) : null;
+            return new Row(rowNumber, item, errors);
+        } catch (JsonProcessingException e) {
+            done = true;
+            return new Row(rowNumber, null, List.of("Malformed JSON: " + e.getOriginalMessage()));
+        } catch (IllegalArgumentException e) {
+            done = true;
+            return new Row(csv != null ? csv.getLineNumber() : rowNumber, null, List.of(e.getMessage()));
+        }
+    }
+
+    private Map<String, String> nextJson(List<String> errors) throws IOException {
+        if (rowNumber == 0) {
+            if (json.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of menu items");
+            }
+        }
+        JsonToken token = json.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        rowNumber++;
+        if (token != JsonToken.START_OBJECT) {
+            json.skipChildren();
+            errors.add("Expected a menu item object");
+            return Map.of();
+        }
+        JsonNode node = json.readValueAsTree();
+        Map<String, String> fields = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> it = node.fields();
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> entry = it.next();
+            String field = FIELDS.get(normalize(entry.getKey()));
+            // Unknown properties are ignored, as for any other JSON request body.
+            if (field != null && !entry.getValue().isNull()) {
+                fields.put(field, entry.getValue().isValueNode() ? entry.getValue().asText() : entry.getValue().toString());
+            }
+        }
+        return fields;
+    }
+
+    private Map<String, String> nextCsv(List<String> errors) throws IOException {
+        if (columns == null) {
+            List<String> header = csv.next();
+            if (header == null) {
+                return null;
+            }
+            rowNumber = csv.getLineNumber();
+            columns = new ArrayList<>(header.size());
+            for (String name : header) {
+                String field = FIELDS.get(normalize(name));
+                if (field == null) {
+                    throw new IllegalArgumentException("Unknown column '" + name.trim() + "'");
+                }
+                if (columns.contains(field)) {
+                    throw new IllegalArgumentException("Duplicate column '" + name.trim() + "'");
+                }
+                columns.add(field);
+            }
+        }
+        List<String> record;
+        do {
+            record = csv.next();
+            if (record == null) {
+                return null;
+            }
+            rowNumber = csv.getLineNumber();
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        if (record.size() != columns.size()) {
+            errors.add("Expected " + columns.size() + " fields but found " + record.size());
+            return Map.of();
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            if (!record.get(i).isEmpty()) {
+                fields.put(columns.get(i), record.get(i));
+            }
+        }
+        return fields;
+    }
+
+    private static MenuItem toMenuItem(Map<String, String> fields, List<String> errors) {
+        String name = trimmed(fields.get(NAME));
+        if (name == null) {
+            errors.add(NAME + " is required");
+        } else if (name.length() > MAX_NAME_LENGTH) {
+            errors.add(NAME + " must be at most " + MAX_NAME_LENGTH + " characters");
+        }
+
+        BigDecimal price = null;
+        String priceText = trimmed(fields.get(PRICE));
+        if (priceText == null) {
+            errors.add(PRICE + " is required");
+        } else {
+            try {
+                price = new BigDecimal(priceText);
+                if (price.signum() < 0) {
+                    errors.add(PRICE + " must not be negative");
+                } else if (price.scale() > MAX_PRICE_SCALE
+                        || price.precision() - price.scale() > MAX_PRICE_PRECISION - MAX_PRICE_SCALE) {
+                    errors.add(PRICE + " must have at most " + (MAX_PRICE_PRECISION - MAX_PRICE_SCALE)
+                            + " digits and " + MAX_PRICE_SCALE + " decimals");
+                }
+            } catch (NumberFormatException e) {
+                errors.add(PRICE + " is not a number: " + priceText);
+            }
+        }
+
+        String imageUrl = trimmed(fields.get(IMAGE_URL));
+        if (imageUrl != null && imageUrl.length() > MAX_IMAGE_URL_LENGTH) {
+            errors.add(IMAGE_URL + " must be at most " + MAX_IMAGE_URL_LENGTH + " characters");
+        }
+        String category = trimmed(fields.get(CATEGORY));
+        if (category != null && category.length() > MAX_CATEGORY_LENGTH) {
+            errors.add(CATEGORY + " must be at most " + MAX_CATEGORY_LENGTH + " characters");
+        }
+        boolean available = flag(fields, AVAILABLE, errors);
+        boolean veg = flag(fields, VEG, errors);
+
+        if (!errors.isEmpty()) {
+            return null;
+        }
+        return MenuItem.builder()
+                .itemName(name)
+                .itemDescription(trimmed(fields.get(DESCRIPTION)))
+                .itemPrice(price)
+                .itemImageUrl(imageUrl)
+                .itemCategory(category)
+                .isAvailable(available)
+                .isVeg(veg)
+                .build();
+    }
+
+    /** Defaults to true when absent, like the entity. */
+    private static boolean flag(Map<String, String> fields, String field, List<String> errors) {
+        String value = trimmed(fields.get(field));
+        if (value == null) {
+            return true;
+        }
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "yes":
+            case "1":
+                return true;
+            case "false":
+            case "no":
+            case "0":
+                return false;
+            default:
+                errors.add(field + " must be true or false");
+                return true;
+        }
+    }
+
+    private static String trimmed(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static String normalize(String name) {
+        return name.replace(" ", "").replace("_", "").trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void alias(String field, String... names) {
+        for (String name : names) {
+            FIELDS.put(name, field);
+        }
+    }
+
+    /** One input row: the item when valid, otherwise the reasons it was rejected. */
+    static final class Row {
+        final int number;
+        final MenuItem item;
+        final List<String> errors;
+
+        Row(int number, MenuItem item, List<String> errors) {
+            this.number = number;
+            this.item = item;
+            this.errors = errors;
+        }
+    }
+}
@@ -1,29 +1,94 @@
 package com.pikngo.user_service.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pikngo.user_service.dto.ApiResponse;
+import com.pikngo.user_service.dto.MenuDeltaDTO;
+import com.pikngo.user_service.dto.MenuImportErrorDTO;
+import com.pikngo.user_service.dto.MenuImportResultDTO;
+import com.pikngo.user_service.dto.MenuItemSnapshot;
 import com.pikngo.user_service.entity.MenuItem;
+import com.pikngo.user_service.entity.Restaurant;
+import com.pikngo.user_service.event.MenuChangedEvent;
+import com.pikngo.user_service.exception.MenuImportException;
+import com.pikngo.user_service.exception.RestaurantNotFoundException;
 import com.pikngo.user_service.repository.MenuItemRepository;
 import com.pikngo.user_service.service.MenuItemService;
 import com.pikngo.user_service.repository.RestaurantRepository;
+import com.pikngo.user_service.utils.RenderedJson;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 @Service
 public class MenuItemServiceImpl implements MenuItemService {
 
+    private static final Logger log = LoggerFactory.getLogger(MenuItemServiceImpl.class);
+    /** Rejected imports list at most this many row errors; the total is always reported. */
+    private static final int MAX_REPORTED_IMPORT_ERRORS = 100;
+
     private final MenuItemRepository menuItemRepository;
     private final RestaurantRepository restaurantRepository;
+    private final MenuCache menuCache;
+    private final RestaurantCatalog restaurantCatalog;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final int importBatchSize;
+    private final int maxImportItems;
 
-    public MenuItemServiceImpl(MenuItemRepository menuItemRepository, RestaurantRepository restaurantRepository) {
+    public MenuItemServiceImpl(MenuItemRepository menuItemRepository, RestaurantRepository restaurantRepository,
+                               MenuCache menuCache, RestaurantCatalog restaurantCatalog, ObjectMapper objectMapper,
+                               ApplicationEventPublisher eventPublisher, EntityManager entityManager,
+                               @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int importBatchSize,
+                               @Value("${pikngo.menu.import.max-items:10000}") int maxImportItems) {
         this.menuItemRepository = menuItemRepository;
         this.restaurantRepository = restaurantRepository;
+        this.menuCache = menuCache;
+        this.restaurantCatalog = restaurantCatalog;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.importBatchSize = importBatchSize;
+        this.maxImportItems = maxImportItems;
+    }
+
+    @Override
+    public List<MenuItemSnapshot> getMenuItemsByRestaurant(UUID restaurantId) {
+        return menu(restaurantId).getItems();
+    }
+
+    @Override
+    public RenderedJson getMenuResponse(UUID restaurantId) {
+        return menu(restaurantId).render(items -> RenderedJson.render(objectMapper,
+                ApiResponse.success("Menu fetched successfully", items)));
     }
 
     @Override
-    public List<MenuItem> getMenuItemsByRestaurant(UUID restaurantId) {
-        return menuItemRepository.findByRestaurantId(restaurantId);
+    public RenderedJson getMenuDeltaResponse(UUID restaurantId, long since) {
+        MenuDeltaDTO delta = menu(restaurantId).delta(since);
+        return RenderedJson.render(objectMapper, ApiResponse.success("Menu changes fetched successfully", delta));
+    }
+
+    private MenuCache.Snapshot menu(UUID restaurantId) {
+        // An empty menu cached for every made-up id would evict real ones. The catalog is checked
+        // first; the database only for restaurants it has not picked up yet.
+        RestaurantCatalog.Snapshot catalog = restaurantCatalog.current();
+        if ((catalog == null || !catalog.contains(restaurantId)) && !restaurantRepository.existsById(restaurantId)) {
+            throw new RestaurantNotFoundException("Restaurant not found with ID: " + restaurantId);
+        }
+        return menuCache.get(restaurantId, () -> menuItemRepository.findByRestaurantId(restaurantId));
     }
 
     @Override
@@ -32,14 +97,17 @@ public class MenuItemServiceImpl implements MenuItemService {
         com.pikngo.user_service.entity.Restaurant restaurant = restaurantRepository.findById(restaurantId)
                 .orElseThrow(() -> new RuntimeException("Restaurant not found"));
         menuItem.setRestaurant(restaurant);
-        return menuItemRepository.save(menuItem);
+        menuItem.setDeleted(false);
+        menuItem.setRevision(nextMenuRevision(restaurantId));
+        MenuItem saved = menuItemRepository.save(menuItem);
+        eventPublisher.publishEvent(new MenuChangedEvent(restaurantId));
+        return saved;
     }
 
     @Override
     @Transactional
     public MenuItem updateMenuItem(UUID id, MenuItem menuItem) {
-        MenuItem existing = menuItemRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Menu item not found"));
+        MenuItem existing = findMenuItem(id);
         
         existing.setItemName(menuItem.getItemName());
         existing.setItemDescription(menuItem.getItemDescription());
@@ -48,13 +116,123 @@ public class MenuItemServiceImpl implements MenuItemService {
         existing.setItemImageUrl(menuItem.getItemImageUrl());
         existing.setAvailable(menuItem.isAvailable());
         existing.setVeg(menuItem.isVeg());
+        existing.setRevision(nextMenuRevision(existing.getRestaurant().getId()));
         
-        return menuItemRepository.save(existing);
+        MenuItem saved = menuItemRepository.save(existing);
+        eventPublisher.publishEvent(new MenuChangedEvent(existing.getRestaurant().getId()));
+        return saved;
     }
 
     @Override
     @Transactional
     public void deleteMenuItem(UUID id) {
-        menuItemRepository.deleteById(id);
+        menuItemRepository.findById(id).filter(existing -> !existing.isDeleted()).ifPresent(existing -> {
+            // Kept as a tombstone for menu deltas; past orders keep referencing the row as well.
+            existing.setDeleted(true);
+            existing.setRevision(nextMenuRevision(existing.getRestaurant().getId()));
+            menuItemRepository.save(existing);
+            eventPublisher.publishEvent(new MenuChangedEvent(existing.getRestaurant().getId()));
+        });
+    }
+
+    @Override
+    @Transactional
+    public MenuItem setAvailability(UUID id, boolean available) {
+        MenuItem existing = findMenuItem(id);
+        if (existing.isAvailable() == available) {
+            return existing;
+        }
+        existing.setAvailable(available);
+        existing.setRevision(nextMenuRevision(existing.getRestaurant().getId()));
+        MenuItem saved = menuItemRepository.save(existing);
+        eventPublisher.publishEvent(new MenuChangedEvent(existing.getRestaurant().getId()));
+        return saved;
+    }
+
+    private MenuItem findMenuItem(UUID id) {
+        return menuItemRepository.findById(id)
+                .filter(item -> !item.isDeleted())
+                .orElseThrow(() -> new RuntimeException("Menu item not found"));
+    }
+
+    /**
+     * Takes the restaurant's next menu revision for the items changed in this transaction. Other
+     * menu edits of the restaurant wait for this transaction to end, so a client that has seen a
+     * revision has also seen every change with a lower one.
+     */
+    private long nextMenuRevision(UUID restaurantId) {
+        restaurantRepository.incrementMenuRevision(restaurantId);
+        return restaurantRepository.findMenuRevision(restaurantId);
+    }
+
+    /**
+     * Streams the rows in, validating each, and inserts them in JDBC batches within this one
+     * transaction. Any invalid row rejects the whole import: reading continues only to report
+     * the remaining errors, and the transaction rolls back.
+     */
+    @Override
+    @Transactional
+    public MenuImportResultDTO importMenu(UUID restaurantId, InputStream body, MediaType contentType) {
+        long start = System.currentTimeMillis();
+        Restaurant restaurant = restaurantRepository.findById(restaurantId)
+                .orElseThrow(() -> new RuntimeException("Restaurant not found"));
+        // The whole import is one change to the menu.
+        long revision = nextMenuRevision(restaurantId);
+
+        List<MenuImportErrorDTO> errors = new ArrayList<>();
+        int errorCount = 0;
+        int rows = 0;
+        int imported = 0;
+        List<MenuItem> batch = new ArrayList<>(importBatchSize);
+        try {
+            MenuImportReader reader = new MenuImportReader(body, contentType, objectMapper);
+            for (MenuImportReader.Row row = reader.next(); row != null; row = reader.next()) {
+                if (++rows > maxImportItems) {
+                    errorCount++;
+                    errors.add(new MenuImportErrorDTO(row.number, "An import may contain at most " + maxImportItems + " items"));
+                    break;
+                }
+                if (!row.errors.isEmpty()) {
+                    if (++errorCount <= MAX_REPORTED_IMPORT_ERRORS) {
+                        errors.add(new MenuImportErrorDTO(row.number, String.join("; ", row.errors)));
+                    }
+                    continue;
+                }
+                if (errorCount > 0) {
+                    // Will be rolled back anyway; keep reading only to report errors.
+                    continue;
+                }
+                row.item.setRestaurant(restaurant);
+                row.item.setRevision(revision);
+                batch.add(row.item);
+                imported++;
+                if (batch.size() == importBatchSize) {
+                    insert(batch);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read menu import", e);
+        }
+        if (errorCount > 0) {
+            throw new MenuImportException(errors, errorCount);
+        }
+        insert(batch);
+        if (imported > 0) {
+            eventPublisher.publishEvent(new MenuChangedEvent(restaurantId));
+        }
+        long elapsedMs = System.currentTimeMillis() - start;
+        log.info("Imported {} menu items for restaurant {} in {} ms", imported, restaurantId, elapsedMs);
+        return new MenuImportResultDTO(imported, elapsedMs);
+    }
+
+    private void insert(List<MenuItem> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        menuItemRepository.saveAll(batch);
+        menuItemRepository.flush();
+        // Keeps the persistence context, and the flush-time dirty check, at one batch.
+        entityManager.clear();
+        batch.clear();
     }
 }
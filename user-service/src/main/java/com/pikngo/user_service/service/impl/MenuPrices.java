@@ -0,0 +1,61 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.MenuItemSnapshot;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The prices of one menu snapshot in minor units (paise), indexed by item id. Built once per
+ * snapshot, so quoting a cart is a hash lookup and a multiplication per line.
+ */
+final class MenuPrices {
+
+    /** Marks an item that has no price and cannot be ordered. */
+    static final long NO_PRICE = -1;
+
+    private final List<MenuItemSnapshot> items;
+    private final Map<UUID, Integer> index;
+    private final long[] unitPrices;
+
+    MenuPrices(List<MenuItemSnapshot> items) {
+        this.items = items;
+        this.index = new HashMap<>(items.size() * 2);
+        this.unitPrices = new long[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            MenuItemSnapshot item = items.get(i);
+            index.put(item.getId(), i);
+            unitPrices[i] = item.getItemPrice() != null ? toMinor(item.getItemPrice()) : NO_PRICE;
+        }
+    }
+
+    /** Position of the item, or -1 when it is not on this menu. */
+    int indexOf(UUID menuItemId) {
+        Integer i = index.get(menuItemId);
+        return i != null ? i : -1;
+    }
+
+    MenuItemSnapshot item(int index) {
+        return items.get(index);
+    }
+
+    long unitPrice(int index) {
+        return unitPrices[index];
+    }
+
+    static long toMinor(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static long toMinor(Double amount) {
+        return amount != null ? Math.round(amount * 100) : 0;
+    }
+
+    static BigDecimal toAmount(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+}
@@ -0,0 +1,45 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.OrderResponseDTO;
+
+import java.util.UUID;
+
+/**
+ * One message for the subscribers of an order: the ids that pick its topics, and the payload that
+ * is sent on each of them. Broadcasts relayed from another instance carry the payload as they
+ * received it, already parsed JSON.
+ */
+public final class OrderBroadcast {
+
+    private final UUID orderId;
+    private final UUID restaurantId;
+    private final UUID userId;
+    private final Object payload;
+
+    public OrderBroadcast(UUID orderId, UUID restaurantId, UUID userId, Object payload) {
+        this.orderId = orderId;
+        this.restaurantId = restaurantId;
+        this.userId = userId;
+        this.payload = payload;
+    }
+
+    public static OrderBroadcast of(OrderResponseDTO order) {
+        return new OrderBroadcast(order.getId(), order.getRestaurantId(), order.getUserId(), order);
+    }
+
+    public UUID getOrderId() {
+        return orderId;
+    }
+
+    public UUID getRestaurantId() {
+        return restaurantId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public Object getPayload() {
+        return payload;
+    }
+}
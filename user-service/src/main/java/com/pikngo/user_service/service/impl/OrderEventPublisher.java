@@ -0,0 +1,255 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.event.OrderChangedEvent;
+import com.pikngo.user_service.event.OrderStatusChangedEvent;
+import com.pikngo.user_service.utils.OrderPayloads;
+import com.pikngo.user_service.utils.OrderTopics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Broadcasts {@link OrderChangedEvent}s and {@link OrderStatusChangedEvent}s to WebSocket
+ * subscribers once their transaction has committed, on a dedicated thread, so placing an order or
+ * changing its status never waits for the broker fan-out. Each order goes to the topics of its
+ * restaurant, its user and itself, and to the admins' platform-wide topic ({@link OrderTopics}),
+ * so only its audience receives it.
+ *
+ * Events wait in a buffer of at most {@code pikngo.orders.events.max-pending} orders, in commit
+ * order. Changes to an order that is still waiting replace its payload in place, so a burst of
+ * transitions goes out once, with the latest state; a status delta following a whole order that
+ * is still waiting is applied to it ({@link OrderPayloads}), so a new order always goes out whole.
+ * When the buffer is full the longest waiting order is dropped; subscribers catch up with its
+ * next change, fetching orders they see an unknown id for.
+ *
+ * Broadcasts made here go to local subscribers first and are then handed to the
+ * {@link OrderEventRelay} for the other instances; those relayed from other instances go through
+ * the same buffer but are delivered locally only. A waiting order keeps its local and relayed
+ * payloads apart, so only its own changes are relayed, and subscribers here get whichever of the
+ * two has the higher {@code version}.
+ */
+@Component
+public class OrderEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderEventPublisher.class);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final OrderEventRelay relay;
+    private final Executor executor;
+    private final int maxPending;
+
+    // Guarded by this; a single drain task runs at a time, which keeps each order's events in order.
+    private final Map<UUID, Pending> pending = new LinkedHashMap<>();
+    private boolean draining;
+    private boolean overflowing;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    @Autowired
+    public OrderEventPublisher(SimpMessagingTemplate messagingTemplate, OrderEventRelay relay,
+                               @Value("${pikngo.orders.events.max-pending:10000}") int maxPending) {
+        // One thread, and at most one drain task queued behind it.
+        this(messagingTemplate, relay, new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "order-events");
+                    thread.setDaemon(true);
+                    return thread;
+                }), maxPending);
+    }
+
+    OrderEventPublisher(SimpMessagingTemplate messagingTemplate, OrderEventRelay relay, Executor executor,
+                        int maxPending) {
+        this.messagingTemplate = messagingTemplate;
+        this.relay = relay;
+        this.executor = executor;
+        this.maxPending = maxPending;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        relay.start(broadcast -> enqueue(broadcast, true));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        enqueue(OrderBroadcast.of(event.getOrder()), false);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        enqueue(new OrderBroadcast(event.getOrderId(), event.getRestaurantId(), event.getUserId(), event.getDelta()),
+                false);
+    }
+
+    private void enqueue(OrderBroadcast broadcast, boolean relayed) {
+        long now = System.nanoTime();
+        UUID orderId = broadcast.getOrderId();
+        synchronized (this) {
+            Pending previous = pending.get(orderId);
+            if (previous != null) {
+                // Keeps its place in line and the time it started waiting.
+                pending.put(orderId, relayed
+                        ? new Pending(previous.local, latest(previous.relayed, broadcast), previous.enqueuedAt)
+                        : new Pending(latest(previous.local, broadcast), previous.relayed, previous.enqueuedAt));
+                coalesced.increment();
+            } else {
+                if (pending.size() >= maxPending) {
+                    Iterator<Pending> eldest = pending.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    dropped.increment();
+                    if (!overflowing) {
+                        overflowing = true;
+                        log.warn("Order event buffer is full ({} orders); dropping the oldest events", maxPending);
+                    }
+                }
+                pending.put(orderId, relayed ? new Pending(null, broadcast, now) : new Pending(broadcast, null, now));
+            }
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                draining = false;
+            }
+            log.warn("Order event publisher is shut down; {} events not sent", pending());
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            List<Pending> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    draining = false;
+                    overflowing = false;
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+            }
+            List<OrderBroadcast> local = new ArrayList<>(batch.size());
+            for (Pending event : batch) {
+                send(event.local == null ? event.relayed : latest(event.local, event.relayed), event.enqueuedAt);
+                if (event.local != null) {
+                    local.add(event.local);
+                }
+            }
+            // After local delivery, so local subscribers never wait on the relay.
+            try {
+                relay.relay(local);
+            } catch (RuntimeException e) {
+                log.warn("Failed to relay {} order events: {}", local.size(), e.getMessage());
+            }
+        }
+    }
+
+    /** {@code next} merged into {@code current}, if any, by {@link OrderPayloads#latest}. */
+    private static OrderBroadcast latest(OrderBroadcast current, OrderBroadcast next) {
+        if (current == null || next == null) {
+            return current == null ? next : current;
+        }
+        Object payload = OrderPayloads.latest(current.getPayload(), next.getPayload());
+        return new OrderBroadcast(current.getOrderId(),
+                current.getRestaurantId() != null ? current.getRestaurantId() : next.getRestaurantId(),
+                current.getUserId() != null ? current.getUserId() : next.getUserId(), payload);
+    }
+
+    private void send(OrderBroadcast broadcast, long enqueuedAt) {
+        try {
+            Object payload = broadcast.getPayload();
+            // Lets the outbound channel tell messages about different orders apart.
+            Map<String, Object> headers = Map.of(OrderTopics.ORDER_ID_HEADER, broadcast.getOrderId().toString());
+            messagingTemplate.convertAndSend(OrderTopics.ALL, payload, headers);
+            if (broadcast.getRestaurantId() != null) {
+                messagingTemplate.convertAndSend(OrderTopics.restaurant(broadcast.getRestaurantId()), payload, headers);
+            }
+            if (broadcast.getUserId() != null) {
+                messagingTemplate.convertAndSend(OrderTopics.user(broadcast.getUserId()), payload, headers);
+            }
+            messagingTemplate.convertAndSend(OrderTopics.order(broadcast.getOrderId()), payload, headers);
+            published.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Failed to broadcast order {}: {}", broadcast.getOrderId(), e.getMessage());
+            return;
+        }
+        long latency = System.nanoTime() - enqueuedAt;
+        latencyNanos.add(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+    }
+
+    private synchronized int pending() {
+        return pending.size();
+    }
+
+    public Map<String, Object> stats() {
+        long publishedCount = published.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending());
+        stats.put("maxPending", maxPending);
+        stats.put("published", publishedCount);
+        stats.put("coalesced", coalesced.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("failed", failed.sum());
+        stats.put("avgPublishLatencyMs", publishedCount == 0 ? 0.0 : latencyNanos.sum() / 1e6 / publishedCount);
+        stats.put("maxPublishLatencyMs", maxLatencyNanos.get() / 1e6);
+        stats.put("relay", relay.stats());
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (executor instanceof ExecutorService service) {
+            service.shutdown();
+            // Lets the events of orders committed just before shutdown go out.
+            service.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static final class Pending {
+        // Latest change made here, to be relayed; null if none is waiting.
+        final OrderBroadcast local;
+        // Latest change received from another instance, which has relayed it already; null if none.
+        final OrderBroadcast relayed;
+        final long enqueuedAt;
+
+        Pending(OrderBroadcast local, OrderBroadcast relayed, long enqueuedAt) {
+            this.local = local;
+            this.relayed = relayed;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.pikngo.user_service.service.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Carries order broadcasts between the instances of the service, so that clients see changes
+ * made on any instance whichever one they are connected to. Chosen with
+ * {@code pikngo.orders.events.relay}: {@code local} (the default, a single instance) or
+ * {@code postgres} ({@link PostgresOrderEventRelay}).
+ *
+ * {@link OrderEventPublisher} delivers its own broadcasts to local subscribers directly and hands
+ * them to the relay afterwards; what other instances relay comes back through the receiver and is
+ * delivered locally only.
+ */
+public interface OrderEventRelay {
+
+    /** Starts passing broadcasts made on other instances to {@code receiver}. */
+    void start(Consumer<OrderBroadcast> receiver);
+
+    /** Sends broadcasts made on this instance to the other instances. */
+    void relay(List<OrderBroadcast> broadcasts);
+
+    Map<String, Object> stats();
+}
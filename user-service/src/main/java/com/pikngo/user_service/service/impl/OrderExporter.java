@@ -0,0 +1,266 @@
+package com.pikngo.user_service.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.pikngo.user_service.entity.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams orders placed in a time range, optionally of some statuses only, as CSV or NDJSON.
+ *
+ * Rows are read over plain JDBC with a forward-only cursor, {@code fetch-size} rows at a time, and
+ * written to the output as they arrive: no entities, no persistence context and no list of rows,
+ * so the heap used does not grow with the export. Postgres only streams a result inside a
+ * transaction, so the export runs in a read-only one of its own on a pooled connection.
+ */
+@Component
+public class OrderExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExporter.class);
+
+    static final List<String> COLUMNS = List.of("orderId", "createdTs", "status", "userId", "userName",
+            "userPhone", "restaurantId", "restaurantName", "totalAmount", "itemCount", "paymentMethod",
+            "selfPickup", "deliveryAddress");
+
+    private static final String SELECT = "SELECT o._id, o.created_ts, o.status, o.user_id, u.first_name, u.last_name,"
+            + " u.phone_number, o.restaurant_id, r.restaurant_name, o.total_amount,"
+            + " (SELECT COALESCE(SUM(oi.quantity), 0) FROM order_items oi WHERE oi.order_id = o._id),"
+            + " o.payment_method, o.is_self_pickup, o.delivery_address"
+            + " FROM orders o"
+            + " LEFT JOIN users u ON u._id = o.user_id"
+            + " LEFT JOIN restaurants r ON r._id = o.restaurant_id"
+            + " WHERE o.created_ts >= ? AND o.created_ts < ?";
+    private static final String ORDER_BY = " ORDER BY o.created_ts, o._id";
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final int fetchSize;
+
+    private final LongAdder exports = new LongAdder();
+    private final LongAdder rowsExported = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public OrderExporter(JdbcTemplate jdbcTemplate,
+                         @Value("${pikngo.orders.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes the orders created in {@code [from, to)} with one of {@code statuses} (any status if
+     * empty), oldest first, to {@code out}. Leaves {@code out} open.
+     *
+     * @return the number of orders written
+     */
+    public long export(LocalDateTime from, LocalDateTime to, Collection<Order.OrderStatus> statuses,
+                       Format format, OutputStream out) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        if (!statuses.isEmpty()) {
+            sql.append(" AND o.status IN (").append("?, ".repeat(statuses.size() - 1)).append("?)");
+        }
+        sql.append(ORDER_BY);
+
+        try {
+            long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                boolean autoCommit = connection.getAutoCommit();
+                if (autoCommit) {
+                    connection.setAutoCommit(false);
+                    connection.setReadOnly(true);
+                }
+                try (PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(fetchSize);
+                    int index = 1;
+                    statement.setObject(index++, from);
+                    statement.setObject(index++, to);
+                    for (Order.OrderStatus status : statuses) {
+                        statement.setString(index++, status.name());
+                    }
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        return write(resultSet, format, out);
+                    }
+                } finally {
+                    if (autoCommit) {
+                        restore(connection);
+                    }
+                }
+            });
+            exports.increment();
+            rowsExported.add(rows);
+            return rows;
+        } catch (RuntimeException e) {
+            failed.increment();
+            throw e;
+        }
+    }
+
+    private static void restore(Connection connection) throws SQLException {
+        try {
+            // Nothing was written; ending the transaction closes the cursor on the server.
+            connection.rollback();
+        } finally {
+            connection.setReadOnly(false);
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private long write(ResultSet resultSet, Format format, OutputStream out) throws SQLException {
+        try {
+            return format == Format.CSV ? writeCsv(resultSet, out) : writeNdjson(resultSet, out);
+        } catch (IOException e) {
+            // Mostly the client going away mid-download.
+            log.warn("Order export aborted: {}", e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long writeCsv(ResultSet resultSet, OutputStream out) throws SQLException, IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+        long rows = 0;
+        while (resultSet.next()) {
+            Object[] row = row(resultSet);
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvField(writer, row[i]);
+            }
+            writer.write("\r\n");
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    /** RFC 4180: fields holding a comma, quote or line break are quoted, with quotes doubled. */
+    static void writeCsvField(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private long writeNdjson(ResultSet resultSet, OutputStream out) throws SQLException, IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(out);
+        generator.setRootValueSeparator(null);
+        long rows = 0;
+        while (resultSet.next()) {
+            Object[] row = row(resultSet);
+            generator.writeStartObject();
+            for (int i = 0; i < row.length; i++) {
+                generator.writeFieldName(COLUMNS.get(i));
+                Object value = row[i];
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof BigDecimal number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof Long number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof Boolean flag) {
+                    generator.writeBoolean(flag);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            rows++;
+        }
+        // Flushes without closing the response stream.
+        generator.flush();
+        return rows;
+    }
+
+    /** The current row, in {@link #COLUMNS} order. */
+    private static Object[] row(ResultSet resultSet) throws SQLException {
+        Timestamp created = resultSet.getTimestamp(2);
+        String firstName = resultSet.getString(5);
+        String lastName = resultSet.getString(6);
+        String userName = firstName == null ? null : (lastName == null ? firstName : firstName + " " + lastName);
+        return new Object[] {
+                resultSet.getObject(1, UUID.class),
+                created == null ? null : created.toLocalDateTime(),
+                resultSet.getString(3),
+                resultSet.getObject(4, UUID.class),
+                userName,
+                resultSet.getString(7),
+                resultSet.getObject(8, UUID.class),
+                resultSet.getString(9),
+                resultSet.getBigDecimal(10),
+                resultSet.getLong(11),
+                resultSet.getString(12),
+                resultSet.getBoolean(13),
+                resultSet.getString(14)
+        };
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("fetchSize", fetchSize);
+        stats.put("exports", exports.sum());
+        stats.put("rowsExported", rowsExported.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+}
@@ -1,19 +1,40 @@
 package com.pikngo.user_service.service.impl;
 
+import com.pikngo.user_service.dto.CursorPageDTO;
 import com.pikngo.user_service.dto.OrderRequestDTO;
 import com.pikngo.user_service.dto.OrderResponseDTO;
+import com.pikngo.user_service.dto.OrderStatusDeltaDTO;
+import com.pikngo.user_service.dto.PriceQuoteDTO;
+import com.pikngo.user_service.dto.TrendingItemDTO;
 import com.pikngo.user_service.entity.*;
+import com.pikngo.user_service.event.ItemsOrderedEvent;
+import com.pikngo.user_service.event.OrderChangedEvent;
+import com.pikngo.user_service.event.OrderStatusChangedEvent;
+import com.pikngo.user_service.exception.IdempotencyConflictException;
+import com.pikngo.user_service.exception.InvalidOrderException;
+import com.pikngo.user_service.exception.InvalidPageRequestException;
 import com.pikngo.user_service.repository.*;
 import com.pikngo.user_service.service.OrderService;
+import com.pikngo.user_service.utils.CursorCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -21,28 +42,43 @@ import java.util.stream.Collectors;
 public class OrderServiceImpl implements OrderService {
 
     private static final Logger log = LoggerFactory.getLogger(OrderServiceImpl.class);
+    private static final int MAX_ORDER_PAGE_SIZE = 100;
 
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final RestaurantRepository restaurantRepository;
     private final MenuItemRepository menuItemRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     private final com.pikngo.user_service.service.LoyaltyService loyaltyService;
+    private final PriceEngine priceEngine;
 
     public OrderServiceImpl(OrderRepository orderRepository, UserRepository userRepository, 
                             RestaurantRepository restaurantRepository, MenuItemRepository menuItemRepository,
-                            SimpMessagingTemplate messagingTemplate, com.pikngo.user_service.service.LoyaltyService loyaltyService) {
+                            ApplicationEventPublisher eventPublisher, com.pikngo.user_service.service.LoyaltyService loyaltyService,
+                            PriceEngine priceEngine) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.restaurantRepository = restaurantRepository;
         this.menuItemRepository = menuItemRepository;
-        this.messagingTemplate = messagingTemplate;
+        this.eventPublisher = eventPublisher;
         this.loyaltyService = loyaltyService;
+        this.priceEngine = priceEngine;
     }
 
     @Override
     @Transactional
     public OrderResponseDTO placeOrder(UUID userId, OrderRequestDTO request) {
+        return placeOrder(userId, request, null);
+    }
+
+    /**
+     * Places the order with the client's idempotency key, and the fingerprint of the request, stored
+     * on it; placing a second order with the same user and key fails on a unique constraint. See
+     * {@link IdempotencyKeyStore}.
+     */
+    @Override
+    @Transactional
+    public OrderResponseDTO placeOrder(UUID userId, OrderRequestDTO request, String idempotencyKey) {
         log.info("Placing order for user: {} to restaurant: {}", userId, request.getRestaurantId());
 
         User user = userRepository.findById(userId)
@@ -54,25 +90,38 @@ public class OrderServiceImpl implements OrderService {
         Order order = Order.builder()
                 .user(user)
                 .restaurant(restaurant)
-                .totalAmount(request.getTotalAmount())
                 .deliveryAddress(request.getDeliveryAddress())
                 .isSelfPickup(request.isSelfPickup())
                 .paymentMethod(request.getPaymentMethod())
                 .status(Order.OrderStatus.PENDING)
                 .build();
+        order.setIdempotencyKey(idempotencyKey);
+        if (idempotencyKey != null) {
+            order.setIdempotencyFingerprint(IdempotencyKeyStore.fingerprint(request));
+        }
 
-        List<OrderItem> orderItems = (request.getItems() != null) ? request.getItems().stream().map(itemDto -> {
-            MenuItem menuItem = menuItemRepository.findById(itemDto.getMenuItemId())
-                    .orElseThrow(() -> new RuntimeException("Menu item not found: " + itemDto.getMenuItemId()));
-            
-            return OrderItem.builder()
-                    .order(order)
-                    .menuItem(menuItem)
-                    .quantity(itemDto.getQuantity())
-                    .price(itemDto.getPrice())
-                    .build();
-        }).collect(Collectors.toList()) : null;
+        List<OrderRequestDTO.OrderItemRequestDTO> lines = (request.getItems() != null) ? request.getItems() : List.of();
+        List<OrderItem> orderItems = resolveItems(order, lines);
 
+        // Prices come from the server, from a menu snapshot at least as new as the items just read.
+        long menuRevision = 0;
+        for (OrderItem orderItem : orderItems) {
+            menuRevision = Math.max(menuRevision, orderItem.getMenuItem().getRevision());
+        }
+        PriceEngine.Quote quote = priceEngine.quote(restaurant.getId(), lines, request.getPromoCode(),
+                request.isSelfPickup(), menuRevision);
+        for (int i = 0; i < orderItems.size(); i++) {
+            orderItems.get(i).setPrice(MenuPrices.toAmount(quote.getUnitPrice(i)));
+        }
+        BigDecimal totalAmount = MenuPrices.toAmount(quote.getTotal());
+        // The client charges the total it was quoted; an order must not record a different amount.
+        // A menu or pricing change since the quote shows up here as a different total.
+        if (request.getTotalAmount() != null && request.getTotalAmount().compareTo(totalAmount) != 0) {
+            log.info("Rejecting order: client total {} differs from the server price {}", request.getTotalAmount(), totalAmount);
+            throw new InvalidOrderException(List.of("Order total " + request.getTotalAmount()
+                    + " does not match the current price " + totalAmount + "; please review the new total"));
+        }
+        order.setTotalAmount(totalAmount);
         order.setItems(orderItems);
         
         // Calculate and award loyalty points
@@ -80,111 +129,212 @@ public class OrderServiceImpl implements OrderService {
         order.setPointsEarned(pointsEarned);
 
         Order savedOrder = orderRepository.save(order);
-        OrderResponseDTO response = mapToDTO(savedOrder);
+        OrderResponseDTO response = OrderResponseDTO.from(savedOrder);
         
-        // Broadcast new order to WebSocket topic
-        messagingTemplate.convertAndSend("/topic/orders", response);
+        // Broadcast to WebSocket subscribers once the order has committed
+        eventPublisher.publishEvent(new OrderChangedEvent(response));
+        // Counted towards trending items once the order has committed; only listed restaurants trend
+        if (restaurant.isActive() && !restaurant.isDeleted()) {
+            List<TrendingItemDTO> ordered = new ArrayList<>(orderItems.size());
+            for (OrderItem orderItem : orderItems) {
+                ordered.add(TrendingItemDTO.of(orderItem.getMenuItem(), orderItem.getQuantity()));
+            }
+            eventPublisher.publishEvent(new ItemsOrderedEvent(ordered));
+        }
 
         return response;
     }
 
+    @Override
+    public PriceQuoteDTO quoteOrder(OrderRequestDTO request) {
+        return priceEngine.quote(request.getRestaurantId(), request.getItems(), request.getPromoCode(),
+                request.isSelfPickup()).toDTO();
+    }
+
+    /**
+     * Loads every menu item of the cart in one query and checks them in memory, so the cost does
+     * not grow with the number of lines. All unorderable items are reported together.
+     */
+    private List<OrderItem> resolveItems(Order order, List<OrderRequestDTO.OrderItemRequestDTO> lines) {
+        Set<UUID> ids = new HashSet<>();
+        for (OrderRequestDTO.OrderItemRequestDTO line : lines) {
+            if (line.getMenuItemId() != null) {
+                ids.add(line.getMenuItemId());
+            }
+        }
+        Map<UUID, MenuItem> menuItems = new HashMap<>();
+        for (MenuItem menuItem : menuItemRepository.findAllById(ids)) {
+            menuItems.put(menuItem.getId(), menuItem);
+        }
+
+        UUID restaurantId = order.getRestaurant().getId();
+        List<String> errors = new ArrayList<>();
+        List<OrderItem> orderItems = new ArrayList<>(lines.size());
+        for (OrderRequestDTO.OrderItemRequestDTO line : lines) {
+            MenuItem menuItem = line.getMenuItemId() != null ? menuItems.get(line.getMenuItemId()) : null;
+            if (menuItem == null || menuItem.isDeleted()) {
+                errors.add("Menu item not found: " + line.getMenuItemId());
+            } else if (!restaurantId.equals(menuItem.getRestaurant().getId())) {
+                errors.add("Menu item is not on this restaurant's menu: " + line.getMenuItemId());
+            } else if (!menuItem.isAvailable()) {
+                errors.add("Menu item is not available: " + menuItem.getItemName());
+            } else {
+                orderItems.add(OrderItem.builder()
+                        .order(order)
+                        .menuItem(menuItem)
+                        .quantity(line.getQuantity())
+                        .build());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new InvalidOrderException(errors);
+        }
+        return orderItems;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public OrderResponseDTO getOrderById(UUID orderId) {
-        return orderRepository.findById(orderId)
-                .map(this::mapToDTO)
+        return orderRepository.findWithDetailsById(orderId)
+                .map(OrderResponseDTO::from)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<OrderResponseDTO> getUserOrders(UUID userId) {
-        return orderRepository.findByUserIdOrderByCreatedTsDesc(userId)
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public Optional<OrderResponseDTO> getOrderByIdempotencyKey(UUID userId, String idempotencyKey, String fingerprint) {
+        return orderRepository.findWithDetailsByUserIdAndIdempotencyKey(userId, idempotencyKey)
+                .map(order -> {
+                    // Orders placed before fingerprints were stored have none to compare.
+                    if (order.getIdempotencyFingerprint() != null && !order.getIdempotencyFingerprint().equals(fingerprint)) {
+                        throw new IdempotencyConflictException(IdempotencyKeyStore.KEY_REUSED);
+                    }
+                    return OrderResponseDTO.from(order);
+                });
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<OrderResponseDTO> getRestaurantOrders(UUID restaurantId) {
-        return orderRepository.findByRestaurantIdOrderByCreatedTsDesc(restaurantId)
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<OrderResponseDTO> getUserOrders(UUID userId, Integer limit, String cursor) {
+        int size = pageSize(limit);
+        OrderKey after = OrderKey.decode(cursor);
+        // One extra order tells us whether another page exists.
+        PageRequest page = PageRequest.of(0, size + 1);
+        return toPage(after == null
+                ? orderRepository.findUserOrderPage(userId, page)
+                : orderRepository.findUserOrderPageAfter(userId, after.createdTs, after.id, page), size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderResponseDTO> getRestaurantOrders(UUID restaurantId, Integer limit, String cursor) {
+        int size = pageSize(limit);
+        OrderKey after = OrderKey.decode(cursor);
+        PageRequest page = PageRequest.of(0, size + 1);
+        return toPage(after == null
+                ? orderRepository.findRestaurantOrderPage(restaurantId, page)
+                : orderRepository.findRestaurantOrderPageAfter(restaurantId, after.createdTs, after.id, page), size);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<OrderResponseDTO> getAllOrders(Pageable pageable) {
         log.info("Fetching a page of all orders for admin");
-        return orderRepository.findAll(pageable).map(this::mapToDTO);
+        Page<Order> page = orderRepository.findAllBy(pageable);
+        fetchItems(page.getContent());
+        return page.map(OrderResponseDTO::from);
+    }
+
+    private static int pageSize(Integer limit) {
+        if (limit == null || limit < 1 || limit > MAX_ORDER_PAGE_SIZE) {
+            throw new InvalidPageRequestException("limit must be between 1 and " + MAX_ORDER_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    private CursorPageDTO<OrderResponseDTO> toPage(List<Order> orders, int size) {
+        String nextCursor = null;
+        if (orders.size() > size) {
+            orders = orders.subList(0, size);
+            nextCursor = OrderKey.of(orders.get(size - 1)).encode();
+        }
+        fetchItems(orders);
+        List<OrderResponseDTO> items = orders.stream()
+                .map(OrderResponseDTO::from)
+                .collect(Collectors.toList());
+        return new CursorPageDTO<>(items, nextCursor);
+    }
+
+    /**
+     * Loads the items and menu items of orders read with their user and restaurant, in one query
+     * for all of them instead of one per order and one per item.
+     */
+    private void fetchItems(List<Order> orders) {
+        if (!orders.isEmpty()) {
+            orderRepository.findWithItemsByIdIn(orders.stream().map(Order::getId).collect(Collectors.toList()));
+        }
     }
 
     @Override
     @Transactional
-    public OrderResponseDTO updateOrderStatus(UUID orderId, Order.OrderStatus status) {
+    public OrderStatusDeltaDTO updateOrderStatus(UUID orderId, Order.OrderStatus status) {
         log.info("Updating status for order: {} to {}", orderId, status);
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
+        if (order.getStatus() == status) {
+            return OrderStatusDeltaDTO.from(order);
+        }
         order.setStatus(status);
-        OrderResponseDTO response = mapToDTO(orderRepository.save(order));
-        
-        // Broadcast order status update to WebSocket topic
-        messagingTemplate.convertAndSend("/topic/orders", response);
-        
-        return response;
+        // Flushed here so the delta carries the version and timestamp just written. Only the order
+        // row is read and written; its user, restaurant and items are not loaded.
+        OrderStatusDeltaDTO delta = OrderStatusDeltaDTO.from(orderRepository.saveAndFlush(order));
+
+        // Broadcast the status change once it has committed
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(delta,
+                order.getRestaurant() != null ? order.getRestaurant().getId() : null,
+                order.getUser() != null ? order.getUser().getId() : null));
+
+        return delta;
     }
 
     @Override
     @Transactional
     public OrderResponseDTO updateOrderAddress(UUID orderId, String address) {
         log.info("Updating address for order: {}", orderId);
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithDetailsById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
         order.setDeliveryAddress(address);
-        return mapToDTO(orderRepository.save(order));
+        return OrderResponseDTO.from(orderRepository.save(order));
     }
 
-    private OrderResponseDTO mapToDTO(Order order) {
-        if (order == null) return null;
-        
-        OrderResponseDTO.OrderResponseDTOBuilder builder = OrderResponseDTO.builder()
-                .id(order.getId())
-                .totalAmount(order.getTotalAmount())
-                .status(order.getStatus().name())
-                .deliveryAddress(order.getDeliveryAddress())
-                .isSelfPickup(order.isSelfPickup())
-                .paymentMethod(order.getPaymentMethod())
-                .pointsEarned(order.getPointsEarned())
-                .createdTs(order.getCreatedTs());
-
-        if (order.getUser() != null) {
-            builder.userId(order.getUser().getId())
-                   .userName(order.getUser().getFirstName() + " " + order.getUser().getLastName());
-        }
-
-        if (order.getRestaurant() != null) {
-            builder.restaurantId(order.getRestaurant().getId())
-                   .restaurantName(order.getRestaurant().getRestaurantName());
-        }
-
-        if (order.getItems() != null) {
-            builder.items(order.getItems().stream().map(item -> {
-                OrderResponseDTO.OrderItemResponseDTO.OrderItemResponseDTOBuilder itemField = OrderResponseDTO.OrderItemResponseDTO.builder()
-                        .id(item.getId())
-                        .quantity(item.getQuantity())
-                        .price(item.getPrice());
-                
-                if (item.getMenuItem() != null) {
-                    itemField.menuItemId(item.getMenuItem().getId())
-                             .itemName(item.getMenuItem().getItemName());
-                }
-                
-                return itemField.build();
-            }).collect(Collectors.toList()));
-        }
-
-        return builder.build();
+    /** Position of an order in a history page, newest first; the cursor of the page after it. */
+    private static final class OrderKey {
+        final LocalDateTime createdTs;
+        final UUID id;
+
+        OrderKey(LocalDateTime createdTs, UUID id) {
+            this.createdTs = createdTs;
+            this.id = id;
+        }
+
+        static OrderKey of(Order order) {
+            return new OrderKey(order.getCreatedTs(), order.getId());
+        }
+
+        static OrderKey decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            String[] parts = CursorCodec.decode(cursor, 2);
+            try {
+                return new OrderKey(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new InvalidPageRequestException("Malformed cursor");
+            }
+        }
+
+        String encode() {
+            return CursorCodec.encode(createdTs.toString(), id.toString());
+        }
     }
 }
@@ -0,0 +1,272 @@
+package com.pikngo.user_service.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pikngo.user_service.service.OrderService;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Relays order broadcasts between instances through Postgres LISTEN/NOTIFY, so running several
+ * instances needs nothing beyond the database they already share.
+ *
+ * Each drain of the publisher is sent with one {@code pg_notify} statement. Every instance keeps
+ * one connection of its own, outside the pool, listening on the channel, and skips the messages it
+ * sent itself. Postgres caps a notification at 8000 bytes; a payload that does not fit is sent
+ * without it, and receivers load the order instead, on a loader thread of their own so the
+ * listening connection keeps draining notifications meanwhile. Notifications sent while an instance is
+ * reconnecting are lost to it, as with a broker restart: its clients catch up with the order's
+ * next change or by fetching it.
+ */
+@Component
+@ConditionalOnProperty(name = "pikngo.orders.events.relay", havingValue = "postgres")
+public class PostgresOrderEventRelay implements OrderEventRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresOrderEventRelay.class);
+    static final String CHANNEL = "pikngo_order_events";
+    // Leaves room under the 8000 byte limit for the channel name and framing.
+    static final int MAX_MESSAGE_BYTES = 7900;
+    private static final int POLL_MS = 500;
+    // Orders waiting to be loaded for notifications that came without a payload.
+    private static final int MAX_PENDING_LOADS = 1000;
+    private static final String INSTANCE_TOKEN = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final OrderService orderService;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final long reconnectDelayMs;
+    private final ExecutorService loader;
+
+    private final LongAdder relayed = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder withoutPayload = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread listener;
+
+    public PostgresOrderEventRelay(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, OrderService orderService,
+                                   @Value("${spring.datasource.url}") String url,
+                                   @Value("${spring.datasource.username:}") String username,
+                                   @Value("${spring.datasource.password:}") String password,
+                                   @Value("${pikngo.orders.events.relay.reconnect-ms:5000}") long reconnectDelayMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.orderService = orderService;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.reconnectDelayMs = reconnectDelayMs;
+        this.loader = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_PENDING_LOADS),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "order-events-relay-loader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public synchronized void start(Consumer<OrderBroadcast> receiver) {
+        if (running) {
+            return;
+        }
+        running = true;
+        listener = new Thread(() -> listen(receiver), "order-events-relay");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void relay(List<OrderBroadcast> broadcasts) {
+        if (broadcasts.isEmpty()) {
+            return;
+        }
+        try {
+            String[] messages = new String[broadcasts.size()];
+            for (int i = 0; i < messages.length; i++) {
+                messages[i] = encode(broadcasts.get(i));
+            }
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                Array array = connection.createArrayOf("text", messages);
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT pg_notify(?, message) FROM unnest(?) AS message")) {
+                    statement.setString(1, CHANNEL);
+                    statement.setArray(2, array);
+                    statement.executeQuery().close();
+                } finally {
+                    array.free();
+                }
+                return null;
+            });
+            relayed.add(messages.length);
+        } catch (RuntimeException e) {
+            failed.add(broadcasts.size());
+            log.warn("Failed to relay {} order events to other instances: {}", broadcasts.size(), e.getMessage());
+        }
+    }
+
+    private String encode(OrderBroadcast broadcast) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("origin", INSTANCE_TOKEN);
+        message.put("orderId", broadcast.getOrderId());
+        message.put("restaurantId", broadcast.getRestaurantId());
+        message.put("userId", broadcast.getUserId());
+        message.put("payload", broadcast.getPayload());
+        try {
+            String json = objectMapper.writeValueAsString(message);
+            if (json.getBytes(StandardCharsets.UTF_8).length <= MAX_MESSAGE_BYTES) {
+                return json;
+            }
+            withoutPayload.increment();
+            message.remove("payload");
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Order broadcast cannot be serialized", e);
+        }
+    }
+
+    private void listen(Consumer<OrderBroadcast> receiver) {
+        Connection connection = null;
+        while (running) {
+            try {
+                if (connection == null) {
+                    connection = DriverManager.getConnection(url, username, password);
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("LISTEN " + CHANNEL);
+                    }
+                    listening = true;
+                    log.info("Listening for order events from other instances on channel {}", CHANNEL);
+                }
+                PGNotification[] notifications = connection.unwrap(PGConnection.class).getNotifications(POLL_MS);
+                if (notifications != null) {
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter(), receiver);
+                    }
+                }
+            } catch (SQLException e) {
+                listening = false;
+                close(connection);
+                connection = null;
+                if (!running) {
+                    break;
+                }
+                log.warn("Order event relay lost its connection, reconnecting in {} ms: {}", reconnectDelayMs, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        listening = false;
+        close(connection);
+    }
+
+    private void dispatch(String message, Consumer<OrderBroadcast> receiver) {
+        try {
+            JsonNode node = objectMapper.readTree(message);
+            if (INSTANCE_TOKEN.equals(node.path("origin").asText())) {
+                return;
+            }
+            UUID orderId = UUID.fromString(node.path("orderId").asText());
+            JsonNode payload = node.get("payload");
+            received.increment();
+            if (payload == null || payload.isNull()) {
+                loader.execute(() -> load(orderId, receiver));
+            } else {
+                receiver.accept(new OrderBroadcast(orderId, uuidOrNull(node.get("restaurantId")),
+                        uuidOrNull(node.get("userId")), payload));
+            }
+        } catch (RejectedExecutionException e) {
+            failed.increment();
+            log.warn("Dropping order event relayed by another instance: {} orders already waiting to be loaded",
+                    MAX_PENDING_LOADS);
+        } catch (RuntimeException | JsonProcessingException e) {
+            failed.increment();
+            log.warn("Dropping order event relayed by another instance: {}", e.getMessage());
+        }
+    }
+
+    private void load(UUID orderId, Consumer<OrderBroadcast> receiver) {
+        try {
+            receiver.accept(OrderBroadcast.of(orderService.getOrderById(orderId)));
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Dropping order event relayed by another instance: {}", e.getMessage());
+        }
+    }
+
+    private static UUID uuidOrNull(JsonNode node) {
+        return node == null || node.isNull() ? null : UUID.fromString(node.asText());
+    }
+
+    private static void close(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Already broken; nothing else to release.
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("type", "postgres");
+        stats.put("listening", listening);
+        stats.put("relayed", relayed.sum());
+        stats.put("received", received.sum());
+        stats.put("withoutPayload", withoutPayload.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = listener;
+        }
+        if (thread != null) {
+            // Wakes up within one poll.
+            thread.join(2 * POLL_MS);
+        }
+        loader.shutdownNow();
+    }
+}
@@ -0,0 +1,305 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.OrderRequestDTO;
+import com.pikngo.user_service.dto.PriceQuoteDTO;
+import com.pikngo.user_service.entity.GlobalSetting;
+import com.pikngo.user_service.entity.Promotion;
+import com.pikngo.user_service.event.PricingChangedEvent;
+import com.pikngo.user_service.exception.InvalidOrderException;
+import com.pikngo.user_service.repository.GlobalSettingRepository;
+import com.pikngo.user_service.repository.MenuItemRepository;
+import com.pikngo.user_service.repository.PromotionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prices carts on the server from the cached menu snapshots ({@link MenuCache}) and cached
+ * pricing rules: the delivery fee and tax rate of the global settings, and active promotions.
+ *
+ * All amounts are {@code long} minor units (paise) and percentages basis points, so a quote does
+ * integer arithmetic only; rounding is half up, once per step. The rules are reloaded after a
+ * {@link PricingChangedEvent} and at least every {@code pikngo.pricing.rules.max-age-ms}, which
+ * bounds how long changes made on other instances take to apply here.
+ */
+@Component
+public class PriceEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceEngine.class);
+
+    /**
+     * Largest quantity of one cart line. Larger quantities are rejected rather than priced: they
+     * are almost always mistyped, and bulk orders go through the restaurant.
+     */
+    static final int MAX_QUANTITY = 99;
+    private static final long SETTINGS_ID = 1L;
+
+    private final MenuCache menuCache;
+    private final MenuItemRepository menuItemRepository;
+    private final GlobalSettingRepository settingRepository;
+    private final PromotionRepository promotionRepository;
+    private final long rulesMaxAgeMs;
+    private final AtomicLong rulesVersion = new AtomicLong();
+    private volatile Rules rules;
+
+    public PriceEngine(MenuCache menuCache, MenuItemRepository menuItemRepository,
+                       GlobalSettingRepository settingRepository, PromotionRepository promotionRepository,
+                       @Value("${pikngo.pricing.rules.max-age-ms:60000}") long rulesMaxAgeMs) {
+        this.menuCache = menuCache;
+        this.menuItemRepository = menuItemRepository;
+        this.settingRepository = settingRepository;
+        this.promotionRepository = promotionRepository;
+        this.rulesMaxAgeMs = rulesMaxAgeMs;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPricingChanged(PricingChangedEvent event) {
+        rulesVersion.incrementAndGet();
+    }
+
+    public Quote quote(UUID restaurantId, List<OrderRequestDTO.OrderItemRequestDTO> lines,
+                       String promoCode, boolean selfPickup) {
+        return quote(restaurantId, lines, promoCode, selfPickup, 0);
+    }
+
+    /**
+     * Prices {@code lines} against a menu snapshot that has seen at least menu revision
+     * {@code minRevision}. Every line that cannot be priced, and an unknown or expired promo
+     * code, is reported in one {@link InvalidOrderException}.
+     */
+    Quote quote(UUID restaurantId, List<OrderRequestDTO.OrderItemRequestDTO> lines,
+                String promoCode, boolean selfPickup, long minRevision) {
+        if (restaurantId == null) {
+            throw new InvalidOrderException(List.of("restaurantId is required"));
+        }
+        if (lines == null || lines.isEmpty()) {
+            throw new InvalidOrderException(List.of("An order must contain at least one item"));
+        }
+        MenuPrices prices = menuCache.get(restaurantId, minRevision,
+                () -> menuItemRepository.findByRestaurantId(restaurantId)).prices();
+        Rules current = rules();
+
+        int[] indexes = new int[lines.size()];
+        long[] lineTotals = new long[lines.size()];
+        long subtotal = 0;
+        List<String> errors = null;
+        try {
+            for (int i = 0; i < lines.size(); i++) {
+                OrderRequestDTO.OrderItemRequestDTO line = lines.get(i);
+                int index = line.getMenuItemId() != null ? prices.indexOf(line.getMenuItemId()) : -1;
+                String error = null;
+                if (index < 0) {
+                    error = "Menu item not found: " + line.getMenuItemId();
+                } else if (!prices.item(index).isAvailable() || prices.unitPrice(index) == MenuPrices.NO_PRICE) {
+                    error = "Menu item is not available: " + prices.item(index).getItemName();
+                } else if (line.getQuantity() == null || line.getQuantity() < 1 || line.getQuantity() > MAX_QUANTITY) {
+                    error = "Quantity must be between 1 and " + MAX_QUANTITY + ": " + prices.item(index).getItemName();
+                }
+                if (error != null) {
+                    if (errors == null) {
+                        errors = new ArrayList<>();
+                    }
+                    errors.add(error);
+                    continue;
+                }
+                indexes[i] = index;
+                lineTotals[i] = Math.multiplyExact(prices.unitPrice(index), line.getQuantity().longValue());
+                subtotal = Math.addExact(subtotal, lineTotals[i]);
+            }
+            if (errors != null) {
+                throw new InvalidOrderException(errors);
+            }
+
+            long discountBasisPoints = 0;
+            String appliedPromoCode = null;
+            if (promoCode != null && !promoCode.isBlank()) {
+                Promo promo = current.promotions.get(promoCode.trim());
+                if (promo == null || System.currentTimeMillis() >= promo.expiresAt) {
+                    throw new InvalidOrderException(List.of("Promo code is not valid: " + promoCode.trim()));
+                }
+                discountBasisPoints = promo.discountBasisPoints;
+                appliedPromoCode = promoCode.trim();
+            }
+            long discount = percentOf(subtotal, discountBasisPoints);
+            long tax = percentOf(subtotal - discount, current.taxBasisPoints);
+            long deliveryFee = selfPickup ? 0 : current.deliveryFee;
+            long total = Math.addExact(Math.addExact(subtotal - discount, tax), deliveryFee);
+            return new Quote(restaurantId, lines, prices, indexes, lineTotals, subtotal, appliedPromoCode,
+                    discount, tax, deliveryFee, total);
+        } catch (ArithmeticException e) {
+            throw new InvalidOrderException(List.of("Order total is too large"));
+        }
+    }
+
+    /** {@code basisPoints} hundredths of a percent of {@code amount}, rounded half up. */
+    static long percentOf(long amount, long basisPoints) {
+        return Math.addExact(Math.multiplyExact(amount, basisPoints), 5_000) / 10_000;
+    }
+
+    private Rules rules() {
+        long version = rulesVersion.get();
+        Rules current = rules;
+        if (current != null && current.version == version
+                && System.currentTimeMillis() - current.loadedAt < rulesMaxAgeMs) {
+            return current;
+        }
+        // Read before loading, as in MenuCache: a change committed meanwhile forces another load.
+        current = loadRules(version);
+        rules = current;
+        return current;
+    }
+
+    private Rules loadRules(long version) {
+        GlobalSetting settings = settingRepository.findById(SETTINGS_ID).orElseGet(GlobalSetting::defaults);
+        Map<String, Promo> promotions = new HashMap<>();
+        for (Promotion promotion : promotionRepository.findAll()) {
+            if (promotion.isActive() && promotion.getPromoCode() != null && promotion.getDiscountPercentage() != null) {
+                promotions.put(promotion.getPromoCode().trim(), new Promo(toBasisPoints(promotion.getDiscountPercentage()),
+                        expiresAt(promotion.getPromoCode(), promotion.getExpiryDate())));
+            }
+        }
+        return new Rules(version, MenuPrices.toMinor(settings.getDeliveryFee()),
+                settings.getTaxPercentage() != null ? toBasisPoints(settings.getTaxPercentage()) : 0, promotions);
+    }
+
+    private static long toBasisPoints(double percentage) {
+        return Math.max(0, Math.min(10_000, Math.round(percentage * 100)));
+    }
+
+    /**
+     * End of the promotion's last day, or of the given instant. Without an expiry date it never
+     * expires; a date that cannot be read counts as expired rather than discounting forever.
+     */
+    private static long expiresAt(String promoCode, String expiryDate) {
+        if (expiryDate == null || expiryDate.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        String value = expiryDate.trim();
+        ZoneId zone = ZoneId.systemDefault();
+        try {
+            return LocalDate.parse(value).plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+            // Not a plain date; try a date-time.
+        }
+        try {
+            return LocalDateTime.parse(value).atZone(zone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+            // Not a local date-time; try an instant.
+        }
+        try {
+            return Instant.parse(value).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            log.warn("Promotion {} has an unreadable expiry date '{}'; treating it as expired", promoCode, value);
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static final class Rules {
+        final long version;
+        final long loadedAt = System.currentTimeMillis();
+        final long deliveryFee;
+        final long taxBasisPoints;
+        final Map<String, Promo> promotions;
+
+        Rules(long version, long deliveryFee, long taxBasisPoints, Map<String, Promo> promotions) {
+            this.version = version;
+            this.deliveryFee = deliveryFee;
+            this.taxBasisPoints = taxBasisPoints;
+            this.promotions = promotions;
+        }
+    }
+
+    private static final class Promo {
+        final long discountBasisPoints;
+        final long expiresAt;
+
+        Promo(long discountBasisPoints, long expiresAt) {
+            this.discountBasisPoints = discountBasisPoints;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /** A priced cart, in minor units; line {@code i} corresponds to request line {@code i}. */
+    public static final class Quote {
+        private final UUID restaurantId;
+        private final List<OrderRequestDTO.OrderItemRequestDTO> lines;
+        private final MenuPrices prices;
+        private final int[] indexes;
+        private final long[] lineTotals;
+        private final long subtotal;
+        private final String promoCode;
+        private final long discount;
+        private final long tax;
+        private final long deliveryFee;
+        private final long total;
+
+        Quote(UUID restaurantId, List<OrderRequestDTO.OrderItemRequestDTO> lines, MenuPrices prices, int[] indexes,
+              long[] lineTotals, long subtotal, String promoCode, long discount, long tax, long deliveryFee, long total) {
+            this.restaurantId = restaurantId;
+            this.lines = lines;
+            this.prices = prices;
+            this.indexes = indexes;
+            this.lineTotals = lineTotals;
+            this.subtotal = subtotal;
+            this.promoCode = promoCode;
+            this.discount = discount;
+            this.tax = tax;
+            this.deliveryFee = deliveryFee;
+            this.total = total;
+        }
+
+        public long getUnitPrice(int line) {
+            return prices.unitPrice(indexes[line]);
+        }
+
+        public long getLineTotal(int line) {
+            return lineTotals[line];
+        }
+
+        public long getSubtotal() {
+            return subtotal;
+        }
+
+        public long getDiscount() {
+            return discount;
+        }
+
+        public long getTax() {
+            return tax;
+        }
+
+        public long getDeliveryFee() {
+            return deliveryFee;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public PriceQuoteDTO toDTO() {
+            List<PriceQuoteDTO.LineDTO> items = new ArrayList<>(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                items.add(new PriceQuoteDTO.LineDTO(lines.get(i).getMenuItemId(), prices.item(indexes[i]).getItemName(),
+                        lines.get(i).getQuantity(), MenuPrices.toAmount(getUnitPrice(i)), MenuPrices.toAmount(lineTotals[i])));
+            }
+            return new PriceQuoteDTO(restaurantId, items, MenuPrices.toAmount(subtotal), promoCode,
+                    MenuPrices.toAmount(discount), MenuPrices.toAmount(tax), MenuPrices.toAmount(deliveryFee),
+                    MenuPrices.toAmount(total));
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.RestaurantResponseDTO;
+import com.pikngo.user_service.dto.RestaurantSnapshot;
+import com.pikngo.user_service.event.RestaurantChangedEvent;
+import com.pikngo.user_service.repository.RestaurantRepository;
+import com.pikngo.user_service.utils.LazyRenderedJson;
+import com.pikngo.user_service.utils.RenderedJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Immutable, versioned copy of the whole restaurant catalog for the public read endpoints.
+ *
+ * Every committed restaurant change produces a new {@link Snapshot} with the next version, which
+ * replaces the current one with a single volatile write; readers never lock and never touch the
+ * database. A new snapshot shares the DTOs of every restaurant that did not change, so a change
+ * converts one restaurant, not the whole catalog. The version doubles as the HTTP ETag. Like the geo index, the catalog is reloaded
+ * periodically to pick up writes made by other instances, so versions are local to an instance
+ * and the ETag carries an instance token to keep them apart.
+ */
+@Component
+public class RestaurantCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantCatalog.class);
+    // Versions restart at 1 with the process; without this a client could revalidate against an older run.
+    private static final String INSTANCE_TOKEN = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+    private final RestaurantRepository restaurantRepository;
+
+    private final Object writeLock = new Object();
+    private final Object reloadLock = new Object();
+    private volatile Snapshot snapshot;
+    // Changes applied while a reload is reading the DB; replayed onto the reloaded catalog. Guarded by writeLock.
+    private List<RestaurantSnapshot> changedDuringReload;
+
+    public RestaurantCatalog(RestaurantRepository restaurantRepository) {
+        this.restaurantRepository = restaurantRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${pikngo.catalog.refresh-ms:300000}",
+            initialDelayString = "${pikngo.catalog.refresh-ms:300000}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        apply(event.getRestaurant());
+    }
+
+    /**
+     * Reloads the catalog from the database. The version only moves if the contents changed.
+     */
+    public void reload() {
+        synchronized (reloadLock) {
+            synchronized (writeLock) {
+                changedDuringReload = new ArrayList<>();
+            }
+            List<RestaurantSnapshot> restaurants;
+            try {
+                restaurants = restaurantRepository.findAllSnapshots();
+            } catch (RuntimeException e) {
+                synchronized (writeLock) {
+                    changedDuringReload = null;
+                }
+                log.error("Failed to reload restaurant catalog, keeping previous contents", e);
+                return;
+            }
+
+            Map<UUID, RestaurantSnapshot> byId = new LinkedHashMap<>();
+            restaurants.forEach(restaurant -> byId.put(restaurant.getId(), restaurant));
+            synchronized (writeLock) {
+                changedDuringReload.forEach(restaurant -> byId.put(restaurant.getId(), restaurant));
+                changedDuringReload = null;
+                Snapshot current = snapshot;
+                if (current == null || !current.restaurants.equals(byId)) {
+                    snapshot = Snapshot.of(current == null ? 1 : current.version + 1, byId, current);
+                    log.info("Restaurant catalog loaded with {} restaurants, version {}", byId.size(), snapshot.version);
+                }
+            }
+        }
+    }
+
+    /**
+     * Publishes a new snapshot with {@code restaurant} inserted or replaced.
+     */
+    public void apply(RestaurantSnapshot restaurant) {
+        if (restaurant == null || restaurant.getId() == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (changedDuringReload != null) {
+                changedDuringReload.add(restaurant);
+            }
+            Snapshot current = snapshot;
+            if (current == null) {
+                // Not loaded yet; the initial reload will see this row.
+                return;
+            }
+            snapshot = current.with(restaurant);
+        }
+    }
+
+    /** The current snapshot, or {@code null} until the first load completes. */
+    public Snapshot current() {
+        return snapshot;
+    }
+
+    public static final class Snapshot {
+        private final long version;
+        private final Map<UUID, RestaurantSnapshot> restaurants;
+        private final Map<UUID, RestaurantResponseDTO> dtosById;
+        private final LazyRenderedJson<List<RestaurantResponseDTO>> activeList;
+
+        private Snapshot(long version, Map<UUID, RestaurantSnapshot> restaurants, Map<UUID, RestaurantResponseDTO> dtosById) {
+            this.version = version;
+            this.restaurants = Collections.unmodifiableMap(restaurants);
+            this.dtosById = Collections.unmodifiableMap(dtosById);
+            List<RestaurantResponseDTO> active = new ArrayList<>();
+            for (RestaurantSnapshot restaurant : restaurants.values()) {
+                if (restaurant.isActive() && !restaurant.isDeleted()) {
+                    active.add(dtosById.get(restaurant.getId()));
+                }
+            }
+            this.activeList = new LazyRenderedJson<>(List.copyOf(active));
+        }
+
+        /** A snapshot of {@code restaurants}, reusing the DTOs of {@code previous} for rows that did not change. */
+        static Snapshot of(long version, Map<UUID, RestaurantSnapshot> restaurants, Snapshot previous) {
+            Map<UUID, RestaurantResponseDTO> dtos = new LinkedHashMap<>();
+            for (RestaurantSnapshot restaurant : restaurants.values()) {
+                RestaurantResponseDTO dto = null;
+                if (previous != null && restaurant.equals(previous.restaurants.get(restaurant.getId()))) {
+                    dto = previous.dtosById.get(restaurant.getId());
+                }
+                dtos.put(restaurant.getId(), dto != null ? dto : toDTO(restaurant));
+            }
+            return new Snapshot(version, restaurants, dtos);
+        }
+
+        /** The next version, with {@code restaurant} inserted or replaced; only its DTO is built. */
+        Snapshot with(RestaurantSnapshot restaurant) {
+            Map<UUID, RestaurantSnapshot> byId = new LinkedHashMap<>(restaurants);
+            byId.put(restaurant.getId(), restaurant);
+            Map<UUID, RestaurantResponseDTO> dtos = new LinkedHashMap<>(dtosById);
+            dtos.put(restaurant.getId(), toDTO(restaurant));
+            return new Snapshot(version + 1, byId, dtos);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /** Quoted version, ready for the ETag header. */
+        public String getETag() {
+            return "\"catalog-" + INSTANCE_TOKEN + "-" + version + "\"";
+        }
+
+        /** Active, non-deleted restaurants in creation order, as copies the caller may change. */
+        public List<RestaurantResponseDTO> getActiveRestaurants() {
+            List<RestaurantResponseDTO> activeDtos = activeList.getValue();
+            List<RestaurantResponseDTO> copies = new ArrayList<>(activeDtos.size());
+            for (RestaurantResponseDTO dto : activeDtos) {
+                copies.add(copy(dto));
+            }
+            return copies;
+        }
+
+        /**
+         * The active list rendered by {@code renderer}, once per snapshot. The list is immutable, its
+         * DTOs are shared: {@code renderer} must not change them.
+         */
+        public RenderedJson renderActive(Function<List<RestaurantResponseDTO>, RenderedJson> renderer) {
+            return activeList.render(renderer);
+        }
+
+        /** Whether the catalog has the restaurant, including inactive and deleted ones. */
+        public boolean contains(UUID id) {
+            return restaurants.containsKey(id);
+        }
+
+        /** Any restaurant by id, including inactive ones, or {@code null}; a copy the caller may change. */
+        public RestaurantResponseDTO getRestaurant(UUID id) {
+            RestaurantResponseDTO dto = dtosById.get(id);
+            return dto == null ? null : copy(dto);
+        }
+
+        private static RestaurantResponseDTO copy(RestaurantResponseDTO dto) {
+            return RestaurantResponseDTO.builder()
+                    .id(dto.getId())
+                    .restaurantName(dto.getRestaurantName())
+                    .address(dto.getAddress())
+                    .latitude(dto.getLatitude())
+                    .longitude(dto.getLongitude())
+                    .imageUrl(dto.getImageUrl())
+                    .category(dto.getCategory())
+                    .rating(dto.getRating())
+                    .deliveryTime(dto.getDeliveryTime())
+                    .isActive(dto.isActive())
+                    .distance(dto.getDistance())
+                    .build();
+        }
+
+        private static RestaurantResponseDTO toDTO(RestaurantSnapshot restaurant) {
+            return RestaurantResponseDTO.builder()
+                    .id(restaurant.getId())
+                    .restaurantName(restaurant.getRestaurantName())
+                    .address(restaurant.getAddress())
+                    .latitude(restaurant.getLatitude())
+                    .longitude(restaurant.getLongitude())
+                    .imageUrl(restaurant.getImageUrl())
+                    .category(restaurant.getCategory())
+                    .rating(restaurant.getRating())
+                    .deliveryTime(restaurant.getDeliveryTime())
+                    .isActive(restaurant.isActive())
+                    .build();
+        }
+    }
+}
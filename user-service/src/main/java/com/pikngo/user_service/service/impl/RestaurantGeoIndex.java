@@ -0,0 +1,626 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.RestaurantSnapshot;
+import com.pikngo.user_service.event.RestaurantChangedEvent;
+import com.pikngo.user_service.repository.RestaurantRepository;
+import com.pikngo.user_service.utils.GeoColumns;
+import com.pikngo.user_service.utils.GeoKernel;
+import com.pikngo.user_service.utils.GeoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory grid index of searchable (active, not deleted, geo-located) restaurants.
+ *
+ * The world is cut into fixed {@link #CELL_DEGREES} cells; each cell holds a copy-on-write
+ * array of snapshots, so readers never lock and a radius query only touches the handful of
+ * cells overlapping its bounding box, independent of catalog size. Next to the snapshots a cell
+ * keeps their coordinates as {@link GeoColumns}, so distance tests run in batches over
+ * primitive arrays through {@link GeoKernel}.
+ * Writes arrive through {@link RestaurantChangedEvent} after commit, and the whole index is
+ * periodically reloaded so that changes made by other instances are eventually picked up.
+ */
+@Component
+public class RestaurantGeoIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantGeoIndex.class);
+
+    /** Cell edge in degrees (~11 km of latitude). */
+    static final double CELL_DEGREES = 0.1;
+    static final double CELL_KM = CELL_DEGREES * GeoUtils.KM_PER_DEGREE;
+    private static final int ROWS = (int) Math.round(180 / CELL_DEGREES);
+    private static final int COLUMNS = (int) Math.round(360 / CELL_DEGREES);
+    /** Coarse cells (1 degree) group 10x10 fine cells; only their occupancy is tracked. */
+    private static final int COARSE_FACTOR = 10;
+    private static final int COARSE_ROWS = ROWS / COARSE_FACTOR;
+    private static final int COARSE_COLUMNS = COLUMNS / COARSE_FACTOR;
+    /** Fine rings walked by the nearest search before it switches to coarse cells. */
+    private static final int FINE_RINGS = 8;
+    private static final double POLAR_LATITUDE = 84;
+
+    private final RestaurantRepository restaurantRepository;
+
+    private final Object writeLock = new Object();
+    private final Object rebuildLock = new Object();
+    private volatile Grid grid = new Grid();
+    private volatile boolean ready;
+    // Bumped on every full rebuild so that derived caches can drop what they computed from the old grid.
+    private volatile long generation;
+    // Changes applied while a rebuild is loading from the DB; replayed onto the new grid. Guarded by writeLock.
+    private List<RestaurantSnapshot> changedDuringRebuild;
+
+    public RestaurantGeoIndex(RestaurantRepository restaurantRepository) {
+        this.restaurantRepository = restaurantRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${pikngo.geo.index.refresh-ms:300000}",
+            initialDelayString = "${pikngo.geo.index.refresh-ms:300000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    // Runs before the listeners of caches derived from this index.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        apply(event.getRestaurant());
+    }
+
+    /**
+     * Reloads every searchable restaurant from the database and atomically swaps in the new grid.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (writeLock) {
+                changedDuringRebuild = new ArrayList<>();
+            }
+            List<RestaurantSnapshot> restaurants;
+            try {
+                restaurants = restaurantRepository.findSearchableSnapshots();
+            } catch (RuntimeException e) {
+                synchronized (writeLock) {
+                    changedDuringRebuild = null;
+                }
+                log.error("Failed to rebuild restaurant geo index, keeping previous contents", e);
+                return;
+            }
+
+            Grid fresh = new Grid();
+            fresh.putAll(restaurants);
+            synchronized (writeLock) {
+                changedDuringRebuild.forEach(fresh::put);
+                changedDuringRebuild = null;
+                grid = fresh;
+                generation++;
+                ready = true;
+            }
+            log.info("Restaurant geo index rebuilt with {} restaurants in {} cells", fresh.byId.size(), fresh.cells.size());
+        }
+    }
+
+    /**
+     * Inserts, moves or removes a single restaurant depending on its current state.
+     */
+    public void apply(RestaurantSnapshot restaurant) {
+        if (restaurant == null || restaurant.getId() == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            grid.put(restaurant);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(restaurant);
+            }
+        }
+    }
+
+    /** True once the initial load has completed; until then callers should fall back to the database. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int size() {
+        return grid.byId.size();
+    }
+
+    /**
+     * All searchable restaurants strictly within {@code radiusKm} of the given point, nearest first.
+     */
+    public List<Match> findWithinRadius(double lat, double lon, double radiusKm) {
+        List<Match> matches = new ArrayList<>();
+        double latDelta = radiusKm / GeoUtils.KM_PER_DEGREE;
+        double lonDelta = GeoUtils.longitudeDelta(lat, radiusKm);
+        double[] center = GeoKernel.unitVector(lat, lon);
+        double maxChordSquared = GeoKernel.maxChordSquared(radiusKm);
+        double[][] scratch = new double[1][];
+        forEachCell(grid, lat - latDelta, lat + latDelta, lon - lonDelta, lon + lonDelta,
+                cell -> collectWithinRadius(cell.restaurants, cell.columns, center, radiusKm, maxChordSquared,
+                        scratch, matches));
+        matches.sort(Comparator.comparingDouble(Match::getDistanceKm));
+        return matches;
+    }
+
+    /**
+     * Adds the restaurants strictly within {@code radiusKm} of {@code center} (a unit vector), with
+     * their distance. {@code scratch[0]} is reused between calls as the kernel's output buffer.
+     */
+    static void collectWithinRadius(RestaurantSnapshot[] restaurants, GeoColumns columns, double[] center,
+                                    double radiusKm, double maxChordSquared, double[][] scratch, List<Match> matches) {
+        double[] chords = buffer(scratch, columns.size());
+        GeoKernel.chordSquared(center, columns, chords);
+        for (int i = 0; i < restaurants.length; i++) {
+            if (chords[i] <= maxChordSquared) {
+                double distance = GeoKernel.distanceKm(chords[i]);
+                if (distance < radiusKm) {
+                    matches.add(new Match(restaurants[i], distance));
+                }
+            }
+        }
+    }
+
+    /** A buffer of at least {@code size} doubles, kept in {@code scratch[0]} for the next call. */
+    static double[] buffer(double[][] scratch, int size) {
+        if (scratch[0] == null || scratch[0].length < size) {
+            scratch[0] = new double[Math.max(size, 64)];
+        }
+        return scratch[0];
+    }
+
+    /**
+     * The {@code limit} nearest restaurants that sort strictly after ({@code afterDistanceKm},
+     * {@code afterId}) in {@link #NEAREST_FIRST} order; pass nulls for the first page.
+     *
+     * Cells are visited in square rings around the query cell while a bounded max-heap keeps the
+     * best candidates. The search stops as soon as the heap is full and its worst distance is
+     * smaller than the distance to the closest unvisited cell, so dense areas touch a handful of
+     * cells. In sparse areas the rings switch to 1-degree cells, skipping empty regions a hundred
+     * fine cells at a time.
+     */
+    public List<Match> findNearest(double lat, double lon, int limit, Double afterDistanceKm, UUID afterId) {
+        Grid g = grid;
+        NearestCollector collector = new NearestCollector(lat, lon, limit, afterDistanceKm, afterId);
+        if (Math.abs(lat) > POLAR_LATITUDE) {
+            // Meridians converge here, so rings prove almost nothing; there is nothing to find anyway.
+            return fullPass(g, collector);
+        }
+        int centerRow = row(lat);
+        int centerCol = (int) Math.floor((lon + 180) / CELL_DEGREES);
+        for (int ring = 0; ring <= FINE_RINGS; ring++) {
+            visitRing(g, centerRow, centerCol, ring, 1, collector);
+            if (collector.isFull()
+                    && collector.worstDistance() < coveredKm(lat, lon, centerRow, centerCol, ring, CELL_DEGREES, ROWS)) {
+                return collector.result();
+            }
+        }
+
+        // Restart on coarse cells; they overlap the fine rings already visited.
+        collector = new NearestCollector(lat, lon, limit, afterDistanceKm, afterId);
+        int coarseRow = Math.floorDiv(centerRow, COARSE_FACTOR);
+        int coarseCol = Math.floorDiv(centerCol, COARSE_FACTOR);
+        long probed = 0;
+        for (int ring = 0; probed <= g.byId.size() && 2 * ring + 1 < COARSE_COLUMNS; ring++) {
+            probed += visitRing(g, coarseRow, coarseCol, ring, COARSE_FACTOR, collector);
+            if (collector.isFull() && collector.worstDistance()
+                    < coveredKm(lat, lon, coarseRow, coarseCol, ring, COARSE_FACTOR * CELL_DEGREES, COARSE_ROWS)) {
+                return collector.result();
+            }
+        }
+
+        // The rings have cost more than visiting every occupied cell would: finish with a full pass.
+        return fullPass(g, new NearestCollector(lat, lon, limit, afterDistanceKm, afterId));
+    }
+
+    private static List<Match> fullPass(Grid g, NearestCollector collector) {
+        for (Cell cell : g.cells.values()) {
+            for (RestaurantSnapshot restaurant : cell.restaurants) {
+                collector.accept(restaurant);
+            }
+        }
+        return collector.result();
+    }
+
+    /**
+     * Same contract as {@link #findNearest}, computed by a full pass over the given restaurants.
+     * Used while the index is still loading.
+     */
+    public static List<Match> nearestOf(Iterable<RestaurantSnapshot> restaurants, double lat, double lon, int limit,
+                                        Double afterDistanceKm, UUID afterId) {
+        NearestCollector collector = new NearestCollector(lat, lon, limit, afterDistanceKm, afterId);
+        restaurants.forEach(collector);
+        return collector.result();
+    }
+
+    /**
+     * Visits every restaurant in the cells overlapping the box. This is a superset of the box
+     * contents: callers are expected to apply their own exact test.
+     */
+    public void forEachCandidate(double minLat, double maxLat, double minLon, double maxLon,
+                                 Consumer<RestaurantSnapshot> action) {
+        forEachCell(grid, minLat, maxLat, minLon, maxLon, cell -> cell.forEach(action));
+    }
+
+    /**
+     * Cell-at-a-time form of {@link #forEachCandidate}, for callers that test whole cells in a batch.
+     */
+    void forEachCellInBox(double minLat, double maxLat, double minLon, double maxLon, Consumer<Cell> action) {
+        forEachCell(grid, minLat, maxLat, minLon, maxLon, action);
+    }
+
+    /**
+     * Adds the keys of every cell overlapping the box of {@code radiusKm} around the point.
+     * Used to build the cell cover of a route before visiting it with {@link #forEachCandidateInCells}.
+     */
+    public void addCellsAround(double lat, double lon, double radiusKm, Set<Long> cells) {
+        double latDelta = radiusKm / GeoUtils.KM_PER_DEGREE;
+        double lonDelta = GeoUtils.longitudeDelta(lat, radiusKm);
+        int minRow = row(lat - latDelta);
+        int maxRow = row(lat + latDelta);
+        int minCol = (int) Math.floor((lon - lonDelta + 180) / CELL_DEGREES);
+        int maxCol = lonDelta >= 180 ? minCol + COLUMNS - 1 : (int) Math.floor((lon + lonDelta + 180) / CELL_DEGREES);
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                cells.add(key(r, Math.floorMod(c, COLUMNS)));
+            }
+        }
+    }
+
+    /**
+     * Adds the keys of every cell overlapping the box.
+     */
+    public void addCellsInBox(double minLat, double maxLat, double minLon, double maxLon, Set<Long> cells) {
+        int minCol = (int) Math.floor((minLon + 180) / CELL_DEGREES);
+        int maxCol = maxLon - minLon >= 360 ? minCol + COLUMNS - 1 : (int) Math.floor((maxLon + 180) / CELL_DEGREES);
+        for (int r = row(minLat); r <= row(maxLat); r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                cells.add(key(r, Math.floorMod(c, COLUMNS)));
+            }
+        }
+    }
+
+    /**
+     * Visits every restaurant in a single cell.
+     */
+    public void forEachInCell(long cellKey, Consumer<RestaurantSnapshot> action) {
+        Cell cell = grid.cells.get(cellKey);
+        if (cell != null) {
+            cell.forEach(action);
+        }
+    }
+
+    /** The cell with the given key, or {@code null} when it is empty. */
+    Cell cell(long cellKey) {
+        return grid.cells.get(cellKey);
+    }
+
+    /**
+     * Visits every restaurant in the given cells, each exactly once.
+     */
+    public void forEachCandidateInCells(Set<Long> cellKeys, Consumer<RestaurantSnapshot> action) {
+        forEachCellIn(cellKeys, cell -> cell.forEach(action));
+    }
+
+    /**
+     * Cell-at-a-time form of {@link #forEachCandidateInCells}.
+     */
+    void forEachCellIn(Set<Long> cellKeys, Consumer<Cell> action) {
+        Grid g = grid;
+        if (cellKeys.size() > g.cells.size()) {
+            g.cells.values().forEach(action);
+            return;
+        }
+        for (Long cellKey : cellKeys) {
+            Cell cell = g.cells.get(cellKey);
+            if (cell != null) {
+                action.accept(cell);
+            }
+        }
+    }
+
+    private static void forEachCell(Grid g, double minLat, double maxLat, double minLon, double maxLon,
+                                    Consumer<Cell> action) {
+        int minRow = row(minLat);
+        int maxRow = row(maxLat);
+        int minCol;
+        int maxCol;
+        if (maxLon - minLon >= 360) {
+            minCol = 0;
+            maxCol = COLUMNS - 1;
+        } else {
+            // Columns outside [0, COLUMNS) wrap around the antimeridian below.
+            minCol = (int) Math.floor((minLon + 180) / CELL_DEGREES);
+            maxCol = (int) Math.floor((maxLon + 180) / CELL_DEGREES);
+        }
+
+        long cellsInBox = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+        if (cellsInBox > g.cells.size()) {
+            // Huge box over a sparse catalog: walking the occupied cells is cheaper than probing empty ones.
+            g.cells.values().forEach(action);
+            return;
+        }
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                Cell cell = g.cells.get(key(r, Math.floorMod(c, COLUMNS)));
+                if (cell != null) {
+                    action.accept(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits the cells of one square ring on the grid whose cells are {@code factor} fine cells wide,
+     * and returns the number of cells probed. Coarse cells are only opened when occupied.
+     */
+    private static int visitRing(Grid g, int centerRow, int centerCol, int ring, int factor,
+                                 Consumer<RestaurantSnapshot> action) {
+        int rows = ROWS / factor;
+        int columns = COLUMNS / factor;
+        int probed = 0;
+        for (int r = centerRow - ring; r <= centerRow + ring; r++) {
+            if (r < 0 || r >= rows) {
+                continue;
+            }
+            // Top and bottom rows of the ring are walked fully, the rows in between only at both ends.
+            int step = (r == centerRow - ring || r == centerRow + ring) ? 1 : 2 * ring;
+            for (int c = centerCol - ring; c <= centerCol + ring; c += step) {
+                probed++;
+                int col = Math.floorMod(c, columns);
+                if (factor == 1) {
+                    visitCell(g, key(r, col), action);
+                } else if (g.coarseCounts.containsKey(coarseKey(r, col))) {
+                    for (int fineRow = r * factor; fineRow < (r + 1) * factor; fineRow++) {
+                        for (int fineCol = col * factor; fineCol < (col + 1) * factor; fineCol++) {
+                            visitCell(g, key(fineRow, fineCol), action);
+                        }
+                    }
+                }
+            }
+        }
+        return probed;
+    }
+
+    private static void visitCell(Grid g, long cellKey, Consumer<RestaurantSnapshot> action) {
+        Cell cell = g.cells.get(cellKey);
+        if (cell != null) {
+            cell.forEach(action);
+        }
+    }
+
+    /**
+     * Lower bound on the distance from the query point to any cell outside the first {@code ring}
+     * rings: the nearest of the block's bounding parallels and meridians.
+     */
+    private static double coveredKm(double lat, double lon, int centerRow, int centerCol, int ring,
+                                    double cellDegrees, int rows) {
+        double covered = Double.MAX_VALUE;
+        if (centerRow + ring + 1 < rows) {
+            double north = (centerRow + ring + 1) * cellDegrees - 90;
+            covered = Math.min(covered, (north - lat) * GeoUtils.KM_PER_DEGREE);
+        }
+        if (centerRow - ring > 0) {
+            double south = (centerRow - ring) * cellDegrees - 90;
+            covered = Math.min(covered, (lat - south) * GeoUtils.KM_PER_DEGREE);
+        }
+        double west = (centerCol - ring) * cellDegrees - 180;
+        double east = (centerCol + ring + 1) * cellDegrees - 180;
+        double lonGap = Math.toRadians(Math.min(90, Math.min(lon - west, east - lon)));
+        // Distance to the great circle of the nearer bounding meridian.
+        double toMeridian = Math.asin(Math.cos(Math.toRadians(lat)) * Math.sin(lonGap)) * GeoUtils.EARTH_RADIUS_KM;
+        return Math.min(covered, toMeridian);
+    }
+
+    private static int row(double lat) {
+        int row = (int) Math.floor((lat + 90) / CELL_DEGREES);
+        return Math.max(0, Math.min(ROWS - 1, row));
+    }
+
+    private static long cellOf(double lat, double lon) {
+        int col = Math.floorMod((int) Math.floor((lon + 180) / CELL_DEGREES), COLUMNS);
+        return key(row(lat), col);
+    }
+
+    private static long key(int row, int col) {
+        return (long) row * COLUMNS + col;
+    }
+
+    private static long coarseKey(int coarseRow, int coarseCol) {
+        return (long) coarseRow * COARSE_COLUMNS + coarseCol;
+    }
+
+    private static long coarseKeyOf(long cellKey) {
+        return coarseKey((int) (cellKey / COLUMNS) / COARSE_FACTOR, (int) (cellKey % COLUMNS) / COARSE_FACTOR);
+    }
+
+    /** Distance first, then id, so that pages cut by a cursor are stable. */
+    public static final Comparator<Match> NEAREST_FIRST = Comparator.comparingDouble(Match::getDistanceKm)
+            .thenComparing(match -> match.getRestaurant().getId());
+
+    public static final class Match {
+        private final RestaurantSnapshot restaurant;
+        private final double distanceKm;
+
+        Match(RestaurantSnapshot restaurant, double distanceKm) {
+            this.restaurant = restaurant;
+            this.distanceKm = distanceKm;
+        }
+
+        public RestaurantSnapshot getRestaurant() { return restaurant; }
+        public double getDistanceKm() { return distanceKm; }
+    }
+
+    private static final class NearestCollector implements Consumer<RestaurantSnapshot> {
+        private final double lat;
+        private final double lon;
+        private final int limit;
+        private final Double afterDistanceKm;
+        private final UUID afterId;
+        // Max-heap: the worst of the current best sits on top.
+        private final PriorityQueue<Match> best;
+
+        NearestCollector(double lat, double lon, int limit, Double afterDistanceKm, UUID afterId) {
+            this.lat = lat;
+            this.lon = lon;
+            this.limit = limit;
+            this.afterDistanceKm = afterDistanceKm;
+            this.afterId = afterId;
+            this.best = new PriorityQueue<>(limit + 1, NEAREST_FIRST.reversed());
+        }
+
+        @Override
+        public void accept(RestaurantSnapshot restaurant) {
+            double distance = GeoUtils.haversine(lat, lon, restaurant.getLatitude(), restaurant.getLongitude());
+            if (afterId != null && (distance < afterDistanceKm
+                    || (distance == afterDistanceKm && restaurant.getId().compareTo(afterId) <= 0))) {
+                return;
+            }
+            if (best.size() < limit) {
+                best.add(new Match(restaurant, distance));
+                return;
+            }
+            if (distance > best.peek().getDistanceKm()) {
+                return;
+            }
+            Match match = new Match(restaurant, distance);
+            if (NEAREST_FIRST.compare(match, best.peek()) < 0) {
+                best.poll();
+                best.add(match);
+            }
+        }
+
+        boolean isFull() {
+            return best.size() >= limit;
+        }
+
+        double worstDistance() {
+            return best.peek().getDistanceKm();
+        }
+
+        List<Match> result() {
+            List<Match> sorted = new ArrayList<>(best);
+            sorted.sort(NEAREST_FIRST);
+            return sorted;
+        }
+    }
+
+    /**
+     * The restaurants of one cell and their coordinate columns, index-aligned. Never modified:
+     * writers swap in a new cell.
+     */
+    static final class Cell {
+        final RestaurantSnapshot[] restaurants;
+        final GeoColumns columns;
+
+        Cell(RestaurantSnapshot[] restaurants, GeoColumns columns) {
+            this.restaurants = restaurants;
+            this.columns = columns;
+        }
+
+        static Cell of(List<RestaurantSnapshot> restaurants) {
+            double[] lat = new double[restaurants.size()];
+            double[] lon = new double[restaurants.size()];
+            for (int i = 0; i < lat.length; i++) {
+                lat[i] = restaurants.get(i).getLatitude();
+                lon[i] = restaurants.get(i).getLongitude();
+            }
+            return new Cell(restaurants.toArray(new RestaurantSnapshot[0]), GeoColumns.of(lat, lon));
+        }
+
+        Cell with(RestaurantSnapshot restaurant) {
+            RestaurantSnapshot[] grown = new RestaurantSnapshot[restaurants.length + 1];
+            System.arraycopy(restaurants, 0, grown, 0, restaurants.length);
+            grown[restaurants.length] = restaurant;
+            return new Cell(grown, columns.append(restaurant.getLatitude(), restaurant.getLongitude()));
+        }
+
+        Cell without(UUID id) {
+            for (int i = 0; i < restaurants.length; i++) {
+                if (restaurants[i].getId().equals(id)) {
+                    if (restaurants.length == 1) {
+                        return null;
+                    }
+                    RestaurantSnapshot[] shrunk = new RestaurantSnapshot[restaurants.length - 1];
+                    System.arraycopy(restaurants, 0, shrunk, 0, i);
+                    System.arraycopy(restaurants, i + 1, shrunk, i, restaurants.length - i - 1);
+                    return new Cell(shrunk, columns.without(i));
+                }
+            }
+            return this;
+        }
+
+        void forEach(Consumer<RestaurantSnapshot> action) {
+            for (RestaurantSnapshot restaurant : restaurants) {
+                action.accept(restaurant);
+            }
+        }
+    }
+
+    private static final class Grid {
+        final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+        final Map<UUID, RestaurantSnapshot> byId = new ConcurrentHashMap<>();
+        // Restaurants per coarse cell, so sparse searches can skip empty regions.
+        final Map<Long, Integer> coarseCounts = new ConcurrentHashMap<>();
+
+        void put(RestaurantSnapshot restaurant) {
+            remove(restaurant.getId());
+            if (!restaurant.isSearchable()) {
+                return;
+            }
+            byId.put(restaurant.getId(), restaurant);
+            long cellKey = cellOf(restaurant.getLatitude(), restaurant.getLongitude());
+            coarseCounts.merge(coarseKeyOf(cellKey), 1, Integer::sum);
+            cells.compute(cellKey, (k, cell) -> cell == null ? Cell.of(List.of(restaurant)) : cell.with(restaurant));
+        }
+
+        /** Bulk load into an empty grid, building every cell once. */
+        void putAll(List<RestaurantSnapshot> restaurants) {
+            Map<Long, List<RestaurantSnapshot>> byCell = new HashMap<>();
+            for (RestaurantSnapshot restaurant : restaurants) {
+                if (!restaurant.isSearchable() || byId.putIfAbsent(restaurant.getId(), restaurant) != null) {
+                    continue;
+                }
+                long cellKey = cellOf(restaurant.getLatitude(), restaurant.getLongitude());
+                coarseCounts.merge(coarseKeyOf(cellKey), 1, Integer::sum);
+                byCell.computeIfAbsent(cellKey, k -> new ArrayList<>()).add(restaurant);
+            }
+            byCell.forEach((cellKey, members) -> cells.put(cellKey, Cell.of(members)));
+        }
+
+        void remove(UUID id) {
+            RestaurantSnapshot previous = byId.remove(id);
+            if (previous == null) {
+                return;
+            }
+            long cellKey = cellOf(previous.getLatitude(), previous.getLongitude());
+            coarseCounts.computeIfPresent(coarseKeyOf(cellKey), (k, count) -> count == 1 ? null : count - 1);
+            cells.computeIfPresent(cellKey, (k, cell) -> cell.without(id));
+        }
+    }
+}
@@ -1,12 +1,24 @@
 package com.pikngo.user_service.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pikngo.user_service.dto.ApiResponse;
+import com.pikngo.user_service.dto.CursorPageDTO;
+import com.pikngo.user_service.dto.RestaurantSnapshot;
 import com.pikngo.user_service.entity.Restaurant;
+import com.pikngo.user_service.event.RestaurantChangedEvent;
+import com.pikngo.user_service.exception.InvalidPageRequestException;
+import com.pikngo.user_service.exception.InvalidRouteException;
 import com.pikngo.user_service.repository.RestaurantRepository;
 import com.pikngo.user_service.service.RestaurantService;
 import com.pikngo.user_service.dto.RestaurantResponseDTO;
 import com.pikngo.user_service.repository.RestaurantWithDistance;
+import com.pikngo.user_service.utils.CursorCodec;
+import com.pikngo.user_service.utils.GeoUtils;
+import com.pikngo.user_service.utils.PolylineCodec;
+import com.pikngo.user_service.utils.RenderedJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,18 +30,40 @@ import java.util.stream.Collectors;
 public class RestaurantServiceImpl implements RestaurantService {
 
     private static final Logger log = LoggerFactory.getLogger(RestaurantServiceImpl.class);
+    private static final int MAX_ROUTE_WAYPOINTS = 5000;
+    // The widest radius GeoQueryCache buckets; the route search is public, and its cell cover grows with the radius.
+    private static final double MAX_ROUTE_RADIUS_KM = 100;
+    private static final int MAX_NEAREST_PAGE_SIZE = 100;
+    private static final String ACTIVE_RESTAURANTS_MESSAGE = "Active restaurants fetched successfully";
 
     private final RestaurantRepository restaurantRepository;
+    private final RestaurantGeoIndex geoIndex;
+    private final RouteCorridorEngine routeCorridorEngine;
+    private final GeoQueryCache geoQueryCache;
+    private final RestaurantCatalog restaurantCatalog;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public RestaurantServiceImpl(RestaurantRepository restaurantRepository) {
+    public RestaurantServiceImpl(RestaurantRepository restaurantRepository, RestaurantGeoIndex geoIndex,
+                                 RouteCorridorEngine routeCorridorEngine, GeoQueryCache geoQueryCache,
+                                 RestaurantCatalog restaurantCatalog, ObjectMapper objectMapper,
+                                 ApplicationEventPublisher eventPublisher) {
         this.restaurantRepository = restaurantRepository;
+        this.geoIndex = geoIndex;
+        this.routeCorridorEngine = routeCorridorEngine;
+        this.geoQueryCache = geoQueryCache;
+        this.restaurantCatalog = restaurantCatalog;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     @Transactional
     public Restaurant createRestaurant(Restaurant restaurant) {
         log.info("Creating new restaurant: {}", restaurant.getRestaurantName());
-        return restaurantRepository.save(restaurant);
+        Restaurant saved = restaurantRepository.save(restaurant);
+        eventPublisher.publishEvent(new RestaurantChangedEvent(RestaurantSnapshot.from(saved)));
+        return saved;
     }
 
     @Override
@@ -49,7 +83,9 @@ public class RestaurantServiceImpl implements RestaurantService {
         existing.setDeliveryTime(updatedRestaurant.getDeliveryTime());
         existing.setImageUrl(updatedRestaurant.getImageUrl());
 
-        return restaurantRepository.save(existing);
+        Restaurant saved = restaurantRepository.save(existing);
+        eventPublisher.publishEvent(new RestaurantChangedEvent(RestaurantSnapshot.from(saved)));
+        return saved;
     }
 
     private RestaurantResponseDTO mapToDTO(Restaurant restaurant) {
@@ -67,6 +103,22 @@ public class RestaurantServiceImpl implements RestaurantService {
                 .build();
     }
 
+    private RestaurantResponseDTO mapToDTO(RestaurantSnapshot restaurant, double distance) {
+        return RestaurantResponseDTO.builder()
+                .id(restaurant.getId())
+                .restaurantName(restaurant.getRestaurantName())
+                .address(restaurant.getAddress())
+                .latitude(restaurant.getLatitude())
+                .longitude(restaurant.getLongitude())
+                .imageUrl(restaurant.getImageUrl())
+                .category(restaurant.getCategory())
+                .rating(restaurant.getRating())
+                .deliveryTime(restaurant.getDeliveryTime())
+                .isActive(restaurant.isActive())
+                .distance(distance)
+                .build();
+    }
+
     private RestaurantResponseDTO mapToDTOWithDistance(RestaurantWithDistance projection) {
         RestaurantResponseDTO dto = new RestaurantResponseDTO();
         dto.setId(projection.getId());
@@ -86,82 +138,129 @@ public class RestaurantServiceImpl implements RestaurantService {
     @Override
     public List<RestaurantResponseDTO> getNearbyRestaurants(Double lat, Double lon, Double radius) {
         log.info("Searching for restaurants near {}, {} within {}km", lat, lon, radius);
-        return restaurantRepository.findNearbyRestaurants(lat, lon, radius)
+        if (geoIndex.isReady()) {
+            return geoQueryCache.findWithinRadius(lat, lon, radius)
+                    .stream()
+                    .map(match -> mapToDTO(match.getRestaurant(), match.getDistanceKm()))
+                    .collect(Collectors.toList());
+        }
+        // The geo index loads on startup; until then answer from the database.
+        double latDelta = radius / GeoUtils.KM_PER_DEGREE;
+        double lonDelta = GeoUtils.longitudeDelta(lat, radius);
+        double minLon = lon - lonDelta;
+        double maxLon = lon + lonDelta;
+        if (minLon < -180 || maxLon > 180) {
+            // The box wraps around the antimeridian (or a pole); only the latitude band can be used.
+            minLon = -180;
+            maxLon = 180;
+        }
+        return restaurantRepository.findNearbyRestaurantsInBox(lat, lon, radius,
+                        lat - latDelta, lat + latDelta, minLon, maxLon)
                 .stream()
                 .map(this::mapToDTOWithDistance)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public CursorPageDTO<RestaurantResponseDTO> getNearestRestaurants(Double lat, Double lon, Integer k, String cursor) {
+        if (k == null || k < 1 || k > MAX_NEAREST_PAGE_SIZE) {
+            throw new InvalidPageRequestException("k must be between 1 and " + MAX_NEAREST_PAGE_SIZE);
+        }
+        Double afterDistance = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorCodec.decode(cursor, 2);
+            try {
+                afterDistance = Double.longBitsToDouble(Long.parseUnsignedLong(parts[0], 16));
+                afterId = UUID.fromString(parts[1]);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidPageRequestException("Malformed cursor");
+            }
+        }
+        log.info("Searching for {} nearest restaurants to {}, {}", k, lat, lon);
+
+        // One extra match tells us whether another page exists.
+        List<RestaurantGeoIndex.Match> matches = geoIndex.isReady()
+                ? geoIndex.findNearest(lat, lon, k + 1, afterDistance, afterId)
+                : RestaurantGeoIndex.nearestOf(restaurantRepository.findSearchableSnapshots(), lat, lon, k + 1,
+                        afterDistance, afterId);
+
+        String nextCursor = null;
+        if (matches.size() > k) {
+            matches = matches.subList(0, k);
+            RestaurantGeoIndex.Match last = matches.get(k - 1);
+            nextCursor = CursorCodec.encode(Long.toHexString(Double.doubleToLongBits(last.getDistanceKm())),
+                    last.getRestaurant().getId().toString());
+        }
+        List<RestaurantResponseDTO> items = matches.stream()
+                .map(match -> mapToDTO(match.getRestaurant(), match.getDistanceKm()))
+                .collect(Collectors.toList());
+        return new CursorPageDTO<>(items, nextCursor);
+    }
+
     @Override
     public List<RestaurantResponseDTO> getRestaurantsBetweenLocations(Double srcLat, Double srcLon, Double destLat, Double destLon,
             Double radius) {
         log.info("Searching for restaurants along route from ({}, {}) to ({}, {}) within {}km", 
                 srcLat, srcLon, destLat, destLon, radius);
 
-        List<Restaurant> allActive = restaurantRepository.findByIsActiveTrueAndIsDeletedFalse();
-        
-        return allActive.stream()
-                .filter(res -> isAlongRoute(srcLat, srcLon, destLat, destLon, res.getLatitude(), res.getLongitude(), radius))
-                .map(res -> {
-                    RestaurantResponseDTO dto = mapToDTO(res);
-                    double distToRoute = crossTrackDistance(srcLat, srcLon, destLat, destLon, res.getLatitude(), res.getLongitude());
-                    dto.setDistance(Math.abs(distToRoute));
-                    return dto;
-                })
+        return geoQueryCache.findAlongSegment(srcLat, srcLon, destLat, destLon, radius)
+                .stream()
+                .map(match -> mapToDTO(match.getRestaurant(), match.getDistanceKm()))
                 .collect(Collectors.toList());
     }
 
-    private boolean isAlongRoute(double lat1, double lon1, double lat2, double lon2, double lat3, double lon3, double radius) {
-        double dxt = crossTrackDistance(lat1, lon1, lat2, lon2, lat3, lon3);
-        if (Math.abs(dxt) > radius) return false;
-
-        double minLat = Math.min(lat1, lat2) - (radius / 111.0);
-        double maxLat = Math.max(lat1, lat2) + (radius / 111.0);
-        double minLon = Math.min(lon1, lon2) - (radius / (111.0 * Math.cos(Math.toRadians(lat1))));
-        double maxLon = Math.max(lon1, lon2) + (radius / (111.0 * Math.cos(Math.toRadians(lat1))));
-
-        return lat3 >= minLat && lat3 <= maxLat && lon3 >= minLon && lon3 <= maxLon;
-    }
-
-    private double crossTrackDistance(double lat1, double lon1, double lat2, double lon2, double lat3, double lon3) {
-        double R = 6371; 
-        double d13 = haversine(lat1, lon1, lat3, lon3);
-        double brng13 = bearing(lat1, lon1, lat3, lon3);
-        double brng12 = bearing(lat1, lon1, lat2, lon2);
-        
-        return Math.asin(Math.sin(d13 / R) * Math.sin(brng13 - brng12)) * R;
-    }
-
-    private double haversine(double lat1, double lon1, double lat2, double lon2) {
-        double R = 6371;
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                   Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                   Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
-    }
+    @Override
+    public List<RestaurantResponseDTO> getRestaurantsAlongRoute(String polyline, Double radius) {
+        List<double[]> waypoints;
+        try {
+            waypoints = PolylineCodec.decode(polyline);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRouteException("Malformed route polyline: " + e.getMessage());
+        }
+        if (waypoints.size() < 2) {
+            throw new InvalidRouteException("Route polyline needs at least two points");
+        }
+        if (waypoints.size() > MAX_ROUTE_WAYPOINTS) {
+            throw new InvalidRouteException("Route polyline has more than " + MAX_ROUTE_WAYPOINTS + " points");
+        }
+        if (radius == null || radius <= 0) {
+            throw new InvalidRouteException("Radius must be positive");
+        }
+        if (radius > MAX_ROUTE_RADIUS_KM) {
+            throw new InvalidRouteException("Radius must be at most " + (int) MAX_ROUTE_RADIUS_KM + " km");
+        }
+        log.info("Searching for restaurants along {}-point route within {}km", waypoints.size(), radius);
 
-    private double bearing(double lat1, double lon1, double lat2, double lon2) {
-        double phi1 = Math.toRadians(lat1);
-        double phi2 = Math.toRadians(lat2);
-        double deltaLambda = Math.toRadians(lon2 - lon1);
-        double y = Math.sin(deltaLambda) * Math.cos(phi2);
-        double x = Math.cos(phi1) * Math.sin(phi2) -
-                   Math.sin(phi1) * Math.cos(phi2) * Math.cos(deltaLambda);
-        return Math.atan2(y, x);
+        return routeCorridorEngine.findAlongRoute(waypoints, radius)
+                .stream()
+                .map(match -> mapToDTO(match.getRestaurant(), match.getDistanceKm()))
+                .collect(Collectors.toList());
     }
 
     @Override
     public List<RestaurantResponseDTO> getAllActiveRestaurants() {
         log.info("Fetching all active restaurants");
+        RestaurantCatalog.Snapshot catalog = restaurantCatalog.current();
+        if (catalog != null) {
+            return catalog.getActiveRestaurants();
+        }
         return restaurantRepository.findByIsActiveTrueAndIsDeletedFalse()
                 .stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public RenderedJson getActiveRestaurantsResponse() {
+        RestaurantCatalog.Snapshot catalog = restaurantCatalog.current();
+        if (catalog == null) {
+            return RenderedJson.render(objectMapper, ApiResponse.success(ACTIVE_RESTAURANTS_MESSAGE, getAllActiveRestaurants()));
+        }
+        return catalog.renderActive(restaurants ->
+                RenderedJson.render(objectMapper, ApiResponse.success(ACTIVE_RESTAURANTS_MESSAGE, restaurants)));
+    }
+
     @Override
     public List<RestaurantResponseDTO> getAllRestaurantsForAdmin() {
         log.info("Fetching all restaurants for admin");
@@ -174,8 +273,22 @@ public class RestaurantServiceImpl implements RestaurantService {
     @Override
     public RestaurantResponseDTO getRestaurantById(UUID id) {
         log.info("Fetching restaurant by ID: {}", id);
+        RestaurantCatalog.Snapshot catalog = restaurantCatalog.current();
+        if (catalog != null) {
+            RestaurantResponseDTO restaurant = catalog.getRestaurant(id);
+            if (restaurant == null) {
+                throw new RuntimeException("Restaurant not found with ID: " + id);
+            }
+            return restaurant;
+        }
         return restaurantRepository.findById(id)
                 .map(this::mapToDTO)
                 .orElseThrow(() -> new RuntimeException("Restaurant not found with ID: " + id));
     }
+
+    @Override
+    public String getCatalogETag() {
+        RestaurantCatalog.Snapshot catalog = restaurantCatalog.current();
+        return catalog == null ? null : catalog.getETag();
+    }
 }
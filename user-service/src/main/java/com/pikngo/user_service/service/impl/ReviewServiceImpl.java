@@ -2,13 +2,16 @@ package com.pikngo.user_service.service.impl;
 
 import com.pikngo.user_service.dto.ReviewRequestDTO;
 import com.pikngo.user_service.dto.ReviewResponseDTO;
+import com.pikngo.user_service.dto.RestaurantSnapshot;
 import com.pikngo.user_service.entity.Restaurant;
 import com.pikngo.user_service.entity.Review;
 import com.pikngo.user_service.entity.User;
+import com.pikngo.user_service.event.RestaurantChangedEvent;
 import com.pikngo.user_service.repository.RestaurantRepository;
 import com.pikngo.user_service.repository.ReviewRepository;
 import com.pikngo.user_service.repository.UserRepository;
 import com.pikngo.user_service.service.ReviewService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,11 +25,14 @@ public class ReviewServiceImpl implements ReviewService {
     private final ReviewRepository reviewRepository;
     private final UserRepository userRepository;
     private final RestaurantRepository restaurantRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ReviewServiceImpl(ReviewRepository reviewRepository, UserRepository userRepository, RestaurantRepository restaurantRepository) {
+    public ReviewServiceImpl(ReviewRepository reviewRepository, UserRepository userRepository, RestaurantRepository restaurantRepository,
+                             ApplicationEventPublisher eventPublisher) {
         this.reviewRepository = reviewRepository;
         this.userRepository = userRepository;
         this.restaurantRepository = restaurantRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -55,7 +61,7 @@ public class ReviewServiceImpl implements ReviewService {
         // Update restaurant's average rating
         updateRestaurantRating(restaurant);
 
-        return mapToDTO(savedReview);
+        return ReviewResponseDTO.from(savedReview);
     }
 
     private void updateRestaurantRating(Restaurant restaurant) {
@@ -72,13 +78,14 @@ public class ReviewServiceImpl implements ReviewService {
         
         restaurant.setRating(average);
         restaurantRepository.save(restaurant);
+        eventPublisher.publishEvent(new RestaurantChangedEvent(RestaurantSnapshot.from(restaurant)));
     }
 
     @Override
     public List<ReviewResponseDTO> getRestaurantReviews(UUID restaurantId) {
         return reviewRepository.findByRestaurantIdOrderByCreatedTsDesc(restaurantId)
                 .stream()
-                .map(this::mapToDTO)
+                .map(ReviewResponseDTO::from)
                 .collect(Collectors.toList());
     }
 
@@ -86,32 +93,7 @@ public class ReviewServiceImpl implements ReviewService {
     public List<ReviewResponseDTO> getUserReviews(UUID userId) {
         return reviewRepository.findByUserIdOrderByCreatedTsDesc(userId)
                 .stream()
-                .map(this::mapToDTO)
+                .map(ReviewResponseDTO::from)
                 .collect(Collectors.toList());
     }
-
-    private ReviewResponseDTO mapToDTO(Review review) {
-        if (review == null) return null;
-        
-        ReviewResponseDTO.Builder builder = ReviewResponseDTO.builder()
-                .id(review.getId())
-                .rating(review.getRating())
-                .comment(review.getComment())
-                .photoUrl(review.getPhotoUrl())
-                .isEliteReview(review.isEliteReview())
-                .createdTs(review.getCreatedTs());
-
-        if (review.getUser() != null) {
-            builder.userId(review.getUser().getId())
-                   .userName(review.getUser().getFirstName() + " " + review.getUser().getLastName())
-                   .userPhotoUrl(review.getUser().getProfileImageUrl());
-        }
-
-        if (review.getRestaurant() != null) {
-            builder.restaurantId(review.getRestaurant().getId())
-                   .restaurantName(review.getRestaurant().getRestaurantName());
-        }
-
-        return builder.build();
-    }
 }
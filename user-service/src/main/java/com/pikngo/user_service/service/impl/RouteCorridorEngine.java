@@ -0,0 +1,323 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.RestaurantSnapshot;
+import com.pikngo.user_service.exception.InvalidRouteException;
+import com.pikngo.user_service.repository.RestaurantRepository;
+import com.pikngo.user_service.utils.GeoColumns;
+import com.pikngo.user_service.utils.GeoKernel;
+import com.pikngo.user_service.utils.GeoUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Finds restaurants inside the corridor of a route segment: within {@code radius} km of the
+ * great circle through source and destination, and inside the segment's padded bounding box.
+ *
+ * Candidates come from the {@link RestaurantGeoIndex} cells that the corridor passes through,
+ * so the exact cross-track test only runs on restaurants that are already close to the route.
+ * For long diagonal routes that is a small fraction of the segment's bounding box. Each cell is
+ * tested as one batch by {@link GeoKernel}.
+ */
+@Component
+public class RouteCorridorEngine {
+
+    /** Most index cells a route's segments may cover in total, counting each segment's separately. */
+    static final int MAX_ROUTE_CELLS = 1_000_000;
+
+    private final RestaurantGeoIndex geoIndex;
+    private final RestaurantRepository restaurantRepository;
+
+    public RouteCorridorEngine(RestaurantGeoIndex geoIndex, RestaurantRepository restaurantRepository) {
+        this.geoIndex = geoIndex;
+        this.restaurantRepository = restaurantRepository;
+    }
+
+    /**
+     * Restaurants along the segment, each paired with its absolute distance from the route.
+     */
+    public List<RestaurantGeoIndex.Match> findAlongSegment(double srcLat, double srcLon, double destLat, double destLon,
+                                                           double radiusKm) {
+        Corridor corridor = new Corridor(srcLat, srcLon, destLat, destLon, radiusKm, 0);
+        List<RestaurantGeoIndex.Match> matches = new ArrayList<>();
+
+        if (!geoIndex.isReady()) {
+            // Index still loading: scan lightweight projections rather than full entities.
+            restaurantRepository.findSearchableSnapshots().forEach(restaurant -> corridor.collect(restaurant, matches));
+            return matches;
+        }
+
+        double[][] scratch = new double[1][];
+        if (corridor.lengthKm < 4 * RestaurantGeoIndex.CELL_KM) {
+            geoIndex.forEachCellInBox(corridor.minLat, corridor.maxLat, corridor.minLon, corridor.maxLon,
+                    cell -> corridor.collect(cell.restaurants, cell.columns, scratch, matches));
+        } else {
+            Set<Long> cells = new HashSet<>();
+            cover(corridor, cells);
+            geoIndex.forEachCellIn(cells, cell -> corridor.collect(cell.restaurants, cell.columns, scratch, matches));
+        }
+        return matches;
+    }
+
+    /**
+     * Applies the exact corridor test of {@link #findAlongSegment} to a candidate list and its
+     * coordinate columns, e.g. a cached superset computed for a wider corridor.
+     */
+    public List<RestaurantGeoIndex.Match> refine(double srcLat, double srcLon, double destLat, double destLon,
+                                                 double radiusKm, RestaurantSnapshot[] candidates, GeoColumns columns) {
+        Corridor corridor = new Corridor(srcLat, srcLon, destLat, destLon, radiusKm, 0);
+        List<RestaurantGeoIndex.Match> matches = new ArrayList<>();
+        corridor.collect(candidates, columns, new double[1][], matches);
+        return matches;
+    }
+
+    /**
+     * Restaurants within the corridor of any segment of the route, each returned once and ordered
+     * by how far along the route they are reached. Every segment uses the same corridor test as
+     * {@link #findAlongSegment}; a restaurant close to several segments keeps the nearest one.
+     *
+     * Each index cell is tested only against the segments whose corridor crosses it, so the cost
+     * grows with the route length rather than with the number of waypoints. Only cells holding
+     * restaurants are kept, and a route covering more than {@link #MAX_ROUTE_CELLS} cells is
+     * rejected with an {@link InvalidRouteException}.
+     */
+    public List<RestaurantGeoIndex.Match> findAlongRoute(List<double[]> waypoints, double radiusKm) {
+        List<Corridor> corridors = new ArrayList<>();
+        double offsetKm = 0;
+        for (int i = 1; i < waypoints.size(); i++) {
+            double[] from = waypoints.get(i - 1);
+            double[] to = waypoints.get(i);
+            if (from[0] == to[0] && from[1] == to[1]) {
+                continue;
+            }
+            Corridor corridor = new Corridor(from[0], from[1], to[0], to[1], radiusKm, offsetKm);
+            corridors.add(corridor);
+            offsetKm += corridor.lengthKm;
+        }
+
+        Map<UUID, RouteHit> hits = new HashMap<>();
+        if (!geoIndex.isReady()) {
+            for (RestaurantSnapshot restaurant : restaurantRepository.findSearchableSnapshots()) {
+                corridors.forEach(corridor -> corridor.offer(restaurant, hits));
+            }
+        } else {
+            Map<Long, List<Corridor>> corridorsByCell = new HashMap<>();
+            Set<Long> cells = new HashSet<>();
+            long covered = 0;
+            for (Corridor corridor : corridors) {
+                cells.clear();
+                cover(corridor, cells);
+                covered += cells.size();
+                if (covered > MAX_ROUTE_CELLS) {
+                    throw new InvalidRouteException("Route covers too large an area; shorten it or narrow the radius");
+                }
+                for (Long cell : cells) {
+                    // Empty cells have nothing to test.
+                    if (geoIndex.cell(cell) != null) {
+                        corridorsByCell.computeIfAbsent(cell, k -> new ArrayList<>(2)).add(corridor);
+                    }
+                }
+            }
+            double[][] scratch = new double[1][];
+            corridorsByCell.forEach((cellKey, crossing) -> {
+                RestaurantGeoIndex.Cell cell = geoIndex.cell(cellKey);
+                if (cell != null) {
+                    crossing.forEach(corridor -> corridor.offer(cell.restaurants, cell.columns, scratch, hits));
+                }
+            });
+        }
+
+        List<RouteHit> ordered = new ArrayList<>(hits.values());
+        ordered.sort(Comparator.comparingDouble((RouteHit hit) -> hit.positionKm)
+                .thenComparingDouble(hit -> hit.match.getDistanceKm()));
+        List<RestaurantGeoIndex.Match> matches = new ArrayList<>(ordered.size());
+        ordered.forEach(hit -> matches.add(hit.match));
+        return matches;
+    }
+
+    /**
+     * Adds the cells that can hold restaurants passing the corridor test. Short segments use their
+     * bounding box. Longer ones walk the great circle and collect the cells within the corridor
+     * width of every step; the walk continues past both endpoints for as long as it stays near the
+     * bounding box, because points just beyond an endpoint can still pass the box test.
+     */
+    private void cover(Corridor corridor, Set<Long> cells) {
+        if (corridor.lengthKm < 4 * RestaurantGeoIndex.CELL_KM) {
+            geoIndex.addCellsInBox(corridor.minLat, corridor.maxLat, corridor.minLon, corridor.maxLon, cells);
+            return;
+        }
+        // Wide corridors can take longer steps: each step is covered to radius + step.
+        double step = Math.max(RestaurantGeoIndex.CELL_KM, corridor.radiusKm / 2);
+        double reach = corridor.radiusKm + step;
+        double df = step / corridor.lengthKm;
+        double maxOvershoot = 8 * reach / corridor.lengthKm;
+
+        for (double f = 0; f <= 1 + maxOvershoot; f += df) {
+            double[] point = corridor.pointAt(f);
+            if (f > 1 && !corridor.isNearBox(point[0], point[1], reach)) {
+                break;
+            }
+            geoIndex.addCellsAround(point[0], point[1], reach, cells);
+        }
+        for (double f = -df; f >= -maxOvershoot; f -= df) {
+            double[] point = corridor.pointAt(f);
+            if (!corridor.isNearBox(point[0], point[1], reach)) {
+                break;
+            }
+            geoIndex.addCellsAround(point[0], point[1], reach, cells);
+        }
+        // Make sure the destination itself is covered whatever the step rounding.
+        geoIndex.addCellsAround(corridor.destLat, corridor.destLon, reach, cells);
+    }
+
+    private static final class RouteHit {
+        final RestaurantGeoIndex.Match match;
+        final double positionKm;
+
+        RouteHit(RestaurantGeoIndex.Match match, double positionKm) {
+            this.match = match;
+            this.positionKm = positionKm;
+        }
+    }
+
+    private static final class Corridor {
+        final double srcLat;
+        final double srcLon;
+        final double destLat;
+        final double destLon;
+        final double radiusKm;
+        final double lengthKm;
+        // Route distance already covered before this segment starts.
+        final double offsetKm;
+        final double minLat;
+        final double maxLat;
+        final double minLon;
+        final double maxLon;
+        // Null for degenerate segments, which keep the bearing-based formula.
+        final double[] normal;
+        final double maxAbsDot;
+
+        Corridor(double srcLat, double srcLon, double destLat, double destLon, double radiusKm, double offsetKm) {
+            this.srcLat = srcLat;
+            this.srcLon = srcLon;
+            this.destLat = destLat;
+            this.destLon = destLon;
+            this.radiusKm = radiusKm;
+            this.lengthKm = GeoUtils.haversine(srcLat, srcLon, destLat, destLon);
+            this.offsetKm = offsetKm;
+            this.minLat = Math.min(srcLat, destLat) - (radiusKm / 111.0);
+            this.maxLat = Math.max(srcLat, destLat) + (radiusKm / 111.0);
+            this.minLon = Math.min(srcLon, destLon) - (radiusKm / (111.0 * Math.cos(Math.toRadians(srcLat))));
+            this.maxLon = Math.max(srcLon, destLon) + (radiusKm / (111.0 * Math.cos(Math.toRadians(srcLat))));
+            this.normal = GeoKernel.greatCircleNormal(srcLat, srcLon, destLat, destLon);
+            this.maxAbsDot = GeoKernel.maxAbsDot(radiusKm);
+        }
+
+        double[] pointAt(double f) {
+            return GeoUtils.interpolate(srcLat, srcLon, destLat, destLon, f);
+        }
+
+        boolean isNearBox(double lat, double lon, double marginKm) {
+            double latMargin = marginKm / GeoUtils.KM_PER_DEGREE;
+            double lonMargin = GeoUtils.longitudeDelta(lat, marginKm);
+            return lat >= minLat - latMargin && lat <= maxLat + latMargin
+                    && lon >= minLon - lonMargin && lon <= maxLon + lonMargin;
+        }
+
+        boolean inBox(double lat, double lon) {
+            return lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon;
+        }
+
+        /** Absolute distance from the route, or NaN when the restaurant is outside the corridor. */
+        double distanceTo(RestaurantSnapshot restaurant) {
+            double lat = restaurant.getLatitude();
+            double lon = restaurant.getLongitude();
+            // Cheap box test first; the trigonometry only runs for points that pass it.
+            if (!inBox(lat, lon)) {
+                return Double.NaN;
+            }
+            double dxt = normal == null
+                    ? Math.abs(GeoUtils.crossTrackDistance(srcLat, srcLon, destLat, destLon, lat, lon))
+                    : Math.abs(GeoKernel.crossTrackKm(GeoKernel.dot(normal, GeoKernel.unitVector(lat, lon))));
+            return dxt <= radiusKm ? dxt : Double.NaN;
+        }
+
+        /**
+         * Batch form of {@link #distanceTo}, giving the same answer for every point: the kernel
+         * computes all dot products, and only points near the great circle get the box and exact tests.
+         * Returns the kernel output (in {@code scratch[0]}), or null for degenerate segments.
+         */
+        private double[] dots(GeoColumns columns, double[][] scratch) {
+            if (normal == null) {
+                return null;
+            }
+            double[] dots = RestaurantGeoIndex.buffer(scratch, columns.size());
+            GeoKernel.dot(normal, columns, dots);
+            return dots;
+        }
+
+        private double distanceAt(RestaurantSnapshot[] restaurants, GeoColumns columns, double[] dots, int i) {
+            if (dots == null) {
+                return distanceTo(restaurants[i]);
+            }
+            if (Math.abs(dots[i]) > maxAbsDot || !inBox(columns.latitude(i), columns.longitude(i))) {
+                return Double.NaN;
+            }
+            double dxt = Math.abs(GeoKernel.crossTrackKm(dots[i]));
+            return dxt <= radiusKm ? dxt : Double.NaN;
+        }
+
+        void collect(RestaurantSnapshot[] restaurants, GeoColumns columns, double[][] scratch,
+                     List<RestaurantGeoIndex.Match> matches) {
+            double[] dots = dots(columns, scratch);
+            for (int i = 0; i < restaurants.length; i++) {
+                double distance = distanceAt(restaurants, columns, dots, i);
+                if (!Double.isNaN(distance)) {
+                    matches.add(new RestaurantGeoIndex.Match(restaurants[i], distance));
+                }
+            }
+        }
+
+        void collect(RestaurantSnapshot restaurant, List<RestaurantGeoIndex.Match> matches) {
+            double distance = distanceTo(restaurant);
+            if (!Double.isNaN(distance)) {
+                matches.add(new RestaurantGeoIndex.Match(restaurant, distance));
+            }
+        }
+
+        void offer(RestaurantSnapshot[] restaurants, GeoColumns columns, double[][] scratch, Map<UUID, RouteHit> hits) {
+            double[] dots = dots(columns, scratch);
+            for (int i = 0; i < restaurants.length; i++) {
+                double distance = distanceAt(restaurants, columns, dots, i);
+                if (!Double.isNaN(distance)) {
+                    offer(restaurants[i], distance, hits);
+                }
+            }
+        }
+
+        void offer(RestaurantSnapshot restaurant, Map<UUID, RouteHit> hits) {
+            double distance = distanceTo(restaurant);
+            if (!Double.isNaN(distance)) {
+                offer(restaurant, distance, hits);
+            }
+        }
+
+        private void offer(RestaurantSnapshot restaurant, double distance, Map<UUID, RouteHit> hits) {
+            RouteHit current = hits.get(restaurant.getId());
+            if (current != null && current.match.getDistanceKm() <= distance) {
+                return;
+            }
+            double along = GeoUtils.alongTrackDistance(srcLat, srcLon, destLat, destLon,
+                    restaurant.getLatitude(), restaurant.getLongitude());
+            double position = offsetKm + Math.max(0, Math.min(lengthKm, along));
+            hits.put(restaurant.getId(), new RouteHit(new RestaurantGeoIndex.Match(restaurant, distance), position));
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.TrendingItemDTO;
+import com.pikngo.user_service.event.ItemsOrderedEvent;
+import com.pikngo.user_service.event.MenuChangedEvent;
+import com.pikngo.user_service.event.RestaurantChangedEvent;
+import com.pikngo.user_service.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Most ordered menu items, kept in memory so the trending endpoint does not aggregate the whole
+ * order history on every call.
+ *
+ * Each item has a count: what the database had at the last rebuild plus a {@link LongAdder} of
+ * the quantities ordered since, added to without locking once an order commits. The
+ * {@code pikngo.trending.capacity} items with the highest counts are kept ranked. Counts only
+ * grow, so an item can only enter the ranking by passing its lowest count, and items below it
+ * never take the lock. Every change to the ranking publishes a new immutable list, which reads
+ * return without copying or sorting.
+ *
+ * The counts are rebuilt from the database at startup, every {@code pikngo.trending.rebuild-ms},
+ * and soon after a menu or restaurant change touches a ranked item. Rebuilds pick up orders placed
+ * on other instances and drop items that are no longer orderable. Until the first rebuild
+ * completes, reads are answered from the database.
+ */
+@Component
+public class TrendingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingEngine.class);
+
+    private static final Comparator<Rank> BY_COUNT = Comparator.comparingLong((Rank rank) -> rank.count).reversed()
+            .thenComparing(rank -> rank.item.id);
+
+    private final OrderRepository orderRepository;
+    private final int capacity;
+    private final long rebuildMs;
+
+    private final Map<UUID, Item> items = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private final Object rebuildLock = new Object();
+    // Guarded by lock.
+    private final TreeSet<Rank> ranking = new TreeSet<>(BY_COUNT);
+    // Lowest ranked count once the ranking is full; lower counts cannot enter it.
+    private volatile long floor = -1;
+    private volatile List<TrendingItemDTO> snapshot = List.of();
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+    private volatile boolean rebuildRequested;
+    private volatile long lastRebuildAt;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder fallbackReads = new LongAdder();
+    private volatile long lastRebuildMs;
+
+    public TrendingEngine(OrderRepository orderRepository,
+                          @Value("${pikngo.trending.capacity:100}") int capacity,
+                          @Value("${pikngo.trending.rebuild-ms:600000}") long rebuildMs) {
+        this.orderRepository = orderRepository;
+        this.capacity = capacity;
+        this.rebuildMs = rebuildMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /** Rebuilds when one was asked for or the last one is older than {@code rebuild-ms}. */
+    @Scheduled(fixedDelayString = "${pikngo.trending.check-ms:10000}",
+            initialDelayString = "${pikngo.trending.check-ms:10000}")
+    public void refresh() {
+        if (rebuildRequested || System.currentTimeMillis() - lastRebuildAt >= rebuildMs) {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemsOrdered(ItemsOrderedEvent event) {
+        record(event.getItems());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        requestRebuildIfRanked(event.getRestaurantId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        if (event.getRestaurant() != null) {
+            requestRebuildIfRanked(event.getRestaurant().getId());
+        }
+    }
+
+    // A ranked item may have been renamed, repriced or taken off the menu.
+    private void requestRebuildIfRanked(UUID restaurantId) {
+        for (TrendingItemDTO item : snapshot) {
+            if (item.getRestaurantId().equals(restaurantId)) {
+                rebuildRequested = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds ordered quantities; each entry's {@code orderCount} is the quantity of one order line.
+     */
+    public void record(List<TrendingItemDTO> ordered) {
+        boolean changed = false;
+        for (TrendingItemDTO line : ordered) {
+            Item item = items.computeIfAbsent(line.getMenuItemId(), Item::new);
+            item.details = line;
+            item.recent.add(line.getOrderCount());
+            recorded.add(line.getOrderCount());
+            // While rebuilding, the ranking is about to be replaced; the count is kept for the new one.
+            if (rebuilding || (item.rank == null && item.count() <= floor)) {
+                continue;
+            }
+            synchronized (lock) {
+                if (!rebuilding) {
+                    offer(item);
+                    changed = true;
+                }
+            }
+        }
+        if (changed) {
+            synchronized (lock) {
+                publish();
+            }
+        }
+    }
+
+    /**
+     * The {@code limit} most ordered items, most ordered first; at most {@code capacity}.
+     */
+    public List<TrendingItemDTO> top(int limit) {
+        int size = Math.max(0, Math.min(limit, capacity));
+        if (!ready) {
+            fallbackReads.increment();
+            return size == 0 ? List.of() : orderRepository.findTopTrendingItems(PageRequest.of(0, size));
+        }
+        List<TrendingItemDTO> current = snapshot;
+        return current.size() <= size ? current : current.subList(0, size);
+    }
+
+    /**
+     * Reloads every item's count from the order history and ranks them afresh. Quantities recorded
+     * while the history is read are kept on top of it.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long started = System.currentTimeMillis();
+            rebuildRequested = false;
+            rebuilding = true;
+            try {
+                // From here on, recorded quantities are ones the history read below may not have.
+                synchronized (lock) {
+                    for (Item item : items.values()) {
+                        item.base += item.recent.sumThenReset();
+                    }
+                }
+                List<TrendingItemDTO> history;
+                try {
+                    history = orderRepository.findTopTrendingItems(Pageable.unpaged());
+                } catch (RuntimeException e) {
+                    log.error("Failed to rebuild trending items, keeping previous ranking", e);
+                    restoreAfterFailedRebuild();
+                    return;
+                }
+                Map<UUID, TrendingItemDTO> byId = new HashMap<>(history.size() * 2);
+                for (TrendingItemDTO item : history) {
+                    byId.put(item.getMenuItemId(), item);
+                }
+                synchronized (lock) {
+                    for (TrendingItemDTO row : history) {
+                        Item item = items.computeIfAbsent(row.getMenuItemId(), Item::new);
+                        item.base = row.getOrderCount();
+                        item.details = row;
+                    }
+                    // Items that are no longer orderable, or not in a listed restaurant, stop trending;
+                    // ones first ordered while the history was read stay, counting from then.
+                    items.values().removeIf(item -> !byId.containsKey(item.id) && item.recent.sum() == 0);
+                    for (Item item : items.values()) {
+                        if (!byId.containsKey(item.id)) {
+                            item.base = 0;
+                        }
+                    }
+                    ranking.clear();
+                    for (Item item : items.values()) {
+                        item.rank = null;
+                        offer(item);
+                    }
+                    rebuilding = false;
+                    publish();
+                }
+                ready = true;
+                lastRebuildAt = System.currentTimeMillis();
+                lastRebuildMs = lastRebuildAt - started;
+                rebuilds.increment();
+                log.info("Trending items rebuilt from {} ordered items in {} ms", history.size(), lastRebuildMs);
+            } finally {
+                rebuilding = false;
+            }
+        }
+    }
+
+    // The history was not read: keep the counts and rank the quantities recorded meanwhile.
+    private void restoreAfterFailedRebuild() {
+        synchronized (lock) {
+            rebuilding = false;
+            for (Item item : items.values()) {
+                offer(item);
+            }
+            publish();
+        }
+    }
+
+    /** Puts the item at its current count, if it ranks. Guarded by lock. */
+    private void offer(Item item) {
+        if (item.details == null) {
+            return;
+        }
+        if (item.rank != null) {
+            ranking.remove(item.rank);
+        }
+        Rank rank = new Rank(item.count(), item);
+        if (item.rank == null && ranking.size() >= capacity) {
+            // Ties keep the item already ranked.
+            Rank lowest = ranking.last();
+            if (rank.count <= lowest.count) {
+                return;
+            }
+            ranking.pollLast();
+            lowest.item.rank = null;
+        }
+        ranking.add(rank);
+        item.rank = rank;
+        floor = ranking.size() >= capacity ? ranking.last().count : -1;
+    }
+
+    /** Replaces the list read by {@link #top}. Guarded by lock. */
+    private void publish() {
+        List<TrendingItemDTO> list = new ArrayList<>(ranking.size());
+        for (Rank rank : ranking) {
+            list.add(rank.item.details.withOrderCount(rank.count));
+        }
+        snapshot = List.copyOf(list);
+        published.increment();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("items", items.size());
+        stats.put("ranked", snapshot.size());
+        stats.put("capacity", capacity);
+        stats.put("floor", floor);
+        stats.put("recordedQuantity", recorded.sum());
+        stats.put("published", published.sum());
+        stats.put("rebuilds", rebuilds.sum());
+        stats.put("lastRebuildMs", lastRebuildMs);
+        stats.put("fallbackReads", fallbackReads.sum());
+        return stats;
+    }
+
+    private static final class Item {
+        final UUID id;
+        // Count in the order history at the last rebuild; written under lock.
+        volatile long base;
+        // Quantities recorded since the last rebuild began.
+        final LongAdder recent = new LongAdder();
+        // How the item is shown; null while it cannot trend.
+        volatile TrendingItemDTO details;
+        // Its place in the ranking, or null; written under lock.
+        volatile Rank rank;
+
+        Item(UUID id) {
+            this.id = id;
+        }
+
+        long count() {
+            return base + recent.sum();
+        }
+    }
+
+    private static final class Rank {
+        final long count;
+        final Item item;
+
+        Rank(long count, Item item) {
+            this.count = count;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.pikngo.user_service.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * Size-bounded LRU cache split into independently locked segments, so concurrent readers of
+ * different keys rarely contend. Hit, miss and eviction counts are kept for tuning.
+ */
+public class BoundedLruCache<K, V> {
+
+    private final Segment<K, V>[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public BoundedLruCache(int maxEntries, int segmentCount) {
+        int perSegment = Math.max(1, maxEntries / segmentCount);
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(perSegment, evictions);
+        }
+    }
+
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+    }
+
+    public void remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    /** Removes the entry for {@code key} only while it still maps to {@code value}. */
+    public void remove(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key, value);
+        }
+    }
+
+    /**
+     * Drops every entry matching the predicate; returns how many were removed.
+     */
+    public int removeIf(BiPredicate<K, V> predicate) {
+        int removed = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                Iterator<Map.Entry<K, V>> it = segment.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<K, V> entry = it.next();
+                    if (predicate.test(entry.getKey(), entry.getValue())) {
+                        it.remove();
+                        removed++;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        return stats;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[Math.floorMod(h, segments.length)];
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+        private final int capacity;
+        private final LongAdder evictions;
+
+        Segment(int capacity, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
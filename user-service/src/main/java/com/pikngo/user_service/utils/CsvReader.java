@@ -0,0 +1,106 @@
+package com.pikngo.user_service.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming reader for RFC 4180 CSV: comma separated, optionally double-quoted fields,
+ * {@code ""} for a quote inside a quoted field, and line breaks allowed inside quotes. Records are
+ * read one at a time, so input of any size is handled in constant memory.
+ */
+public class CsvReader {
+
+    private final Reader reader;
+    private int line = 1;
+    private int recordLine;
+    private int peeked = -2;
+    private boolean started;
+
+    /** {@code reader} should be buffered; it is read one character at a time. */
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * The next record, or {@code null} at the end of the input.
+     *
+     * @throws IllegalArgumentException if a quoted field is not closed
+     */
+    public List<String> next() throws IOException {
+        int c = read();
+        if (!started) {
+            started = true;
+            // Spreadsheet exports often start with a byte order mark.
+            if (c == '\uFEFF') {
+                c = read();
+            }
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (c != -1) {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /** Line on which the record last returned by {@link #next()} started, counting from 1. */
+    public int getLineNumber() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = reader.read();
+        }
+        return peeked;
+    }
+}
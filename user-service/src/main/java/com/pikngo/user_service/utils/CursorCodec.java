@@ -0,0 +1,37 @@
+package com.pikngo.user_service.utils;
+
+import com.pikngo.user_service.exception.InvalidPageRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Packs the sort key of the last item on a page into an opaque, URL-safe cursor.
+ */
+public final class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {}
+
+    public static String encode(String... parts) {
+        String joined = String.join(SEPARATOR, parts);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws InvalidPageRequestException if the cursor is not one we issued with {@code expectedParts} parts
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException("Malformed cursor");
+        }
+        if (parts.length != expectedParts) {
+            throw new InvalidPageRequestException("Malformed cursor");
+        }
+        return parts;
+    }
+}
@@ -84,7 +84,7 @@ public class DbUserProbe implements CommandLineRunner {
         // Re-seed menu items for ALL restaurants that have fewer than 2 items
         log.info("Checking all restaurants for menu items...");
         restaurantRepository.findAll().forEach(restaurant -> {
-            long itemCount = menuItemRepository.findByRestaurant(restaurant).size();
+            long itemCount = menuItemRepository.countByRestaurantAndIsDeletedFalse(restaurant);
             if (itemCount < 3) {
                 log.info("Re-seeding fresh menu items for: {}", restaurant.getRestaurantName());
                 
@@ -0,0 +1,77 @@
+package com.pikngo.user_service.utils;
+
+/**
+ * Immutable column store of points: latitude and longitude in degrees, plus the point's unit
+ * vector on the sphere (x, y, z) precomputed once, so that {@link GeoKernel} can test a whole
+ * batch with multiply-adds over primitive arrays instead of trigonometry per point.
+ */
+public final class GeoColumns {
+
+    public static final GeoColumns EMPTY = new GeoColumns(new double[0], new double[0], new double[0],
+            new double[0], new double[0]);
+
+    final double[] lat;
+    final double[] lon;
+    final double[] x;
+    final double[] y;
+    final double[] z;
+
+    private GeoColumns(double[] lat, double[] lon, double[] x, double[] y, double[] z) {
+        this.lat = lat;
+        this.lon = lon;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public static GeoColumns of(double[] lat, double[] lon) {
+        int n = lat.length;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] z = new double[n];
+        for (int i = 0; i < n; i++) {
+            double[] p = GeoKernel.unitVector(lat[i], lon[i]);
+            x[i] = p[0];
+            y[i] = p[1];
+            z[i] = p[2];
+        }
+        return new GeoColumns(lat.clone(), lon.clone(), x, y, z);
+    }
+
+    /** A copy with one more point at the end; existing unit vectors are reused, not recomputed. */
+    public GeoColumns append(double latitude, double longitude) {
+        double[] p = GeoKernel.unitVector(latitude, longitude);
+        return new GeoColumns(grow(lat, latitude), grow(lon, longitude), grow(x, p[0]), grow(y, p[1]), grow(z, p[2]));
+    }
+
+    /** A copy without the point at {@code index}. */
+    public GeoColumns without(int index) {
+        return new GeoColumns(drop(lat, index), drop(lon, index), drop(x, index), drop(y, index), drop(z, index));
+    }
+
+    public int size() {
+        return lat.length;
+    }
+
+    public double latitude(int i) {
+        return lat[i];
+    }
+
+    public double longitude(int i) {
+        return lon[i];
+    }
+
+    private static double[] grow(double[] column, double value) {
+        double[] grown = new double[column.length + 1];
+        System.arraycopy(column, 0, grown, 0, column.length);
+        grown[column.length] = value;
+        return grown;
+    }
+
+    private static double[] drop(double[] column, int index) {
+        double[] shrunk = new double[column.length - 1];
+        System.arraycopy(column, 0, shrunk, 0, index);
+        System.arraycopy(column, index + 1, shrunk, index, column.length - index - 1);
+        return shrunk;
+    }
+}
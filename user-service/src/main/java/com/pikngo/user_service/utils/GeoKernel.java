@@ -0,0 +1,126 @@
+package com.pikngo.user_service.utils;
+
+/**
+ * Batch distance and cross-track tests over {@link GeoColumns}.
+ *
+ * Points are handled as unit vectors, which turns both tests into dot products:
+ * <ul>
+ *   <li>distance: the squared chord |p - q|^2 grows with the great-circle distance, so a radius
+ *       becomes a single chord threshold;</li>
+ *   <li>cross-track: n . p is the sine of the angular distance of p from the great circle with
+ *       unit normal n.</li>
+ * </ul>
+ * The batch loops are plain multiply-adds over primitive arrays with no branches, which the JIT
+ * compiles to SIMD instructions; only the few points that pass the threshold pay for an
+ * {@code asin}. The scalar methods use exactly the same arithmetic, so a point gets the same
+ * answer whether it is tested alone or in a batch.
+ */
+public final class GeoKernel {
+
+    /** Below this the cross product of two endpoints is too short to give a reliable normal (~6 mm apart). */
+    private static final double MIN_NORMAL_LENGTH = 1e-9;
+    /** Absorbs rounding between the thresholds below and the exact asin test applied afterwards. */
+    private static final double THRESHOLD_SLACK = 1e-12;
+
+    private GeoKernel() {}
+
+    /** The point's unit vector {x, y, z}. */
+    public static double[] unitVector(double lat, double lon) {
+        double phi = Math.toRadians(lat);
+        double lambda = Math.toRadians(lon);
+        double cosPhi = Math.cos(phi);
+        return new double[] {cosPhi * Math.cos(lambda), cosPhi * Math.sin(lambda), Math.sin(phi)};
+    }
+
+    /**
+     * Unit normal of the great circle through points 1 and 2, oriented like
+     * {@link GeoUtils#crossTrackDistance} (positive to the right of 1 -> 2). Null when the points are
+     * too close together, or too close to antipodal, to define a circle.
+     */
+    public static double[] greatCircleNormal(double lat1, double lon1, double lat2, double lon2) {
+        double[] a = unitVector(lat1, lon1);
+        double[] b = unitVector(lat2, lon2);
+        double nx = b[1] * a[2] - b[2] * a[1];
+        double ny = b[2] * a[0] - b[0] * a[2];
+        double nz = b[0] * a[1] - b[1] * a[0];
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (length < MIN_NORMAL_LENGTH) {
+            return null;
+        }
+        return new double[] {nx / length, ny / length, nz / length};
+    }
+
+    /** out[i] = n . p[i] for every point; see {@link #crossTrackKm}. */
+    public static void dot(double[] n, GeoColumns points, double[] out) {
+        double nx = n[0];
+        double ny = n[1];
+        double nz = n[2];
+        double[] x = points.x;
+        double[] y = points.y;
+        double[] z = points.z;
+        for (int i = 0; i < x.length; i++) {
+            out[i] = nx * x[i] + ny * y[i] + nz * z[i];
+        }
+    }
+
+    /** out[i] = |p[i] - q|^2 for every point; see {@link #distanceKm}. */
+    public static void chordSquared(double[] q, GeoColumns points, double[] out) {
+        double qx = q[0];
+        double qy = q[1];
+        double qz = q[2];
+        double[] x = points.x;
+        double[] y = points.y;
+        double[] z = points.z;
+        for (int i = 0; i < x.length; i++) {
+            double dx = x[i] - qx;
+            double dy = y[i] - qy;
+            double dz = z[i] - qz;
+            out[i] = dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    /** Scalar form of {@link #dot} for a single point's unit vector. */
+    public static double dot(double[] n, double[] p) {
+        return n[0] * p[0] + n[1] * p[1] + n[2] * p[2];
+    }
+
+    /** Scalar form of {@link #chordSquared} for a single point's unit vector. */
+    public static double chordSquared(double[] q, double[] p) {
+        double dx = p[0] - q[0];
+        double dy = p[1] - q[1];
+        double dz = p[2] - q[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /** Signed distance from the great circle for a value produced by {@link #dot}. */
+    public static double crossTrackKm(double dot) {
+        return Math.asin(Math.max(-1, Math.min(1, dot))) * GeoUtils.EARTH_RADIUS_KM;
+    }
+
+    /** Great-circle distance for a value produced by {@link #chordSquared}. */
+    public static double distanceKm(double chordSquared) {
+        return 2 * Math.asin(Math.min(1, Math.sqrt(chordSquared) / 2)) * GeoUtils.EARTH_RADIUS_KM;
+    }
+
+    /**
+     * Upper bound on |n . p| for points within {@code radiusKm} of a great circle. Points above it
+     * can be skipped without computing {@link #crossTrackKm}.
+     */
+    public static double maxAbsDot(double radiusKm) {
+        double angle = radiusKm / GeoUtils.EARTH_RADIUS_KM;
+        return angle >= Math.PI / 2 ? Double.MAX_VALUE : Math.sin(angle) + THRESHOLD_SLACK;
+    }
+
+    /**
+     * Upper bound on the squared chord of points within {@code radiusKm}. Points above it can be
+     * skipped without computing {@link #distanceKm}.
+     */
+    public static double maxChordSquared(double radiusKm) {
+        double angle = radiusKm / GeoUtils.EARTH_RADIUS_KM;
+        if (angle >= Math.PI) {
+            return Double.MAX_VALUE;
+        }
+        double chord = 2 * Math.sin(angle / 2);
+        return chord * chord + THRESHOLD_SLACK;
+    }
+}
@@ -0,0 +1,98 @@
+package com.pikngo.user_service.utils;
+
+/**
+ * Spherical geometry helpers shared by the nearby and route searches.
+ * All distances are in kilometres, all angles passed in are in degrees.
+ */
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_KM = 6371;
+
+    /** Length of one degree of latitude (and of longitude at the equator). */
+    public static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    private GeoUtils() {}
+
+    public static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                   Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                   Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return EARTH_RADIUS_KM * c;
+    }
+
+    /** Initial bearing from point 1 to point 2, in radians. */
+    public static double bearing(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double deltaLambda = Math.toRadians(lon2 - lon1);
+        double y = Math.sin(deltaLambda) * Math.cos(phi2);
+        double x = Math.cos(phi1) * Math.sin(phi2) -
+                   Math.sin(phi1) * Math.cos(phi2) * Math.cos(deltaLambda);
+        return Math.atan2(y, x);
+    }
+
+    /**
+     * Signed distance of point 3 from the great circle through points 1 and 2.
+     */
+    public static double crossTrackDistance(double lat1, double lon1, double lat2, double lon2, double lat3, double lon3) {
+        double d13 = haversine(lat1, lon1, lat3, lon3);
+        double brng13 = bearing(lat1, lon1, lat3, lon3);
+        double brng12 = bearing(lat1, lon1, lat2, lon2);
+
+        return Math.asin(Math.sin(d13 / EARTH_RADIUS_KM) * Math.sin(brng13 - brng12)) * EARTH_RADIUS_KM;
+    }
+
+    /**
+     * Distance from point 1, along the great circle towards point 2, to the closest point on that
+     * circle to point 3. Negative when point 3 lies behind point 1.
+     */
+    public static double alongTrackDistance(double lat1, double lon1, double lat2, double lon2, double lat3, double lon3) {
+        double delta13 = haversine(lat1, lon1, lat3, lon3) / EARTH_RADIUS_KM;
+        double deltaXt = crossTrackDistance(lat1, lon1, lat2, lon2, lat3, lon3) / EARTH_RADIUS_KM;
+        double ratio = Math.cos(delta13) / Math.cos(deltaXt);
+        double along = Math.acos(Math.max(-1, Math.min(1, ratio))) * EARTH_RADIUS_KM;
+        double angle = bearing(lat1, lon1, lat3, lon3) - bearing(lat1, lon1, lat2, lon2);
+        return Math.cos(angle) < 0 ? -along : along;
+    }
+
+    /**
+     * Point at fraction {@code f} of the great-circle arc from point 1 to point 2, as {lat, lon}.
+     * Fractions outside [0, 1] extrapolate along the same great circle.
+     */
+    public static double[] interpolate(double lat1, double lon1, double lat2, double lon2, double f) {
+        double phi1 = Math.toRadians(lat1);
+        double lambda1 = Math.toRadians(lon1);
+        double phi2 = Math.toRadians(lat2);
+        double lambda2 = Math.toRadians(lon2);
+        double delta = haversine(lat1, lon1, lat2, lon2) / EARTH_RADIUS_KM;
+        if (delta == 0) {
+            return new double[] {lat1, lon1};
+        }
+        double a = Math.sin((1 - f) * delta) / Math.sin(delta);
+        double b = Math.sin(f * delta) / Math.sin(delta);
+        double x = a * Math.cos(phi1) * Math.cos(lambda1) + b * Math.cos(phi2) * Math.cos(lambda2);
+        double y = a * Math.cos(phi1) * Math.sin(lambda1) + b * Math.cos(phi2) * Math.sin(lambda2);
+        double z = a * Math.sin(phi1) + b * Math.sin(phi2);
+        return new double[] {
+                Math.toDegrees(Math.atan2(z, Math.sqrt(x * x + y * y))),
+                Math.toDegrees(Math.atan2(y, x))
+        };
+    }
+
+    /**
+     * Half-width, in degrees of longitude, of the smallest box around {@code lat} that contains
+     * every point within {@code radiusKm}. Returns 180 when the circle reaches a pole.
+     */
+    public static double longitudeDelta(double lat, double radiusKm) {
+        double angular = radiusKm / EARTH_RADIUS_KM;
+        double latDelta = Math.toDegrees(angular);
+        if (Math.abs(lat) + latDelta >= 90) {
+            return 180;
+        }
+        double ratio = Math.sin(angular) / Math.cos(Math.toRadians(lat));
+        return ratio >= 1 ? 180 : Math.toDegrees(Math.asin(ratio));
+    }
+}
@@ -0,0 +1,32 @@
+package com.pikngo.user_service.utils;
+
+import java.util.function.Function;
+
+/**
+ * An immutable value and its {@link RenderedJson}, rendered on first use and kept for the life of
+ * the holder, so snapshots can hand out pre-rendered responses without rendering up front.
+ * Concurrent first readers may both render; the results are identical.
+ */
+public final class LazyRenderedJson<T> {
+
+    private final T value;
+    private volatile RenderedJson rendered;
+
+    public LazyRenderedJson(T value) {
+        this.value = value;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    /** The value rendered by {@code renderer} on the first call; later calls return that rendering. */
+    public RenderedJson render(Function<? super T, RenderedJson> renderer) {
+        RenderedJson result = rendered;
+        if (result == null) {
+            result = renderer.apply(value);
+            rendered = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,106 @@
+package com.pikngo.user_service.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pikngo.user_service.dto.OrderResponseDTO;
+import com.pikngo.user_service.dto.OrderStatusDeltaDTO;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Merges order broadcasts that are waiting to be sent. A payload is either a whole order or a
+ * status delta ({@link OrderStatusDeltaDTO}), as objects, as JSON relayed from another instance,
+ * or as the serialized bytes of a STOMP message. A delta that follows a whole order still waiting
+ * is folded into it, so a subscriber never receives a delta in place of an order it has not seen.
+ */
+public final class OrderPayloads {
+
+    // Only moves trees around; values keep the format they were serialized with.
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private OrderPayloads() {}
+
+    /**
+     * {@code order} with the status and version of {@code delta}, or {@code order} itself if
+     * {@code delta} is older; {@code null} if they are not a whole order followed by a delta.
+     */
+    public static Object applyStatus(Object order, Object delta) {
+        String status;
+        long version;
+        if (delta instanceof OrderStatusDeltaDTO dto) {
+            status = dto.getStatus();
+            version = dto.getVersion();
+        } else if (delta instanceof JsonNode node && isDelta(node)) {
+            status = node.path("status").asText(null);
+            version = node.path("version").asLong();
+        } else {
+            return null;
+        }
+        if (order instanceof OrderResponseDTO dto) {
+            return version < dto.getVersion() ? dto : dto.withStatus(status, version);
+        }
+        if (order instanceof ObjectNode node && !isDelta(node)) {
+            if (version < node.path("version").asLong()) {
+                return node;
+            }
+            ObjectNode merged = node.deepCopy();
+            merged.put("status", status);
+            merged.put("version", version);
+            return merged;
+        }
+        return null;
+    }
+
+    /**
+     * The later of two states of one order, by {@code version}; on a tie {@code next}, which
+     * arrived last. If the later is a delta and the earlier a whole order, the delta is applied to it.
+     */
+    public static Object latest(Object current, Object next) {
+        boolean nextIsNewer = version(next) >= version(current);
+        Object older = nextIsNewer ? current : next;
+        Object newer = nextIsNewer ? next : current;
+        Object merged = applyStatus(older, newer);
+        return merged != null ? merged : newer;
+    }
+
+    /** The order version a payload describes; -1 if it carries none. */
+    static long version(Object payload) {
+        if (payload instanceof OrderResponseDTO dto) {
+            return dto.getVersion();
+        }
+        if (payload instanceof OrderStatusDeltaDTO dto) {
+            return dto.getVersion();
+        }
+        if (payload instanceof JsonNode node && node.has("version")) {
+            return node.get("version").asLong();
+        }
+        if (payload instanceof Map<?, ?> map && map.get("version") instanceof Number number) {
+            return number.longValue();
+        }
+        return -1;
+    }
+
+    /** {@link #applyStatus(Object, Object)} for JSON bodies; {@code null} if either is not an order payload. */
+    public static byte[] applyStatus(byte[] order, byte[] delta) {
+        try {
+            JsonNode deltaNode = JSON.readTree(delta);
+            if (deltaNode == null || !isDelta(deltaNode)) {
+                return null;
+            }
+            JsonNode orderNode = JSON.readTree(order);
+            Object merged = applyStatus(orderNode, deltaNode);
+            if (merged == null) {
+                return null;
+            }
+            return merged == orderNode ? order : JSON.writeValueAsBytes(merged);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean isDelta(JsonNode node) {
+        return OrderStatusDeltaDTO.TYPE.equals(node.path("type").asText(null));
+    }
+}
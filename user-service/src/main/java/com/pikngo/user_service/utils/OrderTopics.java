@@ -0,0 +1,62 @@
+package com.pikngo.user_service.utils;
+
+import java.util.UUID;
+
+/**
+ * STOMP destinations order events are broadcast on. Every change to an order goes to the topic of
+ * its restaurant, of the user who placed it and of the order itself, and to the platform-wide
+ * topic that only admins may subscribe to.
+ */
+public final class OrderTopics {
+
+    public static final String ALL = "/topic/orders";
+    public static final String RESTAURANT_PREFIX = "/topic/restaurants/";
+    public static final String USER_PREFIX = "/topic/users/";
+    public static final String ORDER_PREFIX = "/topic/orders/";
+    /** STOMP header naming the order a message is about, on every topic. */
+    public static final String ORDER_ID_HEADER = "order-id";
+    private static final String ORDERS_SUFFIX = "/orders";
+
+    private OrderTopics() {}
+
+    public static String restaurant(UUID restaurantId) {
+        return RESTAURANT_PREFIX + restaurantId + ORDERS_SUFFIX;
+    }
+
+    public static String user(UUID userId) {
+        return USER_PREFIX + userId + ORDERS_SUFFIX;
+    }
+
+    public static String order(UUID orderId) {
+        return ORDER_PREFIX + orderId;
+    }
+
+    /** The restaurant id of a {@link #restaurant} topic, or null if it is not one. */
+    public static UUID restaurantIdOf(String destination) {
+        return idBetween(destination, RESTAURANT_PREFIX, ORDERS_SUFFIX);
+    }
+
+    /** The user id of a {@link #user} topic, or null if it is not one. */
+    public static UUID userIdOf(String destination) {
+        return idBetween(destination, USER_PREFIX, ORDERS_SUFFIX);
+    }
+
+    /** The order id of an {@link #order} topic, or null if it is not one. */
+    public static UUID orderIdOf(String destination) {
+        return idBetween(destination, ORDER_PREFIX, "");
+    }
+
+    private static UUID idBetween(String destination, String prefix, String suffix) {
+        if (destination == null || !destination.startsWith(prefix) || !destination.endsWith(suffix)
+                || destination.length() < prefix.length() + suffix.length()) {
+            return null;
+        }
+        try {
+            UUID id = UUID.fromString(destination.substring(prefix.length(), destination.length() - suffix.length()));
+            // UUID.fromString accepts shortened groups; only the canonical form names a topic we send to.
+            return destination.equals(prefix + id + suffix) ? id : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
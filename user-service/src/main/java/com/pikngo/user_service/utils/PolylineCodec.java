@@ -0,0 +1,76 @@
+package com.pikngo.user_service.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encoded polyline format used by Google and OSRM directions APIs (precision 5).
+ */
+public final class PolylineCodec {
+
+    private static final double PRECISION = 1e5;
+
+    private PolylineCodec() {}
+
+    /**
+     * Decodes a polyline into {lat, lon} pairs.
+     *
+     * @throws IllegalArgumentException if the string is truncated or contains characters outside the format
+     */
+    public static List<double[]> decode(String encoded) {
+        List<double[]> points = new ArrayList<>();
+        int index = 0;
+        int lat = 0;
+        int lon = 0;
+        while (index < encoded.length()) {
+            int[] next = new int[] {index};
+            lat += decodeValue(encoded, next);
+            lon += decodeValue(encoded, next);
+            index = next[0];
+            points.add(new double[] {lat / PRECISION, lon / PRECISION});
+        }
+        return points;
+    }
+
+    public static String encode(List<double[]> points) {
+        StringBuilder encoded = new StringBuilder();
+        long lastLat = 0;
+        long lastLon = 0;
+        for (double[] point : points) {
+            long lat = Math.round(point[0] * PRECISION);
+            long lon = Math.round(point[1] * PRECISION);
+            encodeValue(lat - lastLat, encoded);
+            encodeValue(lon - lastLon, encoded);
+            lastLat = lat;
+            lastLon = lon;
+        }
+        return encoded.toString();
+    }
+
+    private static int decodeValue(String encoded, int[] index) {
+        int result = 0;
+        int shift = 0;
+        int chunk;
+        do {
+            if (index[0] >= encoded.length()) {
+                throw new IllegalArgumentException("Truncated polyline");
+            }
+            chunk = encoded.charAt(index[0]++) - 63;
+            if (chunk < 0 || chunk > 63 || shift > 30) {
+                throw new IllegalArgumentException("Invalid polyline character at position " + (index[0] - 1));
+            }
+            result |= (chunk & 0x1f) << shift;
+            shift += 5;
+        } while (chunk >= 0x20);
+        return (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+    }
+
+    private static void encodeValue(long value, StringBuilder encoded) {
+        long shifted = value < 0 ? ~(value << 1) : (value << 1);
+        while (shifted >= 0x20) {
+            encoded.append((char) ((0x20 | (shifted & 0x1f)) + 63));
+            shifted >>= 5;
+        }
+        encoded.append((char) (shifted + 63));
+    }
+}
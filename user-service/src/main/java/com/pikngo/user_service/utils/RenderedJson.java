@@ -0,0 +1,141 @@
+package com.pikngo.user_service.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A JSON response body serialized once and kept as bytes, plain and gzip-compressed, so that
+ * hot read endpoints can write it out without going through Jackson on every request.
+ *
+ * The ETag is a hash of the JSON itself, so it is the same on every instance and across
+ * restarts; the gzip variant gets its own tag as required for a different content coding.
+ */
+public final class RenderedJson {
+
+    private final byte[] identity;
+    private final byte[] gzip;
+    private final String eTag;
+    private final String gzipETag;
+
+    private RenderedJson(byte[] identity, byte[] gzip, String hash) {
+        this.identity = identity;
+        this.gzip = gzip;
+        this.eTag = "\"" + hash + "\"";
+        this.gzipETag = "\"" + hash + "-gz\"";
+    }
+
+    /**
+     * Serializes {@code body} with the application's mapper, so the bytes are exactly what
+     * Spring MVC would have written for it.
+     */
+    public static RenderedJson render(ObjectMapper objectMapper, Object body) {
+        byte[] identity;
+        try {
+            identity = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render JSON response", e);
+        }
+        byte[] gzip = compress(identity);
+        // Tiny bodies can grow when compressed; those are always sent as they are.
+        return new RenderedJson(identity, gzip.length < identity.length ? gzip : null,
+                DigestUtils.md5DigestAsHex(identity));
+    }
+
+    /**
+     * The response for this request: 304 when {@code If-None-Match} names either variant,
+     * otherwise the gzip bytes if the client accepts them, or the plain bytes.
+     */
+    public ResponseEntity<byte[]> toResponse(HttpServletRequest request) {
+        boolean gzipped = gzip != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String tag = gzipped ? gzipETag : eTag;
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(tag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(tag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzipped) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").contentLength(gzip.length).body(gzip);
+        }
+        return builder.contentLength(identity.length).body(identity);
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    private boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match uses the weak comparison, so a W/ prefix added by a proxy still matches.
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag) || tag.equals(gzipETag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        // An explicit gzip entry wins over the * wildcard, e.g. "gzip;q=0, *".
+        double gzipQuality = -1;
+        double wildcardQuality = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim();
+            double quality = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equalsIgnoreCase("gzip")) {
+                gzipQuality = quality;
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        return gzipQuality >= 0 ? gzipQuality > 0 : wildcardQuality > 0;
+    }
+
+    private static byte[] compress(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(bytes);
+        } catch (IOException e) {
+            // In-memory streams do not fail.
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+}
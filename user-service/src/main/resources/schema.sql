@@ -61,7 +61,8 @@ CREATE TABLE IF NOT EXISTS restaurants (
     image_url TEXT,
     created_ts TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
     modify_ts TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
-    is_deleted BOOLEAN DEFAULT FALSE
+    is_deleted BOOLEAN DEFAULT FALSE,
+    menu_revision BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS menu_items (
@@ -71,6 +72,8 @@ CREATE TABLE IF NOT EXISTS menu_items (
     description TEXT,
     category VARCHAR(100),
     restaurant_id UUID REFERENCES restaurants(_id) ON DELETE CASCADE,
+    revision BIGINT NOT NULL DEFAULT 0,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
     created_ts TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
     modify_ts TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
 );
@@ -83,8 +86,12 @@ CREATE TABLE IF NOT EXISTS orders (
     status VARCHAR(50) DEFAULT 'PENDING',
     delivery_address TEXT,
     payment_method VARCHAR(50),
+    version BIGINT NOT NULL DEFAULT 0,
+    idempotency_key VARCHAR(100),
+    idempotency_fingerprint VARCHAR(64),
     created_ts TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
-    modified_ts TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+    modified_ts TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_orders_user_idempotency_key UNIQUE (user_id, idempotency_key)
 );
 
 CREATE TABLE IF NOT EXISTS order_items (
@@ -103,3 +110,16 @@ CREATE TABLE IF NOT EXISTS promotions (
     expiry_date TIMESTAMP WITH TIME ZONE,
     created_ts TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
 );
+
+-- Bounding-box prefilter for the nearby search (latitude range scan, longitude checked in the index)
+CREATE INDEX IF NOT EXISTS idx_restaurants_lat_lon ON restaurants (latitude, longitude);
+
+-- Menu delta sync: changed items of a restaurant by revision
+CREATE INDEX IF NOT EXISTS idx_menu_items_restaurant_revision ON menu_items (restaurant_id, revision);
+
+-- Keyset pages of a user's and a restaurant's order history, newest first
+CREATE INDEX IF NOT EXISTS idx_orders_user_created ON orders (user_id, created_ts, _id);
+CREATE INDEX IF NOT EXISTS idx_orders_restaurant_created ON orders (restaurant_id, created_ts, _id);
+
+-- Admin order export: a date range read in order
+CREATE INDEX IF NOT EXISTS idx_orders_created ON orders (created_ts, _id);
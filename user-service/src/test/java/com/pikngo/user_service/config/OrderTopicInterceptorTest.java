@@ -0,0 +1,110 @@
+package com.pikngo.user_service.config;
+
+import com.pikngo.user_service.entity.User;
+import com.pikngo.user_service.repository.OrderRepository;
+import com.pikngo.user_service.repository.UserRepository;
+import com.pikngo.user_service.utils.OrderTopics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class OrderTopicInterceptorTest {
+
+    private static final String PHONE = "9876543210";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private OrderTopicInterceptor interceptor;
+
+    private final UUID userId = UUID.randomUUID();
+    private final Map<String, Object> sessionAttributes = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        interceptor = new OrderTopicInterceptor(userRepository, orderRepository);
+        when(userRepository.findByPhoneNumber(PHONE)).thenReturn(Optional.of(User.builder().id(userId).build()));
+    }
+
+    @Test
+    void preSend_ShouldLetUsersFollowOnlyTheirOwnOrders() {
+        UUID ownOrder = UUID.randomUUID();
+        UUID otherOrder = UUID.randomUUID();
+        when(orderRepository.findUserIdById(ownOrder)).thenReturn(Optional.of(userId));
+        when(orderRepository.findUserIdById(otherOrder)).thenReturn(Optional.of(UUID.randomUUID()));
+
+        assertAllowed(user(), OrderTopics.user(userId));
+        assertAllowed(user(), OrderTopics.order(ownOrder));
+        assertDenied(user(), OrderTopics.user(UUID.randomUUID()));
+        assertDenied(user(), OrderTopics.order(otherOrder));
+        assertDenied(user(), OrderTopics.restaurant(UUID.randomUUID()));
+        assertDenied(user(), OrderTopics.ALL);
+        assertDenied(user(), "/topic/users/" + userId.toString().toUpperCase() + "/orders");
+        // The user is looked up once per session.
+        verify(userRepository, times(1)).findByPhoneNumber(PHONE);
+    }
+
+    @Test
+    void preSend_ShouldLetAdminsFollowEveryTopic() {
+        Principal admin = new UsernamePasswordAuthenticationToken("1111111111", null,
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+        assertAllowed(admin, OrderTopics.ALL);
+        assertAllowed(admin, OrderTopics.restaurant(UUID.randomUUID()));
+        assertAllowed(admin, OrderTopics.order(UUID.randomUUID()));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void preSend_ShouldRejectAnonymousSubscriptionsAndClientSends() {
+        assertDenied(null, OrderTopics.user(userId));
+        assertThatThrownBy(() -> interceptor.preSend(message(StompCommand.SEND, user(), OrderTopics.user(userId)), null))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    private void assertAllowed(Principal principal, String destination) {
+        Message<?> message = message(StompCommand.SUBSCRIBE, principal, destination);
+        assertThat(interceptor.preSend(message, null)).isSameAs(message);
+    }
+
+    private void assertDenied(Principal principal, String destination) {
+        assertThatThrownBy(() -> interceptor.preSend(message(StompCommand.SUBSCRIBE, principal, destination), null))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    private Message<byte[]> message(StompCommand command, Principal principal, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        accessor.setUser(principal);
+        accessor.setSessionAttributes(sessionAttributes);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Principal user() {
+        return new UsernamePasswordAuthenticationToken(PHONE, null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+}
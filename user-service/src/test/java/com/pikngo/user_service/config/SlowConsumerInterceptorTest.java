@@ -0,0 +1,139 @@
+package com.pikngo.user_service.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pikngo.user_service.utils.OrderTopics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowConsumerInterceptorTest {
+
+    private static final String SESSION = "session-1";
+    private static final String TOPIC = "/topic/users/" + UUID.randomUUID() + "/orders";
+
+    private final SlowConsumerInterceptor interceptor = new SlowConsumerInterceptor(2, 10);
+    // Stands in for the client outbound channel: records what is sent back to it.
+    private final List<Message<?>> resent = new ArrayList<>();
+    private final MessageChannel channel = (message, timeout) -> resent.add(message);
+
+    @BeforeEach
+    void setUp() {
+        interceptor.preSend(control(SimpMessageType.CONNECT_ACK), channel);
+    }
+
+    @Test
+    void preSend_ShouldHoldOnlyTheLatestStateOfEachOrderWhileTheSessionIsBehind() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        Message<?> queued1 = message(first, "PENDING");
+        Message<?> queued2 = message(second, "PENDING");
+        assertThat(interceptor.preSend(queued1, channel)).isSameAs(queued1);
+        assertThat(interceptor.preSend(queued2, channel)).isSameAs(queued2);
+
+        // Two messages are waiting, so the session is now behind and changes are held back.
+        assertThat(interceptor.preSend(message(first, "ACCEPTED"), channel)).isNull();
+        assertThat(interceptor.preSend(message(first, "PREPARING"), channel)).isNull();
+        assertThat(interceptor.preSend(message(second, "ACCEPTED"), channel)).isNull();
+        assertThat(interceptor.stats()).containsEntry("slowSessions", 1).containsEntry("superseded", 1L);
+
+        interceptor.afterMessageHandled(queued1, channel, null, null);
+        assertThat(resent).isEmpty();
+        interceptor.afterMessageHandled(queued2, channel, null, null);
+
+        // Caught up: the newest state of each order goes out, in the order they were first held.
+        assertThat(resent).extracting(message -> new String((byte[]) message.getPayload()))
+                .containsExactly(first + ":PREPARING", second + ":ACCEPTED");
+        assertThat(interceptor.stats()).containsEntry("slowSessions", 0);
+    }
+
+    @Test
+    void preSend_ShouldApplyAHeldStatusDeltaToTheWholeOrderItFollows() throws Exception {
+        Message<?> queued1 = message(UUID.randomUUID(), "PENDING");
+        Message<?> queued2 = message(UUID.randomUUID(), "PENDING");
+        interceptor.preSend(queued1, channel);
+        interceptor.preSend(queued2, channel);
+
+        UUID orderId = UUID.randomUUID();
+        assertThat(interceptor.preSend(json(orderId, "{\"id\":\"" + orderId
+                + "\",\"status\":\"PENDING\",\"totalAmount\":307.5,\"version\":0}"), channel)).isNull();
+        assertThat(interceptor.preSend(json(orderId, "{\"type\":\"ORDER_STATUS\",\"id\":\"" + orderId
+                + "\",\"status\":\"ACCEPTED\",\"version\":1}"), channel)).isNull();
+        interceptor.afterMessageHandled(queued1, channel, null, null);
+        interceptor.afterMessageHandled(queued2, channel, null, null);
+
+        assertThat(resent).hasSize(1);
+        JsonNode sent = new ObjectMapper().readTree((byte[]) resent.get(0).getPayload());
+        assertThat(sent.has("type")).isFalse();
+        assertThat(sent.get("status").asText()).isEqualTo("ACCEPTED");
+        assertThat(sent.get("version").asLong()).isEqualTo(1);
+        assertThat(sent.get("totalAmount").decimalValue()).isEqualByComparingTo("307.5");
+        assertThat(SimpMessageHeaderAccessor.getDestination(resent.get(0).getHeaders())).isEqualTo(TOPIC);
+    }
+
+    @Test
+    void preSend_ShouldPassEverythingForSessionsThatKeepUp() {
+        for (int i = 0; i < 10; i++) {
+            Message<?> message = message(UUID.randomUUID(), "PENDING");
+            assertThat(interceptor.preSend(message, channel)).isSameAs(message);
+            interceptor.afterMessageHandled(message, channel, null, null);
+        }
+        assertThat(interceptor.stats()).containsEntry("messages", 10L).containsEntry("held", 0L)
+                .containsEntry("queued", 0);
+    }
+
+    @Test
+    void preSend_ShouldNotTrackASessionAgainAfterItDisconnected() {
+        interceptor.onSessionDisconnect(new SessionDisconnectEvent(this, control(SimpMessageType.DISCONNECT), SESSION,
+                CloseStatus.NORMAL));
+
+        // Broadcasts still in flight for the closed session pass through without recreating its state.
+        for (int i = 0; i < 5; i++) {
+            Message<?> message = message(UUID.randomUUID(), "PENDING");
+            assertThat(interceptor.preSend(message, channel)).isSameAs(message);
+        }
+        assertThat(interceptor.stats()).containsEntry("messages", 0L).containsEntry("queued", 0)
+                .containsEntry("held", 0L);
+
+        interceptor.preSend(control(SimpMessageType.CONNECT_ACK), channel);
+        interceptor.preSend(message(UUID.randomUUID(), "PENDING"), channel);
+        interceptor.preSend(control(SimpMessageType.DISCONNECT_ACK), channel);
+        interceptor.preSend(message(UUID.randomUUID(), "PENDING"), channel);
+        assertThat(interceptor.stats()).containsEntry("messages", 1L).containsEntry("queued", 0);
+    }
+
+    private static Message<byte[]> message(UUID orderId, String status) {
+        return message(orderId, (orderId + ":" + status).getBytes());
+    }
+
+    private static Message<byte[]> json(UUID orderId, String body) {
+        return message(orderId, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Message<byte[]> message(UUID orderId, byte[] body) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(SESSION);
+        accessor.setDestination(TOPIC);
+        accessor.setNativeHeader(OrderTopics.ORDER_ID_HEADER, orderId.toString());
+        return MessageBuilder.createMessage(body, accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> control(SimpMessageType type) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId(SESSION);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,118 @@
+package com.pikngo.user_service.repository;
+
+import com.pikngo.user_service.utils.GeoUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The nearby query must be answered through the lat/lon index on Postgres, whose planner is what
+ * production sees, and return exactly the rows a brute-force distance check does. Runs when
+ * {@code PIKNGO_IT_DB_URL} points at a database ({@code PIKNGO_IT_DB_USERNAME} and
+ * {@code PIKNGO_IT_DB_PASSWORD} default to postgres); the seeded rows are rolled back.
+ */
+@SpringBootTest(properties = "firebase.config.path=")
+@EnabledIfEnvironmentVariable(named = "PIKNGO_IT_DB_URL", matches = ".+")
+@Transactional
+public class RestaurantRepositoryNearbyQueryTest {
+
+    private static final int ROWS = 200_000;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("PIKNGO_IT_DB_URL"));
+        registry.add("spring.datasource.username", () -> env("PIKNGO_IT_DB_USERNAME", "postgres"));
+        registry.add("spring.datasource.password", () -> env("PIKNGO_IT_DB_PASSWORD", "postgres"));
+    }
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void findNearbyRestaurantsInBox_ShouldUseLatLonIndexAndMatchBruteForce() {
+        Random random = new Random(3);
+        List<double[]> coordinates = new ArrayList<>(ROWS);
+        List<UUID> ids = new ArrayList<>(ROWS);
+        Set<UUID> seeded = new HashSet<>(ROWS * 2);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            double[] point = {8 + random.nextDouble() * 28, 68 + random.nextDouble() * 29};
+            UUID id = UUID.randomUUID();
+            coordinates.add(point);
+            ids.add(id);
+            seeded.add(id);
+            batch.add(new Object[] {id, "Seed " + i, "Seed address", point[0], point[1]});
+            if (batch.size() == 5_000) {
+                insert(batch);
+            }
+        }
+        insert(batch);
+        jdbcTemplate.execute("ANALYZE");
+
+        double lat = 19.0760;
+        double lon = 72.8777;
+        double radius = 25;
+        double latDelta = radius / GeoUtils.KM_PER_DEGREE;
+        double lonDelta = GeoUtils.longitudeDelta(lat, radius);
+        Object[] params = {lat, lon, radius, lat - latDelta, lat + latDelta, lon - lonDelta, lon + lonDelta};
+
+        // Through the EntityManager: the query uses JPA ordinal parameters, which plain JDBC cannot bind.
+        Query explain = entityManager.createNativeQuery("EXPLAIN " + RestaurantRepository.NEARBY_IN_BOX_QUERY);
+        for (int i = 0; i < params.length; i++) {
+            explain.setParameter(i + 1, params[i]);
+        }
+        List<?> planRows = explain.getResultList();
+        String plan = planRows.stream().map(String::valueOf).collect(Collectors.joining("\n"));
+        assertThat(plan).containsPattern("(Index Scan using|Index Only Scan using|Bitmap Index Scan on) idx_restaurants_lat_lon");
+
+        List<UUID> expected = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            if (GeoUtils.haversine(lat, lon, coordinates.get(i)[0], coordinates.get(i)[1]) < radius) {
+                expected.add(ids.get(i));
+            }
+        }
+        List<RestaurantWithDistance> nearby = restaurantRepository.findNearbyRestaurantsInBox(lat, lon, radius,
+                lat - latDelta, lat + latDelta, lon - lonDelta, lon + lonDelta);
+
+        assertThat(nearby).isNotEmpty();
+        assertThat(nearby.stream().map(RestaurantWithDistance::getId).filter(seeded::contains).sorted().collect(Collectors.toList()))
+                .isEqualTo(expected.stream().sorted().collect(Collectors.toList()));
+        for (int i = 1; i < nearby.size(); i++) {
+            assertThat(nearby.get(i).getDistance()).isGreaterThanOrEqualTo(nearby.get(i - 1).getDistance());
+        }
+    }
+
+    private void insert(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO restaurants (_id, restaurant_name, address, latitude, longitude, is_active, is_deleted) " +
+                "VALUES (?, ?, ?, ?, ?, true, false)", batch);
+        batch.clear();
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null ? value : fallback;
+    }
+}
@@ -0,0 +1,93 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.RestaurantSnapshot;
+import com.pikngo.user_service.event.RestaurantChangedEvent;
+import com.pikngo.user_service.repository.RestaurantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class GeoQueryCacheTest {
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    private RestaurantGeoIndex geoIndex;
+    private RouteCorridorEngine corridorEngine;
+    private GeoQueryCache geoQueryCache;
+    private final Random random = new Random(17);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        List<RestaurantSnapshot> catalog = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            catalog.add(restaurant(8 + random.nextDouble() * 28, 68 + random.nextDouble() * 29));
+        }
+        when(restaurantRepository.findSearchableSnapshots()).thenReturn(catalog);
+        geoIndex = new RestaurantGeoIndex(restaurantRepository);
+        geoIndex.rebuild();
+        corridorEngine = new RouteCorridorEngine(geoIndex, restaurantRepository);
+        geoQueryCache = new GeoQueryCache(geoIndex, corridorEngine, 0.01, 1_000);
+    }
+
+    @Test
+    void cachedResults_ShouldMatchUncachedSearches() {
+        double[] radii = {0.5, 3, 10, 14.9, 60};
+        for (int q = 0; q < 500; q++) {
+            double lat = 19.0 + random.nextDouble() * 0.03;
+            double lon = 72.8 + random.nextDouble() * 0.03;
+            double radius = radii[q % radii.length];
+            assertThat(ids(geoQueryCache.findWithinRadius(lat, lon, radius)))
+                    .isEqualTo(ids(geoIndex.findWithinRadius(lat, lon, radius)));
+        }
+        for (int q = 0; q < 100; q++) {
+            double srcLat = 12.97 + random.nextDouble() * 0.02;
+            double srcLon = 77.59 + random.nextDouble() * 0.02;
+            double destLat = 28.61 + random.nextDouble() * 0.02;
+            double destLon = 77.20 + random.nextDouble() * 0.02;
+            assertThat(ids(geoQueryCache.findAlongSegment(srcLat, srcLon, destLat, destLon, 15)))
+                    .isEqualTo(ids(corridorEngine.findAlongSegment(srcLat, srcLon, destLat, destLon, 15)));
+        }
+        assertThat((Long) geoQueryCache.stats().get("hits")).isPositive();
+    }
+
+    @Test
+    void onRestaurantChanged_ShouldDropEntriesAroundOldAndNewLocation() {
+        int before = geoQueryCache.findWithinRadius(19.02, 72.82, 5).size();
+
+        RestaurantSnapshot opened = new RestaurantSnapshot(UUID.randomUUID(), "New Kitchen", "Somewhere",
+                19.021, 72.821, null, "Indian", 4.5, "30 min", true, false);
+        publish(opened);
+        assertThat(geoQueryCache.findWithinRadius(19.02, 72.82, 5)).hasSize(before + 1);
+
+        publish(new RestaurantSnapshot(opened.getId(), "New Kitchen", "Somewhere",
+                19.021, 72.821, null, "Indian", 4.5, "30 min", false, false));
+        assertThat(geoQueryCache.findWithinRadius(19.02, 72.82, 5)).hasSize(before);
+    }
+
+    private void publish(RestaurantSnapshot restaurant) {
+        // Same order as the transactional listeners: index first, then the cache.
+        geoIndex.onRestaurantChanged(new RestaurantChangedEvent(restaurant));
+        geoQueryCache.onRestaurantChanged(new RestaurantChangedEvent(restaurant));
+    }
+
+    private static RestaurantSnapshot restaurant(double lat, double lon) {
+        return new RestaurantSnapshot(UUID.randomUUID(), "Test Kitchen", "Somewhere", lat, lon,
+                null, "Indian", 4.5, "30 min", true, false);
+    }
+
+    private static List<UUID> ids(List<RestaurantGeoIndex.Match> matches) {
+        return matches.stream().map(m -> m.getRestaurant().getId()).sorted().collect(Collectors.toList());
+    }
+}
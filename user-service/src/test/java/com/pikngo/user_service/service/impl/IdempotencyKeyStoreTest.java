@@ -0,0 +1,209 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.OrderRequestDTO;
+import com.pikngo.user_service.dto.OrderResponseDTO;
+import com.pikngo.user_service.exception.IdempotencyConflictException;
+import com.pikngo.user_service.exception.InvalidOrderException;
+import com.pikngo.user_service.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class IdempotencyKeyStoreTest {
+
+    private static final UUID RESTAURANT_ID = UUID.randomUUID();
+    private static final UUID MENU_ITEM_ID = UUID.randomUUID();
+
+    @Mock
+    private OrderService orderService;
+
+    private IdempotencyKeyStore store;
+    private final UUID userId = UUID.randomUUID();
+    private final AtomicInteger placements = new AtomicInteger();
+    private final OrderRequestDTO cart = cart(2);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        store = new IdempotencyKeyStore(orderService, 60_000, 5_000, 100);
+    }
+
+    @Test
+    void execute_ShouldReturnTheStoredOrderForACompletedKey() {
+        OrderResponseDTO first = store.execute(userId, "key-1", cart, this::place);
+        OrderResponseDTO retry = store.execute(userId, "key-1", cart, this::place);
+
+        assertThat(retry).isSameAs(first);
+        assertThat(placements).hasValue(1);
+        assertThat(store.stats()).containsEntry("executed", 1L).containsEntry("replayed", 1L);
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void execute_ShouldKeepKeysOfDifferentUsersApart() {
+        OrderResponseDTO mine = store.execute(userId, "key-1", cart, this::place);
+        OrderResponseDTO theirs = store.execute(UUID.randomUUID(), "key-1", cart, this::place);
+
+        assertThat(theirs).isNotSameAs(mine);
+        assertThat(placements).hasValue(2);
+    }
+
+    @Test
+    void execute_ShouldMakeConcurrentDuplicatesWaitForTheFirstAttempt() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<OrderResponseDTO> first = CompletableFuture.supplyAsync(() -> store.execute(userId, "key-1", cart, () -> {
+            started.countDown();
+            await(release);
+            return place();
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<OrderResponseDTO> duplicate = CompletableFuture.supplyAsync(
+                () -> store.execute(userId, "key-1", cart, this::place));
+
+        Thread.sleep(100);
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        assertThat(placements).hasValue(1);
+        assertThat(store.stats()).containsEntry("waited", 1L);
+    }
+
+    @Test
+    void execute_ShouldReturnTheOrderAlreadyPlacedWhenTheKeyColumnRejectsTheInsert() {
+        OrderResponseDTO placedEarlier = OrderResponseDTO.builder().id(UUID.randomUUID()).build();
+        when(orderService.getOrderByIdempotencyKey(userId, "key-1", IdempotencyKeyStore.fingerprint(cart)))
+                .thenReturn(Optional.of(placedEarlier));
+
+        OrderResponseDTO response = store.execute(userId, "key-1", cart, () -> {
+            throw new DataIntegrityViolationException("uk_orders_user_idempotency_key");
+        });
+
+        assertThat(response).isSameAs(placedEarlier);
+        assertThat(store.execute(userId, "key-1", cart, this::place)).isSameAs(placedEarlier);
+        assertThat(store.stats()).containsEntry("recoveredFromDatabase", 1L);
+    }
+
+    @Test
+    void execute_ShouldRejectAKeyReusedForADifferentRequest() {
+        OrderResponseDTO first = store.execute(userId, "key-1", cart, this::place);
+
+        assertThatThrownBy(() -> store.execute(userId, "key-1", cart(3), this::place))
+                .isInstanceOf(IdempotencyConflictException.class);
+        // The same cart, sent again, still gets its order.
+        assertThat(store.execute(userId, "key-1", cart(2), this::place)).isSameAs(first);
+        assertThat(placements).hasValue(1);
+        assertThat(store.stats()).containsEntry("mismatched", 1L);
+    }
+
+    @Test
+    void execute_ShouldRejectAKeyReusedForADifferentRequestPlacedBeforeItWasRemembered() {
+        when(orderService.getOrderByIdempotencyKey(userId, "key-1", IdempotencyKeyStore.fingerprint(cart)))
+                .thenThrow(new IdempotencyConflictException(IdempotencyKeyStore.KEY_REUSED));
+
+        assertThatThrownBy(() -> store.execute(userId, "key-1", cart, () -> {
+            throw new DataIntegrityViolationException("uk_orders_user_idempotency_key");
+        })).isInstanceOf(IdempotencyConflictException.class);
+        assertThat(store.stats()).containsEntry("mismatched", 1L).containsEntry("entries", 0);
+    }
+
+    @Test
+    void fingerprint_ShouldDependOnWhatTheOrderIsMadeOfOnly() {
+        OrderRequestDTO samePrices = cart(2);
+        samePrices.setTotalAmount(new BigDecimal("307.500"));
+        samePrices.getItems().get(0).setPrice(BigDecimal.ONE);
+        OrderRequestDTO pickup = cart(2);
+        pickup.setSelfPickup(true);
+
+        assertThat(IdempotencyKeyStore.fingerprint(samePrices)).isEqualTo(IdempotencyKeyStore.fingerprint(cart));
+        assertThat(IdempotencyKeyStore.fingerprint(pickup)).isNotEqualTo(IdempotencyKeyStore.fingerprint(cart));
+    }
+
+    @Test
+    void execute_ShouldForgetAFailedAttemptSoTheRetryRunsAgain() {
+        assertThatThrownBy(() -> store.execute(userId, "key-1", cart, () -> {
+            throw new InvalidOrderException(List.of("Menu item is not available: Dal Makhani"));
+        })).isInstanceOf(InvalidOrderException.class);
+
+        store.execute(userId, "key-1", cart, this::place);
+        assertThat(placements).hasValue(1);
+    }
+
+    @Test
+    void execute_ShouldGiveUpWaitingForASlowFirstAttempt() throws Exception {
+        store = new IdempotencyKeyStore(orderService, 60_000, 50, 100);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<OrderResponseDTO> first = CompletableFuture.supplyAsync(() -> store.execute(userId, "key-1", cart, () -> {
+            started.countDown();
+            await(release);
+            return place();
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> store.execute(userId, "key-1", cart, this::place))
+                .isInstanceOf(IdempotencyConflictException.class);
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertThat(placements).hasValue(1);
+    }
+
+    @Test
+    void execute_ShouldRejectBlankAndOverlongKeys() {
+        assertThatThrownBy(() -> store.execute(userId, " ", cart, this::place)).isInstanceOf(InvalidOrderException.class);
+        assertThatThrownBy(() -> store.execute(userId, "k".repeat(IdempotencyKeyStore.MAX_KEY_LENGTH + 1), cart, this::place))
+                .isInstanceOf(InvalidOrderException.class);
+        assertThat(placements).hasValue(0);
+    }
+
+    @Test
+    void execute_ShouldStayWithinMaxEntries() {
+        for (int i = 0; i < 250; i++) {
+            store.execute(userId, "key-" + i, cart, this::place);
+        }
+        assertThat((Integer) store.stats().get("entries")).isLessThanOrEqualTo(100);
+    }
+
+    private static OrderRequestDTO cart(int quantity) {
+        OrderRequestDTO.OrderItemRequestDTO line = new OrderRequestDTO.OrderItemRequestDTO();
+        line.setMenuItemId(MENU_ITEM_ID);
+        line.setQuantity(quantity);
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setRestaurantId(RESTAURANT_ID);
+        request.setDeliveryAddress("Flat 4, MG Road");
+        request.setPaymentMethod("card");
+        request.setTotalAmount(new BigDecimal("307.5"));
+        request.setItems(new ArrayList<>(List.of(line)));
+        return request;
+    }
+
+    private OrderResponseDTO place() {
+        placements.incrementAndGet();
+        return OrderResponseDTO.builder().id(UUID.randomUUID()).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
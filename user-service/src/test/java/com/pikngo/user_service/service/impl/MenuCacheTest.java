@@ -0,0 +1,93 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.MenuDeltaDTO;
+import com.pikngo.user_service.entity.MenuItem;
+import com.pikngo.user_service.event.MenuChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MenuCacheTest {
+
+    private final MenuCache cache = new MenuCache(100, 60_000);
+    private final UUID restaurantId = UUID.randomUUID();
+
+    @Test
+    void get_ShouldServeSnapshotUntilMenuChanges() {
+        AtomicInteger loads = new AtomicInteger();
+        MenuCache.Snapshot first = cache.get(restaurantId, () -> {
+            loads.incrementAndGet();
+            return List.of(item("Paneer Tikka"));
+        });
+        assertThat(cache.get(restaurantId, () -> List.of(item("unused")))).isSameAs(first);
+        assertThat(first.getItems()).extracting("itemName").containsExactly("Paneer Tikka");
+
+        cache.onMenuChanged(new MenuChangedEvent(restaurantId));
+        MenuCache.Snapshot second = cache.get(restaurantId, () -> {
+            loads.incrementAndGet();
+            return List.of(item("Paneer Tikka"), item("Dal Makhani"));
+        });
+        assertThat(second.getItems()).hasSize(2);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_ShouldNotKeepMenuLoadedAcrossAnEdit() {
+        // The edit commits while the menu is being read, so the loaded list may predate it.
+        MenuCache.Snapshot overlapping = cache.get(restaurantId, () -> {
+            cache.onMenuChanged(new MenuChangedEvent(restaurantId));
+            return List.of(item("Old Name"));
+        });
+        assertThat(overlapping.getItems()).extracting("itemName").containsExactly("Old Name");
+
+        MenuCache.Snapshot next = cache.get(restaurantId, () -> List.of(item("New Name")));
+        assertThat(next.getItems()).extracting("itemName").containsExactly("New Name");
+    }
+
+    @Test
+    void delta_ShouldReturnChangesAndTombstonesAfterRevision() {
+        MenuItem unchanged = item("Paneer Tikka", 1);
+        MenuItem toggled = item("Dal Makhani", 4);
+        toggled.setAvailable(false);
+        MenuItem deletedEarlier = item("Chicken 65", 2);
+        deletedEarlier.setDeleted(true);
+        MenuItem deleted = item("Masala Dosa", 5);
+        deleted.setDeleted(true);
+        MenuCache.Snapshot snapshot = cache.get(restaurantId,
+                () -> List.of(unchanged, toggled, deletedEarlier, deleted));
+
+        assertThat(snapshot.getRevision()).isEqualTo(5);
+        assertThat(snapshot.getItems()).extracting("itemName").containsExactly("Paneer Tikka", "Dal Makhani");
+
+        MenuDeltaDTO delta = snapshot.delta(3);
+        assertThat(delta.isFullSync()).isFalse();
+        assertThat(delta.getRevision()).isEqualTo(5);
+        assertThat(delta.getItems()).extracting("itemName").containsExactly("Dal Makhani");
+        assertThat(delta.getItems().get(0).isAvailable()).isFalse();
+        assertThat(delta.getDeletedIds()).containsExactly(deleted.getId());
+
+        assertThat(snapshot.delta(5).getItems()).isEmpty();
+        assertThat(snapshot.delta(5).getDeletedIds()).isEmpty();
+        assertThat(snapshot.delta(0).isFullSync()).isTrue();
+        // Ahead of this snapshot, e.g. synced against another instance: resend the whole menu.
+        assertThat(snapshot.delta(9).isFullSync()).isTrue();
+        assertThat(snapshot.delta(9).getItems()).hasSize(2);
+    }
+
+    private static MenuItem item(String name, long revision) {
+        MenuItem item = item(name);
+        item.setRevision(revision);
+        return item;
+    }
+
+    private static MenuItem item(String name) {
+        MenuItem item = MenuItem.builder().itemName(name).itemPrice(BigDecimal.valueOf(250)).build();
+        item.setId(UUID.randomUUID());
+        return item;
+    }
+}
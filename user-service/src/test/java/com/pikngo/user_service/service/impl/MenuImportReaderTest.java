@@ -0,0 +1,75 @@
+package com.pikngo.user_service.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MenuImportReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void csv_ShouldHandleQuotingAndReportRowErrorsByLine() throws IOException {
+        String csv = "\uFEFFItem Name,item_price,description,veg\r\n"
+                + "Paneer Tikka,249.50,\"Smoky, charred \"\"tikka\"\"\",true\r\n"
+                + "\r\n"
+                + "Chicken 65,-10,\"Spicy\nfried\",no\r\n"
+                + "Dal Makhani,199\r\n"
+                + ",120,,maybe\r\n";
+
+        List<MenuImportReader.Row> rows = readAll(csv, "text/csv");
+
+        assertThat(rows).extracting(row -> row.number).containsExactly(2, 4, 6, 7);
+        assertThat(rows.get(0).item.getItemName()).isEqualTo("Paneer Tikka");
+        assertThat(rows.get(0).item.getItemPrice()).isEqualByComparingTo(new BigDecimal("249.50"));
+        assertThat(rows.get(0).item.getItemDescription()).isEqualTo("Smoky, charred \"tikka\"");
+        assertThat(rows.get(0).item.isAvailable()).isTrue();
+        assertThat(rows.get(1).errors).containsExactly("itemPrice must not be negative");
+        assertThat(rows.get(2).errors).containsExactly("Expected 4 fields but found 2");
+        assertThat(rows.get(3).errors).containsExactly("itemName is required", "veg must be true or false");
+    }
+
+    @Test
+    void json_ShouldReadArrayElementsAndIgnoreIdsAndUnknownFields() throws IOException {
+        String json = "[{\"id\":\"7f3c2a52-0d2b-4d7e-9a4b-1f9f0b5c1d11\",\"itemName\":\"Masala Dosa\","
+                + "\"itemPrice\":120.5,\"available\":false,\"calories\":350},"
+                + "{\"itemName\":\"Idli\",\"itemPrice\":\"12.345\"},"
+                + "42]";
+
+        List<MenuImportReader.Row> rows = readAll(json, "application/json");
+
+        assertThat(rows).extracting(row -> row.number).containsExactly(1, 2, 3);
+        assertThat(rows.get(0).item.getId()).isNull();
+        assertThat(rows.get(0).item.getItemName()).isEqualTo("Masala Dosa");
+        assertThat(rows.get(0).item.isAvailable()).isFalse();
+        assertThat(rows.get(1).errors).containsExactly("itemPrice must have at most 10 digits and 2 decimals");
+        assertThat(rows.get(2).errors).containsExactly("Expected a menu item object");
+    }
+
+    @Test
+    void unreadableInput_ShouldEndWithOneFatalRow() throws IOException {
+        assertThat(readAll("Name,Price,Spiciness\nVada,40,high\n", "text/csv"))
+                .singleElement().satisfies(row -> assertThat(row.errors).containsExactly("Unknown column 'Spiciness'"));
+        assertThat(readAll("[{\"itemName\":\"Vada\",\"itemPrice\":40}, {\"itemName\":", "application/json"))
+                .extracting(row -> row.errors.isEmpty()).containsExactly(true, false);
+    }
+
+    private List<MenuImportReader.Row> readAll(String body, String contentType) throws IOException {
+        MenuImportReader reader = new MenuImportReader(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                MediaType.parseMediaType(contentType), objectMapper);
+        List<MenuImportReader.Row> rows = new ArrayList<>();
+        for (MenuImportReader.Row row = reader.next(); row != null; row = reader.next()) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,66 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.ReviewRequestDTO;
+import com.pikngo.user_service.entity.Restaurant;
+import com.pikngo.user_service.entity.User;
+import com.pikngo.user_service.repository.RestaurantRepository;
+import com.pikngo.user_service.repository.UserRepository;
+import com.pikngo.user_service.service.ReviewService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The menu revision only moves forward: saving a restaurant loaded before a bump must not write
+ * the old revision back.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class MenuRevisionIntegrationTest {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void submitReview_ShouldKeepTheMenuRevisionBumpedAfterTheRestaurantWasLoaded() {
+        User user = userRepository.save(User.builder().firstName("Asha").lastName("Rao")
+                .phoneNumber("7" + (System.nanoTime() % 1_000_000_000L)).build());
+        UUID restaurantId = restaurantRepository.save(Restaurant.builder().restaurantName("Spice Route").build()).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        // Loaded into the persistence context at revision 0, then bumped behind its back.
+        assertThat(restaurantRepository.findById(restaurantId).orElseThrow().getMenuRevision()).isZero();
+        restaurantRepository.incrementMenuRevision(restaurantId);
+        restaurantRepository.incrementMenuRevision(restaurantId);
+
+        ReviewRequestDTO review = new ReviewRequestDTO();
+        review.setRestaurantId(restaurantId);
+        review.setRating(4);
+        reviewService.submitReview(user.getId(), review);
+        entityManager.flush();
+        entityManager.clear();
+
+        Restaurant reloaded = restaurantRepository.findById(restaurantId).orElseThrow();
+        assertThat(reloaded.getRating()).isEqualTo(4.0);
+        assertThat(reloaded.getMenuRevision()).isEqualTo(2);
+        assertThat(restaurantRepository.findMenuRevision(restaurantId)).isEqualTo(2);
+    }
+}
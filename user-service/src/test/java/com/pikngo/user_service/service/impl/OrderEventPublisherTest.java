@@ -0,0 +1,218 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.OrderResponseDTO;
+import com.pikngo.user_service.dto.OrderStatusDeltaDTO;
+import com.pikngo.user_service.event.OrderChangedEvent;
+import com.pikngo.user_service.event.OrderStatusChangedEvent;
+import com.pikngo.user_service.utils.OrderTopics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OrderEventPublisherTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private OrderEventRelay relay;
+
+    // Runs drain tasks only when the test says so, standing in for the publisher thread.
+    private final List<Runnable> tasks = new ArrayList<>();
+    private OrderEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        publisher = new OrderEventPublisher(messagingTemplate, relay, tasks::add, 2);
+    }
+
+    @Test
+    void onOrderChanged_ShouldSendOnlyTheLatestStateOfABurst() {
+        UUID orderId = UUID.randomUUID();
+        UUID otherId = UUID.randomUUID();
+        publisher.onOrderChanged(event(orderId, "PENDING"));
+        publisher.onOrderChanged(event(otherId, "PENDING"));
+        publisher.onOrderChanged(event(orderId, "ACCEPTED"));
+        publisher.onOrderChanged(event(orderId, "PREPARING"));
+
+        verifyNoInteractions(messagingTemplate);
+        assertThat(tasks).hasSize(1);
+        tasks.remove(0).run();
+
+        ArgumentCaptor<OrderResponseDTO> sent = ArgumentCaptor.forClass(OrderResponseDTO.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq(OrderTopics.ALL), sent.capture(), anyMap());
+        assertThat(sent.getAllValues()).extracting(OrderResponseDTO::getId).containsExactly(orderId, otherId);
+        assertThat(sent.getAllValues().get(0).getStatus()).isEqualTo("PREPARING");
+        assertThat(publisher.stats()).containsEntry("published", 2L).containsEntry("coalesced", 2L)
+                .containsEntry("pending", 0);
+    }
+
+    @Test
+    void onOrderChanged_ShouldSendToTheTopicsOfTheOrdersAudience() {
+        UUID orderId = UUID.randomUUID();
+        UUID restaurantId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        OrderResponseDTO order = OrderResponseDTO.builder().id(orderId).restaurantId(restaurantId).userId(userId)
+                .status("PENDING").build();
+        publisher.onOrderChanged(new OrderChangedEvent(order));
+        tasks.remove(0).run();
+
+        verify(messagingTemplate).convertAndSend(OrderTopics.ALL, order, headers(orderId));
+        verify(messagingTemplate).convertAndSend("/topic/restaurants/" + restaurantId + "/orders", order, headers(orderId));
+        verify(messagingTemplate).convertAndSend("/topic/users/" + userId + "/orders", order, headers(orderId));
+        verify(messagingTemplate).convertAndSend("/topic/orders/" + orderId, order, headers(orderId));
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onOrderStatusChanged_ShouldSendTheDeltaOnTheOrdersTopics() {
+        UUID orderId = UUID.randomUUID();
+        UUID restaurantId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        OrderStatusDeltaDTO delta = new OrderStatusDeltaDTO(orderId, "PREPARING", 3, null);
+        publisher.onOrderStatusChanged(new OrderStatusChangedEvent(delta, restaurantId, userId));
+        tasks.remove(0).run();
+
+        verify(messagingTemplate).convertAndSend(OrderTopics.ALL, delta, headers(orderId));
+        verify(messagingTemplate).convertAndSend("/topic/restaurants/" + restaurantId + "/orders", delta, headers(orderId));
+        verify(messagingTemplate).convertAndSend("/topic/users/" + userId + "/orders", delta, headers(orderId));
+        verify(messagingTemplate).convertAndSend("/topic/orders/" + orderId, delta, headers(orderId));
+        // Other instances get the delta too, not the full order.
+        ArgumentCaptor<List<OrderBroadcast>> relayed = ArgumentCaptor.forClass(List.class);
+        verify(relay).relay(relayed.capture());
+        assertThat(relayed.getValue()).extracting(OrderBroadcast::getPayload).containsExactly(delta);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onApplicationReady_ShouldDeliverRelayedBroadcastsLocallyWithoutRelayingThemAgain() {
+        ArgumentCaptor<Consumer<OrderBroadcast>> receiver = ArgumentCaptor.forClass(Consumer.class);
+        publisher.onApplicationReady();
+        verify(relay).start(receiver.capture());
+
+        UUID remoteId = UUID.randomUUID();
+        UUID localId = UUID.randomUUID();
+        Map<String, String> remotePayload = Map.of("id", remoteId.toString(), "status", "READY");
+        receiver.getValue().accept(new OrderBroadcast(remoteId, null, null, remotePayload));
+        publisher.onOrderChanged(event(localId, "PENDING"));
+        tasks.remove(0).run();
+
+        verify(messagingTemplate).convertAndSend(OrderTopics.ALL, remotePayload, headers(remoteId));
+        verify(messagingTemplate).convertAndSend("/topic/orders/" + remoteId, remotePayload, headers(remoteId));
+        ArgumentCaptor<List<OrderBroadcast>> relayed = ArgumentCaptor.forClass(List.class);
+        verify(relay).relay(relayed.capture());
+        assertThat(relayed.getValue()).extracting(OrderBroadcast::getOrderId).containsExactly(localId);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onApplicationReady_ShouldKeepANewerLocalChangeOverALateRelayedOne() {
+        Consumer<OrderBroadcast> receiver = startRelay();
+        UUID orderId = UUID.randomUUID();
+        OrderResponseDTO order = OrderResponseDTO.builder().id(orderId).status("PREPARING").version(3).build();
+        publisher.onOrderChanged(new OrderChangedEvent(order));
+        // Another instance's older state of the same order, arriving after the local change.
+        Map<String, Object> remotePayload = Map.of("id", orderId.toString(), "status", "ACCEPTED", "version", 2);
+        receiver.accept(new OrderBroadcast(orderId, null, null, remotePayload));
+        tasks.remove(0).run();
+
+        verify(messagingTemplate).convertAndSend(OrderTopics.ALL, order, headers(orderId));
+        verify(messagingTemplate, never()).convertAndSend(eq(OrderTopics.ALL), eq(remotePayload), anyMap());
+        ArgumentCaptor<List<OrderBroadcast>> relayed = ArgumentCaptor.forClass(List.class);
+        verify(relay).relay(relayed.capture());
+        assertThat(relayed.getValue()).extracting(OrderBroadcast::getPayload).containsExactly(order);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onApplicationReady_ShouldRelayOnlyTheLocalChangeWhenANewerRelayedOneArrives() {
+        Consumer<OrderBroadcast> receiver = startRelay();
+        UUID orderId = UUID.randomUUID();
+        OrderResponseDTO order = OrderResponseDTO.builder().id(orderId).status("ACCEPTED").version(2).build();
+        publisher.onOrderChanged(new OrderChangedEvent(order));
+        Map<String, Object> remotePayload = Map.of("id", orderId.toString(), "status", "PREPARING", "version", 3);
+        receiver.accept(new OrderBroadcast(orderId, null, null, remotePayload));
+        tasks.remove(0).run();
+
+        verify(messagingTemplate).convertAndSend(OrderTopics.ALL, remotePayload, headers(orderId));
+        // The other instance's payload is not sent back to it; the local change still reaches it.
+        ArgumentCaptor<List<OrderBroadcast>> relayed = ArgumentCaptor.forClass(List.class);
+        verify(relay).relay(relayed.capture());
+        assertThat(relayed.getValue()).extracting(OrderBroadcast::getPayload).containsExactly(order);
+    }
+
+    @Test
+    void onOrderStatusChanged_ShouldApplyTheDeltaToANewOrderStillWaiting() {
+        UUID orderId = UUID.randomUUID();
+        UUID restaurantId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        OrderResponseDTO order = OrderResponseDTO.builder().id(orderId).restaurantId(restaurantId).userId(userId)
+                .restaurantName("Spice Route").status("PENDING").build();
+        publisher.onOrderChanged(new OrderChangedEvent(order));
+        publisher.onOrderStatusChanged(new OrderStatusChangedEvent(
+                new OrderStatusDeltaDTO(orderId, "ACCEPTED", 1, null), restaurantId, userId));
+        tasks.remove(0).run();
+
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq(OrderTopics.ALL), sent.capture(), anyMap());
+        assertThat(sent.getValue()).isInstanceOfSatisfying(OrderResponseDTO.class, merged -> {
+            assertThat(merged.getRestaurantName()).isEqualTo("Spice Route");
+            assertThat(merged.getStatus()).isEqualTo("ACCEPTED");
+            assertThat(merged.getVersion()).isEqualTo(1);
+        });
+        // The event's own DTO is left as it was.
+        assertThat(order.getStatus()).isEqualTo("PENDING");
+    }
+
+    @Test
+    void onOrderChanged_ShouldDropTheOldestOrderWhenFull() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        publisher.onOrderChanged(event(first, "PENDING"));
+        publisher.onOrderChanged(event(second, "PENDING"));
+        publisher.onOrderChanged(event(third, "PENDING"));
+        tasks.remove(0).run();
+
+        ArgumentCaptor<OrderResponseDTO> sent = ArgumentCaptor.forClass(OrderResponseDTO.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq(OrderTopics.ALL), sent.capture(), anyMap());
+        assertThat(sent.getAllValues()).extracting(OrderResponseDTO::getId).containsExactly(second, third);
+        assertThat(publisher.stats()).containsEntry("dropped", 1L);
+
+        // The buffer is empty again, so the next event starts a new drain.
+        publisher.onOrderChanged(event(first, "ACCEPTED"));
+        assertThat(tasks).hasSize(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<OrderBroadcast> startRelay() {
+        ArgumentCaptor<Consumer<OrderBroadcast>> receiver = ArgumentCaptor.forClass(Consumer.class);
+        publisher.onApplicationReady();
+        verify(relay).start(receiver.capture());
+        return receiver.getValue();
+    }
+
+    private static Map<String, Object> headers(UUID orderId) {
+        return Map.of(OrderTopics.ORDER_ID_HEADER, orderId.toString());
+    }
+
+    private static OrderChangedEvent event(UUID orderId, String status) {
+        return new OrderChangedEvent(OrderResponseDTO.builder().id(orderId).status(status).build());
+    }
+}
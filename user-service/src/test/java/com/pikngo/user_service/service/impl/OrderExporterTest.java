@@ -0,0 +1,140 @@
+package com.pikngo.user_service.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pikngo.user_service.entity.MenuItem;
+import com.pikngo.user_service.entity.Order;
+import com.pikngo.user_service.entity.OrderItem;
+import com.pikngo.user_service.entity.Restaurant;
+import com.pikngo.user_service.entity.User;
+import com.pikngo.user_service.repository.MenuItemRepository;
+import com.pikngo.user_service.repository.OrderRepository;
+import com.pikngo.user_service.repository.RestaurantRepository;
+import com.pikngo.user_service.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports read orders straight from the tables; only orders in the range and of the asked
+ * statuses are written, oldest first.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class OrderExporterTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2031, 3, 10, 0, 0);
+
+    @Autowired
+    private OrderExporter orderExporter;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<UUID> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder().firstName("Asha").lastName("Rao")
+                .phoneNumber("8" + (System.nanoTime() % 1_000_000_000L)).build());
+        Restaurant restaurant = restaurantRepository.save(Restaurant.builder().restaurantName("Spice Route").build());
+        MenuItem dish = menuItemRepository.save(MenuItem.builder().itemName("Dal Makhani")
+                .itemPrice(BigDecimal.valueOf(240)).restaurant(restaurant).build());
+        // Before the range, in it (three), and on the first instant after it.
+        LocalDateTime[] created = {DAY.minusSeconds(1), DAY.plusHours(9), DAY.plusHours(13), DAY.plusHours(20),
+                DAY.plusDays(1)};
+        Order.OrderStatus[] statuses = {Order.OrderStatus.DELIVERED, Order.OrderStatus.DELIVERED,
+                Order.OrderStatus.CANCELLED, Order.OrderStatus.PENDING, Order.OrderStatus.DELIVERED};
+        for (int i = 0; i < created.length; i++) {
+            Order order = Order.builder().user(user).restaurant(restaurant).totalAmount(BigDecimal.valueOf(480))
+                    .status(statuses[i]).paymentMethod("UPI")
+                    .deliveryAddress("Flat 4, \"Lake View\"\nMG Road").build();
+            order.setItems(List.of(OrderItem.builder().order(order).menuItem(dish).quantity(2)
+                    .price(dish.getItemPrice()).build()));
+            UUID id = orderRepository.save(order).getId();
+            entityManager.flush();
+            entityManager.createNativeQuery("UPDATE orders SET created_ts = ?1 WHERE _id = ?2")
+                    .setParameter(1, created[i]).setParameter(2, id).executeUpdate();
+            ids.add(id);
+        }
+        entityManager.clear();
+    }
+
+    @Test
+    void exportCsv_ShouldWriteTheOrdersOfTheRangeOldestFirst() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = orderExporter.export(DAY, DAY.plusDays(1), Set.of(), OrderExporter.Format.CSV, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertThat(rows).isEqualTo(3);
+        assertThat(csv).startsWith(String.join(",", OrderExporter.COLUMNS) + "\r\n");
+        assertThat(csv).doesNotContain(ids.get(0).toString(), ids.get(4).toString());
+        assertThat(csv.indexOf(ids.get(1).toString())).isLessThan(csv.indexOf(ids.get(2).toString()));
+        assertThat(csv.indexOf(ids.get(2).toString())).isLessThan(csv.indexOf(ids.get(3).toString()));
+        // Fields with commas, quotes or line breaks are quoted, quotes doubled.
+        assertThat(csv).contains(",Asha Rao,", ",Spice Route,", ",2,UPI,false,\"Flat 4, \"\"Lake View\"\"\nMG Road\"\r\n");
+    }
+
+    @Test
+    void exportNdjson_ShouldWriteOneTypedObjectPerLineForTheAskedStatuses() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = orderExporter.export(DAY, DAY.plusDays(1),
+                Set.of(Order.OrderStatus.DELIVERED, Order.OrderStatus.PENDING), OrderExporter.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode first = objectMapper.readTree(lines[0]);
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertThat(first.get("orderId").asText()).isEqualTo(ids.get(1).toString());
+        assertThat(first.get("status").asText()).isEqualTo("DELIVERED");
+        assertThat(first.get("totalAmount").decimalValue()).isEqualByComparingTo("480");
+        assertThat(first.get("itemCount").asLong()).isEqualTo(2);
+        assertThat(first.get("selfPickup").isBoolean()).isTrue();
+        assertThat(first.get("deliveryAddress").asText()).isEqualTo("Flat 4, \"Lake View\"\nMG Road");
+        assertThat(second.get("orderId").asText()).isEqualTo(ids.get(3).toString());
+        assertThat(second.get("status").asText()).isEqualTo("PENDING");
+    }
+
+    @Test
+    void export_ShouldWriteOnlyTheHeaderForAnEmptyRange() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = orderExporter.export(DAY.plusYears(1), DAY.plusYears(1).plusDays(1), Set.of(),
+                OrderExporter.Format.CSV, out);
+
+        assertThat(rows).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(String.join(",", OrderExporter.COLUMNS) + "\r\n");
+    }
+}
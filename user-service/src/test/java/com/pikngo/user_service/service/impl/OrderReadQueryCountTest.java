@@ -0,0 +1,176 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.CursorPageDTO;
+import com.pikngo.user_service.dto.OrderResponseDTO;
+import com.pikngo.user_service.entity.MenuItem;
+import com.pikngo.user_service.entity.Order;
+import com.pikngo.user_service.entity.OrderItem;
+import com.pikngo.user_service.entity.Restaurant;
+import com.pikngo.user_service.entity.User;
+import com.pikngo.user_service.repository.MenuItemRepository;
+import com.pikngo.user_service.repository.OrderRepository;
+import com.pikngo.user_service.repository.RestaurantRepository;
+import com.pikngo.user_service.repository.UserRepository;
+import com.pikngo.user_service.service.OrderService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reading orders must cost a fixed number of statements, however many orders and items there are,
+ * and history pages must cover every order exactly once.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+public class OrderReadQueryCountTest {
+
+    private static final int ORDERS = 6;
+    private static final int ITEMS_PER_ORDER = 4;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private UUID userId;
+    private UUID restaurantId;
+    private UUID orderId;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder().firstName("Asha").lastName("Rao")
+                .phoneNumber("9" + (System.nanoTime() % 1_000_000_000L)).build());
+        Restaurant restaurant = restaurantRepository.save(Restaurant.builder().restaurantName("Spice Route").build());
+        List<MenuItem> menu = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            menu.add(menuItemRepository.save(MenuItem.builder().itemName("Dish " + i)
+                    .itemPrice(BigDecimal.valueOf(100 + i)).restaurant(restaurant).build()));
+        }
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = Order.builder().user(user).restaurant(restaurant).totalAmount(BigDecimal.TEN)
+                    .status(Order.OrderStatus.PENDING).build();
+            List<OrderItem> items = new ArrayList<>();
+            for (MenuItem menuItem : menu) {
+                items.add(OrderItem.builder().order(order).menuItem(menuItem).quantity(1)
+                        .price(menuItem.getItemPrice()).build());
+            }
+            order.setItems(items);
+            orderId = orderRepository.save(order).getId();
+        }
+        userId = user.getId();
+        restaurantId = restaurant.getId();
+
+        // Reads start from an empty persistence context, as in a request.
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getUserOrders_ShouldLoadOrdersAndItemsInTwoQueries() {
+        CursorPageDTO<OrderResponseDTO> page = orderService.getUserOrders(userId, ORDERS, null);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertFullyMapped(page.getItems(), ORDERS);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getRestaurantOrders_ShouldLoadEachPageInTwoQueries() {
+        CursorPageDTO<OrderResponseDTO> page = orderService.getRestaurantOrders(restaurantId, 4, null);
+        CursorPageDTO<OrderResponseDTO> next = orderService.getRestaurantOrders(restaurantId, 4, page.getNextCursor());
+
+        // Two per page, the second as cheap as the first.
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertFullyMapped(page.getItems(), 4);
+        assertFullyMapped(next.getItems(), ORDERS - 4);
+        assertThat(next.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getUserOrders_ShouldWalkTheHistoryNewestFirstWithoutGapsOrRepeats() {
+        // Orders placed in the same instant are told apart by id.
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<UUID> ids = orderRepository.findAll().stream()
+                .filter(order -> order.getUser().getId().equals(userId)).map(Order::getId).toList();
+        for (int i = 0; i < ids.size(); i++) {
+            entityManager.createNativeQuery("UPDATE orders SET created_ts = ?1 WHERE _id = ?2")
+                    .setParameter(1, i % 2 == 0 ? now : now.minusMinutes(i)).setParameter(2, ids.get(i))
+                    .executeUpdate();
+        }
+        entityManager.clear();
+
+        List<OrderResponseDTO> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<OrderResponseDTO> page = orderService.getUserOrders(userId, 2, cursor);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(2);
+            walked.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(walked).extracting(OrderResponseDTO::getId).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(walked).isSortedAccordingTo(Comparator.comparing(OrderResponseDTO::getCreatedTs).reversed());
+    }
+
+    @Test
+    void getAllOrders_ShouldLoadAPageWithItsCountAndItemsInThreeQueries() {
+        Page<OrderResponseDTO> page = orderService.getAllOrders(PageRequest.of(0, 4, Sort.by("createdTs").descending()));
+
+        // The page, its total count and the items of its orders.
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(ORDERS);
+        assertThat(page.getContent()).hasSize(4).allSatisfy(order -> assertThat(order.getItems()).isNotNull());
+    }
+
+    @Test
+    void getOrderById_ShouldLoadTheOrderInOneQuery() {
+        OrderResponseDTO order = orderService.getOrderById(orderId);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertFullyMapped(List.of(order), 1);
+    }
+
+    private static void assertFullyMapped(List<OrderResponseDTO> orders, int count) {
+        assertThat(orders).hasSize(count).allSatisfy(order -> {
+            assertThat(order.getUserName()).isEqualTo("Asha Rao");
+            assertThat(order.getRestaurantName()).isEqualTo("Spice Route");
+            assertThat(order.getItems()).hasSize(ITEMS_PER_ORDER)
+                    .allSatisfy(item -> assertThat(item.getItemName()).startsWith("Dish "));
+        });
+    }
+}
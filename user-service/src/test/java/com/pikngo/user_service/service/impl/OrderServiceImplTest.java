@@ -0,0 +1,261 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.OrderRequestDTO;
+import com.pikngo.user_service.dto.OrderResponseDTO;
+import com.pikngo.user_service.dto.OrderStatusDeltaDTO;
+import com.pikngo.user_service.entity.MenuItem;
+import com.pikngo.user_service.entity.Order;
+import com.pikngo.user_service.entity.Restaurant;
+import com.pikngo.user_service.entity.User;
+import com.pikngo.user_service.event.ItemsOrderedEvent;
+import com.pikngo.user_service.event.OrderChangedEvent;
+import com.pikngo.user_service.event.OrderStatusChangedEvent;
+import com.pikngo.user_service.exception.InvalidOrderException;
+import com.pikngo.user_service.repository.GlobalSettingRepository;
+import com.pikngo.user_service.repository.MenuItemRepository;
+import com.pikngo.user_service.repository.OrderRepository;
+import com.pikngo.user_service.repository.PromotionRepository;
+import com.pikngo.user_service.repository.RestaurantRepository;
+import com.pikngo.user_service.repository.UserRepository;
+import com.pikngo.user_service.service.LoyaltyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OrderServiceImplTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    @Mock
+    private MenuItemRepository menuItemRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private LoyaltyService loyaltyService;
+
+    @Mock
+    private GlobalSettingRepository settingRepository;
+
+    @Mock
+    private PromotionRepository promotionRepository;
+
+    private OrderServiceImpl orderService;
+
+    private final UUID userId = UUID.randomUUID();
+    private Restaurant restaurant;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        PriceEngine priceEngine = new PriceEngine(new MenuCache(100, 60_000), menuItemRepository,
+                settingRepository, promotionRepository, 60_000);
+        orderService = new OrderServiceImpl(orderRepository, userRepository, restaurantRepository, menuItemRepository,
+                eventPublisher, loyaltyService, priceEngine);
+        restaurant = restaurant();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(User.builder().id(userId).firstName("Asha").lastName("Rao").build()));
+        when(restaurantRepository.findById(restaurant.getId())).thenReturn(Optional.of(restaurant));
+        when(loyaltyService.awardPoints(any(Order.class))).thenReturn(10L);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void placeOrder_ShouldResolveAllItemsWithOneQuery() {
+        List<MenuItem> menu = new ArrayList<>();
+        OrderRequestDTO request = request();
+        for (int i = 0; i < 20; i++) {
+            MenuItem item = menuItem("Item " + i, restaurant, true);
+            menu.add(item);
+            request.getItems().add(line(item.getId()));
+        }
+        // The same item twice in a cart is two lines.
+        request.getItems().add(line(menu.get(0).getId()));
+        when(menuItemRepository.findAllById(any())).thenReturn(menu);
+        when(menuItemRepository.findByRestaurantId(restaurant.getId())).thenReturn(menu);
+
+        OrderResponseDTO response = orderService.placeOrder(userId, request);
+
+        assertThat(response.getItems()).hasSize(21);
+        assertThat(response.getItems()).allSatisfy(item -> assertThat(item.getPrice()).isEqualByComparingTo("250.00"));
+        // 21 x 250.00, 5% tax and the default 45.00 delivery fee.
+        assertThat(response.getTotalAmount()).isEqualByComparingTo("5557.50");
+        verify(menuItemRepository, times(1)).findAllById(any());
+        verify(menuItemRepository, never()).findById(any());
+        verify(eventPublisher).publishEvent(any(OrderChangedEvent.class));
+    }
+
+    @Test
+    void placeOrder_ShouldRejectATotalThatIsNotTheServerPrice() {
+        MenuItem item = menuItem("Paneer Tikka", restaurant, true);
+        OrderRequestDTO request = request();
+        request.getItems().add(line(item.getId()));
+        // What the client would compute without tax.
+        request.setTotalAmount(new BigDecimal("295.00"));
+        when(menuItemRepository.findAllById(any())).thenReturn(List.of(item));
+        when(menuItemRepository.findByRestaurantId(restaurant.getId())).thenReturn(List.of(item));
+
+        assertThatThrownBy(() -> orderService.placeOrder(userId, request))
+                .isInstanceOf(InvalidOrderException.class)
+                .hasMessageContaining("does not match the current price 307.50");
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+
+        // 250.00, 5% tax and the 45.00 delivery fee: the quoted total.
+        request.setTotalAmount(new BigDecimal("307.5"));
+        assertThat(orderService.placeOrder(userId, request).getTotalAmount()).isEqualByComparingTo("307.50");
+    }
+
+    @Test
+    void placeOrder_ShouldRejectEveryUnorderableItemAtOnce() {
+        MenuItem ok = menuItem("Paneer Tikka", restaurant, true);
+        MenuItem soldOut = menuItem("Dal Makhani", restaurant, false);
+        MenuItem elsewhere = menuItem("Chicken 65", restaurant(), true);
+        MenuItem deleted = menuItem("Masala Dosa", restaurant, true);
+        deleted.setDeleted(true);
+        UUID missing = UUID.randomUUID();
+        OrderRequestDTO request = request();
+        for (UUID id : List.of(ok.getId(), soldOut.getId(), elsewhere.getId(), deleted.getId(), missing)) {
+            request.getItems().add(line(id));
+        }
+        when(menuItemRepository.findAllById(any())).thenReturn(List.of(ok, soldOut, elsewhere, deleted));
+
+        assertThatThrownBy(() -> orderService.placeOrder(userId, request))
+                .isInstanceOfSatisfying(InvalidOrderException.class, e -> assertThat(e.getItemErrors()).containsExactly(
+                        "Menu item is not available: Dal Makhani",
+                        "Menu item is not on this restaurant's menu: " + elsewhere.getId(),
+                        "Menu item not found: " + deleted.getId(),
+                        "Menu item not found: " + missing));
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void placeOrder_ShouldCountTheOrderedItemsTowardsTrending() {
+        MenuItem item = menuItem("Paneer Tikka", restaurant, true);
+        OrderRequestDTO request = request();
+        OrderRequestDTO.OrderItemRequestDTO line = line(item.getId());
+        line.setQuantity(3);
+        request.getItems().add(line);
+        when(menuItemRepository.findAllById(any())).thenReturn(List.of(item));
+        when(menuItemRepository.findByRestaurantId(restaurant.getId())).thenReturn(List.of(item));
+
+        orderService.placeOrder(userId, request);
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).hasAtLeastOneElementOfType(OrderChangedEvent.class);
+        ItemsOrderedEvent ordered = events.getAllValues().stream().filter(ItemsOrderedEvent.class::isInstance)
+                .map(ItemsOrderedEvent.class::cast).findFirst().orElseThrow();
+        assertThat(ordered.getItems()).singleElement().satisfies(entry -> {
+            assertThat(entry.getMenuItemId()).isEqualTo(item.getId());
+            assertThat(entry.getRestaurantName()).isEqualTo("Spice Route");
+            assertThat(entry.getOrderCount()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    void placeOrder_ShouldNotCountOrdersOfAnUnlistedRestaurantTowardsTrending() {
+        restaurant.setActive(false);
+        MenuItem item = menuItem("Paneer Tikka", restaurant, true);
+        OrderRequestDTO request = request();
+        request.getItems().add(line(item.getId()));
+        when(menuItemRepository.findAllById(any())).thenReturn(List.of(item));
+        when(menuItemRepository.findByRestaurantId(restaurant.getId())).thenReturn(List.of(item));
+
+        orderService.placeOrder(userId, request);
+
+        verify(eventPublisher).publishEvent(any(OrderChangedEvent.class));
+        verify(eventPublisher, never()).publishEvent(any(ItemsOrderedEvent.class));
+    }
+
+    @Test
+    void updateOrderStatus_ShouldPublishOnlyTheStatusDelta() {
+        Order order = order(Order.OrderStatus.PENDING);
+        when(orderRepository.findById(order.getId())).thenReturn(Optional.of(order));
+        when(orderRepository.saveAndFlush(order)).thenAnswer(invocation -> {
+            // What the flush does to the managed order.
+            order.setVersion(order.getVersion() + 1);
+            return order;
+        });
+
+        OrderStatusDeltaDTO delta = orderService.updateOrderStatus(order.getId(), Order.OrderStatus.PREPARING);
+
+        assertThat(delta.getId()).isEqualTo(order.getId());
+        assertThat(delta.getStatus()).isEqualTo("PREPARING");
+        assertThat(delta.getVersion()).isEqualTo(1);
+        ArgumentCaptor<OrderStatusChangedEvent> event = ArgumentCaptor.forClass(OrderStatusChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getDelta()).isSameAs(delta);
+        assertThat(event.getValue().getRestaurantId()).isEqualTo(restaurant.getId());
+        assertThat(event.getValue().getUserId()).isEqualTo(userId);
+    }
+
+    @Test
+    void updateOrderStatus_ShouldNotWriteOrBroadcastAnUnchangedStatus() {
+        Order order = order(Order.OrderStatus.PREPARING);
+        when(orderRepository.findById(order.getId())).thenReturn(Optional.of(order));
+
+        assertThat(orderService.updateOrderStatus(order.getId(), Order.OrderStatus.PREPARING).getStatus())
+                .isEqualTo("PREPARING");
+        verify(orderRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private Order order(Order.OrderStatus status) {
+        Order order = Order.builder().user(User.builder().id(userId).build()).restaurant(restaurant)
+                .status(status).build();
+        order.setId(UUID.randomUUID());
+        return order;
+    }
+
+    private OrderRequestDTO request() {
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setRestaurantId(restaurant.getId());
+        request.setItems(new ArrayList<>());
+        return request;
+    }
+
+    private static OrderRequestDTO.OrderItemRequestDTO line(UUID menuItemId) {
+        OrderRequestDTO.OrderItemRequestDTO line = new OrderRequestDTO.OrderItemRequestDTO();
+        line.setMenuItemId(menuItemId);
+        line.setQuantity(1);
+        // Client prices are ignored.
+        line.setPrice(BigDecimal.ONE);
+        return line;
+    }
+
+    private static Restaurant restaurant() {
+        Restaurant restaurant = Restaurant.builder().restaurantName("Spice Route").build();
+        restaurant.setId(UUID.randomUUID());
+        return restaurant;
+    }
+
+    private static MenuItem menuItem(String name, Restaurant restaurant, boolean available) {
+        MenuItem item = MenuItem.builder().itemName(name).itemPrice(BigDecimal.valueOf(250))
+                .isAvailable(available).restaurant(restaurant).build();
+        item.setId(UUID.randomUUID());
+        return item;
+    }
+}
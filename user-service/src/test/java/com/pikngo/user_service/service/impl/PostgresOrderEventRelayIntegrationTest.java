@@ -0,0 +1,140 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.UserServiceApplication;
+import com.pikngo.user_service.dto.OrderResponseDTO;
+import com.pikngo.user_service.event.OrderChangedEvent;
+import com.pikngo.user_service.utils.OrderTopics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two instances of the service in one JVM, sharing one local Postgres database: an order changed
+ * on the first reaches the broker of the second. Runs when {@code PIKNGO_IT_DB_URL} points at a
+ * database ({@code PIKNGO_IT_DB_USERNAME} and {@code PIKNGO_IT_DB_PASSWORD} default to postgres).
+ */
+@EnabledIfEnvironmentVariable(named = "PIKNGO_IT_DB_URL", matches = ".+")
+public class PostgresOrderEventRelayIntegrationTest {
+
+    private ConfigurableApplicationContext first;
+    private ConfigurableApplicationContext second;
+
+    @BeforeEach
+    void startInstances() {
+        first = startInstance();
+        second = startInstance();
+    }
+
+    @AfterEach
+    void stopInstances() {
+        if (second != null) {
+            second.close();
+        }
+        if (first != null) {
+            first.close();
+        }
+    }
+
+    @Test
+    void orderChangedOnOneInstance_ShouldReachSubscribersOfTheOther() throws InterruptedException {
+        BlockingQueue<Message<?>> firstBroker = capture(first);
+        BlockingQueue<Message<?>> secondBroker = capture(second);
+        awaitListening(first);
+        awaitListening(second);
+        UUID orderId = UUID.randomUUID();
+        UUID restaurantId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+
+        first.publishEvent(new OrderChangedEvent(OrderResponseDTO.builder().id(orderId).restaurantId(restaurantId)
+                .userId(userId).status("PENDING").build()));
+
+        List<String> expected = List.of(OrderTopics.ALL, OrderTopics.restaurant(restaurantId),
+                OrderTopics.user(userId), OrderTopics.order(orderId));
+        List<Message<?>> relayed = take(secondBroker, expected.size());
+        assertThat(relayed).extracting(PostgresOrderEventRelayIntegrationTest::destination).containsExactlyElementsOf(expected);
+        assertThat(new String((byte[]) relayed.get(0).getPayload(), StandardCharsets.UTF_8))
+                .contains(orderId.toString(), "PENDING");
+
+        // Delivered once on the first instance, directly; its own notification is not delivered again.
+        assertThat(take(firstBroker, expected.size())).extracting(PostgresOrderEventRelayIntegrationTest::destination)
+                .containsExactlyElementsOf(expected);
+        assertThat(firstBroker.poll(1, TimeUnit.SECONDS)).isNull();
+        assertThat(relayStats(first)).containsEntry("relayed", 1L);
+        assertThat(relayStats(second)).containsEntry("received", 1L);
+    }
+
+    private static ConfigurableApplicationContext startInstance() {
+        return new SpringApplicationBuilder(UserServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + System.getenv("PIKNGO_IT_DB_URL"),
+                "--spring.datasource.username=" + env("PIKNGO_IT_DB_USERNAME", "postgres"),
+                "--spring.datasource.password=" + env("PIKNGO_IT_DB_PASSWORD", "postgres"),
+                "--pikngo.orders.events.relay=postgres",
+                "--firebase.config.path=");
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null ? value : fallback;
+    }
+
+    /** Messages the instance's broker is asked to deliver to subscribers. */
+    private static BlockingQueue<Message<?>> capture(ConfigurableApplicationContext context) {
+        BlockingQueue<Message<?>> messages = new LinkedBlockingQueue<>();
+        context.getBean("brokerChannel", AbstractSubscribableChannel.class).addInterceptor(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                messages.add(message);
+                return message;
+            }
+        });
+        return messages;
+    }
+
+    private static String destination(Message<?> message) {
+        return SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> relayStats(ConfigurableApplicationContext context) {
+        return (Map<String, Object>) context.getBean(OrderEventPublisher.class).stats().get("relay");
+    }
+
+    /** The listener connects in the background once the instance is ready. */
+    private static void awaitListening(ConfigurableApplicationContext context) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!Boolean.TRUE.equals(relayStats(context).get("listening"))) {
+            assertThat(System.currentTimeMillis()).as("relay listening").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private static List<Message<?>> take(BlockingQueue<Message<?>> messages, int count) throws InterruptedException {
+        List<Message<?>> taken = new ArrayList<>();
+        while (taken.size() < count) {
+            Message<?> message = messages.poll(10, TimeUnit.SECONDS);
+            assertThat(message).as("message %d of %d", taken.size() + 1, count).isNotNull();
+            taken.add(message);
+        }
+        return taken;
+    }
+}
@@ -0,0 +1,132 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.OrderRequestDTO;
+import com.pikngo.user_service.dto.PriceQuoteDTO;
+import com.pikngo.user_service.entity.GlobalSetting;
+import com.pikngo.user_service.entity.MenuItem;
+import com.pikngo.user_service.entity.Promotion;
+import com.pikngo.user_service.event.PricingChangedEvent;
+import com.pikngo.user_service.exception.InvalidOrderException;
+import com.pikngo.user_service.repository.GlobalSettingRepository;
+import com.pikngo.user_service.repository.MenuItemRepository;
+import com.pikngo.user_service.repository.PromotionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class PriceEngineTest {
+
+    @Mock
+    private MenuItemRepository menuItemRepository;
+
+    @Mock
+    private GlobalSettingRepository settingRepository;
+
+    @Mock
+    private PromotionRepository promotionRepository;
+
+    private PriceEngine priceEngine;
+
+    private final UUID restaurantId = UUID.randomUUID();
+    private final MenuItem paneer = item("Paneer Tikka", "249.99", true);
+    private final MenuItem naan = item("Butter Naan", "45.50", true);
+    private final MenuItem soldOut = item("Dal Makhani", "199.00", false);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        priceEngine = new PriceEngine(new MenuCache(100, 60_000), menuItemRepository,
+                settingRepository, promotionRepository, 60_000);
+        when(menuItemRepository.findByRestaurantId(restaurantId)).thenReturn(List.of(paneer, naan, soldOut));
+        when(settingRepository.findById(1L)).thenReturn(Optional.of(GlobalSetting.builder()
+                .id(1L).deliveryFee(40.0).taxPercentage(5.0).build()));
+        when(promotionRepository.findAll()).thenReturn(List.of(
+                promotion("FEAST15", 15.0, null, true),
+                promotion("OLD50", 50.0, LocalDate.now().minusDays(1).toString(), false),
+                promotion("EXPIRED", 50.0, LocalDate.now().minusDays(1).toString(), true)));
+    }
+
+    @Test
+    void quote_ShouldComputeTotalsInMinorUnitsRoundingHalfUp() {
+        PriceQuoteDTO quote = priceEngine.quote(restaurantId, List.of(line(paneer, 2), line(naan, 3)), null, false).toDTO();
+
+        assertThat(quote.getItems()).extracting(PriceQuoteDTO.LineDTO::getLineTotal)
+                .containsExactly(new BigDecimal("499.98"), new BigDecimal("136.50"));
+        assertThat(quote.getSubtotal()).isEqualTo(new BigDecimal("636.48"));
+        // 5% of 636.48 is 31.824
+        assertThat(quote.getTax()).isEqualTo(new BigDecimal("31.82"));
+        assertThat(quote.getDeliveryFee()).isEqualTo(new BigDecimal("40.00"));
+        assertThat(quote.getTotal()).isEqualTo(new BigDecimal("708.30"));
+
+        PriceEngine.Quote promo = priceEngine.quote(restaurantId, List.of(line(paneer, 2), line(naan, 3)), " FEAST15 ", true);
+        // 15% of 636.48 is 95.472; tax is on the discounted 541.01
+        assertThat(promo.getDiscount()).isEqualTo(9547);
+        assertThat(promo.getTax()).isEqualTo(2705);
+        assertThat(promo.getDeliveryFee()).isZero();
+        assertThat(promo.getTotal()).isEqualTo(54101 + 2705);
+    }
+
+    @Test
+    void quote_ShouldRejectUnorderableLinesAndInvalidPromoCodes() {
+        OrderRequestDTO.OrderItemRequestDTO tooMany = line(naan, PriceEngine.MAX_QUANTITY + 1);
+        OrderRequestDTO.OrderItemRequestDTO unknown = line(item("Elsewhere", "10.00", true), 1);
+
+        assertThatThrownBy(() -> priceEngine.quote(restaurantId, List.of(line(paneer, 1), line(soldOut, 1), tooMany, unknown), null, false))
+                .isInstanceOfSatisfying(InvalidOrderException.class, e -> assertThat(e.getItemErrors()).containsExactly(
+                        "Menu item is not available: Dal Makhani",
+                        "Quantity must be between 1 and 99: Butter Naan",
+                        "Menu item not found: " + unknown.getMenuItemId()));
+        for (String code : List.of("OLD50", "EXPIRED", "NOPE")) {
+            assertThatThrownBy(() -> priceEngine.quote(restaurantId, List.of(line(paneer, 1)), code, false))
+                    .isInstanceOf(InvalidOrderException.class)
+                    .hasMessage("Promo code is not valid: " + code);
+        }
+    }
+
+    @Test
+    void quote_ShouldReuseRulesAndMenuUntilTheyChange() {
+        priceEngine.quote(restaurantId, List.of(line(paneer, 1)), null, false);
+        priceEngine.quote(restaurantId, List.of(line(naan, 1)), null, false);
+        verify(menuItemRepository, times(1)).findByRestaurantId(restaurantId);
+        verify(settingRepository, times(1)).findById(1L);
+
+        when(settingRepository.findById(1L)).thenReturn(Optional.of(GlobalSetting.builder()
+                .id(1L).deliveryFee(0.0).taxPercentage(0.0).build()));
+        priceEngine.onPricingChanged(new PricingChangedEvent());
+        assertThat(priceEngine.quote(restaurantId, List.of(line(paneer, 1)), null, false).getTotal()).isEqualTo(24999);
+
+        // A menu item read at a newer revision than the cached menu forces a reload.
+        paneer.setRevision(7);
+        priceEngine.quote(restaurantId, List.of(line(paneer, 1)), null, false, 7);
+        verify(menuItemRepository, times(2)).findByRestaurantId(restaurantId);
+    }
+
+    private static OrderRequestDTO.OrderItemRequestDTO line(MenuItem item, int quantity) {
+        OrderRequestDTO.OrderItemRequestDTO line = new OrderRequestDTO.OrderItemRequestDTO();
+        line.setMenuItemId(item.getId());
+        line.setQuantity(quantity);
+        return line;
+    }
+
+    private static MenuItem item(String name, String price, boolean available) {
+        MenuItem item = MenuItem.builder().itemName(name).itemPrice(new BigDecimal(price)).isAvailable(available).build();
+        item.setId(UUID.randomUUID());
+        return item;
+    }
+
+    private static Promotion promotion(String code, double discount, String expiryDate, boolean active) {
+        return Promotion.builder().title(code).promoCode(code).discountPercentage(discount)
+                .expiryDate(expiryDate).isActive(active).build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.pikngo.user_service.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pikngo.user_service.dto.RestaurantResponseDTO;
+import com.pikngo.user_service.dto.RestaurantSnapshot;
+import com.pikngo.user_service.repository.RestaurantRepository;
+import com.pikngo.user_service.utils.RenderedJson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+class RestaurantCatalogTest {
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    private RestaurantCatalog catalog;
+    private RestaurantSnapshot open;
+    private RestaurantSnapshot closed;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        open = restaurant(UUID.randomUUID(), "Open Kitchen", true);
+        closed = restaurant(UUID.randomUUID(), "Closed Kitchen", false);
+        when(restaurantRepository.findAllSnapshots()).thenReturn(List.of(open, closed));
+        catalog = new RestaurantCatalog(restaurantRepository);
+    }
+
+    @Test
+    void reload_ShouldOnlyBumpVersionWhenContentsChange() {
+        assertThat(catalog.current()).isNull();
+
+        catalog.reload();
+        RestaurantCatalog.Snapshot first = catalog.current();
+        assertThat(first.getActiveRestaurants()).extracting("id").containsExactly(open.getId());
+        assertThat(first.getRestaurant(closed.getId()).getRestaurantName()).isEqualTo("Closed Kitchen");
+
+        catalog.reload();
+        assertThat(catalog.current()).isSameAs(first);
+        assertThat(catalog.current().getETag()).isEqualTo(first.getETag());
+    }
+
+    @Test
+    void apply_ShouldPublishNewVersionWithChange() {
+        catalog.reload();
+        RestaurantCatalog.Snapshot before = catalog.current();
+
+        catalog.apply(restaurant(closed.getId(), "Closed Kitchen", true));
+
+        RestaurantCatalog.Snapshot after = catalog.current();
+        assertThat(after.getVersion()).isEqualTo(before.getVersion() + 1);
+        assertThat(after.getETag()).isNotEqualTo(before.getETag());
+        assertThat(after.getActiveRestaurants()).extracting("id").containsExactly(open.getId(), closed.getId());
+        assertThat(before.getActiveRestaurants()).extracting("id").containsExactly(open.getId());
+    }
+
+    @Test
+    void apply_ShouldRebuildOnlyTheChangedRestaurant() {
+        catalog.reload();
+        List<List<RestaurantResponseDTO>> rendered = new ArrayList<>();
+        catalog.current().renderActive(list -> capture(rendered, list));
+
+        catalog.apply(restaurant(closed.getId(), "Closed Kitchen", true));
+        catalog.current().renderActive(list -> capture(rendered, list));
+
+        assertThat(rendered.get(1).get(0)).isSameAs(rendered.get(0).get(0));
+        assertThat(rendered.get(1).get(1).getId()).isEqualTo(closed.getId());
+    }
+
+    @Test
+    void reads_ShouldNotLetCallersChangeTheSnapshot() {
+        catalog.reload();
+        RestaurantCatalog.Snapshot snapshot = catalog.current();
+
+        List<RestaurantResponseDTO> active = snapshot.getActiveRestaurants();
+        active.get(0).setDistance(1.5);
+        active.clear();
+        snapshot.getRestaurant(open.getId()).setRestaurantName("Renamed");
+
+        assertThat(snapshot.getActiveRestaurants()).hasSize(1);
+        assertThat(snapshot.getActiveRestaurants().get(0).getDistance()).isNull();
+        assertThat(snapshot.getRestaurant(open.getId()).getRestaurantName()).isEqualTo("Open Kitchen");
+        snapshot.renderActive(list -> {
+            assertThatThrownBy(list::clear).isInstanceOf(UnsupportedOperationException.class);
+            return RenderedJson.render(new ObjectMapper(), list);
+        });
+    }
+
+    private static RenderedJson capture(List<List<RestaurantResponseDTO>> rendered, List<RestaurantResponseDTO> list) {
+        rendered.add(list);
+        return RenderedJson.render(new ObjectMapper(), list);
+    }
+
+    private static RestaurantSnapshot restaurant(UUID id, String name, boolean active) {
+        return new RestaurantSnapshot(id, name, "Somewhere", 19.07, 72.87,
+                null, "Indian", 4.5, "30 min", active, false);
+    }
+}
@@ -0,0 +1,137 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.RestaurantSnapshot;
+import com.pikngo.user_service.repository.RestaurantRepository;
+import com.pikngo.user_service.utils.GeoUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class RestaurantGeoIndexTest {
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    private RestaurantGeoIndex geoIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        geoIndex = new RestaurantGeoIndex(restaurantRepository);
+    }
+
+    @Test
+    void findWithinRadius_ShouldMatchBruteForce_WhenCatalogIsLarge() {
+        Random random = new Random(42);
+        List<RestaurantSnapshot> catalog = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            catalog.add(restaurant(8 + random.nextDouble() * 28, 68 + random.nextDouble() * 29, true));
+        }
+        when(restaurantRepository.findSearchableSnapshots()).thenReturn(catalog);
+        geoIndex.rebuild();
+
+        for (int q = 0; q < 50; q++) {
+            double lat = 8 + random.nextDouble() * 28;
+            double lon = 68 + random.nextDouble() * 29;
+            double radius = q % 10 == 0 ? 1500 : random.nextDouble() * 60;
+
+            List<UUID> expected = catalog.stream()
+                    .filter(r -> GeoUtils.haversine(lat, lon, r.getLatitude(), r.getLongitude()) < radius)
+                    .map(RestaurantSnapshot::getId)
+                    .sorted()
+                    .collect(Collectors.toList());
+            List<RestaurantGeoIndex.Match> matches = geoIndex.findWithinRadius(lat, lon, radius);
+
+            assertThat(matches.stream().map(m -> m.getRestaurant().getId()).sorted().collect(Collectors.toList()))
+                    .isEqualTo(expected);
+            for (int i = 1; i < matches.size(); i++) {
+                assertThat(matches.get(i).getDistanceKm()).isGreaterThanOrEqualTo(matches.get(i - 1).getDistanceKm());
+            }
+        }
+    }
+
+    @Test
+    void findNearest_ShouldPageThroughBruteForceOrder_InDenseAndSparseAreas() {
+        Random random = new Random(9);
+        List<RestaurantSnapshot> catalog = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            catalog.add(restaurant(8 + random.nextDouble() * 28, 68 + random.nextDouble() * 29, true));
+        }
+        for (int i = 0; i < 50; i++) {
+            // Same coordinates: ties are broken by id.
+            catalog.add(restaurant(19.0760, 72.8777, true));
+        }
+        for (int i = 0; i < 200; i++) {
+            catalog.add(restaurant(-80 + random.nextDouble() * 160, -180 + random.nextDouble() * 360, true));
+        }
+        when(restaurantRepository.findSearchableSnapshots()).thenReturn(catalog);
+        geoIndex.rebuild();
+
+        double[][] queries = {{19.0760, 72.8777}, {22.0, 80.0}, {-45.0, -120.0}, {0.0, 179.99}};
+        for (double[] query : queries) {
+            List<UUID> expected = RestaurantGeoIndex.nearestOf(catalog, query[0], query[1], 30, null, null)
+                    .stream().map(m -> m.getRestaurant().getId()).collect(Collectors.toList());
+
+            List<UUID> paged = new ArrayList<>();
+            Double afterDistance = null;
+            UUID afterId = null;
+            for (int page = 0; page < 3; page++) {
+                List<RestaurantGeoIndex.Match> matches = geoIndex.findNearest(query[0], query[1], 10, afterDistance, afterId);
+                assertThat(matches).hasSize(10);
+                matches.forEach(m -> paged.add(m.getRestaurant().getId()));
+                RestaurantGeoIndex.Match last = matches.get(matches.size() - 1);
+                afterDistance = last.getDistanceKm();
+                afterId = last.getRestaurant().getId();
+            }
+            assertThat(paged).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void apply_ShouldMoveAndRemoveRestaurants() {
+        when(restaurantRepository.findSearchableSnapshots()).thenReturn(List.of());
+        geoIndex.rebuild();
+        assertThat(geoIndex.isReady()).isTrue();
+
+        RestaurantSnapshot delhi = restaurant(28.6139, 77.2090, true);
+        geoIndex.apply(delhi);
+        assertThat(geoIndex.findWithinRadius(28.61, 77.21, 5)).hasSize(1);
+
+        RestaurantSnapshot movedToMumbai = copy(delhi, 18.9217, 72.8333, true);
+        geoIndex.apply(movedToMumbai);
+        assertThat(geoIndex.findWithinRadius(28.61, 77.21, 5)).isEmpty();
+        assertThat(geoIndex.findWithinRadius(18.92, 72.83, 5)).hasSize(1);
+
+        geoIndex.apply(copy(delhi, 18.9217, 72.8333, false));
+        assertThat(geoIndex.findWithinRadius(18.92, 72.83, 5)).isEmpty();
+        assertThat(geoIndex.size()).isZero();
+    }
+
+    @Test
+    void findWithinRadius_ShouldWrapAroundAntimeridian() {
+        when(restaurantRepository.findSearchableSnapshots()).thenReturn(List.of(restaurant(0.0, -179.99, true)));
+        geoIndex.rebuild();
+
+        assertThat(geoIndex.findWithinRadius(0.0, 179.99, 5)).hasSize(1);
+    }
+
+    private static RestaurantSnapshot restaurant(double lat, double lon, boolean active) {
+        return new RestaurantSnapshot(UUID.randomUUID(), "Test Kitchen", "Somewhere", lat, lon,
+                null, "Indian", 4.5, "30 min", active, false);
+    }
+
+    private static RestaurantSnapshot copy(RestaurantSnapshot source, double lat, double lon, boolean active) {
+        return new RestaurantSnapshot(source.getId(), source.getRestaurantName(), source.getAddress(), lat, lon,
+                source.getImageUrl(), source.getCategory(), source.getRating(), source.getDeliveryTime(), active, false);
+    }
+}
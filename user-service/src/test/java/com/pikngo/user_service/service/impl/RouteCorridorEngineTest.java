@@ -0,0 +1,129 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.RestaurantSnapshot;
+import com.pikngo.user_service.exception.InvalidRouteException;
+import com.pikngo.user_service.repository.RestaurantRepository;
+import com.pikngo.user_service.utils.GeoUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+class RouteCorridorEngineTest {
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    private RestaurantGeoIndex geoIndex;
+    private RouteCorridorEngine corridorEngine;
+    private final List<RestaurantSnapshot> catalog = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            catalog.add(new RestaurantSnapshot(UUID.randomUUID(), "Test Kitchen", "Somewhere",
+                    8 + random.nextDouble() * 28, 68 + random.nextDouble() * 29, null, "Indian", 4.5, "30 min", true, false));
+        }
+        when(restaurantRepository.findSearchableSnapshots()).thenReturn(catalog);
+        geoIndex = new RestaurantGeoIndex(restaurantRepository);
+        corridorEngine = new RouteCorridorEngine(geoIndex, restaurantRepository);
+    }
+
+    @Test
+    void findAlongSegment_ShouldMatchFullScan_WithAndWithoutIndex() {
+        double[][] routes = {
+                {28.6139, 77.2090, 19.0760, 72.8777, 15},   // Delhi -> Mumbai, diagonal
+                {12.9716, 77.5946, 13.0827, 80.2707, 40},   // Bengaluru -> Chennai
+                {22.5726, 88.3639, 22.5800, 88.4000, 5},    // short hop, bounding box path
+                {30.0, 70.0, 10.0, 95.0, 100}               // wide corridor
+        };
+        for (double[] route : routes) {
+            List<UUID> scanned = ids(corridorEngine.findAlongSegment(route[0], route[1], route[2], route[3], route[4]));
+            assertThat(scanned).isEqualTo(expected(route));
+        }
+
+        geoIndex.rebuild();
+        for (double[] route : routes) {
+            List<UUID> indexed = ids(corridorEngine.findAlongSegment(route[0], route[1], route[2], route[3], route[4]));
+            assertThat(indexed).isNotEmpty().isEqualTo(expected(route));
+        }
+    }
+
+    @Test
+    void findAlongRoute_ShouldReturnUnionOfSegmentsOnceInRouteOrder() {
+        geoIndex.rebuild();
+        List<double[]> waypoints = new ArrayList<>();
+        Random random = new Random(11);
+        double lat = 12.0;
+        double lon = 75.0;
+        for (int i = 0; i < 200; i++) {
+            waypoints.add(new double[] {lat, lon});
+            lat += random.nextDouble() * 0.1;
+            lon += (random.nextDouble() - 0.3) * 0.1;
+        }
+
+        Map<UUID, Double> expected = new HashMap<>();
+        for (int i = 1; i < waypoints.size(); i++) {
+            double[] from = waypoints.get(i - 1);
+            double[] to = waypoints.get(i);
+            corridorEngine.findAlongSegment(from[0], from[1], to[0], to[1], 10)
+                    .forEach(m -> expected.merge(m.getRestaurant().getId(), m.getDistanceKm(), Math::min));
+        }
+
+        List<RestaurantGeoIndex.Match> matches = corridorEngine.findAlongRoute(waypoints, 10);
+
+        Map<UUID, Double> actual = new HashMap<>();
+        matches.forEach(m -> actual.put(m.getRestaurant().getId(), m.getDistanceKm()));
+        assertThat(actual).hasSize(matches.size()).isNotEmpty().isEqualTo(expected);
+        // Waypoints head north, so route order roughly follows latitude.
+        assertThat(matches.get(0).getRestaurant().getLatitude())
+                .isLessThan(matches.get(matches.size() - 1).getRestaurant().getLatitude());
+    }
+
+    @Test
+    void findAlongRoute_ShouldRejectRouteCoveringTooManyCells() {
+        geoIndex.rebuild();
+        List<double[]> waypoints = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            waypoints.add(i % 2 == 0 ? new double[] {10.0, 70.0} : new double[] {30.0, 90.0});
+        }
+
+        assertThatThrownBy(() -> corridorEngine.findAlongRoute(waypoints, 100))
+                .isInstanceOf(InvalidRouteException.class);
+    }
+
+    private List<UUID> expected(double[] route) {
+        double radius = route[4];
+        double minLat = Math.min(route[0], route[2]) - radius / 111.0;
+        double maxLat = Math.max(route[0], route[2]) + radius / 111.0;
+        double lonPad = radius / (111.0 * Math.cos(Math.toRadians(route[0])));
+        double minLon = Math.min(route[1], route[3]) - lonPad;
+        double maxLon = Math.max(route[1], route[3]) + lonPad;
+        return catalog.stream()
+                .filter(r -> r.getLatitude() >= minLat && r.getLatitude() <= maxLat
+                        && r.getLongitude() >= minLon && r.getLongitude() <= maxLon)
+                .filter(r -> Math.abs(GeoUtils.crossTrackDistance(route[0], route[1], route[2], route[3],
+                        r.getLatitude(), r.getLongitude())) <= radius)
+                .map(RestaurantSnapshot::getId)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static List<UUID> ids(List<RestaurantGeoIndex.Match> matches) {
+        return matches.stream().map(m -> m.getRestaurant().getId()).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,87 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.TrendingItemDTO;
+import com.pikngo.user_service.entity.MenuItem;
+import com.pikngo.user_service.entity.Order;
+import com.pikngo.user_service.entity.OrderItem;
+import com.pikngo.user_service.entity.Restaurant;
+import com.pikngo.user_service.entity.User;
+import com.pikngo.user_service.repository.MenuItemRepository;
+import com.pikngo.user_service.repository.OrderRepository;
+import com.pikngo.user_service.repository.RestaurantRepository;
+import com.pikngo.user_service.repository.UserRepository;
+import com.pikngo.user_service.service.MenuItemService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A menu item taken off the menu stops trending at the next rebuild, even though past orders
+ * still reference it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class TrendingEngineIntegrationTest {
+
+    @Autowired
+    private MenuItemService menuItemService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void rebuild_ShouldDropARankedItemOnceItIsDeleted() {
+        User user = userRepository.save(User.builder().firstName("Asha").lastName("Rao")
+                .phoneNumber("8" + (System.nanoTime() % 1_000_000_000L)).build());
+        Restaurant restaurant = restaurantRepository.save(Restaurant.builder().restaurantName("Spice Route").build());
+        MenuItem biryani = menuItemRepository.save(MenuItem.builder().itemName("Biryani")
+                .itemPrice(BigDecimal.valueOf(250)).restaurant(restaurant).build());
+        MenuItem dosa = menuItemRepository.save(MenuItem.builder().itemName("Masala Dosa")
+                .itemPrice(BigDecimal.valueOf(120)).restaurant(restaurant).build());
+        Order order = Order.builder().user(user).restaurant(restaurant).totalAmount(BigDecimal.TEN)
+                .status(Order.OrderStatus.PENDING).build();
+        List<OrderItem> items = new ArrayList<>();
+        items.add(OrderItem.builder().order(order).menuItem(biryani).quantity(5).price(biryani.getItemPrice()).build());
+        items.add(OrderItem.builder().order(order).menuItem(dosa).quantity(3).price(dosa.getItemPrice()).build());
+        order.setItems(items);
+        orderRepository.save(order);
+        entityManager.flush();
+
+        TrendingEngine engine = new TrendingEngine(orderRepository, 100, 600_000);
+        engine.rebuild();
+        assertThat(ids(engine.top(100))).contains(biryani.getId(), dosa.getId());
+
+        menuItemService.deleteMenuItem(biryani.getId());
+        entityManager.flush();
+        engine.rebuild();
+
+        assertThat(ids(engine.top(100))).contains(dosa.getId()).doesNotContain(biryani.getId());
+    }
+
+    private static List<UUID> ids(List<TrendingItemDTO> items) {
+        return items.stream().map(TrendingItemDTO::getMenuItemId).toList();
+    }
+}
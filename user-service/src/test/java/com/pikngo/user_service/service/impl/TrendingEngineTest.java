@@ -0,0 +1,185 @@
+package com.pikngo.user_service.service.impl;
+
+import com.pikngo.user_service.dto.TrendingItemDTO;
+import com.pikngo.user_service.event.MenuChangedEvent;
+import com.pikngo.user_service.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TrendingEngineTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private TrendingEngine engine;
+    private final UUID restaurantId = UUID.randomUUID();
+    private final TrendingItemDTO biryani = item("Biryani");
+    private final TrendingItemDTO dosa = item("Masala Dosa");
+    private final TrendingItemDTO tikka = item("Paneer Tikka");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        engine = new TrendingEngine(orderRepository, 2, 600_000);
+        when(orderRepository.findTopTrendingItems(any(Pageable.class)))
+                .thenReturn(List.of(biryani.withOrderCount(10), dosa.withOrderCount(7), tikka.withOrderCount(3)));
+    }
+
+    @Test
+    void top_ShouldAskTheDatabaseUntilTheFirstRebuild() {
+        List<TrendingItemDTO> fromDatabase = List.of(biryani.withOrderCount(10));
+        when(orderRepository.findTopTrendingItems(PageRequest.of(0, 1))).thenReturn(fromDatabase);
+
+        assertThat(engine.top(1)).isSameAs(fromDatabase);
+
+        engine.rebuild();
+        assertThat(names(engine.top(1))).containsExactly("Biryani");
+        verify(orderRepository, times(1)).findTopTrendingItems(PageRequest.of(0, 1));
+    }
+
+    @Test
+    void top_ShouldServeTheRankingWithoutQueryingAfterTheRebuild() {
+        engine.rebuild();
+        clearInvocations(orderRepository);
+
+        List<TrendingItemDTO> top = engine.top(30);
+
+        // Capped at the capacity; the third item is counted but not ranked.
+        assertThat(names(top)).containsExactly("Biryani", "Masala Dosa");
+        assertThat(top).extracting(TrendingItemDTO::getOrderCount).containsExactly(10L, 7L);
+        assertThat(engine.top(1)).hasSize(1);
+        assertThat(engine.top(0)).isEmpty();
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void record_ShouldMoveItemsUpAndLetThemIntoTheRankingPastItsLowestCount() {
+        engine.rebuild();
+
+        engine.record(List.of(dosa.withOrderCount(4)));
+        assertThat(names(engine.top(2))).containsExactly("Masala Dosa", "Biryani");
+
+        // 3 + 7 only ties Biryani's 10, which keeps its place.
+        engine.record(List.of(tikka.withOrderCount(7)));
+        assertThat(names(engine.top(2))).containsExactly("Masala Dosa", "Biryani");
+
+        engine.record(List.of(tikka.withOrderCount(2)));
+        assertThat(names(engine.top(2))).containsExactly("Paneer Tikka", "Masala Dosa");
+        assertThat(engine.top(2)).extracting(TrendingItemDTO::getOrderCount).containsExactly(12L, 11L);
+    }
+
+    @Test
+    void record_ShouldRankItemsFirstOrderedSinceTheRebuild() {
+        engine.rebuild();
+        TrendingItemDTO thali = item("Thali");
+
+        engine.record(List.of(thali.withOrderCount(12)));
+
+        assertThat(names(engine.top(2))).containsExactly("Thali", "Biryani");
+    }
+
+    @Test
+    void record_ShouldCountEveryQuantityUnderConcurrentOrders() throws Exception {
+        engine.rebuild();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        engine.record(List.of(tikka.withOrderCount(1), dosa.withOrderCount(1)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(names(engine.top(2))).containsExactly("Masala Dosa", "Paneer Tikka");
+        assertThat(engine.top(2)).extracting(TrendingItemDTO::getOrderCount).containsExactly(8007L, 8003L);
+    }
+
+    @Test
+    void rebuild_ShouldReplaceTheCountsWithTheHistoryAndKeepWhatWasOrderedMeanwhile() {
+        engine.rebuild();
+        engine.record(List.of(tikka.withOrderCount(20)));
+        // The history now has the order above, and one placed on another instance.
+        when(orderRepository.findTopTrendingItems(any(Pageable.class))).thenAnswer(invocation -> {
+            engine.record(List.of(dosa.withOrderCount(5)));
+            return List.of(biryani.withOrderCount(10), dosa.withOrderCount(8), tikka.withOrderCount(23));
+        });
+
+        engine.rebuild();
+
+        assertThat(names(engine.top(2))).containsExactly("Paneer Tikka", "Masala Dosa");
+        assertThat(engine.top(2)).extracting(TrendingItemDTO::getOrderCount).containsExactly(23L, 13L);
+    }
+
+    @Test
+    void rebuild_ShouldDropItemsThatAreNoLongerOrderable() {
+        engine.rebuild();
+        when(orderRepository.findTopTrendingItems(any(Pageable.class)))
+                .thenReturn(List.of(dosa.withOrderCount(7), tikka.withOrderCount(3)));
+
+        engine.rebuild();
+
+        assertThat(names(engine.top(2))).containsExactly("Masala Dosa", "Paneer Tikka");
+    }
+
+    @Test
+    void rebuild_ShouldKeepTheRankingWhenTheHistoryCannotBeRead() {
+        engine.rebuild();
+        when(orderRepository.findTopTrendingItems(any(Pageable.class))).thenAnswer(invocation -> {
+            engine.record(List.of(dosa.withOrderCount(4)));
+            throw new IllegalStateException("connection refused");
+        });
+
+        engine.rebuild();
+
+        assertThat(names(engine.top(2))).containsExactly("Masala Dosa", "Biryani");
+        assertThat(engine.top(2)).extracting(TrendingItemDTO::getOrderCount).containsExactly(11L, 10L);
+    }
+
+    @Test
+    void refresh_ShouldRebuildAfterAMenuChangeOfARankedRestaurantOnly() {
+        engine.rebuild();
+        engine.refresh();
+        verify(orderRepository, times(1)).findTopTrendingItems(any(Pageable.class));
+
+        engine.onMenuChanged(new MenuChangedEvent(UUID.randomUUID()));
+        engine.refresh();
+        verify(orderRepository, times(1)).findTopTrendingItems(any(Pageable.class));
+
+        engine.onMenuChanged(new MenuChangedEvent(restaurantId));
+        engine.refresh();
+        verify(orderRepository, times(2)).findTopTrendingItems(any(Pageable.class));
+    }
+
+    private TrendingItemDTO item(String name) {
+        return new TrendingItemDTO(UUID.randomUUID(), name, "Mains", BigDecimal.valueOf(250), null, true,
+                restaurantId, "Spice Route", 4.5, "30 min", 0L);
+    }
+
+    private static List<String> names(List<TrendingItemDTO> items) {
+        return items.stream().map(TrendingItemDTO::getName).toList();
+    }
+}
@@ -0,0 +1,57 @@
+package com.pikngo.user_service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GeoKernelTest {
+
+    @Test
+    void batchResults_ShouldMatchScalarFormulasAndGeoUtils() {
+        Random random = new Random(3);
+        int n = 1_000;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = -80 + random.nextDouble() * 160;
+            lon[i] = -180 + random.nextDouble() * 360;
+        }
+        GeoColumns columns = GeoColumns.of(lat, lon);
+        double[] normal = GeoKernel.greatCircleNormal(28.61, 77.21, 19.08, 72.88);
+        double[] center = GeoKernel.unitVector(12.97, 77.59);
+        double[] dots = new double[n];
+        double[] chords = new double[n];
+        GeoKernel.dot(normal, columns, dots);
+        GeoKernel.chordSquared(center, columns, chords);
+
+        for (int i = 0; i < n; i++) {
+            double[] p = GeoKernel.unitVector(lat[i], lon[i]);
+            assertThat(dots[i]).isEqualTo(GeoKernel.dot(normal, p));
+            assertThat(chords[i]).isEqualTo(GeoKernel.chordSquared(center, p));
+            assertThat(GeoKernel.crossTrackKm(dots[i]))
+                    .isCloseTo(GeoUtils.crossTrackDistance(28.61, 77.21, 19.08, 72.88, lat[i], lon[i]), within(1e-6));
+            assertThat(GeoKernel.distanceKm(chords[i]))
+                    .isCloseTo(GeoUtils.haversine(12.97, 77.59, lat[i], lon[i]), within(1e-6));
+        }
+    }
+
+    @Test
+    void thresholds_ShouldNeverRejectPointsWithinRadius() {
+        double[] center = GeoKernel.unitVector(19.07, 72.87);
+        double[] normal = GeoKernel.greatCircleNormal(19.07, 72.87, 19.07, 73.87);
+        for (double radius : new double[] {0.01, 1, 15, 500, 5_000}) {
+            // A point just inside the radius, due north of the centre.
+            double[] p = GeoKernel.unitVector(19.07 + radius / GeoUtils.KM_PER_DEGREE * 0.999999, 72.87);
+            if (GeoKernel.distanceKm(GeoKernel.chordSquared(center, p)) < radius) {
+                assertThat(GeoKernel.chordSquared(center, p)).isLessThanOrEqualTo(GeoKernel.maxChordSquared(radius));
+            }
+            if (Math.abs(GeoKernel.crossTrackKm(GeoKernel.dot(normal, p))) <= radius) {
+                assertThat(Math.abs(GeoKernel.dot(normal, p))).isLessThanOrEqualTo(GeoKernel.maxAbsDot(radius));
+            }
+        }
+        assertThat(GeoKernel.greatCircleNormal(19.07, 72.87, 19.07, 72.87)).isNull();
+    }
+}
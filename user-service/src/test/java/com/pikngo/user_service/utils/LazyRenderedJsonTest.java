@@ -0,0 +1,33 @@
+package com.pikngo.user_service.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LazyRenderedJsonTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void render_ShouldRenderOnceAndKeepTheResult() {
+        LazyRenderedJson<List<String>> holder = new LazyRenderedJson<>(List.of("Biryani", "Masala Dosa"));
+        AtomicInteger renders = new AtomicInteger();
+
+        RenderedJson first = holder.render(items -> {
+            renders.incrementAndGet();
+            return RenderedJson.render(objectMapper, items);
+        });
+        RenderedJson second = holder.render(items -> {
+            renders.incrementAndGet();
+            return RenderedJson.render(objectMapper, items);
+        });
+
+        assertThat(second).isSameAs(first);
+        assertThat(renders).hasValue(1);
+        assertThat(holder.getValue()).containsExactly("Biryani", "Masala Dosa");
+    }
+}
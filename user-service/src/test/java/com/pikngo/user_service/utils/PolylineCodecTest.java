@@ -0,0 +1,30 @@
+package com.pikngo.user_service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class PolylineCodecTest {
+
+    @Test
+    void decode_ShouldReadReferencePolyline() {
+        List<double[]> points = PolylineCodec.decode("_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+
+        assertThat(points).hasSize(3);
+        assertThat(points.get(0)[0]).isCloseTo(38.5, within(1e-9));
+        assertThat(points.get(0)[1]).isCloseTo(-120.2, within(1e-9));
+        assertThat(points.get(2)[0]).isCloseTo(43.252, within(1e-9));
+        assertThat(points.get(2)[1]).isCloseTo(-126.453, within(1e-9));
+        assertThat(PolylineCodec.encode(points)).isEqualTo("_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+    }
+
+    @Test
+    void decode_ShouldRejectTruncatedInput() {
+        assertThatThrownBy(() -> PolylineCodec.decode("_p~iF~ps|U_"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
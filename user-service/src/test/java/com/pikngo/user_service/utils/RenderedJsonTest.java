@@ -0,0 +1,78 @@
+package com.pikngo.user_service.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pikngo.user_service.dto.ApiResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RenderedJsonTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void toResponse_ShouldServeGzipOnlyWhenAccepted() throws IOException {
+        ApiResponse<List<String>> body = ApiResponse.success("Menu fetched successfully", items(200));
+        RenderedJson rendered = RenderedJson.render(objectMapper, body);
+        byte[] expected = objectMapper.writeValueAsBytes(body);
+
+        ResponseEntity<byte[]> plain = rendered.toResponse(new MockHttpServletRequest());
+        assertThat(plain.getBody()).isEqualTo(expected);
+        assertThat(plain.getHeaders().getETag()).isEqualTo(rendered.getETag());
+
+        MockHttpServletRequest gzipRequest = new MockHttpServletRequest();
+        gzipRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8");
+        ResponseEntity<byte[]> gzipped = rendered.toResponse(gzipRequest);
+        assertThat(gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipped.getHeaders().getETag()).isNotEqualTo(rendered.getETag());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getBody()))) {
+            assertThat(in.readAllBytes()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void toResponse_ShouldReturnNotModifiedForEitherVariantTag() {
+        RenderedJson rendered = RenderedJson.render(objectMapper, ApiResponse.success("ok", items(200)));
+
+        MockHttpServletRequest gzipRequest = new MockHttpServletRequest();
+        gzipRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        String gzipTag = rendered.toResponse(gzipRequest).getHeaders().getETag();
+
+        MockHttpServletRequest revalidate = new MockHttpServletRequest();
+        revalidate.addHeader(HttpHeaders.IF_NONE_MATCH, "\"stale\", W/" + gzipTag);
+        ResponseEntity<byte[]> response = rendered.toResponse(revalidate);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+
+        MockHttpServletRequest changed = new MockHttpServletRequest();
+        changed.addHeader(HttpHeaders.IF_NONE_MATCH, "\"stale\"");
+        assertThat(rendered.toResponse(changed).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void acceptsGzip_ShouldHonourQualityValues() {
+        assertThat(RenderedJson.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(RenderedJson.acceptsGzip("*")).isTrue();
+        assertThat(RenderedJson.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(RenderedJson.acceptsGzip("identity")).isFalse();
+        assertThat(RenderedJson.acceptsGzip(null)).isFalse();
+    }
+
+    private static List<String> items(int count) {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add("Paneer Tikka " + i);
+        }
+        return items;
+    }
+}